@@ -0,0 +1,221 @@
+package tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.java.amateras.db.dialect.DerbyDialect;
+import net.java.amateras.db.dialect.H2Dialect;
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.MySQLDialect;
+import net.java.amateras.db.dialect.OracleDialect;
+import net.java.amateras.db.dialect.PostgreSQLDialect;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Fixtures and measurements which are shared by benchmark commands.
+ * <p>
+ * Benchmark commands are in the <code>benchmark</code> source folder which is compiled to
+ * <code>benchmark-bin</code>, so they are not packaged in <code>amateras-erd-tools.jar</code>.
+ * Run them with both in the class path, for example
+ * <pre>java -cp amateras-erd-tools.jar:benchmark-bin tools.SerializerBenchmarkCommand</pre>
+ * Commands which create and drop tables in a database refuse to run
+ * unless {@link #SCRATCH_SCHEMA} is given.
+ */
+class BenchmarkSupport {
+
+	/**
+	 * The flag which confirms that the default schema of the given JDBC URL is a scratch schema,
+	 * which may be changed by the command.
+	 */
+	static final String SCRATCH_SCHEMA = "-scratch-schema";
+
+	private BenchmarkSupport(){
+	}
+
+	/**
+	 * Returns the arguments except {@link #SCRATCH_SCHEMA}.
+	 */
+	static String[] getArguments(String[] args){
+		List<String> list = new ArrayList<String>();
+		for(String arg: args){
+			if(!arg.equals(SCRATCH_SCHEMA)){
+				list.add(arg);
+			}
+		}
+		return list.toArray(new String[list.size()]);
+	}
+
+	/**
+	 * Exits unless {@link #SCRATCH_SCHEMA} is given,
+	 * because the command creates and drops tables in the database.
+	 */
+	static void checkScratchSchema(String[] args){
+		if(!Arrays.asList(args).contains(SCRATCH_SCHEMA)){
+			System.err.println("This command creates and drops tables in the database. " +
+					"Please specify " + SCRATCH_SCHEMA + " if the database is a scratch schema!");
+			System.exit(1);
+		}
+	}
+
+	static IDialect getDialect(String productName) throws Exception {
+		if(productName.startsWith("HSQL")){
+			return new HsqldbDialect();
+		} else if(productName.equals("H2")){
+			return new H2Dialect();
+		} else if(productName.equals("Apache Derby")){
+			return new DerbyDialect();
+		} else if(productName.equals("MySQL")){
+			return new MySQLDialect();
+		} else if(productName.equals("PostgreSQL")){
+			return new PostgreSQLDialect();
+		} else if(productName.equals("Oracle")){
+			return new OracleDialect();
+		}
+		throw new Exception("Dialect is not found!");
+	}
+
+	/**
+	 * Generates the diagram which has tables referring the first table.
+	 * Each table has the given number of columns, and the first column is the primary key.
+	 */
+	static RootModel createModel(String prefix, int tables, int columns, IDialect dialect){
+		RootModel root = new RootModel();
+		TableModel first = null;
+		for(int i=0;i<tables;i++){
+			TableModel table = createTable(prefix + i, columns, dialect);
+			table.setLogicalName("Table " + i);
+			root.addChild(table);
+			if(first == null){
+				first = table;
+			} else if(columns > 1){
+				createForeignKey("FK_" + table.getTableName(),
+						table, table.getColumns()[1], first, first.getColumns()[0]);
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * Creates the table which has the given number of columns.
+	 * The first column is the primary key.
+	 */
+	static TableModel createTable(String tableName, int columns, IDialect dialect){
+		TableModel table = new TableModel();
+		table.setTableName(tableName);
+		ColumnModel[] columnModels = new ColumnModel[columns];
+		for(int i=0;i<columns;i++){
+			columnModels[i] = createColumn("COLUMN_" + i, dialect);
+			columnModels[i].setLogicalName("Column " + i);
+			columnModels[i].setPrimaryKey(i == 0);
+			columnModels[i].setNotNull(i == 0);
+		}
+		table.setColumns(columnModels);
+		return table;
+	}
+
+	/**
+	 * Creates the column of the first type of the dialect.
+	 */
+	static ColumnModel createColumn(String columnName, IDialect dialect){
+		ColumnModel column = new ColumnModel();
+		column.setColumnName(columnName);
+		column.setColumnType(dialect.getColumnTypes()[0]);
+		column.setSize("10");
+		return column;
+	}
+
+	/**
+	 * Creates the foreign key from the column of the source table to the column of the target table,
+	 * and attaches it to both tables.
+	 *
+	 * @param name the foreign key name, or <code>null</code>
+	 */
+	static ForeignKeyModel createForeignKey(String name, TableModel source, ColumnModel refer,
+			TableModel target, ColumnModel targetColumn){
+		ForeignKeyMapping mapping = new ForeignKeyMapping();
+		mapping.setRefer(refer);
+		mapping.setTarget(targetColumn);
+		ForeignKeyModel fk = new ForeignKeyModel();
+		if(name != null){
+			fk.setForeignKeyName(name);
+		}
+		fk.setMapping(new ForeignKeyMapping[]{ mapping });
+		fk.setSource(source);
+		fk.setTarget(target);
+		fk.attachSource();
+		fk.attachTarget();
+		return fk;
+	}
+
+	/**
+	 * Returns the number of tables, columns and foreign keys in the diagram.
+	 */
+	static String summarize(RootModel root){
+		int columns = 0;
+		int foreignKeys = 0;
+		for(TableModel table: root.getTables()){
+			columns += table.getColumns().length;
+			foreignKeys += table.getModelSourceConnections().size();
+		}
+		return root.getTables().size() + " tables, " + columns + " columns and " + foreignKeys + " foreign keys";
+	}
+
+	/**
+	 * Resets peaks of heap pools after the garbage collection, and returns the current usage.
+	 */
+	static long resetPeakUsage(){
+		for(int i=0;i<3;i++){
+			System.gc();
+		}
+		long used = 0;
+		for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()){
+			if(pool.getType() == MemoryType.HEAP){
+				pool.resetPeakUsage();
+				used += pool.getUsage().getUsed();
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * Returns the sum of peaks of heap pools since they are reset.
+	 */
+	static long getPeakUsage(){
+		long peak = 0;
+		for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()){
+			if(pool.getType() == MemoryType.HEAP){
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Returns the used heap after the garbage collection.
+	 */
+	static long getUsedMemory(){
+		Runtime runtime = Runtime.getRuntime();
+		for(int i=0;i<3;i++){
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	static String toMB(long bytes){
+		return String.format("%.1fMB", bytes / 1024.0 / 1024.0);
+	}
+
+	static String toMillis(long nanos){
+		return String.format("%.2fms", nanos / 1000000.0);
+	}
+
+}
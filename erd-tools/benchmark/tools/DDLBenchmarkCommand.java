@@ -0,0 +1,227 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import net.java.amateras.db.dialect.DDLStatementSplitter;
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.IStatementCallback;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.model.RootModel;
+
+/**
+ * A command line tool to measure the streaming DDL generation of a large diagram.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.DDLBenchmarkCommand [tables [-scratch-schema jdbc-url [user [password]]]]</pre>
+ * A diagram which has the given number of tables (5,000 by default) with 20 columns is generated.
+ * Each table refers the first table by a foreign key. DDL is generated as a <code>String</code>
+ * and encoded to bytes as it was saved before, and streamed to a temporary file through
+ * <code>IDialect#createDDL(..., Appendable)</code>. The time and the peak heap usage of both ways
+ * are printed, and the command fails if the file is different from the <code>String</code>.
+ * <p>
+ * Then DDL is passed to {@link DDLStatementSplitter}. If the JDBC URL is given, each statement is
+ * executed as soon as it's generated, and the command fails unless all tables are created.
+ * The JDBC driver must be in the class path, and tables are dropped at the end.
+ * Tables are created in the default schema of the connection, so <code>-scratch-schema</code>
+ * is required to confirm that it's a scratch schema.
+ * Otherwise, HSQLDB DDL is generated and statements are only counted.
+ * Comments are not generated, because their labels are resources of the plug-in.
+ */
+public class DDLBenchmarkCommand {
+
+	private static final String TABLE_PREFIX = "ERD_DDL_";
+	private static final int COLUMNS = 20;
+
+	public static void main(String[] args) throws Exception {
+		int tables = 5000;
+		String[] values = BenchmarkSupport.getArguments(args);
+		if(values.length > 4){
+			System.err.println("Please specify the number of tables and the JDBC URL!");
+			System.exit(1);
+		}
+		if(values.length > 0){
+			tables = Integer.parseInt(values[0]);
+		}
+		if(values.length > 1){
+			BenchmarkSupport.checkScratchSchema(args);
+		}
+
+		System.out.println("** Start to benchmark the DDL generation **");
+
+		Connection conn = null;
+		IDialect dialect = new HsqldbDialect();
+		if(values.length > 1){
+			conn = DriverManager.getConnection(values[1],
+					values.length > 2 ? values[2] : "", values.length > 3 ? values[3] : "");
+			dialect = BenchmarkSupport.getDialect(conn.getMetaData().getDatabaseProductName());
+		}
+
+		try {
+			RootModel root = BenchmarkSupport.createModel(TABLE_PREFIX, tables, COLUMNS, dialect);
+			File file = File.createTempFile("erd", ".sql");
+			try {
+				// warms up
+				RootModel small = BenchmarkSupport.createModel(TABLE_PREFIX, 10, COLUMNS, dialect);
+				dialect.createDDL(small, false, true, true, false).getBytes("UTF-8");
+				generate(dialect, small, file);
+
+				long base = BenchmarkSupport.resetPeakUsage();
+				long start = System.currentTimeMillis();
+				String ddl = dialect.createDDL(root, false, true, true, false);
+				byte[] bytes = ddl.getBytes("UTF-8");
+				long stringTime = System.currentTimeMillis() - start;
+				long stringPeak = BenchmarkSupport.getPeakUsage() - base;
+				ddl = null;
+
+				base = BenchmarkSupport.resetPeakUsage();
+				start = System.currentTimeMillis();
+				generate(dialect, root, file);
+				long streamTime = System.currentTimeMillis() - start;
+				long streamPeak = BenchmarkSupport.getPeakUsage() - base;
+
+				System.out.println("Generated DDL of " + tables + " tables: " + BenchmarkSupport.toMB(bytes.length));
+				System.out.println("String:    " + stringTime + "ms, peak heap " + BenchmarkSupport.toMB(stringPeak));
+				System.out.println("Streaming: " + streamTime + "ms, peak heap " + BenchmarkSupport.toMB(streamPeak));
+
+				if(!equals(bytes, file)){
+					System.err.println("The streamed DDL is different from the String!");
+					System.exit(1);
+				}
+			} finally {
+				file.delete();
+			}
+
+			StatementCounter callback = new StatementCounter(conn);
+			DDLStatementSplitter splitter = new DDLStatementSplitter(callback);
+			long start = System.currentTimeMillis();
+			try {
+				dialect.createDDL(root, false, false, true, false, splitter);
+				splitter.close();
+			} finally {
+				if(conn != null){
+					System.out.println("Executed " + callback.count + " statements in "
+							+ (System.currentTimeMillis() - start) + "ms");
+					int created = countTables(conn);
+					dropTables(conn, root);
+					if(created != tables){
+						System.err.println(created + " tables are created!");
+						System.exit(1);
+					}
+				}
+			}
+			if(conn == null){
+				System.out.println("Split " + callback.count + " statements in "
+						+ (System.currentTimeMillis() - start) + "ms");
+			}
+		} finally {
+			if(conn != null){
+				conn.close();
+			}
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * The callback which executes statements if the connection is given, and counts them.
+	 */
+	private static class StatementCounter implements IStatementCallback {
+
+		private Connection conn;
+		private int count = 0;
+
+		public StatementCounter(Connection conn){
+			this.conn = conn;
+		}
+
+		public void execute(String statement) throws SQLException {
+			if(conn != null){
+				Statement stmt = conn.createStatement();
+				try {
+					stmt.executeUpdate(statement);
+				} finally {
+					stmt.close();
+				}
+			}
+			count++;
+		}
+	}
+
+	private static void generate(IDialect dialect, RootModel root, File file) throws IOException {
+		Writer writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+			dialect.createDDL(root, false, true, true, false, writer);
+			writer.close();
+		} finally {
+			IOUtils.close(writer);
+		}
+	}
+
+	private static boolean equals(byte[] bytes, File file) throws IOException {
+		if(file.length() != bytes.length){
+			return false;
+		}
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			byte[] buf = new byte[8192];
+			int position = 0;
+			int size;
+			while((size = in.read(buf)) != -1){
+				for(int i=0;i<size;i++){
+					if(buf[i] != bytes[position++]){
+						return false;
+					}
+				}
+			}
+			return true;
+		} finally {
+			IOUtils.close(in);
+		}
+	}
+
+	private static int countTables(Connection conn) throws SQLException {
+		String prefix = conn.getMetaData().storesLowerCaseIdentifiers() ?
+				TABLE_PREFIX.toLowerCase() : TABLE_PREFIX;
+		ResultSet rs = conn.getMetaData().getTables(null, null, prefix.replace("_", "\\_") + "%", new String[]{"TABLE"});
+		try {
+			int count = 0;
+			while(rs.next()){
+				count++;
+			}
+			return count;
+		} finally {
+			rs.close();
+		}
+	}
+
+	private static void dropTables(Connection conn, RootModel root) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			for(int i=root.getTables().size()-1;i>=0;i--){
+				try {
+					stmt.executeUpdate("DROP TABLE " + root.getTables().get(i).getTableName());
+				} catch(SQLException ex){
+					// the table has not been created
+				}
+			}
+		} finally {
+			stmt.close();
+		}
+	}
+
+}
@@ -0,0 +1,250 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import net.java.amateras.db.dialect.TableDependencyCalculator;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * A command line tool to check and measure {@link TableDependencyCalculator}.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.DependencyBenchmarkCommand [tables]</pre>
+ * Three diagrams which have the given number of tables (10,000 by default) are generated
+ * with the fixed seed: a chain which each table refers the next table, a random acyclic graph,
+ * and a random graph which has known cycles and a self reference. The command fails if a table is
+ * missing or duplicated in the sorted list, if a referenced table comes after a referencing table
+ * out of cycles, or if reported cycles are different from generated cycles. The recursive sort
+ * which was used before is also run on the chain and measured on the acyclic graph.
+ */
+public class DependencyBenchmarkCommand {
+
+	public static void main(String[] args) throws Exception {
+		int tables = 10000;
+		if(args.length > 1){
+			System.err.println("Please specify the number of tables!");
+			System.exit(1);
+		} else if(args.length == 1){
+			tables = Integer.parseInt(args[0]);
+		}
+
+		System.out.println("** Start to benchmark the table dependency calculator **");
+
+		Random random = new Random(1);
+
+		// warms up
+		new TableDependencyCalculator(createDAG(tables, random));
+
+		RootModel chain = createChain(tables);
+		long time = measure(chain, new ArrayList<Set<TableModel>>());
+		System.out.println("Chain:          " + time + "ms");
+		try {
+			RecursiveCalculator.getSortedTable(chain);
+			System.out.println("  recursive sort: completed");
+		} catch(StackOverflowError ex){
+			System.out.println("  recursive sort: StackOverflowError");
+		}
+
+		RootModel dag = createDAG(tables, random);
+		time = measure(dag, new ArrayList<Set<TableModel>>());
+		System.out.println("Acyclic graph:  " + time + "ms");
+
+		long start = System.currentTimeMillis();
+		List<TableModel> sorted = RecursiveCalculator.getSortedTable(dag);
+		long recursiveTime = System.currentTimeMillis() - start;
+		checkOrder(dag, sorted, new HashMap<TableModel, Integer>());
+		System.out.println("  recursive sort: " + recursiveTime + "ms");
+
+		List<Set<TableModel>> cycles = new ArrayList<Set<TableModel>>();
+		RootModel cyclic = createCyclicGraph(tables, random, cycles);
+		time = measure(cyclic, cycles);
+		System.out.println("Cyclic graph:   " + time + "ms (" + cycles.size() + " cycles)");
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * Sorts tables and checks the result, then returns the time to sort.
+	 */
+	private static long measure(RootModel root, List<Set<TableModel>> expectedCycles){
+		long start = System.currentTimeMillis();
+		TableDependencyCalculator calculator = new TableDependencyCalculator(root);
+		long time = System.currentTimeMillis() - start;
+
+		Map<TableModel, Integer> components = new HashMap<TableModel, Integer>();
+		Set<Set<TableModel>> actualCycles = new HashSet<Set<TableModel>>();
+		for(List<TableModel> cycle: calculator.getCycles()){
+			for(TableModel table: cycle){
+				components.put(table, actualCycles.size());
+			}
+			actualCycles.add(new HashSet<TableModel>(cycle));
+		}
+		if(!actualCycles.equals(new HashSet<Set<TableModel>>(expectedCycles))){
+			System.err.println(actualCycles.size() + " cycles are reported, but "
+					+ expectedCycles.size() + " cycles are expected!");
+			System.exit(1);
+		}
+		checkOrder(root, calculator.getSortedTables(), components);
+		return time;
+	}
+
+	/**
+	 * Checks that the sorted list has all tables and referenced tables come first,
+	 * except references in the same cycle.
+	 */
+	private static void checkOrder(RootModel root, List<TableModel> sorted, Map<TableModel, Integer> components){
+		Map<TableModel, Integer> positions = new HashMap<TableModel, Integer>();
+		for(TableModel table: sorted){
+			positions.put(table, positions.size());
+		}
+		if(sorted.size() != root.getTables().size() || positions.size() != sorted.size()){
+			System.err.println("The sorted list has " + sorted.size() + " tables with "
+					+ (sorted.size() - positions.size()) + " duplicates, but the diagram has "
+					+ root.getTables().size() + " tables!");
+			System.exit(1);
+		}
+		for(TableModel table: sorted){
+			for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+				TableModel target = (TableModel) conn.getTarget();
+				Integer component = components.get(table);
+				if(component != null && component.equals(components.get(target))){
+					continue;
+				}
+				if(positions.get(target) > positions.get(table)){
+					System.err.println(target.getTableName() + " comes after " + table.getTableName() + "!");
+					System.exit(1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates the chain which each table refers the next table,
+	 * so the sort has to walk the whole chain from the first table.
+	 */
+	private static RootModel createChain(int tables){
+		RootModel root = new RootModel();
+		TableModel previous = null;
+		for(int i=0;i<tables;i++){
+			TableModel table = createTable(root, i);
+			if(previous != null){
+				connect(previous, table);
+			}
+			previous = table;
+		}
+		return root;
+	}
+
+	/**
+	 * Generates the acyclic graph which each table refers up to 3 tables before it.
+	 */
+	private static RootModel createDAG(int tables, Random random){
+		RootModel root = new RootModel();
+		List<TableModel> list = new ArrayList<TableModel>();
+		for(int i=0;i<tables;i++){
+			TableModel table = createTable(root, i);
+			if(i > 0){
+				int refers = random.nextInt(4);
+				for(int j=0;j<refers;j++){
+					connect(table, list.get(random.nextInt(i)));
+				}
+			}
+			list.add(table);
+		}
+		return root;
+	}
+
+	/**
+	 * Generates the acyclic graph and adds cycles of 2 to 5 tables and a self reference.
+	 * Each cycle consists of tables which are not in other cycles, and tables in a cycle refer
+	 * only tables before them out of the cycle, so cycles are not merged.
+	 */
+	private static RootModel createCyclicGraph(int tables, Random random, List<Set<TableModel>> cycles){
+		RootModel root = createDAG(tables, random);
+		List<TableModel> list = root.getTables();
+		int step = Math.max(10, tables / 100);
+		for(int start=step;start+5<tables;start+=step){
+			int size = 2 + random.nextInt(4);
+			Set<TableModel> cycle = new HashSet<TableModel>();
+			for(int i=0;i<size;i++){
+				TableModel table = list.get(start + i);
+				// removes references to later tables, which could join the cycle to others
+				for(AbstractDBConnectionModel conn: new ArrayList<AbstractDBConnectionModel>(table.getModelSourceConnections())){
+					if(list.indexOf(conn.getTarget()) >= start){
+						conn.detachSource();
+						conn.detachTarget();
+					}
+				}
+				connect(table, list.get(start + (i + 1) % size));
+				cycle.add(table);
+			}
+			cycles.add(cycle);
+		}
+		TableModel self = list.get(tables - 1);
+		connect(self, self);
+		Set<TableModel> cycle = new HashSet<TableModel>();
+		cycle.add(self);
+		cycles.add(cycle);
+		return root;
+	}
+
+	private static TableModel createTable(RootModel root, int i){
+		TableModel table = new TableModel();
+		table.setTableName("TABLE_" + i);
+		root.addChild(table);
+		return table;
+	}
+
+	private static void connect(TableModel source, TableModel target){
+		ForeignKeyModel fk = new ForeignKeyModel();
+		fk.setSource(source);
+		fk.setTarget(target);
+		fk.attachSource();
+		fk.attachTarget();
+	}
+
+	/**
+	 * The recursive sort which was used before.
+	 */
+	private static class RecursiveCalculator {
+
+		public static List<TableModel> getSortedTable(RootModel root){
+			List<TableModel> result = new ArrayList<TableModel>();
+			for(TableModel table: root.getTables()){
+				addTableModel(result, table, null);
+			}
+			return result;
+		}
+
+		private static void addTableModel(List<TableModel> result, TableModel table, Set<TableModel> dependentModels) {
+			if (dependentModels == null) {
+				dependentModels = new HashSet<TableModel>();
+			}
+			if (result.contains(table)) {
+				return;
+			}
+			Set<TableModel> innerDependentModels = new HashSet<TableModel>(dependentModels);
+			dependentModels.add(table);
+
+			for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+				if(conn instanceof ForeignKeyModel) {
+					TableModel target = (TableModel) conn.getTarget();
+					if (!dependentModels.contains(target)) {
+						addTableModel(result, target, innerDependentModels);
+					}
+				}
+			}
+			result.add(table);
+		}
+	}
+
+}
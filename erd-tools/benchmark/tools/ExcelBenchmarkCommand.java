@@ -0,0 +1,155 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.generate.ExcelGenerator;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * A command line tool to measure the Excel export of a large diagram.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.ExcelBenchmarkCommand [columns]</pre>
+ * A diagram which has the given number of columns (100,000 by default) in tables of 50 columns
+ * is generated, and exported by {@link ExcelGenerator} to a temporary file. Each table refers
+ * the first table by a foreign key. The time and the peak heap usage are printed, and the command
+ * fails if the sheet doesn't have all rows or references of foreign keys. Run it with a small heap
+ * such as <code>-Xmx128m</code> to check that the export doesn't hold the whole workbook in memory.
+ */
+public class ExcelBenchmarkCommand {
+
+	private static final int COLUMNS_PER_TABLE = 50;
+	/** rows of each table except columns: an empty row, 2 rows of the table, the header and an empty row */
+	private static final int TABLE_ROWS = 5;
+
+	public static void main(String[] args) throws Exception {
+		int columns = 100000;
+		if(args.length > 1){
+			System.err.println("Please specify the number of columns!");
+			System.exit(1);
+		} else if(args.length == 1){
+			columns = Integer.parseInt(args[0]);
+		}
+		int tables = (columns + COLUMNS_PER_TABLE - 1) / COLUMNS_PER_TABLE;
+
+		System.out.println("** Start to benchmark the Excel export **");
+
+		RootModel root = createModel(tables, columns);
+		File file = File.createTempFile("erd", ".xlsx");
+		try {
+			// warms up
+			generate(new ExcelGenerator(), createModel(1, COLUMNS_PER_TABLE), file);
+
+			long base = BenchmarkSupport.resetPeakUsage();
+			long start = System.currentTimeMillis();
+			generate(new ExcelGenerator(), root, file);
+			long time = System.currentTimeMillis() - start;
+			long peak = BenchmarkSupport.getPeakUsage() - base;
+
+			System.out.println("Exported " + tables + " tables and " + columns + " columns to "
+					+ BenchmarkSupport.toMB(file.length()) + " in " + time + "ms");
+			System.out.println("Peak heap usage over the model: " + BenchmarkSupport.toMB(peak));
+
+			int expectedRows = tables * TABLE_ROWS + columns;
+			int rows = count(file, "<row ");
+			int references = count(file, ">TABLE_0.COLUMN_0<");
+			System.out.println("The sheet has " + rows + " rows and " + references + " references");
+			if(rows != expectedRows){
+				System.err.println("The sheet should have " + expectedRows + " rows!");
+				System.exit(1);
+			}
+			if(references != tables - 1){
+				System.err.println("The sheet should have " + (tables - 1) + " references!");
+				System.exit(1);
+			}
+		} finally {
+			file.delete();
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	private static void generate(ExcelGenerator generator, RootModel root, File file) throws IOException {
+		OutputStream out = null;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(file));
+			generator.generate(root, out);
+			out.close();
+		} finally {
+			IOUtils.close(out);
+		}
+	}
+
+	/**
+	 * Generates the diagram which has tables referring the first table.
+	 * The second column of each table refers the first column of the first table.
+	 */
+	private static RootModel createModel(int tables, int columns){
+		IDialect dialect = new HsqldbDialect();
+		RootModel root = new RootModel();
+		root.setDialectName("HSQLDB");
+		TableModel first = null;
+		for(int i=0;i<tables;i++){
+			TableModel table = BenchmarkSupport.createTable("TABLE_" + i,
+					Math.min(COLUMNS_PER_TABLE, columns - i * COLUMNS_PER_TABLE), dialect);
+			table.setLogicalName("Table " + i);
+			ColumnModel[] columnModels = table.getColumns();
+			for(int j=0;j<columnModels.length;j++){
+				columnModels[j].setDescription("The description of the column " + j);
+			}
+			root.addChild(table);
+			if(first == null){
+				first = table;
+			} else if(columnModels.length > 1){
+				BenchmarkSupport.createForeignKey("FK_" + i, table, columnModels[1], first, first.getColumns()[0]);
+			}
+		}
+		return root;
+	}
+
+	private static int count(File file, String text) throws IOException {
+		ZipFile zip = new ZipFile(file);
+		InputStream in = null;
+		try {
+			ZipEntry entry = zip.getEntry("xl/worksheets/sheet1.xml");
+			if(entry == null){
+				return 0;
+			}
+			in = zip.getInputStream(entry);
+			int count = 0;
+			int matched = 0;
+			byte[] buf = new byte[8192];
+			int size;
+			while((size = in.read(buf)) != -1){
+				for(int i=0;i<size;i++){
+					if(buf[i] == text.charAt(matched)){
+						matched++;
+						if(matched == text.length()){
+							count++;
+							matched = 0;
+						}
+					} else {
+						matched = buf[i] == text.charAt(0) ? 1 : 0;
+					}
+				}
+			}
+			return count;
+		} finally {
+			IOUtils.close(in);
+			zip.close();
+		}
+	}
+
+}
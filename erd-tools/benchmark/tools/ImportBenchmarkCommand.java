@@ -0,0 +1,197 @@
+package tools;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.java.amateras.db.dialect.DefaultSchemaLoader;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.ParallelSchemaLoader;
+import net.java.amateras.db.util.DatabaseInfo;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.RootModel;
+
+/**
+ * A command line tool to measure the speedup of {@link ParallelSchemaLoader}.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.ImportBenchmarkCommand -scratch-schema jdbc-url [user [password]]</pre>
+ * 3,000 tables which refer the previous table by a foreign key are created in the database,
+ * and imported by <code>DefaultSchemaLoader#loadSchema()</code> over one connection and
+ * by {@link ParallelSchemaLoader} over a pool of connections. The command fails if results
+ * are different, or if the parallel loader changes the model out of the model executor,
+ * which runs tasks on a separate thread like <code>Display#syncExec()</code> in the editor.
+ * The JDBC driver must be in the class path. An in-process database is available, for example
+ * <pre>java -cp amateras-erd-tools.jar:benchmark-bin:hsqldb.jar tools.ImportBenchmarkCommand -scratch-schema jdbc:hsqldb:mem:bench SA</pre>
+ * Tables are created in the default schema of the connection, so <code>-scratch-schema</code>
+ * is required to confirm that it's a scratch schema.
+ */
+public class ImportBenchmarkCommand {
+
+	private static final String TABLE_PREFIX = "ERD_BENCH_";
+	private static final int TABLES = 3000;
+
+	public static void main(String[] args) throws Exception {
+		String[] values = BenchmarkSupport.getArguments(args);
+		if(values.length < 1 || values.length > 3){
+			System.err.println("Please specify the JDBC URL!");
+			System.exit(1);
+		}
+		BenchmarkSupport.checkScratchSchema(args);
+		String url = values[0];
+		String user = values.length > 1 ? values[1] : "";
+		String password = values.length > 2 ? values[2] : "";
+
+		System.out.println("** Start to benchmark the schema import **");
+
+		Connection conn = DriverManager.getConnection(url, user, password);
+		try {
+			IDialect dialect = BenchmarkSupport.getDialect(conn.getMetaData().getDatabaseProductName());
+			String[] tables = createTables(conn);
+			System.out.println("Created " + tables.length + " tables");
+
+			DatabaseInfo dbinfo = new DatabaseInfo(DriverManager.getDriver(url).getClass());
+			dbinfo.setURI(url);
+			dbinfo.setUser(user);
+			dbinfo.setPassword(password);
+
+			try {
+				DefaultSchemaLoader loader = (DefaultSchemaLoader) dialect.getSchemaLoader();
+
+				// warms up both loaders
+				loader.loadSchema(new RootModel(), dialect, conn, tables, null, null, false);
+				new ParallelSchemaLoader(loader, dbinfo).loadSchema(new RootModel(), dialect, tables, null, null, false);
+
+				RootModel sequential = new RootModel();
+				long start = System.currentTimeMillis();
+				loader.loadSchema(sequential, dialect, conn, tables, null, null, false);
+				long sequentialTime = System.currentTimeMillis() - start;
+				System.out.println("DefaultSchemaLoader:  " + sequentialTime + "ms");
+
+				RootModel parallel = new RootModel();
+				ModelThread modelThread = new ModelThread();
+				parallel.addPropertyChangeListener(modelThread);
+				loader.setModelExecutor(modelThread);
+				try {
+					start = System.currentTimeMillis();
+					new ParallelSchemaLoader(loader, dbinfo).loadSchema(parallel, dialect, tables, null, null, false);
+				} finally {
+					loader.setModelExecutor(null);
+					modelThread.shutdown();
+				}
+				long parallelTime = System.currentTimeMillis() - start;
+				System.out.println("ParallelSchemaLoader: " + parallelTime + "ms ("
+						+ ParallelSchemaLoader.DEFAULT_THREADS + " connections)");
+				System.out.println("Speedup: " + String.format("%.2f", (double) sequentialTime / Math.max(1, parallelTime)));
+
+				String expected = BenchmarkSupport.summarize(sequential);
+				String actual = BenchmarkSupport.summarize(parallel);
+				System.out.println("Imported " + actual);
+				if(!expected.equals(actual)){
+					System.err.println("Results are different! DefaultSchemaLoader imported " + expected);
+					System.exit(1);
+				}
+				if(modelThread.getViolations() != 0){
+					System.err.println(modelThread.getViolations() + " changes of the model are out of the model executor!");
+					System.exit(1);
+				}
+			} finally {
+				dropTables(conn, tables);
+			}
+		} finally {
+			conn.close();
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * The model executor which runs tasks synchronously on a dedicated thread,
+	 * and counts property changes of the model fired by other threads.
+	 */
+	private static class ModelThread implements Executor, PropertyChangeListener {
+
+		private Thread thread;
+		private AtomicInteger violations = new AtomicInteger();
+		private ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory(){
+			public Thread newThread(Runnable task){
+				thread = new Thread(task, "model");
+				return thread;
+			}
+		});
+
+		public void execute(Runnable task){
+			try {
+				executor.submit(task).get();
+			} catch(InterruptedException ex){
+				throw new RuntimeException(ex);
+			} catch(ExecutionException ex){
+				throw new RuntimeException(ex.getCause());
+			}
+		}
+
+		public void propertyChange(PropertyChangeEvent evt){
+			if(Thread.currentThread() != thread){
+				violations.incrementAndGet();
+			}
+			// watches connections of tables which are added to the model
+			if(evt.getSource() instanceof RootModel && evt.getNewValue() instanceof AbstractDBEntityModel){
+				((AbstractDBEntityModel) evt.getNewValue()).addPropertyChangeListener(this);
+			}
+		}
+
+		public int getViolations(){
+			return violations.get();
+		}
+
+		public void shutdown(){
+			executor.shutdownNow();
+		}
+	}
+
+	private static String[] createTables(Connection conn) throws SQLException {
+		boolean lowerCase = conn.getMetaData().storesLowerCaseIdentifiers();
+		List<String> tables = new ArrayList<String>();
+		Statement stmt = conn.createStatement();
+		try {
+			for(int i=0;i<TABLES;i++){
+				String tableName = TABLE_PREFIX + i;
+				StringBuilder sb = new StringBuilder();
+				sb.append("CREATE TABLE ").append(tableName).append(" (");
+				sb.append("ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(40), CREATED DATE");
+				if(i > 0){
+					sb.append(", PARENT_ID INTEGER REFERENCES ").append(TABLE_PREFIX + (i - 1)).append(" (ID)");
+				}
+				sb.append(")");
+				stmt.executeUpdate(sb.toString());
+				tables.add(lowerCase ? tableName.toLowerCase() : tableName);
+			}
+		} finally {
+			stmt.close();
+		}
+		return tables.toArray(new String[tables.size()]);
+	}
+
+	private static void dropTables(Connection conn, String[] tables) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			for(int i=tables.length-1;i>=0;i--){
+				stmt.executeUpdate("DROP TABLE " + tables[i]);
+			}
+		} finally {
+			stmt.close();
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package tools;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.java.amateras.db.dialect.DefaultSchemaLoader;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.ISchemaLoader;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * A command line tool to check that reverse engineering doesn't fetch rows of tables
+ * to detect auto increment columns.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.ImportProbeCheckCommand -scratch-schema jdbc-url [user [password]]</pre>
+ * A table which has 100,000 rows is created in the database, and imported by the schema loader
+ * of the dialect through a connection which records queries to the table. Then the auto increment
+ * probe of {@link DefaultSchemaLoader} is executed separately, because it's skipped
+ * if the driver provides <code>IS_AUTOINCREMENT</code>. The command fails if any query
+ * could return rows of the table. The JDBC driver must be in the class path, for example
+ * <pre>java -cp amateras-erd-tools.jar:benchmark-bin:hsqldb.jar tools.ImportProbeCheckCommand -scratch-schema jdbc:hsqldb:mem:check</pre>
+ * The table is created in the default schema of the connection, so <code>-scratch-schema</code>
+ * is required to confirm that it's a scratch schema.
+ */
+public class ImportProbeCheckCommand {
+
+	private static final String TABLE_NAME = "ERD_PROBE_CHECK";
+	private static final int ROWS = 100000;
+
+	public static void main(String[] args) throws Exception {
+		String[] values = BenchmarkSupport.getArguments(args);
+		if(values.length < 1 || values.length > 3){
+			System.err.println("Please specify the JDBC URL!");
+			System.exit(1);
+		}
+		BenchmarkSupport.checkScratchSchema(args);
+
+		System.out.println("** Start to check the auto increment probe **");
+
+		Connection conn = DriverManager.getConnection(values[0],
+				values.length > 1 ? values[1] : null, values.length > 2 ? values[2] : null);
+		List<String> queries = new ArrayList<String>();
+		try {
+			IDialect dialect = BenchmarkSupport.getDialect(conn.getMetaData().getDatabaseProductName());
+			createTable(conn);
+
+			Connection recorder = createRecorder(conn, queries);
+			ISchemaLoader loader = dialect.getSchemaLoader();
+			RootModel root = new RootModel();
+			loader.loadSchema(root, dialect, recorder, new String[]{ getTableName(conn) }, null, null, false);
+			TableModel table = (TableModel) root.getChildren().get(0);
+			System.out.println("Imported " + table.getTableName() + " with " + table.getColumns().length + " columns");
+
+			new ProbeLoader().probe(table, dialect, recorder);
+
+			int fetchable = 0;
+			for(String sql: queries){
+				int count = countRows(conn, sql);
+				System.out.println("  " + sql + " => " + count + " rows");
+				fetchable += count;
+			}
+			dropTable(conn);
+			System.out.println(queries.size() + " queries to the table, " + fetchable + " rows could be fetched");
+			if(fetchable != 0){
+				System.err.println("Rows of the table are fetched by the probe!");
+				System.exit(1);
+			}
+		} finally {
+			conn.close();
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * Executes the auto increment probe even if the driver provides <code>IS_AUTOINCREMENT</code>.
+	 */
+	private static class ProbeLoader extends DefaultSchemaLoader {
+		public void probe(TableModel table, IDialect dialect, Connection conn) throws SQLException {
+			List<ColumnModel> columns = new ArrayList<ColumnModel>();
+			for(ColumnModel column: table.getColumns()){
+				columns.add(column);
+			}
+			detectAutoIncrement(columns, dialect, conn, table.getTableName());
+		}
+	}
+
+	private static void createTable(Connection conn) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			stmt.executeUpdate("CREATE TABLE " + TABLE_NAME + " (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(40))");
+		} finally {
+			stmt.close();
+		}
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		PreparedStatement pstmt = conn.prepareStatement("INSERT INTO " + TABLE_NAME + " VALUES (?, ?)");
+		try {
+			for(int i=0;i<ROWS;i++){
+				pstmt.setInt(1, i);
+				pstmt.setString(2, "name" + i);
+				pstmt.addBatch();
+				if(i % 1000 == 999 || i == ROWS - 1){
+					pstmt.executeBatch();
+				}
+			}
+			conn.commit();
+		} finally {
+			pstmt.close();
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	private static void dropTable(Connection conn) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			stmt.executeUpdate("DROP TABLE " + TABLE_NAME);
+		} finally {
+			stmt.close();
+		}
+	}
+
+	/**
+	 * Returns the table name in the case which is stored in the catalog of the database.
+	 */
+	private static String getTableName(Connection conn) throws SQLException {
+		if(conn.getMetaData().storesLowerCaseIdentifiers()){
+			return TABLE_NAME.toLowerCase();
+		}
+		return TABLE_NAME;
+	}
+
+	/**
+	 * Counts rows which the recorded query can return.
+	 * The maximum number of rows of the statement is not applied here,
+	 * so the probe must not depend on it.
+	 */
+	private static int countRows(Connection conn, String sql) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			ResultSet rs = stmt.executeQuery(sql);
+			int count = 0;
+			while(rs.next()){
+				count++;
+			}
+			rs.close();
+			return count;
+		} finally {
+			stmt.close();
+		}
+	}
+
+	/**
+	 * Creates a connection which records queries to the table executed by statements.
+	 */
+	private static Connection createRecorder(final Connection conn, final List<String> queries){
+		return (Connection) Proxy.newProxyInstance(ImportProbeCheckCommand.class.getClassLoader(),
+				new Class[]{ Connection.class }, new InvocationHandler(){
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				final Object result = call(conn, method, args);
+				if(result instanceof Statement){
+					final String prepared = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+					Class<?> type = result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+					return Proxy.newProxyInstance(ImportProbeCheckCommand.class.getClassLoader(),
+							new Class[]{ type }, new InvocationHandler(){
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							if(method.getName().startsWith("execute")){
+								String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : prepared;
+								if(sql != null && sql.toUpperCase().contains(TABLE_NAME)){
+									queries.add(sql);
+								}
+							}
+							return call(result, method, args);
+						}
+					});
+				}
+				return result;
+			}
+		});
+	}
+
+	private static Object call(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch(InvocationTargetException ex){
+			throw ex.getCause();
+		}
+	}
+
+}
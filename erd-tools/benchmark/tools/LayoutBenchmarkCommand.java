@@ -0,0 +1,169 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import net.java.amateras.db.visual.layout.DirectedGraphLayoutEngine;
+import net.java.amateras.db.visual.layout.ForceDirectedLayout;
+import net.java.amateras.db.visual.layout.ILayoutEngine;
+import net.java.amateras.db.visual.layout.LayeredLayout;
+import net.java.amateras.db.visual.layout.LayoutGraph;
+import net.java.amateras.db.visual.layout.LayoutNode;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * A command line tool to measure layout engines without the editor.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.LayoutBenchmarkCommand [tables [engine...]]</pre>
+ * A diagram which has the given number of tables (5,000 by default) is generated with the fixed seed.
+ * Most tables refer one or two tables which are near to them or in the first 50 tables.
+ * Each engine lays out the diagram twice, and the time, the area, the average length of connections
+ * and the number of overlapping tables of the second run are printed.
+ * Engines are <code>ForceDirectedLayout</code>, <code>LayeredLayout</code>
+ * and <code>DirectedGraphLayoutEngine</code>. The first two are used by default.
+ */
+public class LayoutBenchmarkCommand {
+
+	public static void main(String[] args) throws Exception {
+		int count = 5000;
+		if(args.length > 0){
+			count = Integer.parseInt(args[0]);
+		}
+		String[] engines = new String[]{"ForceDirectedLayout", "LayeredLayout"};
+		if(args.length > 1){
+			engines = Arrays.copyOfRange(args, 1, args.length);
+		}
+
+		System.out.println("** Start to benchmark layout engines **");
+
+		Random random = new Random(1);
+		List<TableModel> tables = new ArrayList<TableModel>();
+		int[] widths = new int[count];
+		int[] heights = new int[count];
+		int connections = 0;
+		for(int i=0;i<count;i++){
+			TableModel table = new TableModel();
+			table.setTableName("TABLE_" + i);
+			table.setConstraint(new Rectangle(random.nextInt(3000), random.nextInt(3000), -1, -1));
+			widths[i] = 120 + random.nextInt(120);
+			heights[i] = 80 + random.nextInt(220);
+			tables.add(table);
+			if(i > 0 && random.nextDouble() < 0.95){
+				int refers = random.nextDouble() < 0.3 ? 2 : 1;
+				for(int j=0;j<refers;j++){
+					int target = random.nextDouble() < 0.5 ?
+							random.nextInt(Math.min(i, 50)) : i - 1 - random.nextInt(Math.min(i, 30));
+					ForeignKeyModel fk = new ForeignKeyModel();
+					fk.setSource(table);
+					fk.setTarget(tables.get(target));
+					fk.attachSource();
+					fk.attachTarget();
+					connections++;
+				}
+			}
+		}
+		System.out.println("Generated " + count + " tables and " + connections + " foreign keys");
+
+		for(String name: engines){
+			ILayoutEngine engine = getEngine(name);
+			LayoutGraph graph = null;
+			long time = 0;
+			// the first run warms up
+			for(int run=0;run<2;run++){
+				graph = new LayoutGraph();
+				for(int i=0;i<count;i++){
+					graph.addNode(tables.get(i), widths[i], heights[i]);
+				}
+				long start = System.currentTimeMillis();
+				graph.addConnections();
+				engine.layout(graph);
+				graph.moveTo(0, 0);
+				time = System.currentTimeMillis() - start;
+			}
+			System.out.println(String.format("%-26s %7dms  area=%dx%d  avgEdge=%.0f  overlaps=%d",
+					name, time, getRight(graph), getBottom(graph), getAverageLength(graph), countOverlaps(graph)));
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	private static int getRight(LayoutGraph graph){
+		int right = 0;
+		for(LayoutNode node: graph.getNodes()){
+			right = Math.max(right, node.x + node.getWidth());
+		}
+		return right;
+	}
+
+	private static int getBottom(LayoutGraph graph){
+		int bottom = 0;
+		for(LayoutNode node: graph.getNodes()){
+			bottom = Math.max(bottom, node.y + node.getHeight());
+		}
+		return bottom;
+	}
+
+	/**
+	 * Returns the average distance between centers of connected tables.
+	 */
+	private static double getAverageLength(LayoutGraph graph){
+		if(graph.getEdgeCount() == 0){
+			return 0;
+		}
+		double length = 0;
+		for(int i=0;i<graph.getEdgeCount();i++){
+			LayoutNode source = graph.getNode(graph.getSource(i));
+			LayoutNode target = graph.getNode(graph.getTarget(i));
+			double dx = (source.x + source.getWidth() / 2) - (target.x + target.getWidth() / 2);
+			double dy = (source.y + source.getHeight() / 2) - (target.y + target.getHeight() / 2);
+			length += Math.sqrt(dx * dx + dy * dy);
+		}
+		return length / graph.getEdgeCount();
+	}
+
+	/**
+	 * Counts pairs of overlapping tables by sweeping tables sorted by x.
+	 */
+	private static int countOverlaps(LayoutGraph graph){
+		List<LayoutNode> nodes = new ArrayList<LayoutNode>(graph.getNodes());
+		Collections.sort(nodes, new Comparator<LayoutNode>(){
+			public int compare(LayoutNode node1, LayoutNode node2){
+				return node1.x - node2.x;
+			}
+		});
+		int overlaps = 0;
+		for(int i=0;i<nodes.size();i++){
+			LayoutNode node1 = nodes.get(i);
+			for(int j=i+1;j<nodes.size();j++){
+				LayoutNode node2 = nodes.get(j);
+				if(node2.x >= node1.x + node1.getWidth()){
+					break;
+				}
+				if(node2.y < node1.y + node1.getHeight() && node1.y < node2.y + node2.getHeight()){
+					overlaps++;
+				}
+			}
+		}
+		return overlaps;
+	}
+
+	private static ILayoutEngine getEngine(String name) throws Exception {
+		if(name.equals("ForceDirectedLayout")){
+			return new ForceDirectedLayout();
+		} else if(name.equals("LayeredLayout")){
+			return new LayeredLayout();
+		} else if(name.equals("DirectedGraphLayoutEngine")){
+			return new DirectedGraphLayoutEngine();
+		}
+		throw new Exception("Layout engine is not found: " + name);
+	}
+
+}
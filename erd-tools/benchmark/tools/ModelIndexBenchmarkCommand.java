@@ -0,0 +1,193 @@
+package tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * A command line tool to check and measure name-keyed lookups of
+ * <code>RootModel#getTable()</code> and <code>TableModel#getColumn()</code>.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.ModelIndexBenchmarkCommand [tables...]</pre>
+ * At first, lookups are checked after adding, removing and renaming tables, replacing columns,
+ * renaming columns, copying the model and deserializing it. The command fails if any lookup
+ * returns a different model from a linear scan. Then every table and a column of each table
+ * are looked up in diagrams of the given sizes (100, 1,000 and 10,000 tables by default),
+ * by the index and by the linear scan which was used before.
+ */
+public class ModelIndexBenchmarkCommand {
+
+	private static final int COLUMNS = 20;
+	private static final IDialect DIALECT = new HsqldbDialect();
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = new int[]{100, 1000, 10000};
+		if(args.length > 0){
+			sizes = new int[args.length];
+			for(int i=0;i<args.length;i++){
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		System.out.println("** Start to benchmark model indexes **");
+
+		checkConsistency();
+		System.out.println("Lookups are consistent with linear scans");
+
+		// warms up
+		RootModel root = createModel(sizes[sizes.length - 1]);
+		lookupByIndex(root);
+		lookupByScan(root);
+
+		System.out.println(String.format("%8s %12s %12s", "tables", "index", "scan"));
+		for(int size: sizes){
+			root = createModel(size);
+			long start = System.nanoTime();
+			lookupByIndex(root);
+			long indexTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			lookupByScan(root);
+			long scanTime = System.nanoTime() - start;
+
+			System.out.println(String.format("%8d %10.1fms %10.1fms",
+					size, indexTime / 1000000.0, scanTime / 1000000.0));
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	private static void checkConsistency() throws Exception {
+		RootModel root = createModel(100);
+		check(root, "after creating");
+
+		TableModel table = root.getTable("TABLE_10");
+		root.removeChild(table);
+		check(root, "after removing a table");
+		root.addChild(table);
+		check(root, "after adding a table");
+
+		root.getTable("TABLE_20").setTableName("RENAMED_20");
+		check(root, "after renaming a table");
+		checkMissing(root, "TABLE_20", "after renaming a table");
+
+		TableModel duplicated = createTable("TABLE_30");
+		root.addChild(duplicated);
+		check(root, "after adding a table which has the same name");
+		root.removeChild(root.getTable("TABLE_30"));
+		check(root, "after removing a table which has the same name");
+
+		table = root.getTable("TABLE_40");
+		table.getColumn("COLUMN_0");
+		table.setColumns(new ColumnModel[]{ BenchmarkSupport.createColumn("NEW_COLUMN", DIALECT) });
+		check(root, "after replacing columns");
+		table.getColumns()[0].setColumnName("RENAMED_COLUMN");
+		check(root, "after renaming a column");
+
+		RootModel copy = new RootModel();
+		copy.copyFrom(root);
+		check(copy, "after copying the model");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VisualDBSerializer.serialize(root, out);
+		RootModel deserialized = VisualDBSerializer.deserialize(new ByteArrayInputStream(out.toByteArray()));
+		check(deserialized, "after deserialization");
+		deserialized.getTable("TABLE_50").setTableName("RENAMED_50");
+		check(deserialized, "after renaming a deserialized table");
+		checkMissing(deserialized, "TABLE_50", "after renaming a deserialized table");
+	}
+
+	/**
+	 * Checks that lookups of all tables and their columns return the same model as linear scans.
+	 */
+	private static void check(RootModel root, String when){
+		for(AbstractDBEntityModel child: root.getChildren()){
+			if(child instanceof TableModel){
+				TableModel table = (TableModel) child;
+				String tableName = table.getTableName();
+				if(root.getTable(tableName) != scanTable(root.getChildren(), tableName)){
+					System.err.println("getTable(\"" + tableName + "\") is inconsistent " + when + "!");
+					System.exit(1);
+				}
+				for(ColumnModel column: table.getColumns()){
+					String columnName = column.getColumnName();
+					if(table.getColumn(columnName) != scanColumn(table.getColumns(), columnName)){
+						System.err.println("getColumn(\"" + columnName + "\") of " + tableName + " is inconsistent " + when + "!");
+						System.exit(1);
+					}
+				}
+			}
+		}
+		checkMissing(root, "MISSING", when);
+	}
+
+	private static void checkMissing(RootModel root, String tableName, String when){
+		if(root.getTable(tableName) != null){
+			System.err.println("getTable(\"" + tableName + "\") returns a table " + when + "!");
+			System.exit(1);
+		}
+	}
+
+	private static int lookupByIndex(RootModel root){
+		int found = 0;
+		for(int i=0;i<root.getChildren().size();i++){
+			TableModel table = root.getTable("TABLE_" + i);
+			if(table != null && table.getColumn("COLUMN_" + (i % COLUMNS)) != null){
+				found++;
+			}
+		}
+		return found;
+	}
+
+	private static int lookupByScan(RootModel root){
+		int found = 0;
+		for(int i=0;i<root.getChildren().size();i++){
+			TableModel table = scanTable(root.getChildren(), "TABLE_" + i);
+			if(table != null && scanColumn(table.getColumns(), "COLUMN_" + (i % COLUMNS)) != null){
+				found++;
+			}
+		}
+		return found;
+	}
+
+	private static TableModel scanTable(List<AbstractDBEntityModel> children, String tableName){
+		for(AbstractDBEntityModel child: children){
+			if(child instanceof TableModel && ((TableModel) child).getTableName().equals(tableName)){
+				return (TableModel) child;
+			}
+		}
+		return null;
+	}
+
+	private static ColumnModel scanColumn(ColumnModel[] columns, String columnName){
+		for(ColumnModel column: columns){
+			if(column.getColumnName().equals(columnName)){
+				return column;
+			}
+		}
+		return null;
+	}
+
+	private static RootModel createModel(int tables){
+		RootModel root = new RootModel();
+		root.setDialectName("HSQLDB");
+		for(int i=0;i<tables;i++){
+			root.addChild(createTable("TABLE_" + i));
+		}
+		return root;
+	}
+
+	private static TableModel createTable(String tableName){
+		return BenchmarkSupport.createTable(tableName, COLUMNS, DIALECT);
+	}
+
+}
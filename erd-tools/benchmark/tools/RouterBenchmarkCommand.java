@@ -0,0 +1,241 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.java.amateras.db.visual.editpart.ManhattanConnectionRouter;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.ConnectionLayer;
+import org.eclipse.draw2d.ConnectionRouter;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.FreeformLayeredPane;
+import org.eclipse.draw2d.FreeformLayout;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * A command line tool to measure routing of foreign keys while a table is dragged.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.RouterBenchmarkCommand [tables [connections]]</pre>
+ * Draw2d figures of the given number of tables (500 by default) are placed on a grid
+ * with the fixed seed, and connected by the given number of connections (1,000 by default)
+ * to neighbouring tables. A table is dragged by 100 steps, and the number of routes, the time
+ * of each step, segments crossing other tables and overlapping middle segments are printed.
+ * The shared {@link ManhattanConnectionRouter} is compared with a Draw2d
+ * <code>ManhattanConnectionRouter</code> for each connection, which the editor used before.
+ * The command fails if the shared router leaves overlapping middle segments,
+ * or if connections of the dragged table don't follow it.
+ */
+public class RouterBenchmarkCommand {
+
+	private static final int COLUMNS = 25;
+	private static final int STEPS = 100;
+
+	private static int routes = 0;
+
+	public static void main(String[] args) throws Exception {
+		int tables = 500;
+		int connections = 1000;
+		if(args.length > 2){
+			System.err.println("Please specify the number of tables and connections!");
+			System.exit(1);
+		}
+		if(args.length > 0){
+			tables = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1){
+			connections = Integer.parseInt(args[1]);
+		}
+
+		System.out.println("** Start to benchmark the connection router **");
+
+		for(int run=0;run<2;run++){
+			boolean shared = run == 1;
+			String name = shared ? "Shared router" : "Router per connection";
+
+			Random random = new Random(1);
+			FreeformLayeredPane pane = new FreeformLayeredPane();
+			FreeformLayer contents = new FreeformLayer();
+			contents.setLayoutManager(new FreeformLayout());
+			ConnectionLayer layer = new ConnectionLayer();
+			pane.add(contents);
+			pane.add(layer);
+
+			List<IFigure> figures = new ArrayList<IFigure>();
+			for(int i=0;i<tables;i++){
+				RectangleFigure figure = new RectangleFigure();
+				contents.add(figure, new Rectangle((i % COLUMNS) * 260 + random.nextInt(40),
+						(i / COLUMNS) * 220 + random.nextInt(40), 160, 120));
+				figures.add(figure);
+			}
+
+			ManhattanConnectionRouter router = shared ? new ManhattanConnectionRouter(contents){
+				@Override
+				public void route(Connection conn){
+					routes++;
+					super.route(conn);
+				}
+			} : null;
+			List<PolylineConnection> conns = new ArrayList<PolylineConnection>();
+			for(int i=0;i<connections;i++){
+				int source = random.nextInt(tables);
+				int target = source + (random.nextBoolean() ? 1 : COLUMNS)
+						* (random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(2));
+				target = Math.max(0, Math.min(tables - 1, target));
+				if(target == source){
+					target = (source + 1) % tables;
+				}
+				PolylineConnection conn = new PolylineConnection();
+				if(shared){
+					conn.setConnectionRouter(router);
+					conn.setRoutingConstraint(new Integer(0));
+				} else {
+					conn.setConnectionRouter(createDraw2dRouter());
+				}
+				conn.setSourceAnchor(new ChopboxAnchor(figures.get(source)));
+				conn.setTargetAnchor(new ChopboxAnchor(figures.get(target)));
+				layer.add(conn);
+				conns.add(conn);
+			}
+
+			routes = 0;
+			long start = System.nanoTime();
+			pane.validate();
+			long time = System.nanoTime() - start;
+			System.out.println(name + ": " + routes + " routes, " + BenchmarkSupport.toMillis(time) + " to route all");
+
+			// drags the table in the middle of the diagram
+			IFigure dragged = figures.get(tables / 2 + COLUMNS / 2);
+			Rectangle bounds = dragged.getBounds().getCopy();
+			routes = 0;
+			start = System.nanoTime();
+			for(int step=0;step<STEPS;step++){
+				contents.setConstraint(dragged, new Rectangle(bounds.x + step * 3, bounds.y + step * 2, 160, 120));
+				dragged.revalidate();
+				pane.validate();
+				// anchors are notified by the update manager of the canvas in the editor
+				for(PolylineConnection conn: conns){
+					if(isAttached(conn, dragged)){
+						conn.revalidate();
+					}
+				}
+				pane.validate();
+			}
+			time = System.nanoTime() - start;
+
+			int crossings = countCrossings(conns);
+			int overlaps = countOverlaps(conns);
+			System.out.println("  drag: " + (routes / STEPS) + " routes and " + BenchmarkSupport.toMillis(time / STEPS) + " per step");
+			System.out.println("  segments crossing tables: " + crossings + ", overlapping middle segments: " + overlaps);
+
+			if(shared && overlaps != 0){
+				System.err.println("The shared router leaves overlapping segments!");
+				System.exit(1);
+			}
+			Rectangle area = dragged.getBounds().getExpanded(1, 1);
+			for(PolylineConnection conn: conns){
+				PointList points = conn.getPoints();
+				if((conn.getSourceAnchor().getOwner() == dragged && !area.contains(points.getFirstPoint()))
+						|| (conn.getTargetAnchor().getOwner() == dragged && !area.contains(points.getLastPoint()))){
+					System.err.println("The connection doesn't follow the dragged table!");
+					System.exit(1);
+				}
+			}
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * Returns the Draw2d router which counts routes.
+	 * It's final, so calls are delegated.
+	 */
+	private static ConnectionRouter createDraw2dRouter(){
+		final ConnectionRouter router = new org.eclipse.draw2d.ManhattanConnectionRouter();
+		return new ConnectionRouter(){
+			public Object getConstraint(Connection conn){
+				return router.getConstraint(conn);
+			}
+			public void invalidate(Connection conn){
+				router.invalidate(conn);
+			}
+			public void remove(Connection conn){
+				router.remove(conn);
+			}
+			public void route(Connection conn){
+				routes++;
+				router.route(conn);
+			}
+			public void setConstraint(Connection conn, Object constraint){
+				router.setConstraint(conn, constraint);
+			}
+		};
+	}
+
+	private static boolean isAttached(Connection conn, IFigure figure){
+		return conn.getSourceAnchor().getOwner() == figure || conn.getTargetAnchor().getOwner() == figure;
+	}
+
+	/**
+	 * Counts segments which cross tables other than the source and the target.
+	 */
+	private static int countCrossings(List<PolylineConnection> conns){
+		int crossings = 0;
+		for(PolylineConnection conn: conns){
+			IFigure source = conn.getSourceAnchor().getOwner();
+			IFigure target = conn.getTargetAnchor().getOwner();
+			PointList points = conn.getPoints();
+			for(int i=1;i<points.size();i++){
+				Rectangle segment = new Rectangle(points.getPoint(i - 1), points.getPoint(i));
+				segment.width = Math.max(segment.width, 1);
+				segment.height = Math.max(segment.height, 1);
+				for(Object child: source.getParent().getChildren()){
+					IFigure figure = (IFigure) child;
+					if(figure != source && figure != target && figure.getBounds().intersects(segment)){
+						crossings++;
+					}
+				}
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Counts pairs of middle segments of different connections which overlap on the same row or column.
+	 */
+	private static int countOverlaps(List<PolylineConnection> conns){
+		List<int[]> segments = new ArrayList<int[]>();
+		for(int c=0;c<conns.size();c++){
+			PointList points = conns.get(c).getPoints();
+			for(int i=2;i<points.size()-1;i++){
+				Point p1 = points.getPoint(i - 1);
+				Point p2 = points.getPoint(i);
+				if(p1.y == p2.y){
+					segments.add(new int[]{1, p1.y, Math.min(p1.x, p2.x), Math.max(p1.x, p2.x), c});
+				} else {
+					segments.add(new int[]{0, p1.x, Math.min(p1.y, p2.y), Math.max(p1.y, p2.y), c});
+				}
+			}
+		}
+		int overlaps = 0;
+		for(int i=0;i<segments.size();i++){
+			int[] s1 = segments.get(i);
+			for(int j=i+1;j<segments.size();j++){
+				int[] s2 = segments.get(j);
+				if(s1[0] == s2[0] && s1[1] == s2[1] && s1[4] != s2[4] && s1[2] < s2[3] && s2[2] < s1[3]){
+					overlaps++;
+				}
+			}
+		}
+		return overlaps;
+	}
+
+}
@@ -0,0 +1,122 @@
+package tools;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.xstream.XStreamSerializer;
+
+/**
+ * A command line tool to measure the memory which is used to save a large diagram.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.SaveBenchmarkCommand [tables]</pre>
+ * A diagram which has the given number of tables (5,000 by default) with 20 columns is generated,
+ * and the heap which is retained by the serialized XML is measured for the streaming save
+ * by <code>VisualDBSerializer#serialize(RootModel)</code> and for the <code>String</code>
+ * and <code>byte[]</code> copies which were used before. The command fails if the streaming save
+ * retains memory in proportion to the XML, or if the temporary file is left after the stream
+ * is closed, including the case that the stream is closed by a failed <code>IFile#setContents()</code>.
+ */
+public class SaveBenchmarkCommand {
+
+	private static final int COLUMNS = 20;
+
+	public static void main(String[] args) throws Exception {
+		int tables = 5000;
+		if(args.length > 1){
+			System.err.println("Please specify the number of tables!");
+			System.exit(1);
+		} else if(args.length == 1){
+			tables = Integer.parseInt(args[0]);
+		}
+
+		System.out.println("** Start to benchmark saving diagrams **");
+
+		RootModel root = createModel(tables);
+		File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+		int tmpFiles = countTemporaryFiles(tmpDir);
+
+		// initializes XStream before measuring
+		IOUtils.close(VisualDBSerializer.serialize(createModel(1)));
+
+		// the streaming save
+		long base = BenchmarkSupport.getUsedMemory();
+		InputStream in = VisualDBSerializer.serialize(root);
+		long streamRetained = BenchmarkSupport.getUsedMemory() - base;
+		long length = 0;
+		try {
+			byte[] buf = new byte[8192];
+			int size;
+			while((size = in.read(buf)) != -1){
+				length += size;
+			}
+		} finally {
+			IOUtils.close(in);
+		}
+
+		// the String and byte[] copies
+		base = BenchmarkSupport.getUsedMemory();
+		String xml = XStreamSerializer.serialize(root, VisualDBSerializer.class.getClassLoader());
+		byte[] bytes = xml.getBytes("UTF-8");
+		long copyRetained = BenchmarkSupport.getUsedMemory() - base;
+		if(bytes.length != length){
+			System.err.println("The streamed XML is " + length + " bytes, but the String is " + bytes.length + " bytes!");
+			System.exit(1);
+		}
+		xml = null;
+		bytes = null;
+
+		System.out.println("Saved " + tables + " tables as " + BenchmarkSupport.toMB(length) + " XML");
+		System.out.println("Retained by String and byte[]: " + BenchmarkSupport.toMB(copyRetained));
+		System.out.println("Retained by the streaming save: " + BenchmarkSupport.toMB(streamRetained));
+
+		// the stream is closed in finally even if setContents() fails
+		in = VisualDBSerializer.serialize(root);
+		try {
+			in.read();
+			throw new IOException("setContents() failed");
+		} catch(IOException ex){
+			// expected
+		} finally {
+			IOUtils.close(in);
+		}
+
+		int leftFiles = countTemporaryFiles(tmpDir) - tmpFiles;
+		if(leftFiles != 0){
+			System.err.println(leftFiles + " temporary files are left!");
+			System.exit(1);
+		}
+		if(streamRetained >= length){
+			System.err.println("The streaming save retains the whole XML!");
+			System.exit(1);
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * Generates the diagram which has tables referring the first table.
+	 * Tables don't refer the previous table, because XStream would nest the chain of references.
+	 */
+	private static RootModel createModel(int tables){
+		RootModel root = BenchmarkSupport.createModel("TABLE_", tables, COLUMNS, new HsqldbDialect());
+		root.setDialectName("HSQLDB");
+		return root;
+	}
+
+	private static int countTemporaryFiles(File dir){
+		String[] names = dir.list(new FilenameFilter(){
+			public boolean accept(File dir, String name){
+				return name.startsWith("xstream") && name.endsWith(".xml");
+			}
+		});
+		return names == null ? 0 : names.length;
+	}
+
+}
@@ -0,0 +1,141 @@
+package tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.xstream.XStreamSerializer;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * A command line tool to measure round-trips of a diagram through {@link XStreamSerializer}.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.SerializerBenchmarkCommand [tables [rounds]]</pre>
+ * A diagram which has the given number of tables (500 by default) is serialized and deserialized.
+ * The first round-trip by the shared <code>XStream</code> (cold) includes its configuration,
+ * and following round-trips (warm) reuse it. After both ways are warmed up, warm round-trips are
+ * compared alternately with round-trips which create a new <code>XStream</code> for each call,
+ * as the serializer did before instances were shared. The same comparison is repeated for
+ * a diagram of one table, where the configuration of <code>XStream</code> is the main cost.
+ * The command fails if the deserialized diagram is different from the original one.
+ */
+public class SerializerBenchmarkCommand {
+
+	private static final int COLUMNS = 10;
+
+	public static void main(String[] args) throws Exception {
+		int tables = 500;
+		int rounds = 20;
+		if(args.length > 2){
+			System.err.println("Please specify the number of tables and rounds!");
+			System.exit(1);
+		}
+		if(args.length > 0){
+			tables = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1){
+			rounds = Integer.parseInt(args[1]);
+		}
+
+		System.out.println("** Start to benchmark the serializer **");
+
+		RootModel root = createModel(tables);
+		String expected = BenchmarkSupport.summarize(root);
+
+		long start = System.nanoTime();
+		check(expected, roundTrip(root));
+		long cold = System.nanoTime() - start;
+		System.out.println("Round-trips of " + expected);
+		System.out.println("Cold (shared XStream): " + BenchmarkSupport.toMillis(cold));
+
+		// warms up both ways, then measures them alternately
+		for(int i=0;i<rounds;i++){
+			check(expected, roundTrip(root));
+			check(expected, roundTripByNewInstance(root));
+		}
+		long[] times = measure(root, expected, rounds);
+		System.out.println("Warm (shared XStream): " + BenchmarkSupport.toMillis(times[0]) + " on average of " + rounds);
+		System.out.println("New XStream for each call: " + BenchmarkSupport.toMillis(times[1]) + " on average of " + rounds);
+
+		// a small diagram like most .cld files, where the configuration of XStream dominates
+		RootModel small = createModel(1);
+		times = measure(small, BenchmarkSupport.summarize(small), rounds * 50);
+		System.out.println("Round-trips of " + BenchmarkSupport.summarize(small));
+		System.out.println("Warm (shared XStream): " + BenchmarkSupport.toMillis(times[0]) + " on average of " + (rounds * 50));
+		System.out.println("New XStream for each call: " + BenchmarkSupport.toMillis(times[1]) + " on average of " + (rounds * 50));
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * Returns average times of round-trips by the shared <code>XStream</code>
+	 * and by new <code>XStream</code> instances.
+	 */
+	private static long[] measure(RootModel root, String expected, int rounds) throws Exception {
+		long[] times = new long[2];
+		for(int i=0;i<rounds;i++){
+			long start = System.nanoTime();
+			check(expected, roundTrip(root));
+			times[0] += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			check(expected, roundTripByNewInstance(root));
+			times[1] += System.nanoTime() - start;
+		}
+		times[0] /= rounds;
+		times[1] /= rounds;
+		return times;
+	}
+
+	private static RootModel roundTrip(RootModel root) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VisualDBSerializer.serialize(root, out);
+		return VisualDBSerializer.deserialize(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	/**
+	 * Serializes and deserializes the diagram by <code>XStream</code> instances
+	 * which are created and configured for each call.
+	 */
+	private static RootModel roundTripByNewInstance(RootModel root) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(out, "UTF-8");
+		createXStream().toXML(root, writer);
+		writer.flush();
+		return (RootModel) createXStream().fromXML(
+				new InputStreamReader(new ByteArrayInputStream(out.toByteArray()), "UTF-8"));
+	}
+
+	private static XStream createXStream(){
+		XStream xstream = new XStream();
+		XStream.setupDefaultSecurity(xstream);
+		xstream.allowTypesByWildcard(new String[] {"**"});
+		xstream.setClassLoader(VisualDBSerializer.class.getClassLoader());
+		return xstream;
+	}
+
+	/**
+	 * Generates the diagram which has tables referring the first table.
+	 */
+	private static RootModel createModel(int tables){
+		RootModel root = BenchmarkSupport.createModel("TABLE_", tables, COLUMNS, new HsqldbDialect());
+		root.setDialectName("HSQLDB");
+		return root;
+	}
+
+	private static void check(String expected, RootModel result){
+		String actual = BenchmarkSupport.summarize(result);
+		if(!expected.equals(actual)){
+			System.err.println("The deserialized diagram has " + actual + ", but the original one has " + expected + "!");
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package tools;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import net.java.amateras.db.util.IOUtils;
+
+/**
+ * A command line tool to check and measure <code>IOUtils#copyStream()</code>
+ * and <code>IOUtils#loadStream()</code>.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.StreamBenchmarkCommand [megabytes]</pre>
+ * At first, both methods read slow streams whose <code>available()</code> returns 0
+ * and whose <code>read()</code> returns 1 to 7 bytes at a time, like <code>IFile#getContents()</code>
+ * and resources in jar files. The command fails if any byte or character is lost,
+ * or if streams are not closed. Then a temporary file of the given size (64MB by default)
+ * is copied through <code>FileChannel</code> and through the buffer, and the throughput is printed.
+ */
+public class StreamBenchmarkCommand {
+
+	public static void main(String[] args) throws Exception {
+		int megabytes = 64;
+		if(args.length > 1){
+			System.err.println("Please specify the size of the file in megabytes!");
+			System.exit(1);
+		} else if(args.length == 1){
+			megabytes = Integer.parseInt(args[0]);
+		}
+
+		System.out.println("** Start to benchmark IOUtils **");
+
+		Random random = new Random(1);
+
+		// copyStream() with a slow stream
+		byte[] data = new byte[1024 * 1024 + 3];
+		random.nextBytes(data);
+		ChunkedInputStream in = new ChunkedInputStream(new ByteArrayInputStream(data), random);
+		ClosingOutputStream out = new ClosingOutputStream();
+		IOUtils.copyStream(in, out);
+		check("copyStream()", Arrays.equals(data, out.toByteArray()),
+				"copied " + out.size() + " bytes of " + data.length + " bytes");
+		check("copyStream()", in.closed && out.closed, "didn't close streams");
+
+		// loadStream() with a slow stream which splits multibyte characters
+		StringBuilder sb = new StringBuilder();
+		for(int i=0;i<100000;i++){
+			sb.append(i % 10 == 0 ? "\u30c6\u30fc\u30d6\u30eb" : "TABLE_").append(i).append('\n');
+		}
+		String text = sb.toString();
+		in = new ChunkedInputStream(new ByteArrayInputStream(text.getBytes("UTF-8")), random);
+		String loaded = IOUtils.loadStream(in, "UTF-8");
+		check("loadStream()", text.equals(loaded),
+				"loaded " + loaded.length() + " characters of " + text.length() + " characters");
+		check("loadStream()", in.closed, "didn't close the stream");
+
+		System.out.println("Slow streams are read to the end");
+
+		// throughput of file copies
+		File src = File.createTempFile("erd", ".bin");
+		File dest = File.createTempFile("erd", ".bin");
+		try {
+			createFile(src, megabytes, random);
+			for(int run=0;run<2;run++){
+				long start = System.currentTimeMillis();
+				IOUtils.copyStream(new FileInputStream(src), new FileOutputStream(dest));
+				long channelTime = System.currentTimeMillis() - start;
+				checkFile(src, dest);
+
+				start = System.currentTimeMillis();
+				IOUtils.copyStream(new BufferedInputStream(new FileInputStream(src)), new FileOutputStream(dest));
+				long bufferTime = System.currentTimeMillis() - start;
+				checkFile(src, dest);
+
+				// the first run warms up
+				if(run == 1){
+					System.out.println("Copied " + megabytes + "MB");
+					System.out.println("FileChannel: " + channelTime + "ms (" + toThroughput(megabytes, channelTime) + ")");
+					System.out.println("Buffer:      " + bufferTime + "ms (" + toThroughput(megabytes, bufferTime) + ")");
+				}
+			}
+		} finally {
+			src.delete();
+			dest.delete();
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+	/**
+	 * The <code>InputStream</code> which returns 1 to 7 bytes at a time
+	 * and always returns 0 from <code>available()</code>.
+	 */
+	private static class ChunkedInputStream extends FilterInputStream {
+
+		private Random random;
+		private boolean closed = false;
+
+		public ChunkedInputStream(InputStream in, Random random){
+			super(in);
+			this.random = random;
+		}
+
+		@Override
+		public int available(){
+			return 0;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 1 + random.nextInt(7)));
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
+	private static class ClosingOutputStream extends ByteArrayOutputStream {
+
+		private boolean closed = false;
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
+	private static void check(String method, boolean result, String message){
+		if(!result){
+			System.err.println(method + " " + message + "!");
+			System.exit(1);
+		}
+	}
+
+	private static void createFile(File file, int megabytes, Random random) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			byte[] buf = new byte[1024 * 1024];
+			for(int i=0;i<megabytes;i++){
+				random.nextBytes(buf);
+				out.write(buf);
+			}
+		} finally {
+			IOUtils.close(out);
+		}
+	}
+
+	private static void checkFile(File src, File dest) throws IOException {
+		InputStream in1 = null;
+		InputStream in2 = null;
+		try {
+			in1 = new BufferedInputStream(new FileInputStream(src));
+			in2 = new BufferedInputStream(new FileInputStream(dest));
+			long position = 0;
+			int b;
+			while((b = in1.read()) != -1){
+				if(b != in2.read()){
+					check("copyStream()", false, "copied a different byte at " + position);
+				}
+				position++;
+			}
+			check("copyStream()", in2.read() == -1, "copied extra bytes");
+		} finally {
+			IOUtils.close(in1);
+			IOUtils.close(in2);
+		}
+	}
+
+	private static String toThroughput(int megabytes, long millis){
+		return String.format("%.0fMB/s", megabytes * 1000.0 / Math.max(1, millis));
+	}
+
+}
@@ -0,0 +1,255 @@
+package tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.Messages;
+import net.java.amateras.db.dialect.IColumnType;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.MySQLDialect;
+import net.java.amateras.db.validator.DiagramErrors;
+import net.java.amateras.db.validator.DiagramValidator;
+import net.java.amateras.db.validator.ValidationProfile;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * A command line tool to compare {@link DiagramValidator} with the validator which was used before.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.ValidatorBenchmarkCommand [tables [rounds]]</pre>
+ * A MySQL diagram which has the given number of tables (5,000 by default) with 12 columns is generated.
+ * It has missing and duplicated names, tables without primary keys and foreign keys whose column sizes
+ * are different. The previous validator looked up a level in the preference store for each error
+ * and a message in the resource bundle for each error. It's reproduced with a map instead of
+ * the preference store, so its cost is underestimated. The command fails if errors of both validators
+ * or error messages of tables are different.
+ */
+public class ValidatorBenchmarkCommand {
+
+	private static final int COLUMNS = 12;
+
+	public static void main(String[] args) throws Exception {
+		int tables = 5000;
+		int rounds = 20;
+		if(args.length > 2){
+			System.err.println("Please specify the number of tables and rounds!");
+			System.exit(1);
+		}
+		if(args.length > 0){
+			tables = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1){
+			rounds = Integer.parseInt(args[1]);
+		}
+
+		System.out.println("** Start to benchmark the validator **");
+
+		IDialect dialect = new MySQLDialect();
+		RootModel root = createModel(tables, dialect);
+		Map<String, String> store = new HashMap<String, String>();
+		for(int i=0;i<ValidationProfile.LEVEL_KEYS.length;i++){
+			store.put(ValidationProfile.LEVEL_KEYS[i], i % 3 == 0 ? DBPlugin.LEVEL_WARNING : DBPlugin.LEVEL_ERROR);
+		}
+
+		List<String> expected = toList(new OldValidator(root, store, dialect).doValidate());
+		Map<TableModel, String> expectedMessages = getErrorMessages(root);
+		List<String> actual = toList(new DiagramValidator(root).doValidate(new ValidationProfile(store), dialect));
+		if(!expected.equals(actual)){
+			System.err.println("The validator reports " + actual.size() + " errors, but the previous one reports "
+					+ expected.size() + " errors!");
+			System.exit(1);
+		}
+		if(!expectedMessages.equals(getErrorMessages(root))){
+			System.err.println("Error messages of tables are different!");
+			System.exit(1);
+		}
+		System.out.println("Both validators report " + actual.size() + " errors in " + tables + " tables");
+
+		// warms up
+		for(int i=0;i<rounds;i++){
+			new OldValidator(root, store, dialect).doValidate();
+			new DiagramValidator(root).doValidate(new ValidationProfile(store), dialect);
+		}
+		long oldTime = 0;
+		long newTime = 0;
+		for(int i=0;i<rounds;i++){
+			long start = System.nanoTime();
+			new OldValidator(root, store, dialect).doValidate();
+			oldTime += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			new DiagramValidator(root).doValidate(new ValidationProfile(store), dialect);
+			newTime += System.nanoTime() - start;
+		}
+		System.out.println(String.format("Previous validator: %.1fms", oldTime / rounds / 1000000.0));
+		System.out.println(String.format("DiagramValidator:   %.1fms", newTime / rounds / 1000000.0));
+
+		System.out.println("** Completed! **");
+	}
+
+	private static List<String> toList(DiagramErrors errors){
+		List<String> list = new ArrayList<String>();
+		for(DiagramErrors.DiagramError error: errors.getErrors()){
+			list.add(error.getLevel() + error.getMessage());
+		}
+		return list;
+	}
+
+	private static Map<TableModel, String> getErrorMessages(RootModel root){
+		Map<TableModel, String> messages = new HashMap<TableModel, String>();
+		for(TableModel table: root.getTables()){
+			messages.put(table, table.getError());
+		}
+		return messages;
+	}
+
+	/**
+	 * Generates the diagram which each table refers the previous table.
+	 */
+	private static RootModel createModel(int tables, IDialect dialect){
+		RootModel root = new RootModel();
+		root.setDialectName("MySQL");
+		TableModel previous = null;
+		for(int i=0;i<tables;i++){
+			TableModel table = new TableModel();
+			table.setTableName(i % 13 == 0 ? "" : "TABLE_" + (i % 997));
+			table.setLogicalName(i % 7 == 0 ? "Table" : "Table " + i);
+			ColumnModel[] columns = new ColumnModel[COLUMNS];
+			for(int j=0;j<COLUMNS;j++){
+				columns[j] = BenchmarkSupport.createColumn(
+						j == COLUMNS - 1 && i % 3 == 0 ? "COLUMN_0" : "COLUMN_" + j, dialect);
+				columns[j].setLogicalName(j == 9 ? "" : "Column " + j);
+				columns[j].setSize(i % 4 == 0 ? "20" : "10");
+				columns[j].setPrimaryKey(j == 0 && i % 5 != 0);
+			}
+			table.setColumns(columns);
+			root.addChild(table);
+			if(previous != null){
+				BenchmarkSupport.createForeignKey(null, table, columns[1], previous, previous.getColumns()[0]);
+			}
+			previous = table;
+		}
+		return root;
+	}
+
+	/**
+	 * The validator which was used before.
+	 * The preference store is replaced with the map.
+	 */
+	private static class OldValidator {
+
+		private RootModel model;
+		private Map<String, String> store;
+		private IDialect dialect;
+		private Set<String> tableNames = new HashSet<String>();
+		private Set<String> logicalNames = new HashSet<String>();
+
+		public OldValidator(RootModel model, Map<String, String> store, IDialect dialect){
+			this.model = model;
+			this.store = store;
+			this.dialect = dialect;
+		}
+
+		public DiagramErrors doValidate(){
+			DiagramErrors errors = new DiagramErrors();
+			for(TableModel table: model.getTables()){
+				table.setError("");
+				validateTable(errors, table);
+			}
+			dialect.validate(errors, model);
+			return errors;
+		}
+
+		private void validateTable(DiagramErrors errors, TableModel table){
+			String tableName = table.getTableName();
+			if(tableName == null || tableName.length() == 0){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_REQUIRED),
+						table, Messages.getResourceString("validation.error.tableName.required"));
+			} else if(!tableNames.add(tableName)){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_DUPLICATED),
+						table, Messages.getResourceString("validation.error.tableName.duplicated"));
+			}
+
+			String logicalName = table.getLogicalName();
+			if(logicalName == null || logicalName.length() == 0){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_REQUIRED),
+						table, Messages.getResourceString("validation.error.logicalTableName.required"));
+			} else if(!logicalNames.add(logicalName)){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_DUPLICATED),
+						table, Messages.getResourceString("validation.error.logicalTableName.duplicated"));
+			}
+
+			validateColumns(errors, table);
+			validateForeignKeys(errors, table);
+		}
+
+		private void validateColumns(DiagramErrors errors, TableModel table){
+			ColumnModel[] columns = table.getColumns();
+			if(columns.length == 0){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_NO_COLUMNS),
+						table, Messages.getResourceString("validation.error.noColumns"));
+				return;
+			}
+			Set<String> columnNames = new HashSet<String>();
+			Set<String> logicalColumnNames = new HashSet<String>();
+			boolean findPk = false;
+			for(ColumnModel column: columns){
+				if(column.isPrimaryKey()){
+					findPk = true;
+				}
+				String columnName = column.getColumnName();
+				if(columnName == null || columnName.length() == 0){
+					errors.addError(store.get(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_REQUIRED),
+							table, column, Messages.getResourceString("validation.error.columnName.required"));
+				} else if(!columnNames.add(columnName)){
+					errors.addError(store.get(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_DUPLICATED),
+							table, column, Messages.getResourceString("validation.error.columnName.duplicated"));
+				}
+
+				String logicalColumnName = column.getLogicalName();
+				if(logicalColumnName == null || logicalColumnName.length() == 0){
+					errors.addError(store.get(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_REQUIRED),
+							table, column, Messages.getResourceString("validation.error.logicalColumnName.required"));
+				} else if(!logicalColumnNames.add(logicalColumnName)){
+					errors.addError(store.get(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_DUPLICATED),
+							table, column, Messages.getResourceString("validation.error.logicalColumnName.duplicated"));
+				}
+			}
+			if(!findPk){
+				errors.addError(store.get(DBPlugin.PREF_VALIDATE_PRIMARY_KEY),
+						table, Messages.getResourceString("validation.error.noPrimaryKey"));
+			}
+		}
+
+		private void validateForeignKeys(DiagramErrors errors, TableModel table){
+			for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+				if(conn instanceof ForeignKeyModel){
+					for(ForeignKeyMapping mapping: ((ForeignKeyModel) conn).getMapping()){
+						ColumnModel referer = mapping.getRefer();
+						ColumnModel target = mapping.getTarget();
+						IColumnType refererType = referer.getColumnType();
+						IColumnType targetType = target.getColumnType();
+						if(!refererType.getName().equals(targetType.getName())){
+							errors.addError(store.get(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_TYPE),
+									table, referer, Messages.getResourceString("validation.error.foreignKey.columnType"));
+						} else if(refererType.supportSize() && !referer.getSize().equals(target.getSize())){
+							errors.addError(store.get(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_SIZE),
+									table, referer, Messages.getResourceString("validation.error.foreignKey.columnSize"));
+						}
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,2 @@
+#!/bin/sh
+java -cp ./amateras-erd-tools.jar tools.GenerateAlterDDLCommand "$@"
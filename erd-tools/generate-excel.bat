@@ -0,0 +1,2 @@
+@echo off
+java -cp ./amateras-erd-tools.jar tools.GenerateExcelCommand %*
@@ -1,2 +1,2 @@
 #!/bin/sh
-java -cp ./amateras-erd-tools.jar tools.GenerateHTMLCommand $1 $2
+java -cp ./amateras-erd-tools.jar tools.GenerateHTMLCommand "$@"
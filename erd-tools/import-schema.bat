@@ -1,2 +1,2 @@
 @echo off
-java -cp ./amateras-erd-tools.jar tools.ImportSchemaCommand %1
+java -cp ./amateras-erd-tools.jar tools.ImportSchemaCommand %*
@@ -0,0 +1,92 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.java.amateras.db.dialect.DerbyDialect;
+import net.java.amateras.db.dialect.HsqldbDialect;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.MySQLDialect;
+import net.java.amateras.db.dialect.OracleDialect;
+import net.java.amateras.db.dialect.PostgreSQLDialect;
+import net.java.amateras.db.dialect.SchemaDiff;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.model.RootModel;
+
+/**
+ * A command line tool to generate a migration script between two erd files.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.GenerateAlterDDLCommand old-erd-file new-erd-file [output-file]</pre>
+ * DDL is generated by the dialect of the new erd file.
+ * If the output file is not specified, DDL is written to the standard output.
+ */
+public class GenerateAlterDDLCommand {
+
+	public static void main(String[] args) throws Exception {
+		if(args.length != 2 && args.length != 3){
+			System.err.println("Please specify the old erd file and the new erd file!");
+			System.exit(1);
+		}
+
+		File oldFile = new File(args[0]);
+		File newFile = new File(args[1]);
+
+		if(!oldFile.exists() || !oldFile.isFile() || !newFile.exists() || !newFile.isFile()){
+			System.err.println("The specified erd file does not exist!");
+			System.exit(1);
+		}
+
+		RootModel oldModel = load(oldFile);
+		RootModel newModel = load(newFile);
+		IDialect dialect = getDialect(newModel.getDialectName());
+
+		SchemaDiff diff = new SchemaDiff(oldModel, newModel);
+
+		if(args.length == 3){
+			Writer out = null;
+			try {
+				out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[2])));
+				dialect.createAlterDDL(diff, false, out);
+				out.close();
+			} finally {
+				IOUtils.close(out);
+			}
+		} else {
+			StringBuilder sb = new StringBuilder();
+			dialect.createAlterDDL(diff, false, sb);
+			System.out.print(sb);
+		}
+	}
+
+	private static RootModel load(File erdFile) throws Exception {
+		FileInputStream in = null;
+		try {
+			in = new FileInputStream(erdFile);
+			return VisualDBSerializer.deserialize(in);
+		} finally {
+			IOUtils.close(in);
+		}
+	}
+
+	private static IDialect getDialect(String dialectName) throws Exception {
+		if(dialectName.equals("hsqldb")){
+			return new HsqldbDialect();
+		} else if(dialectName.equals("Derby")){
+			return new DerbyDialect();
+		} else if(dialectName.equals("MySQL")){
+			return new MySQLDialect();
+		} else if(dialectName.equals("PostgreSQL")){
+			return new PostgreSQLDialect();
+		} else if(dialectName.equals("Oracle")){
+			return new OracleDialect();
+		}
+		throw new Exception("Dialect is not found!");
+	}
+
+}
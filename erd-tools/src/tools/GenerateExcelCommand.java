@@ -0,0 +1,57 @@
+package tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.generate.ExcelGenerator;
+import net.java.amateras.db.visual.model.RootModel;
+
+/**
+ * A command line tool to generate table definitions as an Excel workbook from a diagram file.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.GenerateExcelCommand erd-file output-file</pre>
+ * The output file is written in the .xlsx format.
+ */
+public class GenerateExcelCommand {
+
+	public static void main(String[] args) throws Exception {
+		if(args.length != 2){
+			System.err.println("Please specify the erd file and the output file!");
+			System.exit(1);
+		}
+
+		File erdFile = new File(args[0]);
+		File outputFile = new File(args[1]);
+
+		if(!erdFile.exists() || !erdFile.isFile()){
+			System.err.println("The specified erd file does not exist!");
+			System.exit(1);
+		}
+
+		System.out.println("** Start to generate Excel workbook **");
+
+		FileInputStream in = null;
+		OutputStream out = null;
+		try {
+			in = new FileInputStream(erdFile);
+			RootModel rootModel = VisualDBSerializer.deserialize(in);
+
+			out = new BufferedOutputStream(new FileOutputStream(outputFile));
+			new ExcelGenerator().generate(rootModel, out);
+			out.close();
+
+		} finally {
+			IOUtils.close(in);
+			IOUtils.close(out);
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+}
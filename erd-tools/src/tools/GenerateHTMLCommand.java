@@ -12,20 +12,22 @@ import net.java.amateras.db.visual.model.RootModel;
  * A command line tool to generate a HTML report from a diagram file.
  * <p>
  * <strong>Usage:</strong>
- * <pre>tools.GenerateHTMLCommand erd-file export-dir</pre>
+ * <pre>tools.GenerateHTMLCommand [-incremental] erd-file export-dir</pre>
+ * If <code>-incremental</code> is specified, only pages which are changed since the last run are written.
  * 
  * @author Naoki Takezoe
  */
 public class GenerateHTMLCommand {
 	
 	public static void main(String[] args) throws Exception {
-		if(args.length != 2){
+		boolean incremental = args.length == 3 && args[0].equals("-incremental");
+		if(args.length != 2 && !incremental){
 			System.err.println("Please specify the erd file and the export directory!");
 			System.exit(1);
 		}
 		
-		File erdFile = new File(args[0]);
-		File exportDir = new File(args[1]);
+		File erdFile = new File(args[args.length - 2]);
+		File exportDir = new File(args[args.length - 1]);
 		
 		if(!erdFile.exists() || !erdFile.isFile()){
 			System.err.println("The specified erd file does not exist!");
@@ -47,7 +49,7 @@ public class GenerateHTMLCommand {
 			RootModel rootModel = VisualDBSerializer.deserialize(in);
 			
 			HTMLGenerator generator = new HTMLGenerator();
-			generator.generate(exportDir.getAbsolutePath(), rootModel);
+			generator.generate(exportDir.getAbsolutePath(), rootModel, incremental);
 			
 		} finally {
 			IOUtils.close(in);
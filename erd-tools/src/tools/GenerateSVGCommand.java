@@ -0,0 +1,72 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editor.VisualDBSerializer;
+import net.java.amateras.db.visual.editpart.DiagramFigureBuilder;
+import net.java.amateras.db.visual.generate.SVGGenerator;
+import net.java.amateras.db.visual.model.RootModel;
+
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A command line tool to export a diagram file as a SVG image.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>tools.GenerateSVGCommand erd-file output-file</pre>
+ * The system font is used because the font setting of the diagram requires JFace.
+ */
+public class GenerateSVGCommand {
+
+	private static final int MARGIN = 10;
+
+	public static void main(String[] args) throws Exception {
+		if(args.length != 2){
+			System.err.println("Please specify the erd file and the output file!");
+			System.exit(1);
+		}
+
+		File erdFile = new File(args[0]);
+		File outputFile = new File(args[1]);
+
+		if(!erdFile.exists() || !erdFile.isFile()){
+			System.err.println("The specified erd file does not exist!");
+			System.exit(1);
+		}
+
+		System.out.println("** Start to generate SVG **");
+
+		FileInputStream in = null;
+		Writer out = null;
+		Display display = new Display();
+		DiagramFigureBuilder builder = new DiagramFigureBuilder(display, display.getSystemFont(), true);
+		try {
+			in = new FileInputStream(erdFile);
+			RootModel rootModel = VisualDBSerializer.deserialize(in);
+
+			IFigure figure = builder.build(rootModel);
+			Rectangle area = figure.getBounds().getCopy().expand(MARGIN, MARGIN);
+
+			out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8"));
+			SVGGenerator.generate(figure, area, out);
+			out.close();
+
+		} finally {
+			IOUtils.close(in);
+			IOUtils.close(out);
+			builder.dispose();
+			display.dispose();
+		}
+
+		System.out.println("** Completed! **");
+	}
+
+}
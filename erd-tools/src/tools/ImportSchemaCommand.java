@@ -3,18 +3,20 @@ package tools;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.net.URL;
 import java.sql.Connection;
 import java.util.List;
 
+import net.java.amateras.db.dialect.DefaultSchemaLoader;
 import net.java.amateras.db.dialect.DerbyDialect;
 import net.java.amateras.db.dialect.HsqldbDialect;
 import net.java.amateras.db.dialect.IDialect;
 import net.java.amateras.db.dialect.ISchemaLoader;
+import net.java.amateras.db.dialect.IncrementalSchemaLoader;
 import net.java.amateras.db.dialect.MySQLDialect;
 import net.java.amateras.db.dialect.OracleDialect;
 import net.java.amateras.db.dialect.PostgreSQLDialect;
+import net.java.amateras.db.dialect.SchemaSyncResult;
 import net.java.amateras.db.util.DatabaseInfo;
 import net.java.amateras.db.util.IOUtils;
 import net.java.amateras.db.util.JarClassLoader;
@@ -25,19 +27,21 @@ import net.java.amateras.db.visual.model.RootModel;
  * A command line tool to import database schema into a existing erd file.
  * <p>
  * <strong>Usage:</strong>
- * <pre>tools.ImportSchemaCommand erd-file</pre>
+ * <pre>tools.ImportSchemaCommand [-incremental] erd-file</pre>
+ * If <code>-incremental</code> is specified, only changed tables are re-imported.
  * 
  * @author Naoki Takezoe
  */
 public class ImportSchemaCommand {
 	
 	public static void main(String[] args) throws Exception {
-		if(args.length != 1){
+		boolean incremental = args.length == 2 && args[0].equals("-incremental");
+		if(args.length != 1 && !incremental){
 			System.err.println("Please specify the erd file!");
 			System.exit(1);
 		}
 		
-		File erdFile = new File(args[0]);
+		File erdFile = new File(args[args.length - 1]);
 		if(!erdFile.exists() || !erdFile.isFile()){
 			System.err.println("The specified erd file does not exist!");
 			System.exit(1);
@@ -64,8 +68,19 @@ public class ImportSchemaCommand {
 		Connection conn = null;
 		try {
 			conn = dbinfo.connect();
-			loader.loadSchema(rootModel, dialect, conn, tables.toArray(new String[tables.size()]),
-					dbinfo.getCatalog(), dbinfo.getSchema());
+			if(incremental && loader instanceof DefaultSchemaLoader){
+				SchemaSyncResult result = new IncrementalSchemaLoader((DefaultSchemaLoader) loader).loadSchema(
+						rootModel, dialect, conn, tables.toArray(new String[tables.size()]),
+						dbinfo.getCatalog(), dbinfo.getSchema(), false);
+				System.out.println(result);
+				if(!result.isChanged()){
+					System.out.println("** No changes **");
+					return;
+				}
+			} else {
+				loader.loadSchema(rootModel, dialect, conn, tables.toArray(new String[tables.size()]),
+						dbinfo.getCatalog(), dbinfo.getSchema(), false);
+			}
 		} finally {
 			if(conn != null){
 				conn.close();
@@ -73,10 +88,11 @@ public class ImportSchemaCommand {
 		}
 		
 		FileOutputStream out = new FileOutputStream(erdFile);
-		InputStream result = VisualDBSerializer.serialize(rootModel);
-		IOUtils.copyStream(result, out);
-		IOUtils.close(result);
-		IOUtils.close(out);
+		try {
+			VisualDBSerializer.serialize(rootModel, out);
+		} finally {
+			IOUtils.close(out);
+		}
 		
 		System.out.println("** Completed! **");		
 	}
@@ -48,6 +48,9 @@ public class DBPlugin extends AbstractUIPlugin {
 	public static final String PREF_SNAP_GEOMETRY = "pref_snap_geometry";
 	public static final String PREF_SHOW_NOT_NULL = "pref_show_notnull";
 	public static final String PREF_ZOOMABLE_WITH_CTRL_AND_SCROLL = "pref_zoomable_with_ctrl_and_scroll";
+	public static final String PREF_VIRTUALIZED_RENDERING = "pref_virtualized_rendering";
+	public static final String PREF_LOD_TITLE_ZOOM = "pref_lod_title_zoom";
+	public static final String PREF_LOD_BOX_ZOOM = "pref_lod_box_zoom";
 	public static final String PREF_FONT = "pref_font";
 	public static final String PREF_DICTIONALY = "pref_dictionary";
 
@@ -1,11 +1,33 @@
 package net.java.amateras.db.dialect;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.util.StringUtils;
 import net.java.amateras.db.validator.DiagramErrors;
+import net.java.amateras.db.validator.IValidationRule;
 import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
 import net.java.amateras.db.visual.model.ColumnModel;
 import net.java.amateras.db.visual.model.ForeignKeyMapping;
@@ -25,8 +47,19 @@ public abstract class AbstractDialect implements IDialect {
 	protected static final String LS 	= System.getProperty("line.separator");
 	protected static final String TAB = "\t\t";
 
+	/**
+	 * If the number of tables is this or more, DDL of tables is rendered in parallel.
+	 */
+	public static final int PARALLEL_DDL_THRESHOLD = 100;
+
 	protected String separator;
 
+	/**
+	 * Foreign keys which are created by <code>ALTER TABLE</code> in the current {@link #createDDL} call
+	 * because they refer tables which are created later.
+	 */
+	private ThreadLocal<Set<ForeignKeyModel>> deferredForeignKeys = new ThreadLocal<Set<ForeignKeyModel>>();
+
 	public AbstractDialect(IColumnType[] types){
 		this(types, ";");
 	}
@@ -87,43 +120,176 @@ public abstract class AbstractDialect implements IDialect {
 
 	public String createDDL(RootModel model, boolean schema, boolean drop,
 			boolean alterTable, boolean comment) {
-		List<TableModel> children = TableDependencyCalculator.getSortedTable(model);
 		StringBuilder sb = new StringBuilder();
-		StringBuilder additions = new StringBuilder();
-		for(int i=children.size() - 1; i>=0; i--){
-			TableModel table = children.get(i);
-			if(drop && !table.isLinkedTable()){
-				String tableName = getTableName(model, table, schema);
-				createDropTableStatement(sb, tableName);
-				sb.append(LS);
+		try {
+			createDDL(model, schema, drop, alterTable, comment, sb);
+		} catch(IOException ex){
+			// never happens
+			throw new RuntimeException(ex);
+		}
+		return sb.toString();
+	}
+
+	public void createDDL(RootModel model, boolean schema, boolean drop,
+			boolean alterTable, boolean comment, Appendable out) throws IOException {
+		TableDependencyCalculator calculator = new TableDependencyCalculator(model);
+		List<TableModel> children = calculator.getSortedTables();
+		if(!alterTable){
+			deferredForeignKeys.set(getDeferredForeignKeys(children, calculator.getCycles()));
+		}
+		try {
+			createDDL(model, children, schema, drop, alterTable, comment, out);
+		} finally {
+			deferredForeignKeys.remove();
+		}
+	}
+
+	/**
+	 * Returns foreign keys in circular dependencies which refer tables created later.
+	 */
+	private static Set<ForeignKeyModel> getDeferredForeignKeys(List<TableModel> tables, List<List<TableModel>> cycles){
+		Set<ForeignKeyModel> result = new HashSet<ForeignKeyModel>();
+		if(cycles.isEmpty()){
+			return result;
+		}
+		Map<TableModel, Integer> order = new HashMap<TableModel, Integer>();
+		for(int i=0;i<tables.size();i++){
+			order.put(tables.get(i), i);
+		}
+		for(List<TableModel> cycle: cycles){
+			for(TableModel table: cycle){
+				for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+					if(conn instanceof ForeignKeyModel && order.get(conn.getTarget()) > order.get(table)){
+						result.add((ForeignKeyModel) conn);
+					}
+				}
 			}
 		}
+		return result;
+	}
+
+	/**
+	 * Writes DDL to the given <code>Appendable</code> table by table.
+	 * Only statements which must follow all tables, such as <code>ALTER TABLE</code>,
+	 * are kept in memory until all tables are written.
+	 */
+	private void createDDL(RootModel model, List<TableModel> children, boolean schema, boolean drop,
+			boolean alterTable, boolean comment, Appendable out) throws IOException {
+		StringBuilder additions = new StringBuilder();
 		if(drop){
-			sb.append(LS);
+			for(int i=children.size() - 1; i>=0; i--){
+				TableModel table = children.get(i);
+				if(!table.isLinkedTable()){
+					StringBuilder sb = new StringBuilder();
+					createDropTableStatement(sb, getTableName(model, table, schema));
+					sb.append(LS);
+					out.append(sb);
+				}
+			}
+			out.append(LS);
 		}
 
+		List<TableModel> tables = new ArrayList<TableModel>();
 		for(TableModel table: children){
 		    if(!table.isLinkedTable()){
-		        sb.append(createTableDDL(model, table, schema, drop, alterTable, comment, additions));
-		        sb.append(LS);
+		        tables.add(table);
 		    }
 		}
+		if(isParallelDDLEnabled(tables.size())){
+			createTableDDLInParallel(model, tables, schema, drop, alterTable, comment, additions, out);
+		} else {
+			for(TableModel table: tables){
+				out.append(createTableDDL(model, table, schema, drop, alterTable, comment, additions));
+				out.append(LS);
+			}
+		}
 
 		if(additions.length() > 0){
-			sb.append(LS);
-			sb.append(additions.toString());
+			out.append(LS);
+			out.append(additions);
 		}
 
 		for(TableModel table: children){
 			String sql = table.getSql();
 			if(sql != null && sql.trim().length() != 0){
-				sb.append(LS);
-				sb.append(sql);
-				sb.append(LS);
+				out.append(LS);
+				out.append(sql);
+				out.append(LS);
 			}
 		}
+	}
 
-		return sb.toString();
+	/**
+	 * Tests whether DDL of tables is rendered in parallel.
+	 * <p>
+	 * Subclasses should return false if {@link #createTableDDL} is not thread-safe.
+	 *
+	 * @param tableCount the number of tables
+	 * @return true if there are {@link #PARALLEL_DDL_THRESHOLD} or more tables and multiple processors
+	 */
+	protected boolean isParallelDDLEnabled(int tableCount){
+		return tableCount >= PARALLEL_DDL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1;
+	}
+
+	/**
+	 * Renders DDL of tables in parallel and writes them in the given order.
+	 * <p>
+	 * Each table is rendered with its own additions buffer, and the buffers are concatenated
+	 * in the same order as tables. So the output is same as the serial rendering.
+	 * Only a limited number of tables are rendered ahead of the writing position.
+	 */
+	private void createTableDDLInParallel(final RootModel model, List<TableModel> tables,
+			final boolean schema, final boolean drop, final boolean alterTable, final boolean comment,
+			StringBuilder additions, Appendable out) throws IOException {
+
+		final Set<ForeignKeyModel> deferred = deferredForeignKeys.get();
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		LinkedList<Future<String[]>> futures = new LinkedList<Future<String[]>>();
+
+		try {
+			Iterator<TableModel> ite = tables.iterator();
+			while(ite.hasNext() || !futures.isEmpty()){
+				while(ite.hasNext() && futures.size() < threads * 4){
+					final TableModel table = ite.next();
+					futures.add(executor.submit(new Callable<String[]>(){
+						public String[] call() {
+							deferredForeignKeys.set(deferred);
+							try {
+								StringBuilder segment = new StringBuilder();
+								String ddl = createTableDDL(model, table, schema, drop, alterTable, comment, segment);
+								return new String[]{ ddl, segment.toString() };
+							} finally {
+								deferredForeignKeys.remove();
+							}
+						}
+					}));
+				}
+				String[] result = waitFor(futures.removeFirst());
+				out.append(result[0]);
+				out.append(LS);
+				additions.append(result[1]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static String[] waitFor(Future<String[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch(InterruptedException ex){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch(ExecutionException ex){
+			Throwable cause = ex.getCause();
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			} else if(cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
 	}
 
 	protected void createDropTableStatement(StringBuilder sb, String tableName) {
@@ -180,19 +346,7 @@ public abstract class AbstractDialect implements IDialect {
 		ColumnModel[] primaryKeys = model.getPrimaryKeyColumns();
 
 		if (alterTable && primaryKeys.length != 0) {
-			String pkName = "IDX_" + model.getTableName() +"_PK" ;
-			StringBuilder pkBuf = new StringBuilder();
-			pkBuf.append("ALTER TABLE ").append(
-					getTableName(root, model, schema));
-			pkBuf.append(" ADD CONSTRAINT ").append(pkName).append(" PRIMARY KEY (");
-			for (int i = 0; i < primaryKeys.length; i++) {
-				if (i != 0) {
-					pkBuf.append(", ");
-				}
-				pkBuf.append(primaryKeys[i].getColumnName());
-			}
-			pkBuf.append(")").append(separator).append(LS);
-			additions.insert(additionsLength, pkBuf.toString());
+			additions.insert(additionsLength, createPrimaryKeyDDL(root, model, schema));
 		}
 		///////////////////////////////////////////////////////////////////
 		// Primary Key
@@ -221,43 +375,20 @@ public abstract class AbstractDialect implements IDialect {
 			if (conn instanceof ForeignKeyModel) {
 
 				ForeignKeyModel fk = (ForeignKeyModel) connList.get(i);
-				ForeignKeyMapping[] mappings = fk.getMapping();
-
-				for(ForeignKeyMapping mapping : mappings) {
-					if(mapping.getRefer() == null || mapping.getTarget() == null){
-						continue LOOP;
-					}
-				}
-
-				TableModel target = (TableModel) conn.getTarget();
-
-				StringBuilder fkBuf = new StringBuilder();
-				fkBuf.append("FOREIGN KEY (");
-				for(int j = 0; j < mappings.length; j++) {
-					if(j != 0) {
-						fkBuf.append(",");
-					}
-					fkBuf.append(mappings[j].getRefer().getColumnName());
-				}
-				fkBuf.append(") REFERENCES ");
-				fkBuf.append(getTableName(root, target, schema));
-				fkBuf.append(" (");
-				for(int j = 0; j < mappings.length; j++) {
-					if(j != 0) {
-						fkBuf.append(",");
-					}
-					fkBuf.append(mappings[j].getTarget().getColumnName());
+				String fkDef = createForeignKeyDefinition(root, fk, schema);
+				if(fkDef == null){
+					continue LOOP;
 				}
-				fkBuf.append(")");
 
-				if(alterTable){
-					String fkName = "IDX_" + model.getTableName() + "_FK" + i;
-					additions.append("ALTER TABLE ").append(getTableName(root, model, schema));
-					additions.append(" ADD CONSTRAINT ").append(fkName).append(" ");
-					additions.append(fkBuf.toString()).append(separator).append(LS);;
+				Set<ForeignKeyModel> deferred = deferredForeignKeys.get();
+				if(alterTable || (deferred != null && deferred.contains(fk))){
+					additions.append(createForeignKeyDDL(root, model, getForeignKeyName(model, fk), fkDef, schema));
 				} else {
 					sb.append("," + LS + "  ");
-					sb.append(fkBuf.toString());
+					if(StringUtils.isNotEmpty(fk.getForeignKeyName())){
+						sb.append("CONSTRAINT ").append(fk.getForeignKeyName()).append(" ");
+					}
+					sb.append(fkDef);
 				}
 			}
 		}
@@ -267,37 +398,11 @@ public abstract class AbstractDialect implements IDialect {
 		///////////////////////////////////////////////////////////////////
 		for(int index = 0; index < model.getIndices().length; index++){
 			IndexModel indexModel = model.getIndices()[index];
-			if(indexModel.getIndexType().getName().equals("UNIQUE")){
-				StringBuilder indexBuf = new StringBuilder();
-
-				indexBuf.append("CONSTRAINT ").append(indexModel.getIndexName()).append(" UNIQUE ");
-				indexBuf.append("(");
-				for(int i = 0; i < indexModel.getColumns().size(); i++){
-					if(i != 0){
-						indexBuf.append(", ");
-					}
-					indexBuf.append(indexModel.getColumns().get(i));
-				}
-				indexBuf.append(")");
-
-				if(alterTable){
-					additions.append("ALTER TABLE ").append(getTableName(root, model, schema)).append(" ");
-					additions.append("ADD ").append(indexBuf.toString()).append(separator).append(LS);
-
-				} else {
-					sb.append("," + LS + "  ");
-					sb.append(indexBuf.toString());
-				}
+			if(indexModel.getIndexType().getName().equals("UNIQUE") && !alterTable){
+				sb.append("," + LS + "  ");
+				sb.append(createUniqueDefinition(indexModel));
 			} else {
-				additions.append("CREATE INDEX ").append(indexModel.getIndexName()).append(" ");
-				additions.append("ON ").append(getTableName(root, model, schema)).append(" (");
-				for(int i = 0; i < indexModel.getColumns().size(); i++){
-					if(i != 0){
-						additions.append(", ");
-					}
-					additions.append(indexModel.getColumns().get(i));
-				}
-				additions.append(")").append(separator).append(LS);
+				additions.append(createIndexDDL(root, model, indexModel, schema));
 			}
 		}
 
@@ -313,6 +418,355 @@ public abstract class AbstractDialect implements IDialect {
 		return sb.toString();
 	}
 
+	/**
+	 * Creates DDL that adds the primary key to a given table.
+	 */
+	protected String createPrimaryKeyDDL(RootModel root, TableModel model, boolean schema){
+		ColumnModel[] primaryKeys = model.getPrimaryKeyColumns();
+		String pkName = "IDX_" + model.getTableName() +"_PK" ;
+		StringBuilder pkBuf = new StringBuilder();
+		pkBuf.append("ALTER TABLE ").append(
+				getTableName(root, model, schema));
+		pkBuf.append(" ADD CONSTRAINT ").append(pkName).append(" PRIMARY KEY (");
+		for (int i = 0; i < primaryKeys.length; i++) {
+			if (i != 0) {
+				pkBuf.append(", ");
+			}
+			pkBuf.append(primaryKeys[i].getColumnName());
+		}
+		pkBuf.append(")").append(separator).append(LS);
+		return pkBuf.toString();
+	}
+
+	/**
+	 * Creates the <code>FOREIGN KEY ... REFERENCES ...</code> clause of a given foreign key.
+	 *
+	 * @return the clause, or <code>null</code> if the mapping of the foreign key is not completed
+	 */
+	protected String createForeignKeyDefinition(RootModel root, ForeignKeyModel fk, boolean schema){
+		ForeignKeyMapping[] mappings = fk.getMapping();
+
+		for(ForeignKeyMapping mapping : mappings) {
+			if(mapping.getRefer() == null || mapping.getTarget() == null){
+				return null;
+			}
+		}
+
+		TableModel target = (TableModel) fk.getTarget();
+
+		StringBuilder fkBuf = new StringBuilder();
+		fkBuf.append("FOREIGN KEY (");
+		for(int j = 0; j < mappings.length; j++) {
+			if(j != 0) {
+				fkBuf.append(",");
+			}
+			fkBuf.append(mappings[j].getRefer().getColumnName());
+		}
+		fkBuf.append(") REFERENCES ");
+		fkBuf.append(getTableName(root, target, schema));
+		fkBuf.append(" (");
+		for(int j = 0; j < mappings.length; j++) {
+			if(j != 0) {
+				fkBuf.append(",");
+			}
+			fkBuf.append(mappings[j].getTarget().getColumnName());
+		}
+		fkBuf.append(")");
+		return fkBuf.toString();
+	}
+
+	/**
+	 * Creates DDL that adds a foreign key to a given table.
+	 *
+	 * @param fkName the constraint name
+	 * @param fkDef the clause which is created by {@link #createForeignKeyDefinition}
+	 */
+	protected String createForeignKeyDDL(RootModel root, TableModel model, String fkName, String fkDef, boolean schema){
+		StringBuilder sb = new StringBuilder();
+		sb.append("ALTER TABLE ").append(getTableName(root, model, schema));
+		sb.append(" ADD CONSTRAINT ").append(fkName).append(" ");
+		sb.append(fkDef).append(separator).append(LS);
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the constraint name of a given foreign key which is used to add it.
+	 * If the name is not specified, <code>IDX_&lt;table&gt;_FK&lt;index&gt;</code> is returned.
+	 * This name depends on the order of the foreign keys, so it can't be used to drop the key.
+	 */
+	protected String getForeignKeyName(TableModel model, ForeignKeyModel fk){
+		if(StringUtils.isNotEmpty(fk.getForeignKeyName())){
+			return fk.getForeignKeyName();
+		}
+		return "IDX_" + model.getTableName() + "_FK" + model.getModelSourceConnections().indexOf(fk);
+	}
+
+	/**
+	 * Creates the <code>CONSTRAINT ... UNIQUE</code> clause of a given index.
+	 */
+	protected String createUniqueDefinition(IndexModel indexModel){
+		StringBuilder indexBuf = new StringBuilder();
+
+		indexBuf.append("CONSTRAINT ").append(indexModel.getIndexName()).append(" UNIQUE ");
+		indexBuf.append("(");
+		for(int i = 0; i < indexModel.getColumns().size(); i++){
+			if(i != 0){
+				indexBuf.append(", ");
+			}
+			indexBuf.append(indexModel.getColumns().get(i));
+		}
+		indexBuf.append(")");
+		return indexBuf.toString();
+	}
+
+	/**
+	 * Creates DDL that creates a given index.
+	 * An unique index is created as an unique constraint by <code>ALTER TABLE</code>.
+	 */
+	protected String createIndexDDL(RootModel root, TableModel model, IndexModel indexModel, boolean schema){
+		StringBuilder sb = new StringBuilder();
+		if(indexModel.getIndexType().getName().equals("UNIQUE")){
+			sb.append("ALTER TABLE ").append(getTableName(root, model, schema)).append(" ");
+			sb.append("ADD ").append(createUniqueDefinition(indexModel)).append(separator).append(LS);
+
+		} else {
+			sb.append("CREATE INDEX ").append(indexModel.getIndexName()).append(" ");
+			sb.append("ON ").append(getTableName(root, model, schema)).append(" (");
+			for(int i = 0; i < indexModel.getColumns().size(); i++){
+				if(i != 0){
+					sb.append(", ");
+				}
+				sb.append(indexModel.getColumns().get(i));
+			}
+			sb.append(")").append(separator).append(LS);
+		}
+		return sb.toString();
+	}
+
+	public void createAlterDDL(SchemaDiff diff, boolean schema, Appendable out) throws IOException {
+		RootModel oldRoot = diff.getOldModel();
+		RootModel newRoot = diff.getNewModel();
+
+		///////////////////////////////////////////////////////////////////
+		// Drop foreign keys and indices
+		///////////////////////////////////////////////////////////////////
+		Set<ForeignKeyModel> droppedKeys =
+			Collections.newSetFromMap(new IdentityHashMap<ForeignKeyModel, Boolean>());
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			TableModel table = tableDiff.getOldTable();
+			for(ForeignKeyModel fk: tableDiff.getDroppedForeignKeys()){
+				droppedKeys.add(fk);
+				out.append(createDropForeignKeyDDL(oldRoot, table, fk, schema));
+			}
+		}
+		// foreign keys from or to dropped tables and tables whose primary keys are changed
+		// must be dropped before tables and primary keys. Unchanged ones are added again later.
+		Set<TableModel> affectedTables = new HashSet<TableModel>(diff.getDroppedTables());
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			if(tableDiff.isPrimaryKeyChanged()){
+				affectedTables.add(tableDiff.getOldTable());
+			}
+		}
+		List<ForeignKeyModel> recreatedKeys = new ArrayList<ForeignKeyModel>();
+		for(TableModel table: oldRoot.getTables()){
+			if(table.isLinkedTable()){
+				continue;
+			}
+			for(ForeignKeyModel fk: SchemaDiff.getForeignKeys(table)){
+				if((affectedTables.contains(table) || affectedTables.contains(fk.getTarget())) && droppedKeys.add(fk)){
+					out.append(createDropForeignKeyDDL(oldRoot, table, fk, schema));
+					ForeignKeyModel newKey = diff.getNewForeignKey(fk);
+					if(newKey != null){
+						recreatedKeys.add(newKey);
+					}
+				}
+			}
+		}
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			TableModel table = tableDiff.getOldTable();
+			for(IndexModel index: tableDiff.getDroppedIndices()){
+				out.append(createDropIndexDDL(oldRoot, table, index, schema));
+			}
+		}
+
+		///////////////////////////////////////////////////////////////////
+		// Drop tables and primary keys, and create tables
+		///////////////////////////////////////////////////////////////////
+		for(TableModel table: diff.getDroppedTables()){
+			StringBuilder sb = new StringBuilder();
+			createDropTableStatement(sb, getTableName(oldRoot, table, schema));
+			out.append(sb).append(LS);
+		}
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			TableModel table = tableDiff.getOldTable();
+			if(tableDiff.isPrimaryKeyChanged() && table.getPrimaryKeyColumns().length != 0){
+				out.append(createDropPrimaryKeyDDL(oldRoot, table, schema));
+			}
+		}
+
+		StringBuilder additions = new StringBuilder();
+		for(TableModel table: diff.getAddedTables()){
+			out.append(createTableDDL(newRoot, table, schema, false, true, false, additions));
+			out.append(LS);
+		}
+
+		///////////////////////////////////////////////////////////////////
+		// Alter columns
+		///////////////////////////////////////////////////////////////////
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			TableModel table = tableDiff.getNewTable();
+			for(ColumnModel column: tableDiff.getAddedColumns()){
+				out.append(createAddColumnDDL(newRoot, table, column, schema));
+			}
+			for(ColumnModel[] columns: tableDiff.getModifiedColumns()){
+				out.append(createAlterColumnDDL(newRoot, table, columns[0], columns[1], schema));
+			}
+			for(ColumnModel column: tableDiff.getDroppedColumns()){
+				out.append(createDropColumnDDL(oldRoot, tableDiff.getOldTable(), column, schema));
+			}
+		}
+
+		///////////////////////////////////////////////////////////////////
+		// Create primary keys, indices and foreign keys
+		///////////////////////////////////////////////////////////////////
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			TableModel table = tableDiff.getNewTable();
+			if(tableDiff.isPrimaryKeyChanged() && table.getPrimaryKeyColumns().length != 0){
+				out.append(createPrimaryKeyDDL(newRoot, table, schema));
+			}
+			for(IndexModel index: tableDiff.getAddedIndices()){
+				out.append(createIndexDDL(newRoot, table, index, schema));
+			}
+		}
+		// primary keys of added tables must exist before foreign keys which refer them
+		out.append(additions);
+		List<ForeignKeyModel> addedKeys = new ArrayList<ForeignKeyModel>();
+		for(TableDiff tableDiff: diff.getModifiedTables()){
+			addedKeys.addAll(tableDiff.getAddedForeignKeys());
+		}
+		addedKeys.addAll(recreatedKeys);
+		for(ForeignKeyModel fk: addedKeys){
+			TableModel table = (TableModel) fk.getSource();
+			String fkDef = createForeignKeyDefinition(newRoot, fk, schema);
+			if(fkDef != null){
+				out.append(createForeignKeyDDL(newRoot, table, getForeignKeyName(table, fk), fkDef, schema));
+			}
+		}
+	}
+
+	/**
+	 * Creates DDL that drops a given foreign key.
+	 * If the foreign key has no name, the constraint name in the database is unknown
+	 * (the database generates it for the inline definition, and the name which is used
+	 * by <code>ALTER TABLE</code> depends on the order of foreign keys).
+	 * In this case, this method returns a comment that asks the user to drop it by hand.
+	 */
+	private String createDropForeignKeyDDL(RootModel root, TableModel table, ForeignKeyModel fk, boolean schema){
+		if(StringUtils.isEmpty(fk.getForeignKeyName())){
+			return "/* WARNING: Drop the foreign key of " + getTableName(root, table, schema) +
+				" which refers " + getTableName(root, (TableModel) fk.getTarget(), schema) +
+				" by hand, because it has no name. */" + LS;
+		}
+		return createDropForeignKeyDDL(root, table, fk.getForeignKeyName(), schema);
+	}
+
+	public String createAddColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema){
+		StringBuilder additions = new StringBuilder();
+		StringBuilder sb = new StringBuilder();
+		sb.append("ALTER TABLE ").append(getTableName(root, table, schema));
+		sb.append(" ADD ").append(createColumnDDL(root, table, column, schema, true, additions, false).trim());
+		sb.append(separator).append(LS);
+		sb.append(additions);
+		return sb.toString();
+	}
+
+	/**
+	 * Creates DDL that changes the definition of a given column.
+	 * <p>
+	 * The default implementation creates <code>ALTER COLUMN</code> statements of the standard SQL
+	 * for only changed type, nullability and default value.
+	 * A change of auto increment is reported by {@link #createAutoIncrementWarning}.
+	 */
+	public String createAlterColumnDDL(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema){
+		String prefix = "ALTER TABLE " + getTableName(root, table, schema) +
+			" ALTER COLUMN " + newColumn.getColumnName() + " ";
+		StringBuilder sb = new StringBuilder();
+		if(!getColumnTypeDDL(oldColumn).equalsIgnoreCase(getColumnTypeDDL(newColumn))){
+			sb.append(prefix).append("SET DATA TYPE ").append(getColumnTypeDDL(newColumn));
+			sb.append(separator).append(LS);
+		}
+		if(oldColumn.isNotNull() != newColumn.isNotNull()){
+			sb.append(prefix).append(getNullableClause(newColumn.isNotNull()));
+			sb.append(separator).append(LS);
+		}
+		if(!oldColumn.getDefaultValue().equals(newColumn.getDefaultValue())){
+			if(newColumn.getDefaultValue().length() != 0){
+				sb.append(prefix).append("SET DEFAULT ").append(newColumn.getDefaultValue());
+			} else {
+				sb.append(prefix).append("DROP DEFAULT");
+			}
+			sb.append(separator).append(LS);
+		}
+		sb.append(createAutoIncrementWarning(root, table, oldColumn, newColumn, schema));
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a comment that asks the user to change auto increment of the column by hand
+	 * if it has been changed, because {@link #createAlterColumnDDL} does not support it.
+	 *
+	 * @return the comment, or an empty string if auto increment is not changed
+	 */
+	protected String createAutoIncrementWarning(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema){
+		if(oldColumn.isAutoIncrement() == newColumn.isAutoIncrement()){
+			return "";
+		}
+		return "/* WARNING: Changing auto increment of " + getTableName(root, table, schema) + "." +
+			newColumn.getColumnName() + " is not supported. Change it by hand. */" + LS;
+	}
+
+	/**
+	 * Returns the <code>ALTER COLUMN</code> clause which changes nullability of the column.
+	 */
+	protected String getNullableClause(boolean notNull){
+		return notNull ? "SET NOT NULL" : "DROP NOT NULL";
+	}
+
+	/**
+	 * Returns the type name with the size of a given column.
+	 */
+	protected String getColumnTypeDDL(ColumnModel columnModel){
+		String type = columnModel.getColumnType().getName();
+		if(columnModel.getColumnType().supportSize() && columnModel.getSize().length() > 0){
+			type = type + "(" + columnModel.getSize() + ")";
+		}
+		return type;
+	}
+
+	public String createDropColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema){
+		return "ALTER TABLE " + getTableName(root, table, schema) +
+			" DROP COLUMN " + column.getColumnName() + separator + LS;
+	}
+
+	public String createDropPrimaryKeyDDL(RootModel root, TableModel table, boolean schema){
+		return "ALTER TABLE " + getTableName(root, table, schema) + " DROP PRIMARY KEY" + separator + LS;
+	}
+
+	public String createDropIndexDDL(RootModel root, TableModel table, IndexModel index, boolean schema){
+		if(index.getIndexType().getName().equals("UNIQUE")){
+			return "ALTER TABLE " + getTableName(root, table, schema) +
+				" DROP CONSTRAINT " + index.getIndexName() + separator + LS;
+		}
+		return "DROP INDEX " + index.getIndexName() + separator + LS;
+	}
+
+	public String createDropForeignKeyDDL(RootModel root, TableModel table, String keyName, boolean schema){
+		return "ALTER TABLE " + getTableName(root, table, schema) +
+			" DROP CONSTRAINT " + keyName + separator + LS;
+	}
+
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment){
 		StringBuffer sb = new StringBuffer();
@@ -351,8 +805,92 @@ public abstract class AbstractDialect implements IDialect {
 	public void validate(DiagramErrors errors, RootModel model){
 	}
 
+	public IValidationRule[] getValidationRules() {
+		return new IValidationRule[0];
+	}
+
 	public String getColumnMetadataSQL(String tableName) {
-		return "SELECT * FROM \"" + tableName + "\"";
+		return "SELECT * FROM \"" + tableName + "\" WHERE 1 = 0";
+	}
+
+	/**
+	 * Returns columns of the given schema by <code>DatabaseMetaData#getColumns()</code>.
+	 * If the schema is not specified, the current schema of the connection is used,
+	 * because columns of all schemas would be mixed. If the current schema is unknown,
+	 * returns <code>null</code> to fetch columns for each table.
+	 *
+	 * @see #getCurrentSchemaSQL()
+	 */
+	public ResultSet getSchemaColumns(Connection conn, String catalog, String schema) throws SQLException {
+		if(StringUtils.isEmpty(schema)){
+			schema = getCurrentSchema(conn);
+			if(StringUtils.isEmpty(schema)){
+				return null;
+			}
+		}
+		return conn.getMetaData().getColumns(catalog, schema, "%", "%");
+	}
+
+	/**
+	 * Returns the query which returns the current schema of the connection.
+	 * Returns <code>null</code> as default because it depends on the database.
+	 */
+	protected String getCurrentSchemaSQL() {
+		return null;
+	}
+
+	/**
+	 * Returns the current schema of the connection, or <code>null</code> if it is unknown.
+	 */
+	private String getCurrentSchema(Connection conn) {
+		String sql = getCurrentSchemaSQL();
+		if(sql == null){
+			return null;
+		}
+		Statement stmt = null;
+		try {
+			stmt = conn.createStatement();
+			ResultSet rs = stmt.executeQuery(sql);
+			return rs.next() ? rs.getString(1) : null;
+		} catch(SQLException ex){
+			// old versions might not support the query
+			return null;
+		} finally {
+			if(stmt != null){
+				try {
+					stmt.close();
+				} catch(SQLException ex){
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>null</code> as default
+	 * because <code>DatabaseMetaData#getPrimaryKeys()</code> requires the table name.
+	 */
+	public ResultSet getSchemaPrimaryKeys(Connection conn, String catalog, String schema) throws SQLException {
+		return null;
+	}
+
+	/**
+	 * Returns <code>null</code> as default
+	 * because <code>DatabaseMetaData#getImportedKeys()</code> requires the table name.
+	 */
+	public ResultSet getSchemaImportedKeys(Connection conn, String catalog, String schema) throws SQLException {
+		return null;
+	}
+
+	/**
+	 * Executes the given query with parameters.
+	 * The returned result should be closed with its statement.
+	 */
+	protected ResultSet executeQuery(Connection conn, String sql, String... params) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(sql);
+		for(int i=0;i<params.length;i++){
+			stmt.setString(i + 1, params[i]);
+		}
+		return stmt.executeQuery();
 	}
 
 }
@@ -2,14 +2,8 @@ package net.java.amateras.db.dialect;
 
 import java.sql.Types;
 
-import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.Messages;
-import net.java.amateras.db.validator.DiagramErrors;
-import net.java.amateras.db.visual.model.AbstractDBEntityModel;
-import net.java.amateras.db.visual.model.ColumnModel;
-import net.java.amateras.db.visual.model.IndexModel;
-import net.java.amateras.db.visual.model.RootModel;
-import net.java.amateras.db.visual.model.TableModel;
+import net.java.amateras.db.validator.IValidationRule;
 
 /**
  * 
@@ -36,36 +30,16 @@ public class DB2Dialect extends AbstractDialect {
 	public DB2Dialect() {
 		super(COLUMN_TYPES);
 	}
+
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "VALUES CURRENT SCHEMA";
+	}
 	
-	// TODO Should Oracle validation levels be customizable?
-    @Override public void validate(DiagramErrors errors, RootModel model) {
-        for(AbstractDBEntityModel entity: model.getChildren()){
-            if(entity instanceof TableModel){
-                TableModel table = (TableModel) entity;
-                String tableName = table.getTableName();
-                if(tableName.length() > 30){
-                    errors.addError(DBPlugin.LEVEL_ERROR, table, 
-                            DBPlugin.getResourceString("validation.error.oracle.tableNameLength"));
-                }
-                
-                for(ColumnModel column: table.getColumns()){
-                    String columnName = column.getColumnName();
-                    if(columnName.length() > 30){
-                        errors.addError(DBPlugin.LEVEL_ERROR, table, column, 
-                                DBPlugin.getResourceString("validation.error.oracle.columnNameLength"));
-                    }
-                }
-                
-                for(IndexModel index: table.getIndices()){
-                    String indexName = index.getIndexName();
-                    if(indexName.length() > 30){
-                        errors.addError(DBPlugin.LEVEL_ERROR, table, index, 
-                                DBPlugin.getResourceString("validation.error.oracle.indexNameLength"));
-                    }
-                }
-            }
-        }
-    }
+	@Override
+	public IValidationRule[] getValidationRules() {
+		return new IValidationRule[]{ new NameLengthValidationRule() };
+	}
 	
 	
 
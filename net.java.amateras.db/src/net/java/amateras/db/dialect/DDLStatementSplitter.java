@@ -0,0 +1,141 @@
+package net.java.amateras.db.dialect;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * The <code>Appendable</code> which splits DDL into statements
+ * and passes them to {@link IStatementCallback} as they are generated.
+ * <p>
+ * A statement ends at a line which ends with <code>;</code> or the batch separator <code>GO</code>.
+ * Trigger, procedure and function definitions continue until the line <code>END;</code>
+ * and are passed with the trailing <code>;</code>. Comment lines and empty lines between statements are skipped.
+ * <pre>
+ * DDLStatementSplitter splitter = new DDLStatementSplitter(callback);
+ * dialect.createDDL(root, false, false, true, false, splitter);
+ * splitter.close();
+ * </pre>
+ * If the callback throws <code>SQLException</code>, it's thrown as the cause of <code>IOException</code>.
+ */
+public class DDLStatementSplitter implements Appendable {
+
+	private IStatementCallback callback;
+	private StringBuilder line = new StringBuilder();
+	private StringBuilder statement = new StringBuilder();
+	private boolean block = false;
+	private boolean comment = false;
+
+	public DDLStatementSplitter(IStatementCallback callback){
+		this.callback = callback;
+	}
+
+	public Appendable append(CharSequence csq) throws IOException {
+		return append(csq, 0, csq.length());
+	}
+
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		for(int i=start;i<end;i++){
+			append(csq.charAt(i));
+		}
+		return this;
+	}
+
+	public Appendable append(char c) throws IOException {
+		if(c == '\n'){
+			processLine(line.toString());
+			line.setLength(0);
+		} else if(c != '\r'){
+			line.append(c);
+		}
+		return this;
+	}
+
+	/**
+	 * Passes the last statement which is not terminated by the separator.
+	 *
+	 * @throws IOException if the callback throws <code>SQLException</code>
+	 */
+	public void close() throws IOException {
+		if(line.length() > 0){
+			processLine(line.toString());
+			line.setLength(0);
+		}
+		if(statement.toString().trim().length() > 0){
+			execute(statement.toString().trim());
+		}
+		statement.setLength(0);
+		block = false;
+	}
+
+	private void processLine(String text) throws IOException {
+		String trimmed = text.trim();
+		String upper = trimmed.toUpperCase();
+
+		if(statement.length() == 0){
+			if(comment){
+				comment = !trimmed.endsWith("*/");
+				return;
+			}
+			if(trimmed.length() == 0 || trimmed.startsWith("--")){
+				return;
+			}
+			if(trimmed.startsWith("/*")){
+				comment = !trimmed.endsWith("*/");
+				return;
+			}
+			block = upper.startsWith("CREATE TRIGGER") || upper.startsWith("CREATE OR REPLACE TRIGGER") ||
+				upper.startsWith("CREATE PROCEDURE") || upper.startsWith("CREATE OR REPLACE PROCEDURE") ||
+				upper.startsWith("CREATE FUNCTION") || upper.startsWith("CREATE OR REPLACE FUNCTION");
+		}
+
+		if(block){
+			statement.append(text).append('\n');
+			if(upper.equals("END;")){
+				execute(statement.toString().trim());
+			}
+			return;
+		}
+
+		if(upper.endsWith(";")){
+			statement.append(text.substring(0, text.lastIndexOf(';')));
+			execute(statement.toString().trim());
+
+		} else if(isBatchSeparator(upper)){
+			statement.append(text.substring(0, text.toUpperCase().lastIndexOf("GO")));
+			execute(statement.toString().trim());
+
+		} else {
+			statement.append(text).append('\n');
+		}
+	}
+
+	/**
+	 * Tests whether the line ends with <code>GO</code> which is not a part of an identifier.
+	 */
+	private static boolean isBatchSeparator(String upper){
+		if(!upper.endsWith("GO")){
+			return false;
+		}
+		if(upper.length() == 2){
+			return true;
+		}
+		char c = upper.charAt(upper.length() - 3);
+		return !Character.isLetterOrDigit(c) && c != '_' && c != '$' && c != '#';
+	}
+
+	private void execute(String sql) throws IOException {
+		statement.setLength(0);
+		block = false;
+		if(sql.length() == 0){
+			return;
+		}
+		try {
+			callback.execute(sql);
+		} catch(SQLException ex){
+			IOException ioe = new IOException(ex.getMessage());
+			ioe.initCause(ex);
+			throw ioe;
+		}
+	}
+
+}
@@ -8,13 +8,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import net.java.amateras.db.util.NameConverter;
 import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
-import net.java.amateras.db.visual.model.AbstractDBEntityModel;
 import net.java.amateras.db.visual.model.ColumnModel;
 import net.java.amateras.db.visual.model.ForeignKeyMapping;
 import net.java.amateras.db.visual.model.ForeignKeyModel;
@@ -31,45 +33,37 @@ import org.eclipse.draw2d.geometry.Rectangle;
  */
 public class DefaultSchemaLoader implements ISchemaLoader {
 	
+	/**
+	 * If the number of tables is this or more, metadata of the whole schema
+	 * is fetched at once instead of issuing queries for each table.
+	 */
+	public static final int BULK_LOADING_THRESHOLD = 20;
+	
+	private boolean bulkLoading = false;
+	private Map<String, List<BulkTable>> bulkColumns;
+	private boolean bulkAutoIncrement;
+	private boolean bulkAutoConvert;
+	private Map<String, List<String>> bulkPrimaryKeys;
+	private Map<String, List<ImportedKey>> bulkImportedKeys;
+	private Executor modelExecutor;
+	
 	public void loadSchema(RootModel root, IDialect dialect, Connection conn, 
 			String[] tables, String catalog, String schema, boolean autoConvert) throws SQLException {
 		if(tables.length==0){
 			return;
 		}
-		for(int i=0;i<tables.length;i++){
-			TableModel table = getTableInfo(tables[i], dialect, conn, catalog, schema, autoConvert);
-			
-			// merge
-			java.util.List<AbstractDBEntityModel> children = root.getChildren();
-			for(int j=0;j<children.size();j++){
-				AbstractDBEntityModel obj = children.get(j);
-				if(obj instanceof TableModel){
-					TableModel tableModel = (TableModel) obj;
-					if(tableModel.getTableName().equals(table.getTableName())){
-						table.setLogicalName(tableModel.getLogicalName());
-						table.setDescription(tableModel.getDescription());
-						table.setConstraint(tableModel.getConstraint());
-						ColumnModel[] columns = table.getColumns();
-						for(int k=0;k<columns.length;k++){
-							ColumnModel columnModel = tableModel.getColumn(columns[k].getColumnName());
-							if(columnModel != null){
-								columns[k].setLogicalName(columnModel.getLogicalName());
-								columns[k].setDescription(columnModel.getDescription());
-							}
-						}
-						root.removeChild(tableModel);
-						break;
-					}
-				}
+		startBulkLoading(tables.length);
+		try {
+			List<TableModel> loadedTables = new ArrayList<TableModel>();
+			for(int i=0;i<tables.length;i++){
+				loadedTables.add(getTableInfo(tables[i], dialect, conn, catalog, schema, autoConvert));
 			}
-			if(table.getConstraint()==null){
-				table.setConstraint(new Rectangle(10 + i * 50, 10 + i * 50, -1, -1));
-			}
-			root.addChild(table);
+			
+			updateModel(createMergeTask(root, loadedTables, dialect, conn, catalog, schema));
+		} finally {
+			finishBulkLoading();
 		}
 		
-		setForeignKeys(root, conn, catalog, schema);
-		
 //		// remove indices which defined as foreign keys
 //		List<IndexModel> indexModels = new ArrayList<IndexModel>();
 //		for(AbstractDBEntityModel entity: root.getChildren()){
@@ -99,6 +93,384 @@ public class DefaultSchemaLoader implements ISchemaLoader {
 //		}
 	}
 	
+	/**
+	 * Adds the loaded table to the diagram.
+	 * <p>
+	 * If the table already exists in the diagram, its logical names, description and location
+	 * are inherited to the loaded table and the existing table is replaced.
+	 * 
+	 * @param root the root model
+	 * @param table the loaded table
+	 * @param index the index of the table in the loaded tables
+	 */
+	protected void mergeTable(final RootModel root, final TableModel table, final int index){
+		updateModel(new Runnable(){
+			public void run(){
+				merge(root, table, index);
+			}
+		});
+	}
+	
+	private static void merge(RootModel root, TableModel table, int index){
+		TableModel tableModel = root.getTable(table.getTableName());
+		if(tableModel != null){
+			table.setLogicalName(tableModel.getLogicalName());
+			table.setDescription(tableModel.getDescription());
+			table.setConstraint(tableModel.getConstraint());
+			ColumnModel[] columns = table.getColumns();
+			for(int k=0;k<columns.length;k++){
+				ColumnModel columnModel = tableModel.getColumn(columns[k].getColumnName());
+				if(columnModel != null){
+					columns[k].setLogicalName(columnModel.getLogicalName());
+					columns[k].setDescription(columnModel.getDescription());
+				}
+			}
+			root.removeChild(tableModel);
+		}
+		if(table.getConstraint()==null){
+			table.setConstraint(new Rectangle(10 + index * 50, 10 + index * 50, -1, -1));
+		}
+		root.addChild(table);
+	}
+	
+	/**
+	 * Fetches foreign keys of the diagram after merging loaded tables, and returns the task
+	 * which merges tables and rebuilds all foreign keys at once.
+	 * <p>
+	 * The model is not changed until the task is run, so it's left untouched
+	 * if metadata can't be fetched or loading is canceled before that.
+	 * 
+	 * @param root the root model
+	 * @param tables loaded tables in the order of the given table names
+	 * @return the task to run by {@link #updateModel(Runnable)}
+	 */
+	protected Runnable createMergeTask(final RootModel root, final List<TableModel> tables, IDialect dialect,
+			Connection conn, String catalog, String schema) throws SQLException {
+		// table names in the same order as the diagram after merging
+		Set<String> loadedNames = new HashSet<String>();
+		for(TableModel table: tables){
+			loadedNames.add(table.getTableName());
+		}
+		List<String> tableNames = new ArrayList<String>();
+		for(TableModel table: root.getTables()){
+			if(!loadedNames.contains(table.getTableName())){
+				tableNames.add(table.getTableName());
+			}
+		}
+		for(TableModel table: tables){
+			tableNames.add(table.getTableName());
+		}
+		final List<List<ImportedKey>> importedKeys = getImportedKeys(tableNames, dialect, conn, catalog, schema);
+		
+		return new Runnable(){
+			public void run(){
+				for(int i=0;i<tables.size();i++){
+					merge(root, tables.get(i), i);
+				}
+				detachForeignKeys(root.getTables(), null);
+				for(List<ImportedKey> keys: importedKeys){
+					attachForeignKeys(root, keys, null);
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Sets the executor which applies changes to the <code>RootModel</code>.
+	 * <p>
+	 * If the model is shown in the editor and metadata is fetched in a background thread,
+	 * give an executor which runs tasks on the UI thread by <code>Display#syncExec()</code>.
+	 * The executor must run tasks synchronously. If it's not set, the model is changed
+	 * on the calling thread.
+	 * 
+	 * @param modelExecutor the executor, or <code>null</code> to change the model on the calling thread
+	 */
+	public void setModelExecutor(Executor modelExecutor){
+		this.modelExecutor = modelExecutor;
+	}
+	
+	/**
+	 * Runs the task which changes the <code>RootModel</code> by the model executor.
+	 * 
+	 * @see #setModelExecutor(Executor)
+	 */
+	protected void updateModel(Runnable task){
+		if(modelExecutor == null){
+			task.run();
+		} else {
+			modelExecutor.execute(task);
+		}
+	}
+	
+	/**
+	 * Enables bulk loading if the number of tables is {@link #BULK_LOADING_THRESHOLD} or more.
+	 * <p>
+	 * In bulk loading, columns, primary keys and foreign keys of the whole schema are fetched
+	 * by {@link IDialect#getSchemaColumns}, {@link IDialect#getSchemaPrimaryKeys} and
+	 * {@link IDialect#getSchemaImportedKeys} at the first time they are required,
+	 * and grouped by table names. If the dialect doesn't support them, they are fetched for each table.
+	 * They are also fetched for each table which is not found in columns of the whole schema,
+	 * such as tables in other schemas, or tables which have the same name in more than one catalog.
+	 * 
+	 * @param tableCount the number of tables to load
+	 */
+	protected synchronized void startBulkLoading(int tableCount){
+		bulkLoading = tableCount >= BULK_LOADING_THRESHOLD;
+	}
+	
+	/**
+	 * Disables bulk loading and discards fetched metadata.
+	 */
+	protected synchronized void finishBulkLoading(){
+		bulkLoading = false;
+		bulkColumns = null;
+		bulkPrimaryKeys = null;
+		bulkImportedKeys = null;
+	}
+	
+	/**
+	 * Returns columns of the given table from metadata of the whole schema.
+	 * 
+	 * @return columns of the table, or <code>null</code> if bulk loading is not available
+	 *   or the table is not found in metadata of the whole schema
+	 */
+	protected synchronized List<ColumnModel> getBulkColumns(String tableName, IDialect dialect,
+			Connection conn, String catalog, String schema, boolean autoConvert) throws SQLException {
+		if(!bulkLoading){
+			return null;
+		}
+		// columns are kept for tables which are required again, such as fingerprints and loading
+		// by IncrementalSchemaLoader, but they are fetched again if logical names are converted differently
+		if(bulkColumns == null || bulkAutoConvert != autoConvert){
+			ResultSet rs = dialect.getSchemaColumns(conn, catalog, schema);
+			if(rs == null){
+				bulkLoading = false;
+				return null;
+			}
+			bulkColumns = new HashMap<String, List<BulkTable>>();
+			bulkAutoConvert = autoConvert;
+			bulkAutoIncrement = hasAutoIncrementColumn(rs);
+			try {
+				while(rs.next()){
+					BulkTable table = getBulkTable(rs.getString("TABLE_CAT"),
+							rs.getString("TABLE_SCHEM"), rs.getString("TABLE_NAME"));
+					table.columns.add(createColumnModel(rs, dialect, autoConvert, bulkAutoIncrement));
+				}
+			} finally {
+				close(rs);
+			}
+		}
+		BulkTable table = findBulkTable(tableName);
+		if(table == null){
+			return null;
+		}
+		return new ArrayList<ColumnModel>(table.columns);
+	}
+	
+	/**
+	 * Returns the table of the given names in bulk columns, or adds it if it doesn't exist.
+	 */
+	private BulkTable getBulkTable(String catalog, String schema, String tableName){
+		List<BulkTable> tables = bulkColumns.get(tableName);
+		if(tables == null){
+			tables = new ArrayList<BulkTable>(1);
+			bulkColumns.put(tableName, tables);
+		}
+		for(BulkTable table: tables){
+			if(equals(table.catalog, catalog) && equals(table.schema, schema)){
+				return table;
+			}
+		}
+		BulkTable table = new BulkTable(catalog, schema);
+		tables.add(table);
+		return table;
+	}
+	
+	/**
+	 * Returns the table in bulk columns.
+	 * If the table is not found, or tables of the name are found in more than one catalog or schema,
+	 * returns <code>null</code> because bulk metadata which is grouped by table names can't be used.
+	 */
+	private BulkTable findBulkTable(String tableName){
+		if(bulkColumns == null){
+			return null;
+		}
+		List<BulkTable> tables = bulkColumns.get(tableName);
+		if(tables == null || tables.size() != 1){
+			return null;
+		}
+		return tables.get(0);
+	}
+	
+	private static boolean equals(String value1, String value2){
+		return value1 == null ? value2 == null : value1.equals(value2);
+	}
+	
+	private synchronized boolean isBulkAutoIncrement(){
+		return bulkAutoIncrement;
+	}
+	
+	/**
+	 * Returns primary key column names of the given table from metadata of the whole schema.
+	 * 
+	 * @return primary key column names, or <code>null</code> if bulk loading is not available
+	 *   or the table is not found in columns of the whole schema
+	 */
+	protected synchronized List<String> getBulkPrimaryKeys(String tableName, IDialect dialect,
+			Connection conn, String catalog, String schema) throws SQLException {
+		if(!bulkLoading || findBulkTable(tableName) == null){
+			return null;
+		}
+		if(bulkPrimaryKeys == null){
+			ResultSet rs = dialect.getSchemaPrimaryKeys(conn, catalog, schema);
+			if(rs == null){
+				return null;
+			}
+			bulkPrimaryKeys = new HashMap<String, List<String>>();
+			try {
+				while(rs.next()){
+					String table = rs.getString("TABLE_NAME");
+					List<String> keys = bulkPrimaryKeys.get(table);
+					if(keys == null){
+						keys = new ArrayList<String>();
+						bulkPrimaryKeys.put(table, keys);
+					}
+					keys.add(rs.getString("COLUMN_NAME"));
+				}
+			} finally {
+				close(rs);
+			}
+		}
+		List<String> keys = bulkPrimaryKeys.get(tableName);
+		if(keys == null){
+			keys = new ArrayList<String>();
+		}
+		return keys;
+	}
+	
+	/**
+	 * Returns imported keys of the given table from metadata of the whole schema.
+	 * 
+	 * @return imported keys, or <code>null</code> if bulk loading is not available
+	 *   or the table is not found in columns of the whole schema
+	 */
+	protected synchronized List<ImportedKey> getBulkImportedKeys(String tableName, IDialect dialect,
+			Connection conn, String catalog, String schema) throws SQLException {
+		if(!bulkLoading || dialect == null || findBulkTable(tableName) == null){
+			return null;
+		}
+		if(bulkImportedKeys == null){
+			ResultSet rs = dialect.getSchemaImportedKeys(conn, catalog, schema);
+			if(rs == null){
+				return null;
+			}
+			bulkImportedKeys = new HashMap<String, List<ImportedKey>>();
+			try {
+				while(rs.next()){
+					ImportedKey key = new ImportedKey(rs);
+					List<ImportedKey> keys = bulkImportedKeys.get(key.fkTable);
+					if(keys == null){
+						keys = new ArrayList<ImportedKey>();
+						bulkImportedKeys.put(key.fkTable, keys);
+					}
+					keys.add(key);
+				}
+			} finally {
+				close(rs);
+			}
+		}
+		List<ImportedKey> keys = bulkImportedKeys.get(tableName);
+		if(keys == null){
+			keys = new ArrayList<ImportedKey>();
+		}
+		return keys;
+	}
+	
+	/**
+	 * Tests whether the result of <code>DatabaseMetaData#getColumns()</code>
+	 * contains <code>IS_AUTOINCREMENT</code> column which is added in JDBC 4.0.
+	 */
+	protected boolean hasAutoIncrementColumn(ResultSet columns) throws SQLException {
+		ResultSetMetaData rm = columns.getMetaData();
+		for(int i=1;i<=rm.getColumnCount();i++){
+			if("IS_AUTOINCREMENT".equalsIgnoreCase(rm.getColumnLabel(i))){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Detects auto increment columns from <code>ResultSetMetaData</code> of the query which is
+	 * returned by {@link IDialect#getColumnMetadataSQL(String)} if the driver doesn't provide
+	 * <code>IS_AUTOINCREMENT</code>. Nothing is executed if the dialect returns <code>null</code>,
+	 * and no more than one row is fetched even if the query doesn't limit rows.
+	 * 
+	 * @param tableName the table name which is passed to the dialect
+	 */
+	protected void detectAutoIncrement(List<ColumnModel> columns, IDialect dialect, 
+			Connection conn, String tableName) throws SQLException {
+		String sql = dialect.getColumnMetadataSQL(tableName);
+		if(sql == null){
+			return;
+		}
+		Statement stmt = conn.createStatement();
+		try {
+			stmt.setMaxRows(1);
+			ResultSet rs = stmt.executeQuery(sql);
+			ResultSetMetaData rm = rs.getMetaData();
+			for(ColumnModel column: columns){
+				int rmIndex = getResultSetMetaDataIndex(rm, column.getColumnName());
+				if(rmIndex > 0){
+					column.setAutoIncrement(rm.isAutoIncrement(rmIndex));
+				}
+			}
+			rs.close();
+		} finally {
+			stmt.close();
+		}
+	}
+	
+	/**
+	 * Creates a column model from the current row of the result of 
+	 * <code>DatabaseMetaData#getColumns()</code>.
+	 * 
+	 * @param autoIncrement if true, auto increment is read from <code>IS_AUTOINCREMENT</code> column
+	 */
+	protected ColumnModel createColumnModel(ResultSet columns, IDialect dialect, 
+			boolean autoConvert, boolean autoIncrement) throws SQLException {
+		IColumnType type = dialect.getColumnType(columns.getString("TYPE_NAME"));
+		if(type == null){
+			type = dialect.getColumnType(columns.getInt("DATA_TYPE"));
+			if(type == null){
+				type = dialect.getDefaultColumnType();
+			}
+		}
+		
+		ColumnModel column = new ColumnModel();
+		column.setColumnName(columns.getString("COLUMN_NAME"));
+		if(autoConvert){
+			column.setLogicalName(NameConverter.physical2logical(column.getColumnName()));
+		} else {
+			column.setLogicalName(column.getColumnName());
+		}
+		column.setColumnType(type);
+		column.setSize(columns.getString("COLUMN_SIZE"));
+		column.setNotNull(columns.getString("IS_NULLABLE").equals("NO"));
+		if(autoIncrement){
+			column.setAutoIncrement("YES".equals(columns.getString("IS_AUTOINCREMENT")));
+		}
+		return column;
+	}
+	
+	protected static void close(ResultSet rs) throws SQLException {
+		Statement stmt = rs.getStatement();
+		rs.close();
+		if(stmt != null){
+			stmt.close();
+		}
+	}
+	
 	protected TableModel getTableInfo(String tableName, IDialect dialect, 
 			Connection conn, String catalog, String schema, boolean autoConvert) throws SQLException {
 		
@@ -114,56 +486,38 @@ public class DefaultSchemaLoader implements ISchemaLoader {
 		
 		DatabaseMetaData meta = conn.getMetaData();
 		
-		List<ColumnModel> list = new ArrayList<ColumnModel>();
+		boolean autoIncrement = false;
+		List<ColumnModel> list = getBulkColumns(tableName, dialect, conn, catalog, schema, autoConvert);
+		if(list == null){
+			list = new ArrayList<ColumnModel>();
+			ResultSet columns = meta.getColumns(catalog, schema, tableName, "%");
+			autoIncrement = hasAutoIncrementColumn(columns);
+			while(columns.next()){
+				list.add(createColumnModel(columns, dialect, autoConvert, autoIncrement));
+			}
+			columns.close();
+		} else {
+			autoIncrement = isBulkAutoIncrement();
+		}
 		
-		Statement stmt = conn.createStatement();
-		ResultSet rs = stmt.executeQuery(dialect.getColumnMetadataSQL(tableName));
-		ResultSetMetaData rm = rs.getMetaData();
+		if(!autoIncrement){
+			detectAutoIncrement(list, dialect, conn, tableName);
+		}
 		
-		ResultSet columns = meta.getColumns(catalog, schema, tableName, "%");
-		while(columns.next()){
-			IColumnType type = dialect.getColumnType(columns.getString("TYPE_NAME"));
-			if(type == null){
-				type = dialect.getColumnType(columns.getInt("DATA_TYPE"));
-				if(type == null){
-					type = dialect.getDefaultColumnType();
-				}
-			}
-			
-			ColumnModel column = new ColumnModel();
-			column.setColumnName(columns.getString("COLUMN_NAME"));
-			if(autoConvert){
-				column.setLogicalName(NameConverter.physical2logical(column.getColumnName()));
-			} else {
-				column.setLogicalName(column.getColumnName());
-			}
-			column.setColumnType(type);
-			column.setSize(columns.getString("COLUMN_SIZE"));
-			column.setNotNull(columns.getString("IS_NULLABLE").equals("NO"));
-			
-			int rmIndex = getResultSetMetaDataIndex(rm, column.getColumnName());
-			if(rmIndex > 0){
-				column.setAutoIncrement(rm.isAutoIncrement(rmIndex));
+		List<String> primaryKeys = getBulkPrimaryKeys(tableName, dialect, conn, catalog, schema);
+		if(primaryKeys == null){
+			primaryKeys = new ArrayList<String>();
+			ResultSet keys = meta.getPrimaryKeys(catalog, schema, tableName);
+			while(keys.next()){
+				primaryKeys.add(keys.getString("COLUMN_NAME"));
 			}
-			
-			list.add(column);
+			keys.close();
 		}
-		columns.close();
-		
-		ResultSet keys = meta.getPrimaryKeys(catalog, schema, tableName);
-		while(keys.next()){
-			String columnName = keys.getString("COLUMN_NAME");
-			for(int i=0;i<list.size();i++){
-				ColumnModel column = (ColumnModel)list.get(i);
-				if(column.getColumnName().equals(columnName)){
-					column.setPrimaryKey(true);
-				}
+		for(ColumnModel column: list){
+			if(primaryKeys.contains(column.getColumnName())){
+				column.setPrimaryKey(true);
 			}
 		}
-		keys.close();
-		
-		rs.close();
-		stmt.close();
 		
 		table.setColumns(list.toArray(new ColumnModel[list.size()]));
 		
@@ -237,7 +591,7 @@ public class DefaultSchemaLoader implements ISchemaLoader {
 	 */
 	protected int getResultSetMetaDataIndex(
 			ResultSetMetaData rm, String columnName) throws SQLException {
-		for(int i=1;i<rm.getColumnCount();i++){
+		for(int i=1;i<=rm.getColumnCount();i++){
 			if(rm.getColumnName(i).equals(columnName)){
 				return i;
 			}
@@ -245,71 +599,204 @@ public class DefaultSchemaLoader implements ISchemaLoader {
 		return 0;
 	}
 	
-	protected void setForeignKeys(RootModel root, Connection conn,
+	protected void setForeignKeys(RootModel root, IDialect dialect, Connection conn,
 			String catalog, String schema) throws SQLException {
-
-		for(int i=0;i<root.getChildren().size();i++){
-			TableModel table = (TableModel)root.getChildren().get(i);
-			for(AbstractDBConnectionModel connModel: table.getModelSourceConnections().toArray(
-					new AbstractDBConnectionModel[table.getModelSourceConnections().size()])){
-				if(connModel instanceof ForeignKeyModel){
-					connModel.detachSource();
-					connModel.detachTarget();
+		setForeignKeys(root, dialect, conn, catalog, schema, null);
+	}
+	
+	/**
+	 * Rebuilds foreign keys in the diagram.
+	 * <p>
+	 * If names of changed tables are given, only foreign keys from or to these tables are rebuilt,
+	 * and imported keys are fetched for only these tables and tables which refer them.
+	 * Imported keys are fetched before the model is changed, so only the rebuilding
+	 * is run by the model executor.
+	 * 
+	 * @param changedTables names of re-imported tables, or <code>null</code> to rebuild all foreign keys
+	 */
+	protected void setForeignKeys(final RootModel root, IDialect dialect, Connection conn,
+			String catalog, String schema, final Set<String> changedTables) throws SQLException {
+		
+		final List<TableModel> tables = root.getTables();
+		Set<String> sourceTables = null;
+		if(changedTables != null){
+			sourceTables = new HashSet<String>(changedTables);
+			// foreign keys which refer changed tables are also rebuilt
+			for(TableModel table: tables){
+				if(changedTables.contains(table.getTableName())){
+					for(AbstractDBConnectionModel connModel: table.getModelTargetConnections()){
+						if(connModel instanceof ForeignKeyModel){
+							sourceTables.add(((TableModel) connModel.getSource()).getTableName());
+						}
+					}
 				}
 			}
 		}
 		
+		List<String> tableNames = new ArrayList<String>();
+		for(TableModel table: tables){
+			if(sourceTables == null || sourceTables.contains(table.getTableName())){
+				tableNames.add(table.getTableName());
+			}
+		}
+		final List<List<ImportedKey>> tableKeys = getImportedKeys(tableNames, dialect, conn, catalog, schema);
+		
+		updateModel(new Runnable(){
+			public void run(){
+				detachForeignKeys(tables, changedTables);
+				for(List<ImportedKey> importedKeys: tableKeys){
+					attachForeignKeys(root, importedKeys, changedTables);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Fetches imported keys of given tables.
+	 * 
+	 * @return imported keys of each table in the order of given table names
+	 */
+	private List<List<ImportedKey>> getImportedKeys(List<String> tableNames, IDialect dialect,
+			Connection conn, String catalog, String schema) throws SQLException {
 		DatabaseMetaData meta = conn.getMetaData();
-		for(int i=0;i<root.getChildren().size();i++){
-			TableModel table = (TableModel)root.getChildren().get(i);
-			
-			ResultSet rs = meta.getImportedKeys(catalog, schema, table.getTableName());
-			Map<String, Map<String, Object>> map = new HashMap<String, Map<String, Object>>();
-			while(rs.next()){
-				String pkTable  = rs.getString("PKTABLE_NAME");
-				String pkColumn = rs.getString("PKCOLUMN_NAME");
-				String fkTable  = rs.getString("FKTABLE_NAME");
-				String fkColumn = rs.getString("FKCOLUMN_NAME");
-				String keyName  = rs.getString("FK_NAME");
-				
-				if(root.getTable(pkTable)!=null && root.getTable(fkTable)!=null){
-					if(map.get(keyName)==null){
-						Map<String, Object> entry = new HashMap<String, Object>();
-						entry.put("fkTable", fkTable);
-						entry.put("pkTable", pkTable);
-						entry.put("mappings", new ArrayList<ForeignKeyMapping>());
-						map.put(keyName, entry);
+		List<List<ImportedKey>> tableKeys = new ArrayList<List<ImportedKey>>();
+		for(String tableName: tableNames){
+			List<ImportedKey> importedKeys = getBulkImportedKeys(tableName, dialect, conn, catalog, schema);
+			if(importedKeys == null){
+				importedKeys = new ArrayList<ImportedKey>();
+				ResultSet rs = meta.getImportedKeys(catalog, schema, tableName);
+				while(rs.next()){
+					importedKeys.add(new ImportedKey(rs));
+				}
+				rs.close();
+			}
+			tableKeys.add(importedKeys);
+		}
+		return tableKeys;
+	}
+	
+	private static void detachForeignKeys(List<TableModel> tables, Set<String> changedTables){
+		for(TableModel table: tables){
+			List<AbstractDBConnectionModel> connModels = new ArrayList<AbstractDBConnectionModel>();
+			connModels.addAll(table.getModelSourceConnections());
+			connModels.addAll(table.getModelTargetConnections());
+			for(AbstractDBConnectionModel connModel: connModels){
+				if(connModel instanceof ForeignKeyModel){
+					String fkTable = ((TableModel) connModel.getSource()).getTableName();
+					String pkTable = ((TableModel) connModel.getTarget()).getTableName();
+					if(changedTables == null || changedTables.contains(fkTable) || changedTables.contains(pkTable)){
+						connModel.detachSource();
+						connModel.detachTarget();
 					}
-					@SuppressWarnings("unchecked")
-					List<ForeignKeyMapping> mappings = 
-						(List<ForeignKeyMapping>) map.get(keyName).get("mappings");
-					ForeignKeyMapping mapping = new ForeignKeyMapping();
-					mapping.setRefer(root.getTable(fkTable).getColumn(fkColumn));
-					mapping.setTarget(root.getTable(pkTable).getColumn(pkColumn));
-					mappings.add(mapping);
 				}
 			}
-			rs.close();
+		}
+	}
+	
+	private static void attachForeignKeys(RootModel root, List<ImportedKey> importedKeys, Set<String> changedTables){
+		Map<String, Map<String, Object>> map = new HashMap<String, Map<String, Object>>();
+		for(ImportedKey key: importedKeys){
+			String pkTable  = key.pkTable;
+			String pkColumn = key.pkColumn;
+			String fkTable  = key.fkTable;
+			String fkColumn = key.fkColumn;
+			String keyName  = key.keyName;
 			
-			Iterator<Map.Entry<String, Map<String, Object>>> ite = map.entrySet().iterator();
-			while(ite.hasNext()){
-				Map.Entry<String, Map<String, Object>> entry = ite.next();
-				Map<String, Object> entryMap = entry.getValue();
-				
+			if(changedTables != null && !changedTables.contains(fkTable) && !changedTables.contains(pkTable)){
+				continue;
+			}
+			
+			if(root.getTable(pkTable)!=null && root.getTable(fkTable)!=null){
+				if(map.get(keyName)==null){
+					Map<String, Object> entry = new HashMap<String, Object>();
+					entry.put("fkTable", fkTable);
+					entry.put("pkTable", pkTable);
+					entry.put("mappings", new ArrayList<ForeignKeyMapping>());
+					map.put(keyName, entry);
+				}
 				@SuppressWarnings("unchecked")
 				List<ForeignKeyMapping> mappings = 
-					(List<ForeignKeyMapping>) entryMap.get("mappings");
-				
-				ForeignKeyModel fkeyModel = new ForeignKeyModel();
-				fkeyModel.setForeignKeyName(entry.getKey());
-				fkeyModel.setMapping(mappings.toArray(new ForeignKeyMapping[mappings.size()]));
-				
-				fkeyModel.setSource(root.getTable((String)entryMap.get("fkTable")));
-				fkeyModel.setTarget(root.getTable((String)entryMap.get("pkTable")));
-				fkeyModel.attachSource();
-				fkeyModel.attachTarget();
+					(List<ForeignKeyMapping>) map.get(keyName).get("mappings");
+				ForeignKeyMapping mapping = new ForeignKeyMapping();
+				mapping.setRefer(root.getTable(fkTable).getColumn(fkColumn));
+				mapping.setTarget(root.getTable(pkTable).getColumn(pkColumn));
+				mappings.add(mapping);
 			}
 		}
+		
+		Iterator<Map.Entry<String, Map<String, Object>>> ite = map.entrySet().iterator();
+		while(ite.hasNext()){
+			Map.Entry<String, Map<String, Object>> entry = ite.next();
+			Map<String, Object> entryMap = entry.getValue();
+			
+			@SuppressWarnings("unchecked")
+			List<ForeignKeyMapping> mappings = 
+				(List<ForeignKeyMapping>) entryMap.get("mappings");
+			
+			ForeignKeyModel fkeyModel = new ForeignKeyModel();
+			fkeyModel.setForeignKeyName(entry.getKey());
+			fkeyModel.setMapping(mappings.toArray(new ForeignKeyMapping[mappings.size()]));
+			
+			fkeyModel.setSource(root.getTable((String)entryMap.get("fkTable")));
+			fkeyModel.setTarget(root.getTable((String)entryMap.get("pkTable")));
+			fkeyModel.attachSource();
+			fkeyModel.attachTarget();
+		}
+	}
+	
+	/**
+	 * Columns of a table which are fetched by {@link IDialect#getSchemaColumns}.
+	 */
+	private static class BulkTable {
+		
+		private String catalog;
+		private String schema;
+		private List<ColumnModel> columns = new ArrayList<ColumnModel>();
+		
+		public BulkTable(String catalog, String schema){
+			this.catalog = catalog;
+			this.schema = schema;
+		}
+	}
+	
+	/**
+	 * A row of the result of <code>DatabaseMetaData#getImportedKeys()</code>.
+	 */
+	protected static class ImportedKey {
+		
+		private String pkTable;
+		private String pkColumn;
+		private String fkTable;
+		private String fkColumn;
+		private String keyName;
+		
+		public ImportedKey(ResultSet rs) throws SQLException {
+			this.pkTable  = rs.getString("PKTABLE_NAME");
+			this.pkColumn = rs.getString("PKCOLUMN_NAME");
+			this.fkTable  = rs.getString("FKTABLE_NAME");
+			this.fkColumn = rs.getString("FKCOLUMN_NAME");
+			this.keyName  = rs.getString("FK_NAME");
+		}
+		
+		public String getPkTable() {
+			return pkTable;
+		}
+		
+		public String getPkColumn() {
+			return pkColumn;
+		}
+		
+		public String getFkTable() {
+			return fkTable;
+		}
+		
+		public String getFkColumn() {
+			return fkColumn;
+		}
+		
+		public String getKeyName() {
+			return keyName;
+		}
 	}
 
 }
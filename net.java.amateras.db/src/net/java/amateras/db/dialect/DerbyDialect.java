@@ -46,6 +46,11 @@ public class DerbyDialect extends AbstractDialect {
 		super(COLUMN_TYPES);
 	}
 
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "VALUES CURRENT SCHEMA";
+	}
+
 	@Override
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment) {
@@ -57,13 +62,13 @@ public class DerbyDialect extends AbstractDialect {
 	}
 
 	@Override
-	public String getColumnMetadataSQL(String tableName) {
-		return super.getColumnMetadataSQL(tableName) + "  FETCH FIRST 1 ROW ONLY";
+	protected void createDropTableStatement(StringBuilder sb, String tableName) {
+		sb.append("DROP TABLE ").append(tableName).append(";");
 	}
 
 	@Override
-	protected void createDropTableStatement(StringBuilder sb, String tableName) {
-		sb.append("DROP TABLE ").append(tableName).append(";");
+	protected String getNullableClause(boolean notNull) {
+		return notNull ? "NOT NULL" : "NULL";
 	}
 
 }
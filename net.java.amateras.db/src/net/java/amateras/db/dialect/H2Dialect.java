@@ -72,6 +72,11 @@ public class H2Dialect extends AbstractDialect {
 		super(COLUMN_TYPES);
 	}
 
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "SELECT SCHEMA()";
+	}
+
 	@Override
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment){
@@ -98,9 +103,4 @@ public class H2Dialect extends AbstractDialect {
 		}
 		return sb.toString();
 	}
-
-	@Override
-	public String getColumnMetadataSQL(String tableName) {
-		return super.getColumnMetadataSQL(tableName) + "  LIMIT 1";
-	}
 }
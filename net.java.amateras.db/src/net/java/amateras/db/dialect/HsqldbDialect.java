@@ -43,6 +43,11 @@ public class HsqldbDialect extends AbstractDialect {
 		super(COLUMN_TYPES);
 	}
 
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "VALUES CURRENT_SCHEMA";
+	}
+
 	@Override
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment){
@@ -75,7 +80,8 @@ public class HsqldbDialect extends AbstractDialect {
 	}
 
 	@Override
-	public String getColumnMetadataSQL(String tableName) {
-		return super.getColumnMetadataSQL(tableName) + "  LIMIT 1";
+	protected String getNullableClause(boolean notNull) {
+		return notNull ? "SET NOT NULL" : "SET NULL";
 	}
+
 }
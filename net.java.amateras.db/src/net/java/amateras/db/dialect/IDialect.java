@@ -1,6 +1,14 @@
 package net.java.amateras.db.dialect;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 import net.java.amateras.db.validator.DiagramErrors;
+import net.java.amateras.db.validator.IValidationRule;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
@@ -79,6 +87,22 @@ public interface IDialect {
 	public String createDDL(RootModel model, boolean schema, 
 			boolean drop, boolean alterTable, boolean comment);
 	
+	/**
+	 * Writes DDL of a given model to the <code>Appendable</code> table by table.
+	 * <p>
+	 * Use {@link DDLStatementSplitter} to receive each statement instead of the text.
+	 * 
+	 * @param model a root model of diagram
+	 * @param schema if true, table names are generated with a schema name
+	 * @param drop if true, this method generates drop statement
+	 * @param alterTable if true, this method generates constrains as ALTER TABLE
+	 * @param comment if true, this method add comment to DDL
+	 * @param out the destination of DDL
+	 * @throws IOException if the destination throws it
+	 */
+	public void createDDL(RootModel model, boolean schema, 
+			boolean drop, boolean alterTable, boolean comment, Appendable out) throws IOException;
+	
 	/**
 	 * Creates DDL that creates a given table.
 	 * 
@@ -94,6 +118,89 @@ public interface IDialect {
 	public String createTableDDL(RootModel root, TableModel model, boolean schema, boolean drop, 
 			boolean alterTable, boolean comment, StringBuilder additions);
 	
+	/**
+	 * Writes the migration script which changes the old model of the <code>SchemaDiff</code>
+	 * into the new model by <code>ALTER TABLE</code> statements.
+	 * <p>
+	 * Foreign keys from or to dropped tables and tables whose primary keys are changed are dropped first,
+	 * and then indices, tables and primary keys are dropped, and tables and columns are changed.
+	 * Primary keys and indices are created next, and foreign keys are created at the last,
+	 * including unchanged foreign keys which have been dropped for changed primary keys.
+	 * 
+	 * @param diff differences of two models
+	 * @param schema if true, table names are generated with a schema name
+	 * @param out the destination of DDL
+	 * @throws IOException if the destination throws it
+	 */
+	public void createAlterDDL(SchemaDiff diff, boolean schema, Appendable out) throws IOException;
+	
+	/**
+	 * Creates DDL that adds a given column to the table.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model
+	 * @param column a column model to add
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that adds a column
+	 */
+	public String createAddColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema);
+	
+	/**
+	 * Creates DDL that changes the definition of a given column.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model
+	 * @param oldColumn the current definition of the column
+	 * @param newColumn the new definition of the column
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that changes a column
+	 */
+	public String createAlterColumnDDL(RootModel root, TableModel table, 
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema);
+	
+	/**
+	 * Creates DDL that drops a given column from the table.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model
+	 * @param column a column model to drop
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that drops a column
+	 */
+	public String createDropColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema);
+	
+	/**
+	 * Creates DDL that drops the primary key of a given table.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that drops a primary key
+	 */
+	public String createDropPrimaryKeyDDL(RootModel root, TableModel table, boolean schema);
+	
+	/**
+	 * Creates DDL that drops a given index.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model
+	 * @param index an index model to drop
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that drops an index
+	 */
+	public String createDropIndexDDL(RootModel root, TableModel table, IndexModel index, boolean schema);
+	
+	/**
+	 * Creates DDL that drops a given foreign key.
+	 * 
+	 * @param root a root model of diagram
+	 * @param table a table model which has the foreign key
+	 * @param keyName the constraint name of the foreign key
+	 * @param schema if true, table names are generated with a schema name
+	 * @return DDL that drops a foreign key
+	 */
+	public String createDropForeignKeyDDL(RootModel root, TableModel table, String keyName, boolean schema);
+	
 	/**
 	 * Returns an implementation of <code>ISchemaLoader</code>
 	 * that used for reverse engineering.
@@ -110,12 +217,71 @@ public interface IDialect {
 	 */
 	public void validate(DiagramErrors errors, RootModel model);
 	
+	/**
+	 * Returns dialect specific rules which validate each table.
+	 * Rules are applied by {@link net.java.amateras.db.validator.DiagramValidator}
+	 * in addition to {@link #validate(DiagramErrors, RootModel)}.
+	 * 
+	 * @return validation rules (may be empty)
+	 */
+	public IValidationRule[] getValidationRules();
+	
 	/**
 	 * Returns SQL which selects all columns 
 	 * of a given table to get table metadata for reverse engineering.
+	 * <p>
+	 * This SQL is used only to get <code>ResultSetMetaData</code>,
+	 * so it should not fetch any rows (e.g. <code>WHERE 1 = 0</code>).
+	 * It's not executed if the JDBC driver provides <code>IS_AUTOINCREMENT</code>
+	 * in <code>DatabaseMetaData#getColumns()</code>.
+	 * If this method returns <code>null</code>, auto increment columns are not detected.
 	 * 
 	 * @param tableName a table name
 	 * @return SQL which selects all columns of a given table
 	 */
 	public String getColumnMetadataSQL(String tableName);
+	
+	/**
+	 * Returns columns of all tables in the schema for reverse engineering.
+	 * <p>
+	 * The result must have same columns as <code>DatabaseMetaData#getColumns()</code>.
+	 * The statement of the result is closed by the caller.
+	 * 
+	 * @param conn the connection
+	 * @param catalog the catalog name
+	 * @param schema the schema name
+	 * @return columns of all tables, or <code>null</code> to fetch them for each table
+	 * @throws SQLException if a database access error occurs
+	 */
+	public ResultSet getSchemaColumns(Connection conn, String catalog, String schema) throws SQLException;
+	
+	/**
+	 * Returns primary keys of all tables in the schema for reverse engineering.
+	 * <p>
+	 * The result must have <code>TABLE_NAME</code> and <code>COLUMN_NAME</code> columns
+	 * as <code>DatabaseMetaData#getPrimaryKeys()</code>.
+	 * The statement of the result is closed by the caller.
+	 * 
+	 * @param conn the connection
+	 * @param catalog the catalog name
+	 * @param schema the schema name
+	 * @return primary keys of all tables, or <code>null</code> to fetch them for each table
+	 * @throws SQLException if a database access error occurs
+	 */
+	public ResultSet getSchemaPrimaryKeys(Connection conn, String catalog, String schema) throws SQLException;
+	
+	/**
+	 * Returns foreign keys of all tables in the schema for reverse engineering.
+	 * <p>
+	 * The result must have <code>PKTABLE_NAME</code>, <code>PKCOLUMN_NAME</code>, <code>FKTABLE_NAME</code>,
+	 * <code>FKCOLUMN_NAME</code> and <code>FK_NAME</code> columns as <code>DatabaseMetaData#getImportedKeys()</code>.
+	 * The statement of the result is closed by the caller.
+	 * 
+	 * @param conn the connection
+	 * @param catalog the catalog name
+	 * @param schema the schema name
+	 * @return foreign keys of all tables, or <code>null</code> to fetch them for each table
+	 * @throws SQLException if a database access error occurs
+	 */
+	public ResultSet getSchemaImportedKeys(Connection conn, String catalog, String schema) throws SQLException;
 }
@@ -0,0 +1,18 @@
+package net.java.amateras.db.dialect;
+
+import java.sql.SQLException;
+
+/**
+ * The callback which receives each statement from {@link DDLStatementSplitter}.
+ */
+public interface IStatementCallback {
+
+	/**
+	 * Called for each statement as soon as it's generated.
+	 *
+	 * @param statement the statement without the trailing separator
+	 * @throws SQLException if the statement can't be executed
+	 */
+	public void execute(String statement) throws SQLException;
+
+}
@@ -0,0 +1,293 @@
+package net.java.amateras.db.dialect;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.dialect.DefaultSchemaLoader.ImportedKey;
+import net.java.amateras.db.util.ProgressMonitorUtils;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Synchronizes the diagram with the database schema incrementally.
+ * <p>
+ * Columns, primary keys, indices and foreign keys of each table are summarized as a fingerprint,
+ * and only tables whose fingerprint differs from the existing <code>TableModel</code> are re-imported
+ * by {@link DefaultSchemaLoader#getTableInfo}. Foreign keys are rebuilt for only re-imported tables.
+ * Logical names, descriptions and locations of existing tables are kept as well as the full import.
+ * <p>
+ * Auto increment and logical names are not a part of the fingerprint.
+ */
+public class IncrementalSchemaLoader {
+
+	private DefaultSchemaLoader loader;
+
+	public IncrementalSchemaLoader(DefaultSchemaLoader loader){
+		this.loader = loader;
+	}
+
+	/**
+	 * Synchronizes given tables in the <code>RootModel</code> with the database.
+	 *
+	 * @param root the root model
+	 * @param dialect the dialect
+	 * @param conn the connection
+	 * @param tables table names to synchronize
+	 * @param catalog the catalog name
+	 * @param schema the schema name
+	 * @param autoConvert if true, physical names of added tables are converted to logical names
+	 * @param monitor the progress monitor (may be null)
+	 * @return the summary of changes
+	 * @throws SQLException if metadata can't be fetched
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public SchemaSyncResult loadSchema(RootModel root, IDialect dialect, Connection conn,
+			String[] tables, String catalog, String schema, boolean autoConvert,
+			IProgressMonitor monitor) throws SQLException {
+		return synchronize(root, dialect, conn, tables, catalog, schema, autoConvert, monitor);
+	}
+
+	/**
+	 * Synchronizes given tables without the progress monitor.
+	 * This method doesn't require Eclipse runtime, so it's available in command line tools.
+	 *
+	 * @see #loadSchema(RootModel, IDialect, Connection, String[], String, String, boolean, IProgressMonitor)
+	 */
+	public SchemaSyncResult loadSchema(RootModel root, IDialect dialect, Connection conn,
+			String[] tables, String catalog, String schema, boolean autoConvert) throws SQLException {
+		return synchronize(root, dialect, conn, tables, catalog, schema, autoConvert, null);
+	}
+
+	private SchemaSyncResult synchronize(RootModel root, IDialect dialect, Connection conn,
+			String[] tables, String catalog, String schema, boolean autoConvert,
+			IProgressMonitor monitor) throws SQLException {
+		SchemaSyncResult result = new SchemaSyncResult();
+		if(tables.length == 0){
+			return result;
+		}
+		if(monitor != null){
+			monitor.beginTask(DBPlugin.getResourceString("wizard.new.import.progress"), tables.length * 2 + 1);
+		}
+
+		try {
+			Set<String> tableNames = new HashSet<String>();
+			for(TableModel table: root.getTables()){
+				tableNames.add(table.getTableName());
+			}
+			Collections.addAll(tableNames, tables);
+
+			// compares fingerprints of existing tables
+			List<String> changedTables = new ArrayList<String>();
+			loader.startBulkLoading(tables.length);
+			try {
+				for(String tableName: tables){
+					subTask(monitor, tableName);
+					TableModel table = root.getTable(tableName);
+					if(table == null){
+						result.getAddedTables().add(tableName);
+						changedTables.add(tableName);
+					} else {
+						String fingerprint = getFingerprint(
+								tableName, dialect, conn, catalog, schema, tableNames);
+						if(fingerprint.equals(getFingerprint(table))){
+							result.getUnchangedTables().add(tableName);
+							// unchanged tables are not re-imported
+							worked(monitor);
+						} else {
+							result.getModifiedTables().add(tableName);
+							changedTables.add(tableName);
+						}
+					}
+					worked(monitor);
+				}
+			} finally {
+				loader.finishBulkLoading();
+			}
+
+			if(changedTables.isEmpty()){
+				return result;
+			}
+
+			// re-imports changed tables
+			loader.startBulkLoading(changedTables.size());
+			try {
+				for(int i=0;i<tables.length;i++){
+					if(changedTables.contains(tables[i])){
+						subTask(monitor, tables[i]);
+						TableModel table = loader.getTableInfo(tables[i], dialect, conn, catalog, schema, autoConvert);
+						loader.mergeTable(root, table, i);
+						worked(monitor);
+					}
+				}
+				loader.setForeignKeys(root, dialect, conn, catalog, schema, new HashSet<String>(changedTables));
+				worked(monitor);
+			} finally {
+				loader.finishBulkLoading();
+			}
+
+			return result;
+
+		} finally {
+			if(monitor != null){
+				monitor.done();
+			}
+		}
+	}
+
+	/**
+	 * Checks cancellation and shows the table name if the monitor is available.
+	 */
+	private static void subTask(IProgressMonitor monitor, String tableName){
+		if(monitor != null){
+			ProgressMonitorUtils.checkCanceled(monitor);
+			monitor.subTask(tableName);
+		}
+	}
+
+	private static void worked(IProgressMonitor monitor){
+		if(monitor != null){
+			monitor.worked(1);
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the table in the database.
+	 * <p>
+	 * Metadata is fetched by the same way as {@link DefaultSchemaLoader#getTableInfo},
+	 * but the probe query for auto increment columns and comments of tables are skipped.
+	 *
+	 * @param tableNames names of tables which would be in the diagram after synchronization
+	 */
+	protected String getFingerprint(String tableName, IDialect dialect, Connection conn,
+			String catalog, String schema, Set<String> tableNames) throws SQLException {
+		DatabaseMetaData meta = conn.getMetaData();
+
+		List<ColumnModel> columns = loader.getBulkColumns(tableName, dialect, conn, catalog, schema, false);
+		if(columns == null){
+			columns = new ArrayList<ColumnModel>();
+			ResultSet rs = meta.getColumns(catalog, schema, tableName, "%");
+			while(rs.next()){
+				columns.add(loader.createColumnModel(rs, dialect, false, false));
+			}
+			rs.close();
+		}
+
+		List<String> primaryKeys = loader.getBulkPrimaryKeys(tableName, dialect, conn, catalog, schema);
+		if(primaryKeys == null){
+			primaryKeys = new ArrayList<String>();
+			ResultSet rs = meta.getPrimaryKeys(catalog, schema, tableName);
+			while(rs.next()){
+				primaryKeys.add(rs.getString("COLUMN_NAME"));
+			}
+			rs.close();
+		}
+		for(ColumnModel column: columns){
+			column.setPrimaryKey(primaryKeys.contains(column.getColumnName()));
+		}
+
+		List<IndexModel> indices = loader.loadIndexModels(tableName, dialect, conn, catalog, schema, columns);
+
+		List<ImportedKey> importedKeys = loader.getBulkImportedKeys(tableName, dialect, conn, catalog, schema);
+		if(importedKeys == null){
+			importedKeys = new ArrayList<ImportedKey>();
+			ResultSet rs = meta.getImportedKeys(catalog, schema, tableName);
+			while(rs.next()){
+				importedKeys.add(new ImportedKey(rs));
+			}
+			rs.close();
+		}
+
+		Map<String, List<String>> foreignKeys = new HashMap<String, List<String>>();
+		for(ImportedKey key: importedKeys){
+			if(tableNames.contains(key.getPkTable())){
+				String keyName = key.getKeyName() + "->" + key.getPkTable();
+				List<String> mappings = foreignKeys.get(keyName);
+				if(mappings == null){
+					mappings = new ArrayList<String>();
+					foreignKeys.put(keyName, mappings);
+				}
+				mappings.add(key.getFkColumn() + "=" + key.getPkColumn());
+			}
+		}
+
+		return getFingerprint(
+				columns.toArray(new ColumnModel[columns.size()]),
+				indices.toArray(new IndexModel[indices.size()]), foreignKeys);
+	}
+
+	/**
+	 * Returns the fingerprint of the table in the diagram.
+	 */
+	protected String getFingerprint(TableModel table){
+		Map<String, List<String>> foreignKeys = new HashMap<String, List<String>>();
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				ForeignKeyModel fkey = (ForeignKeyModel) conn;
+				String keyName = fkey.getForeignKeyName() + "->" + ((TableModel) fkey.getTarget()).getTableName();
+				List<String> mappings = new ArrayList<String>();
+				for(ForeignKeyMapping mapping: fkey.getMapping()){
+					if(mapping.getRefer() != null){
+						mappings.add(mapping.getRefer().getColumnName() + "=" + mapping.getTarget().getColumnName());
+					}
+				}
+				foreignKeys.put(keyName, mappings);
+			}
+		}
+		return getFingerprint(table.getColumns(), table.getIndices(), foreignKeys);
+	}
+
+	private static String getFingerprint(ColumnModel[] columns, IndexModel[] indices,
+			Map<String, List<String>> foreignKeys){
+		StringBuilder sb = new StringBuilder();
+
+		for(ColumnModel column: columns){
+			sb.append("C:").append(column.getColumnName());
+			sb.append(":").append(column.getColumnType() == null ? null : column.getColumnType().getName());
+			sb.append(":").append(column.getSize());
+			sb.append(":").append(column.isNotNull());
+			sb.append(":").append(column.isPrimaryKey());
+			sb.append("\n");
+		}
+
+		List<String> list = new ArrayList<String>();
+		for(IndexModel index: indices){
+			list.add("I:" + index.getIndexName() + ":" +
+					(index.getIndexType() == null ? null : index.getIndexType().getName()) + ":" +
+					index.getColumns());
+		}
+		Collections.sort(list);
+
+		List<String> keys = new ArrayList<String>();
+		for(Map.Entry<String, List<String>> entry: foreignKeys.entrySet()){
+			List<String> mappings = new ArrayList<String>(entry.getValue());
+			Collections.sort(mappings);
+			keys.add("F:" + entry.getKey() + ":" + mappings);
+		}
+		Collections.sort(keys);
+		list.addAll(keys);
+
+		for(String item: list){
+			sb.append(item).append("\n");
+		}
+		return sb.toString();
+	}
+
+}
@@ -4,6 +4,7 @@ import java.sql.Types;
 
 import net.java.amateras.db.Messages;
 import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
@@ -45,6 +46,11 @@ public class MSSQLDialect extends AbstractDialect {
 		super(COLUMN_TYPES, LS + "go");
 	}
 
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "SELECT SCHEMA_NAME()";
+	}
+
 	@Override
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment) {
@@ -57,8 +63,46 @@ public class MSSQLDialect extends AbstractDialect {
 
 	@Override
 	public String getColumnMetadataSQL(String tableName) {
-		return "SELECT TOP 1 * FROM " + tableName  ;
+		return "SELECT * FROM " + tableName + " WHERE 1 = 0";
+	}
+
+	/**
+	 * Changes the type and the nullability of the column.
+	 * The default value is not changed because it's a named constraint in SQL Server.
+	 */
+	@Override
+	public String createAlterColumnDDL(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema) {
+		String warning = createAutoIncrementWarning(root, table, oldColumn, newColumn, schema);
+		if(getColumnTypeDDL(oldColumn).equalsIgnoreCase(getColumnTypeDDL(newColumn)) &&
+				oldColumn.isNotNull() == newColumn.isNotNull()){
+			return warning;
+		}
+		return "ALTER TABLE " + getTableName(root, table, schema) + " ALTER COLUMN " +
+			newColumn.getColumnName() + " " + getColumnTypeDDL(newColumn) +
+			(newColumn.isNotNull() ? " NOT NULL" : " NULL") + separator + LS + warning;
 	}
 
+	/**
+	 * Drops the primary key by the constraint name looked up from <code>sys.key_constraints</code>,
+	 * because it is generated by the server by default while {@link #createTableDDL}
+	 * with <code>alterTable</code> option creates <code>IDX_&lt;table&gt;_PK</code>.
+	 */
+	@Override
+	public String createDropPrimaryKeyDDL(RootModel root, TableModel table, boolean schema) {
+		String tableName = getTableName(root, table, schema);
+		return "DECLARE @sql nvarchar(4000)" + LS +
+			"SELECT @sql = 'ALTER TABLE " + tableName + " DROP CONSTRAINT ' + QUOTENAME(name)" + LS +
+			"  FROM sys.key_constraints WHERE parent_object_id = OBJECT_ID('" + tableName + "') AND type = 'PK'" + LS +
+			"EXEC(@sql)" + separator + LS;
+	}
+
+	@Override
+	public String createDropIndexDDL(RootModel root, TableModel table, IndexModel index, boolean schema) {
+		if(index.getIndexType().getName().equals("UNIQUE")){
+			return super.createDropIndexDDL(root, table, index, schema);
+		}
+		return "DROP INDEX " + getTableName(root, table, schema) + "." + index.getIndexName() + separator + LS;
+	}
 
 }
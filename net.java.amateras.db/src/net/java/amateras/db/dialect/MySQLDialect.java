@@ -1,9 +1,14 @@
 package net.java.amateras.db.dialect;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 
 import net.java.amateras.db.Messages;
+import net.java.amateras.db.util.StringUtils;
 import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
@@ -79,7 +84,38 @@ public class MySQLDialect extends AbstractDialect {
 
 	@Override
 	public String getColumnMetadataSQL(String tableName) {
-		return "SELECT * FROM " + tableName + " LIMIT 0, 1";
+		return "SELECT * FROM " + tableName + " WHERE 1 = 0";
+	}
+
+	@Override
+	public ResultSet getSchemaPrimaryKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE " +
+			"WHERE CONSTRAINT_NAME = 'PRIMARY' ";
+		return executeSchemaQuery(conn, sql, "ORDER BY TABLE_NAME, ORDINAL_POSITION", catalog, schema);
+	}
+
+	@Override
+	public ResultSet getSchemaImportedKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT REFERENCED_TABLE_NAME AS PKTABLE_NAME, REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, " +
+			"       TABLE_NAME AS FKTABLE_NAME, COLUMN_NAME AS FKCOLUMN_NAME, CONSTRAINT_NAME AS FK_NAME " +
+			"FROM information_schema.KEY_COLUMN_USAGE " +
+			"WHERE REFERENCED_TABLE_NAME IS NOT NULL ";
+		return executeSchemaQuery(conn, sql, "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION", catalog, schema);
+	}
+
+	/**
+	 * Executes the query for the database which is specified as the catalog or the schema.
+	 * If both of them are empty, the current database is used.
+	 */
+	private ResultSet executeSchemaQuery(Connection conn, String sql, String orderBy,
+			String catalog, String schema) throws SQLException {
+		String database = StringUtils.isNotEmpty(catalog) ? catalog : schema;
+		if(StringUtils.isNotEmpty(database)){
+			return executeQuery(conn, sql + "AND TABLE_SCHEMA = ? " + orderBy, database);
+		}
+		return executeQuery(conn, sql + "AND TABLE_SCHEMA = DATABASE() " + orderBy);
 	}
 
 	@Override
@@ -87,4 +123,22 @@ public class MySQLDialect extends AbstractDialect {
 		sb.append("DROP TABLE IF EXISTS ").append(tableName).append(";");
 	}
 
+	@Override
+	public String createAlterColumnDDL(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema) {
+		StringBuilder additions = new StringBuilder();
+		String ddl = createColumnDDL(root, table, newColumn, schema, true, additions, false);
+		return "ALTER TABLE " + getTableName(root, table, schema) + " MODIFY " + ddl.trim() + separator + LS + additions;
+	}
+
+	@Override
+	public String createDropIndexDDL(RootModel root, TableModel table, IndexModel index, boolean schema) {
+		return "DROP INDEX " + index.getIndexName() + " ON " + getTableName(root, table, schema) + separator + LS;
+	}
+
+	@Override
+	public String createDropForeignKeyDDL(RootModel root, TableModel table, String keyName, boolean schema) {
+		return "ALTER TABLE " + getTableName(root, table, schema) + " DROP FOREIGN KEY " + keyName + separator + LS;
+	}
+
 }
@@ -0,0 +1,46 @@
+package net.java.amateras.db.dialect;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.validator.DiagramErrors;
+import net.java.amateras.db.validator.IValidationRule;
+import net.java.amateras.db.validator.ValidationProfile;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Validates that names of the table, columns and indices don't exceed 30 characters.
+ *
+ * @see OracleDialect
+ * @see DB2Dialect
+ */
+public class NameLengthValidationRule implements IValidationRule {
+
+	private static final int MAX_LENGTH = 30;
+
+	// TODO Should Oracle validation levels be customizable?
+	public void validate(DiagramErrors errors, ValidationProfile profile, TableModel table) {
+		String tableName = table.getTableName();
+		if(tableName.length() > MAX_LENGTH){
+			errors.addError(DBPlugin.LEVEL_ERROR, table,
+					profile.getMessage("validation.error.oracle.tableNameLength"));
+		}
+
+		for(ColumnModel column: table.getColumns()){
+			String columnName = column.getColumnName();
+			if(columnName.length() > MAX_LENGTH){
+				errors.addError(DBPlugin.LEVEL_ERROR, table, column,
+						profile.getMessage("validation.error.oracle.columnNameLength"));
+			}
+		}
+
+		for(IndexModel index: table.getIndices()){
+			String indexName = index.getIndexName();
+			if(indexName.length() > MAX_LENGTH){
+				errors.addError(DBPlugin.LEVEL_ERROR, table, index,
+						profile.getMessage("validation.error.oracle.indexNameLength"));
+			}
+		}
+	}
+
+}
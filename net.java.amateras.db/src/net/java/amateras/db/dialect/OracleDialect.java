@@ -1,13 +1,14 @@
 package net.java.amateras.db.dialect;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 
-import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.Messages;
-import net.java.amateras.db.validator.DiagramErrors;
-import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.util.StringUtils;
+import net.java.amateras.db.validator.IValidationRule;
 import net.java.amateras.db.visual.model.ColumnModel;
-import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
@@ -114,35 +115,10 @@ public class OracleDialect extends AbstractDialect {
 		return ddl;
 	}
 
-	// TODO Should Oracle validation levels be customizable?
-    @Override public void validate(DiagramErrors errors, RootModel model) {
-        for(AbstractDBEntityModel entity: model.getChildren()){
-            if(entity instanceof TableModel){
-                TableModel table = (TableModel) entity;
-                String tableName = table.getTableName();
-                if(tableName.length() > 30){
-                    errors.addError(DBPlugin.LEVEL_ERROR, table,
-                            DBPlugin.getResourceString("validation.error.oracle.tableNameLength"));
-                }
-
-                for(ColumnModel column: table.getColumns()){
-                    String columnName = column.getColumnName();
-                    if(columnName.length() > 30){
-                        errors.addError(DBPlugin.LEVEL_ERROR, table, column,
-                                DBPlugin.getResourceString("validation.error.oracle.columnNameLength"));
-                    }
-                }
-
-                for(IndexModel index: table.getIndices()){
-                    String indexName = index.getIndexName();
-                    if(indexName.length() > 30){
-                        errors.addError(DBPlugin.LEVEL_ERROR, table, index,
-                                DBPlugin.getResourceString("validation.error.oracle.indexNameLength"));
-                    }
-                }
-            }
-        }
-    }
+	@Override
+	public IValidationRule[] getValidationRules() {
+		return new IValidationRule[]{ new NameLengthValidationRule() };
+	}
 
 
 	@Override
@@ -153,8 +129,66 @@ public class OracleDialect extends AbstractDialect {
 	@Override
 	public String getColumnMetadataSQL(String tableName) {
 		//DBPlugin.logException(new Exception("SELECT * FROM " + tableName));
-		return "SELECT * FROM " + tableName + " WHERE ROWNUM = 1" ;
+		return "SELECT * FROM " + tableName + " WHERE 1 = 0";
 		//return super.getColumnMetadataSQL(tableName) + "  ROWNUM = 1";
 	}
 
+	@Override
+	public ResultSet getSchemaPrimaryKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT c.table_name AS table_name, cc.column_name AS column_name " +
+			"  FROM all_constraints c, all_cons_columns cc " +
+			" WHERE c.constraint_type = 'P' " +
+			"   AND cc.owner = c.owner " +
+			"   AND cc.constraint_name = c.constraint_name ";
+		if(StringUtils.isNotEmpty(schema)){
+			return executeQuery(conn, sql + "AND c.owner = ? ORDER BY 1, cc.position", schema.toUpperCase());
+		}
+		return executeQuery(conn, sql + "AND c.owner = USER ORDER BY 1, cc.position");
+	}
+
+	@Override
+	public ResultSet getSchemaImportedKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT p.table_name AS pktable_name, pc.column_name AS pkcolumn_name, " +
+			"       f.table_name AS fktable_name, fc.column_name AS fkcolumn_name, " +
+			"       f.constraint_name AS fk_name " +
+			"  FROM all_constraints f, all_cons_columns fc, all_constraints p, all_cons_columns pc " +
+			" WHERE f.constraint_type = 'R' " +
+			"   AND fc.owner = f.owner " +
+			"   AND fc.constraint_name = f.constraint_name " +
+			"   AND p.owner = f.r_owner " +
+			"   AND p.constraint_name = f.r_constraint_name " +
+			"   AND pc.owner = p.owner " +
+			"   AND pc.constraint_name = p.constraint_name " +
+			"   AND pc.position = fc.position ";
+		if(StringUtils.isNotEmpty(schema)){
+			return executeQuery(conn, sql + "AND f.owner = ? ORDER BY 3, 5, fc.position", schema.toUpperCase());
+		}
+		return executeQuery(conn, sql + "AND f.owner = USER ORDER BY 3, 5, fc.position");
+	}
+
+	@Override
+	public String createAlterColumnDDL(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema) {
+		StringBuilder sb = new StringBuilder();
+		if(!getColumnTypeDDL(oldColumn).equalsIgnoreCase(getColumnTypeDDL(newColumn))){
+			sb.append(" ").append(getColumnTypeDDL(newColumn));
+		}
+		if(!oldColumn.getDefaultValue().equals(newColumn.getDefaultValue())){
+			sb.append(" DEFAULT ");
+			sb.append(newColumn.getDefaultValue().length() != 0 ? newColumn.getDefaultValue() : "NULL");
+		}
+		// Oracle raises an error if the nullability is not changed
+		if(oldColumn.isNotNull() != newColumn.isNotNull()){
+			sb.append(newColumn.isNotNull() ? " NOT NULL" : " NULL");
+		}
+		String warning = createAutoIncrementWarning(root, table, oldColumn, newColumn, schema);
+		if(sb.length() == 0){
+			return warning;
+		}
+		return "ALTER TABLE " + getTableName(root, table, schema) +
+			" MODIFY (" + newColumn.getColumnName() + sb.toString() + ")" + separator + LS + warning;
+	}
+
 }
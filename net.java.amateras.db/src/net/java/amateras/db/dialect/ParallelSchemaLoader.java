@@ -0,0 +1,215 @@
+package net.java.amateras.db.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.util.DatabaseInfo;
+import net.java.amateras.db.util.ProgressMonitorUtils;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Loads the database schema using a small pool of connections.
+ * <p>
+ * Metadata of tables are fetched concurrently by {@link DefaultSchemaLoader#getTableInfo}.
+ * After all tables and foreign keys have been fetched, they are merged into the <code>RootModel</code>
+ * by one task of the model executor of the loader, in the order of the given table names.
+ * So the result is same as {@link DefaultSchemaLoader#loadSchema}, and the model is left untouched
+ * if loading fails or is canceled.
+ */
+public class ParallelSchemaLoader {
+
+	public static final int DEFAULT_THREADS = 4;
+
+	/**
+	 * If the number of tables is less than this, opening more connections doesn't pay,
+	 * so tables should be loaded by {@link DefaultSchemaLoader#loadSchema} over one connection.
+	 */
+	public static final int PARALLEL_LOADING_THRESHOLD = 100;
+
+	private DefaultSchemaLoader loader;
+	private DatabaseInfo dbinfo;
+	private int threads;
+
+	public ParallelSchemaLoader(DefaultSchemaLoader loader, DatabaseInfo dbinfo){
+		this(loader, dbinfo, DEFAULT_THREADS);
+	}
+
+	/**
+	 * @param loader the schema loader which fetches metadata of each table
+	 * @param dbinfo the database information to open connections
+	 * @param threads the maximum number of connections
+	 */
+	public ParallelSchemaLoader(DefaultSchemaLoader loader, DatabaseInfo dbinfo, int threads){
+		this.loader = loader;
+		this.dbinfo = dbinfo;
+		this.threads = threads;
+	}
+
+	/**
+	 * Loads given tables into the <code>RootModel</code>.
+	 *
+	 * @param root the root model
+	 * @param dialect the dialect
+	 * @param tables table names to load
+	 * @param catalog the catalog name
+	 * @param schema the schema name
+	 * @param autoConvert if true, physical names are converted to logical names
+	 * @param monitor the progress monitor (may be null)
+	 * @throws SQLException if metadata can't be fetched
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public void loadSchema(RootModel root, IDialect dialect, String[] tables,
+			String catalog, String schema, boolean autoConvert,
+			IProgressMonitor monitor) throws SQLException {
+		load(root, dialect, tables, catalog, schema, autoConvert, monitor);
+	}
+
+	/**
+	 * Loads given tables without the progress monitor.
+	 * This method doesn't require Eclipse runtime, so it's available in command line tools.
+	 *
+	 * @see #loadSchema(RootModel, IDialect, String[], String, String, boolean, IProgressMonitor)
+	 */
+	public void loadSchema(RootModel root, IDialect dialect, String[] tables,
+			String catalog, String schema, boolean autoConvert) throws SQLException {
+		load(root, dialect, tables, catalog, schema, autoConvert, null);
+	}
+
+	private void load(RootModel root, final IDialect dialect, String[] tables,
+			final String catalog, final String schema, final boolean autoConvert,
+			IProgressMonitor monitor) throws SQLException {
+		if(tables.length == 0){
+			return;
+		}
+		if(monitor != null){
+			monitor.beginTask(DBPlugin.getResourceString("wizard.new.import.progress"), tables.length + 1);
+		}
+
+		int size = Math.max(1, Math.min(threads, tables.length));
+		List<Connection> connections = new ArrayList<Connection>();
+		final BlockingQueue<Connection> pool = new LinkedBlockingQueue<Connection>();
+		ExecutorService executor = Executors.newFixedThreadPool(size);
+		loader.startBulkLoading(tables.length);
+
+		try {
+			Runnable mergeTask;
+			SQLException closeError;
+			try {
+				for(int i=0;i<size;i++){
+					Connection conn = dbinfo.connect();
+					connections.add(conn);
+					pool.add(conn);
+				}
+
+				List<Future<TableModel>> futures = new ArrayList<Future<TableModel>>();
+				for(final String tableName: tables){
+					futures.add(executor.submit(new Callable<TableModel>(){
+						public TableModel call() throws Exception {
+							Connection conn = pool.take();
+							try {
+								return loader.getTableInfo(tableName, dialect, conn, catalog, schema, autoConvert);
+							} finally {
+								pool.add(conn);
+							}
+						}
+					}));
+				}
+
+				List<TableModel> loadedTables = new ArrayList<TableModel>();
+				for(int i=0;i<futures.size();i++){
+					if(monitor != null){
+						monitor.subTask(tables[i]);
+					}
+					loadedTables.add(waitFor(futures.get(i), monitor));
+					if(monitor != null){
+						monitor.worked(1);
+					}
+				}
+
+				mergeTask = loader.createMergeTask(root, loadedTables, dialect, connections.get(0), catalog, schema);
+
+			} finally {
+				executor.shutdownNow();
+				loader.finishBulkLoading();
+				closeError = close(connections);
+			}
+			if(closeError != null){
+				throw closeError;
+			}
+
+			if(monitor != null){
+				ProgressMonitorUtils.checkCanceled(monitor);
+			}
+			loader.updateModel(mergeTask);
+			if(monitor != null){
+				monitor.worked(1);
+			}
+
+		} finally {
+			if(monitor != null){
+				monitor.done();
+			}
+		}
+	}
+
+	/**
+	 * Closes all connections and returns the first error instead of logging it,
+	 * because the plug-in is not available in command line tools.
+	 */
+	private static SQLException close(List<Connection> connections){
+		SQLException error = null;
+		for(Connection conn: connections){
+			try {
+				conn.close();
+			} catch(SQLException ex){
+				if(error == null){
+					error = ex;
+				}
+			}
+		}
+		return error;
+	}
+
+	private TableModel waitFor(Future<TableModel> future, IProgressMonitor monitor) throws SQLException {
+		while(true){
+			if(monitor != null){
+				ProgressMonitorUtils.checkCanceled(monitor);
+			}
+			try {
+				return future.get(200, TimeUnit.MILLISECONDS);
+			} catch(TimeoutException ex){
+				// check cancellation again
+			} catch(InterruptedException ex){
+				if(monitor != null){
+					throw ProgressMonitorUtils.canceled();
+				}
+				throw new SQLException("Loading tables has been interrupted.");
+			} catch(ExecutionException ex){
+				Throwable cause = ex.getCause();
+				if(cause instanceof SQLException){
+					throw (SQLException) cause;
+				} else if(cause instanceof RuntimeException){
+					throw (RuntimeException) cause;
+				}
+				throw new SQLException(cause);
+			}
+		}
+	}
+
+}
@@ -1,8 +1,12 @@
 package net.java.amateras.db.dialect;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 
 import net.java.amateras.db.Messages;
+import net.java.amateras.db.util.StringUtils;
 import net.java.amateras.db.visual.model.ColumnModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
@@ -55,6 +59,11 @@ public class PostgreSQLDialect extends AbstractDialect {
 		super(COLUMN_TYPES);
 	}
 
+	@Override
+	protected String getCurrentSchemaSQL() {
+		return "SELECT current_schema()";
+	}
+
 	@Override
 	protected String createColumnDDL(RootModel root, TableModel tableModel,
 			ColumnModel columnModel, boolean schema, boolean alterTable, StringBuilder additions, boolean comment) {
@@ -89,8 +98,66 @@ public class PostgreSQLDialect extends AbstractDialect {
 	}
 
 	@Override
-	public String getColumnMetadataSQL(String tableName) {
-		return super.getColumnMetadataSQL(tableName) + "  LIMIT 1";
+	public ResultSet getSchemaPrimaryKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT kcu.table_name AS \"TABLE_NAME\", kcu.column_name AS \"COLUMN_NAME\" " +
+			"FROM information_schema.table_constraints tc " +
+			"JOIN information_schema.key_column_usage kcu " +
+			"  ON kcu.constraint_schema = tc.constraint_schema " +
+			" AND kcu.constraint_name = tc.constraint_name " +
+			" AND kcu.table_name = tc.table_name " +
+			"WHERE tc.constraint_type = 'PRIMARY KEY' ";
+		if(StringUtils.isNotEmpty(schema)){
+			return executeQuery(conn, sql + "AND tc.table_schema = ? ORDER BY 1, kcu.ordinal_position", schema);
+		}
+		return executeQuery(conn, sql + "AND tc.table_schema = current_schema() ORDER BY 1, kcu.ordinal_position");
+	}
+
+	@Override
+	public ResultSet getSchemaImportedKeys(Connection conn, String catalog, String schema) throws SQLException {
+		String sql =
+			"SELECT pk.table_name AS \"PKTABLE_NAME\", pk.column_name AS \"PKCOLUMN_NAME\", " +
+			"       fk.table_name AS \"FKTABLE_NAME\", fk.column_name AS \"FKCOLUMN_NAME\", " +
+			"       rc.constraint_name AS \"FK_NAME\" " +
+			"FROM information_schema.referential_constraints rc " +
+			"JOIN information_schema.table_constraints ftc " +
+			"  ON ftc.constraint_schema = rc.constraint_schema " +
+			" AND ftc.constraint_name = rc.constraint_name " +
+			" AND ftc.constraint_type = 'FOREIGN KEY' " +
+			"JOIN information_schema.key_column_usage fk " +
+			"  ON fk.constraint_schema = rc.constraint_schema " +
+			" AND fk.constraint_name = rc.constraint_name " +
+			" AND fk.table_name = ftc.table_name " +
+			"JOIN information_schema.table_constraints ptc " +
+			"  ON ptc.constraint_schema = rc.unique_constraint_schema " +
+			" AND ptc.constraint_name = rc.unique_constraint_name " +
+			" AND ptc.constraint_type IN ('PRIMARY KEY', 'UNIQUE') " +
+			"JOIN information_schema.key_column_usage pk " +
+			"  ON pk.constraint_schema = rc.unique_constraint_schema " +
+			" AND pk.constraint_name = rc.unique_constraint_name " +
+			" AND pk.table_name = ptc.table_name " +
+			" AND pk.ordinal_position = fk.position_in_unique_constraint ";
+		if(StringUtils.isNotEmpty(schema)){
+			return executeQuery(conn, sql + "WHERE fk.table_schema = ? ORDER BY 3, 5, fk.ordinal_position", schema);
+		}
+		return executeQuery(conn, sql + "WHERE fk.table_schema = current_schema() ORDER BY 3, 5, fk.ordinal_position");
+	}
+
+	/**
+	 * Drops the primary key by the constraint name looked up from <code>pg_constraint</code>,
+	 * because it is <code>&lt;table&gt;_pkey</code> by default while {@link #createTableDDL}
+	 * with <code>alterTable</code> option creates <code>IDX_&lt;table&gt;_PK</code>.
+	 */
+	@Override
+	public String createDropPrimaryKeyDDL(RootModel root, TableModel table, boolean schema) {
+		String tableName = getTableName(root, table, schema);
+		return "DO $$" + LS +
+			"DECLARE pk_name name;" + LS +
+			"BEGIN" + LS +
+			"  SELECT conname INTO pk_name FROM pg_constraint" + LS +
+			"    WHERE conrelid = '" + tableName + "'::regclass AND contype = 'p';" + LS +
+			"  EXECUTE 'ALTER TABLE " + tableName + " DROP CONSTRAINT ' || quote_ident(pk_name);" + LS +
+			"END $$" + separator + LS;
 	}
 
 }
@@ -0,0 +1,296 @@
+package net.java.amateras.db.dialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.java.amateras.db.util.StringUtils;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Compares two <code>RootModel</code>s such as two revisions of a diagram,
+ * or a diagram and a schema loaded by {@link ISchemaLoader}.
+ * <p>
+ * Tables, columns and indices are matched by names ignoring case, and foreign keys are matched
+ * by names or referenced columns. Every lookup uses a hash map, so the cost is linear
+ * to the size of models. Logical names, descriptions, locations and linked tables are not compared.
+ * A renamed table or column is reported as dropped and added.
+ * <p>
+ * Use {@link IDialect#createAlterDDL(SchemaDiff, boolean, Appendable)} to generate the migration script.
+ */
+public class SchemaDiff {
+
+	private RootModel oldModel;
+	private RootModel newModel;
+
+	private List<TableModel> addedTables = new ArrayList<TableModel>();
+	private List<TableModel> droppedTables = new ArrayList<TableModel>();
+	private List<TableDiff> modifiedTables = new ArrayList<TableDiff>();
+	private Map<ForeignKeyModel, ForeignKeyModel> unchangedForeignKeys =
+		new IdentityHashMap<ForeignKeyModel, ForeignKeyModel>();
+
+	/**
+	 * Compares the old model with the new model.
+	 *
+	 * @param oldModel the model which represents the current schema
+	 * @param newModel the model which represents the schema after the migration
+	 */
+	public SchemaDiff(RootModel oldModel, RootModel newModel){
+		this.oldModel = oldModel;
+		this.newModel = newModel;
+
+		Map<String, TableModel> oldTables = new HashMap<String, TableModel>();
+		for(TableModel table: oldModel.getTables()){
+			if(!table.isLinkedTable()){
+				oldTables.put(getKey(table.getTableName()), table);
+			}
+		}
+
+		Map<String, TableModel> newTables = new HashMap<String, TableModel>();
+		for(TableModel newTable: newModel.getTables()){
+			if(newTable.isLinkedTable()){
+				continue;
+			}
+			String key = getKey(newTable.getTableName());
+			newTables.put(key, newTable);
+
+			TableModel oldTable = oldTables.get(key);
+			if(oldTable == null){
+				addedTables.add(newTable);
+			} else {
+				TableDiff diff = compareTable(oldTable, newTable);
+				if(diff.isChanged()){
+					modifiedTables.add(diff);
+				}
+			}
+		}
+
+		// referencing tables are dropped before referenced tables
+		List<TableModel> sortedTables = TableDependencyCalculator.getSortedTable(oldModel);
+		for(int i=sortedTables.size()-1;i>=0;i--){
+			TableModel table = sortedTables.get(i);
+			if(!table.isLinkedTable() && !newTables.containsKey(getKey(table.getTableName()))){
+				droppedTables.add(table);
+			}
+		}
+	}
+
+	/**
+	 * Returns the model which represents the current schema.
+	 */
+	public RootModel getOldModel() {
+		return oldModel;
+	}
+
+	/**
+	 * Returns the model which represents the schema after the migration.
+	 */
+	public RootModel getNewModel() {
+		return newModel;
+	}
+
+	/**
+	 * Returns tables of the new model which don't exist in the old model.
+	 */
+	public List<TableModel> getAddedTables() {
+		return addedTables;
+	}
+
+	/**
+	 * Returns tables of the old model which don't exist in the new model.
+	 * Referencing tables come before referenced tables.
+	 */
+	public List<TableModel> getDroppedTables() {
+		return droppedTables;
+	}
+
+	/**
+	 * Returns differences of tables which exist in both models.
+	 */
+	public List<TableDiff> getModifiedTables() {
+		return modifiedTables;
+	}
+
+	/**
+	 * Returns the foreign key of the new model which is same as a given foreign key of the old model,
+	 * or <code>null</code> if the foreign key is dropped or changed.
+	 */
+	public ForeignKeyModel getNewForeignKey(ForeignKeyModel oldKey) {
+		return unchangedForeignKeys.get(oldKey);
+	}
+
+	/**
+	 * Tests whether models have any differences.
+	 */
+	public boolean isChanged() {
+		return !addedTables.isEmpty() || !droppedTables.isEmpty() || !modifiedTables.isEmpty();
+	}
+
+	private TableDiff compareTable(TableModel oldTable, TableModel newTable){
+		TableDiff diff = new TableDiff(oldTable, newTable);
+
+		// columns
+		Map<String, ColumnModel> oldColumns = new HashMap<String, ColumnModel>();
+		for(ColumnModel column: oldTable.getColumns()){
+			oldColumns.put(getKey(column.getColumnName()), column);
+		}
+		for(ColumnModel newColumn: newTable.getColumns()){
+			ColumnModel oldColumn = oldColumns.remove(getKey(newColumn.getColumnName()));
+			if(oldColumn == null){
+				diff.getAddedColumns().add(newColumn);
+			} else if(isColumnChanged(oldColumn, newColumn)){
+				diff.getModifiedColumns().add(new ColumnModel[]{oldColumn, newColumn});
+			}
+		}
+		for(ColumnModel column: oldTable.getColumns()){
+			if(oldColumns.containsKey(getKey(column.getColumnName()))){
+				diff.getDroppedColumns().add(column);
+			}
+		}
+
+		// primary key
+		diff.setPrimaryKeyChanged(!getColumnNames(oldTable.getPrimaryKeyColumns()).equals(
+				getColumnNames(newTable.getPrimaryKeyColumns())));
+
+		// indices
+		Map<String, IndexModel> oldIndices = new HashMap<String, IndexModel>();
+		for(IndexModel index: oldTable.getIndices()){
+			oldIndices.put(getKey(index.getIndexName()), index);
+		}
+		for(IndexModel newIndex: newTable.getIndices()){
+			IndexModel oldIndex = oldIndices.remove(getKey(newIndex.getIndexName()));
+			if(oldIndex == null){
+				diff.getAddedIndices().add(newIndex);
+			} else if(!getSignature(oldIndex).equals(getSignature(newIndex))){
+				diff.getDroppedIndices().add(oldIndex);
+				diff.getAddedIndices().add(newIndex);
+			}
+		}
+		for(IndexModel index: oldTable.getIndices()){
+			if(oldIndices.containsKey(getKey(index.getIndexName()))){
+				diff.getDroppedIndices().add(index);
+			}
+		}
+
+		// foreign keys
+		List<ForeignKeyModel> oldKeys = getForeignKeys(oldTable);
+		Map<String, ForeignKeyModel> oldKeysByName = new HashMap<String, ForeignKeyModel>();
+		Map<String, ForeignKeyModel> oldKeysBySignature = new HashMap<String, ForeignKeyModel>();
+		for(ForeignKeyModel fk: oldKeys){
+			if(StringUtils.isNotEmpty(fk.getForeignKeyName())){
+				oldKeysByName.put(getKey(fk.getForeignKeyName()), fk);
+			}
+			String signature = getSignature(fk);
+			if(!oldKeysBySignature.containsKey(signature)){
+				oldKeysBySignature.put(signature, fk);
+			}
+		}
+		Map<ForeignKeyModel, ForeignKeyModel> matched = new IdentityHashMap<ForeignKeyModel, ForeignKeyModel>();
+		for(ForeignKeyModel newKey: getForeignKeys(newTable)){
+			String signature = getSignature(newKey);
+			ForeignKeyModel oldKey = null;
+			if(StringUtils.isNotEmpty(newKey.getForeignKeyName())){
+				oldKey = oldKeysByName.get(getKey(newKey.getForeignKeyName()));
+			}
+			if(oldKey == null || matched.containsKey(oldKey)){
+				// unnamed or renamed foreign keys are matched by referenced columns
+				oldKey = oldKeysBySignature.get(signature);
+				if(oldKey != null && matched.containsKey(oldKey)){
+					oldKey = null;
+				}
+			}
+			if(oldKey == null){
+				diff.getAddedForeignKeys().add(newKey);
+			} else {
+				matched.put(oldKey, newKey);
+				if(!getSignature(oldKey).equals(signature)){
+					diff.getDroppedForeignKeys().add(oldKey);
+					diff.getAddedForeignKeys().add(newKey);
+				} else {
+					unchangedForeignKeys.put(oldKey, newKey);
+				}
+			}
+		}
+		for(ForeignKeyModel fk: oldKeys){
+			if(!matched.containsKey(fk)){
+				diff.getDroppedForeignKeys().add(fk);
+			}
+		}
+
+		return diff;
+	}
+
+	private static boolean isColumnChanged(ColumnModel oldColumn, ColumnModel newColumn){
+		String oldType = oldColumn.getColumnType() == null ? null : oldColumn.getColumnType().getName();
+		String newType = newColumn.getColumnType() == null ? null : newColumn.getColumnType().getName();
+		if(oldType == null ? newType != null : !oldType.equalsIgnoreCase(newType)){
+			return true;
+		}
+		if(newColumn.getColumnType() != null && newColumn.getColumnType().supportSize() &&
+				!getValue(oldColumn.getSize()).equals(getValue(newColumn.getSize()))){
+			return true;
+		}
+		return oldColumn.isNotNull() != newColumn.isNotNull() ||
+			oldColumn.isAutoIncrement() != newColumn.isAutoIncrement() ||
+			!getValue(oldColumn.getDefaultValue()).equals(getValue(newColumn.getDefaultValue()));
+	}
+
+	/**
+	 * Returns foreign keys which are defined in the given table.
+	 */
+	static List<ForeignKeyModel> getForeignKeys(TableModel table){
+		List<ForeignKeyModel> list = new ArrayList<ForeignKeyModel>();
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				list.add((ForeignKeyModel) conn);
+			}
+		}
+		return list;
+	}
+
+	private static String getSignature(IndexModel index){
+		List<String> columns = new ArrayList<String>();
+		for(String column: index.getColumns()){
+			columns.add(getKey(column));
+		}
+		return (index.getIndexType() == null ? null : index.getIndexType().getName()) + ":" + columns;
+	}
+
+	private static String getSignature(ForeignKeyModel fk){
+		List<String> mappings = new ArrayList<String>();
+		for(ForeignKeyMapping mapping: fk.getMapping()){
+			mappings.add(
+					(mapping.getRefer() == null ? null : getKey(mapping.getRefer().getColumnName())) + "=" +
+					(mapping.getTarget() == null ? null : getKey(mapping.getTarget().getColumnName())));
+		}
+		Collections.sort(mappings);
+		return getKey(((TableModel) fk.getTarget()).getTableName()) + ":" + mappings;
+	}
+
+	private static List<String> getColumnNames(ColumnModel[] columns){
+		String[] names = new String[columns.length];
+		for(int i=0;i<columns.length;i++){
+			names[i] = getKey(columns[i].getColumnName());
+		}
+		return Arrays.asList(names);
+	}
+
+	private static String getKey(String name){
+		return name == null ? "" : name.toUpperCase();
+	}
+
+	private static String getValue(String value){
+		return value == null ? "" : value.trim();
+	}
+
+}
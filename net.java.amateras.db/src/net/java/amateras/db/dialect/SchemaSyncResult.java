@@ -0,0 +1,65 @@
+package net.java.amateras.db.dialect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The summary of the schema synchronization by {@link IncrementalSchemaLoader}.
+ */
+public class SchemaSyncResult {
+
+	private List<String> addedTables = new ArrayList<String>();
+	private List<String> modifiedTables = new ArrayList<String>();
+	private List<String> unchangedTables = new ArrayList<String>();
+
+	/**
+	 * Returns names of tables which were not in the diagram and have been added.
+	 */
+	public List<String> getAddedTables() {
+		return addedTables;
+	}
+
+	/**
+	 * Returns names of tables whose metadata were changed and have been re-imported.
+	 */
+	public List<String> getModifiedTables() {
+		return modifiedTables;
+	}
+
+	/**
+	 * Returns names of tables which have not been changed since the last import.
+	 */
+	public List<String> getUnchangedTables() {
+		return unchangedTables;
+	}
+
+	/**
+	 * Tests whether the diagram has been changed by the synchronization.
+	 */
+	public boolean isChanged() {
+		return !addedTables.isEmpty() || !modifiedTables.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Added: ").append(addedTables.size());
+		sb.append(", Modified: ").append(modifiedTables.size());
+		sb.append(", Unchanged: ").append(unchangedTables.size());
+		append(sb, "Added", addedTables);
+		append(sb, "Modified", modifiedTables);
+		return sb.toString();
+	}
+
+	private static void append(StringBuilder sb, String label, List<String> tables){
+		if(!tables.isEmpty()){
+			sb.append("\n").append(label).append(": ");
+			for(int i=0;i<tables.size();i++){
+				if(i != 0){
+					sb.append(", ");
+				}
+				sb.append(tables.get(i));
+			}
+		}
+	}
+}
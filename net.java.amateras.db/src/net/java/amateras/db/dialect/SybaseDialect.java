@@ -5,6 +5,7 @@ import java.sql.Types;
 import net.java.amateras.db.Messages;
 import net.java.amateras.db.util.StringUtils;
 import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
@@ -69,6 +70,90 @@ public class SybaseDialect extends AbstractDialect {
 
 	@Override
 	public String getColumnMetadataSQL(String tableName) {
-		return "SELECT TOP 1 * FROM " + tableName  ;
+		return "SELECT * FROM " + tableName + " WHERE 1 = 0";
 	}
+
+	@Override
+	public String createAlterColumnDDL(RootModel root, TableModel table,
+			ColumnModel oldColumn, ColumnModel newColumn, boolean schema) {
+		String tableName = getTableName(root, table, schema);
+		StringBuilder sb = new StringBuilder();
+		if(!getColumnTypeDDL(oldColumn).equalsIgnoreCase(getColumnTypeDDL(newColumn)) ||
+				oldColumn.isNotNull() != newColumn.isNotNull()){
+			sb.append("ALTER TABLE ").append(tableName).append(" MODIFY ").append(newColumn.getColumnName());
+			sb.append(" ").append(getColumnTypeDDL(newColumn));
+			sb.append(newColumn.isNotNull() ? " NOT NULL" : " NULL");
+			sb.append(LS).append(separator).append(LS);
+		}
+		if(!oldColumn.getDefaultValue().equals(newColumn.getDefaultValue())){
+			sb.append("ALTER TABLE ").append(tableName).append(" REPLACE ").append(newColumn.getColumnName());
+			sb.append(" DEFAULT ");
+			sb.append(newColumn.getDefaultValue().length() != 0 ? newColumn.getDefaultValue() : "NULL");
+			sb.append(LS).append(separator).append(LS);
+		}
+		sb.append(createAutoIncrementWarning(root, table, oldColumn, newColumn, schema));
+		return sb.toString();
+	}
+
+	@Override
+	public String createAddColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema) {
+		return separateLine(super.createAddColumnDDL(root, table, column, schema));
+	}
+
+	@Override
+	protected String createPrimaryKeyDDL(RootModel root, TableModel model, boolean schema) {
+		return separateLine(super.createPrimaryKeyDDL(root, model, schema));
+	}
+
+	@Override
+	protected String createForeignKeyDDL(RootModel root, TableModel model, String fkName, String fkDef, boolean schema) {
+		return separateLine(super.createForeignKeyDDL(root, model, fkName, fkDef, schema));
+	}
+
+	/**
+	 * Moves the separator at the end of given DDL to the next line, because <code>GO</code> must be on its own line.
+	 */
+	private String separateLine(String ddl) {
+		String end = separator + LS;
+		if(ddl.endsWith(end)){
+			return ddl.substring(0, ddl.length() - end.length()) + LS + end;
+		}
+		return ddl;
+	}
+
+	@Override
+	public String createDropColumnDDL(RootModel root, TableModel table, ColumnModel column, boolean schema) {
+		return "ALTER TABLE " + getTableName(root, table, schema) +
+			" DROP " + column.getColumnName() + LS + separator + LS;
+	}
+
+	/**
+	 * Drops the primary key by the constraint name looked up from <code>sysindexes</code>,
+	 * because it is generated by the server by default while {@link #createTableDDL}
+	 * with <code>alterTable</code> option creates <code>IDX_&lt;table&gt;_PK</code>.
+	 */
+	@Override
+	public String createDropPrimaryKeyDDL(RootModel root, TableModel table, boolean schema) {
+		String tableName = getTableName(root, table, schema);
+		return "DECLARE @sql varchar(1024)" + LS +
+			"SELECT @sql = 'ALTER TABLE " + tableName + " DROP CONSTRAINT ' + name" + LS +
+			"  FROM sysindexes WHERE id = OBJECT_ID('" + tableName + "') AND status & 2048 = 2048" + LS +
+			"EXEC(@sql)" + LS + separator + LS;
+	}
+
+	@Override
+	public String createDropIndexDDL(RootModel root, TableModel table, IndexModel index, boolean schema) {
+		if(index.getIndexType().getName().equals("UNIQUE")){
+			return "ALTER TABLE " + getTableName(root, table, schema) +
+				" DROP CONSTRAINT " + index.getIndexName() + LS + separator + LS;
+		}
+		return "DROP INDEX " + getTableName(root, table, schema) + "." + index.getIndexName() + LS + separator + LS;
+	}
+
+	@Override
+	public String createDropForeignKeyDDL(RootModel root, TableModel table, String keyName, boolean schema) {
+		return "ALTER TABLE " + getTableName(root, table, schema) +
+			" DROP CONSTRAINT " + keyName + LS + separator + LS;
+	}
+
 }
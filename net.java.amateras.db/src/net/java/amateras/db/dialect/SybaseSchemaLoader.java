@@ -7,9 +7,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,11 +39,8 @@ public class SybaseSchemaLoader extends DefaultSchemaLoader {
 		
 		List<ColumnModel> list = new ArrayList<ColumnModel>();
 		
-		Statement stmt = conn.createStatement();
-		ResultSet rs = stmt.executeQuery(dialect.getColumnMetadataSQL(getTableName(tableName, schema)));
-		ResultSetMetaData rm = rs.getMetaData();
-		
 		ResultSet columns = meta.getColumns(catalog, schema, tableName, "%");
+		boolean autoIncrement = hasAutoIncrementColumn(columns);
 		while(columns.next()){
 			IColumnType type = dialect.getColumnType(columns.getString("TYPE_NAME"));
 			if(type == null){
@@ -72,15 +67,19 @@ public class SybaseSchemaLoader extends DefaultSchemaLoader {
 			column.setSize(columns.getString("COLUMN_SIZE"));
 			column.setNotNull(columns.getString("IS_NULLABLE").equals("NO"));
 			
-			int rmIndex = getResultSetMetaDataIndex(rm, column.getColumnName());
-			if(rmIndex > 0){
-				column.setAutoIncrement(rm.isAutoIncrement(rmIndex));
+			if(autoIncrement){
+				column.setAutoIncrement("YES".equals(columns.getString("IS_AUTOINCREMENT")));
 			}
 			
 			list.add(column);
 		}
 		columns.close();
 		
+		// Detects auto increment columns from ResultSetMetaData if the driver doesn't provide IS_AUTOINCREMENT
+		if(!autoIncrement){
+			detectAutoIncrement(list, dialect, conn, getTableName(tableName, schema));
+		}
+		
 		ResultSet keys = meta.getPrimaryKeys(catalog, schema, tableName);
 		while(keys.next()){
 			String columnName = keys.getString("COLUMN_NAME");
@@ -93,9 +92,6 @@ public class SybaseSchemaLoader extends DefaultSchemaLoader {
 		}
 		keys.close();
 		
-		rs.close();
-		stmt.close();
-		
 		table.setColumns(list.toArray(new ColumnModel[list.size()]));
 		
 		List<IndexModel> indices = loadIndexModels(tableName, dialect, conn, catalog, schema, list);
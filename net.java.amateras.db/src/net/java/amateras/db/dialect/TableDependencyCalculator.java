@@ -1,9 +1,11 @@
 package net.java.amateras.db.dialect;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
 import net.java.amateras.db.visual.model.ForeignKeyModel;
@@ -11,50 +13,139 @@ import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
 /**
+ * Sorts tables by foreign key dependencies.
+ * <p>
+ * Strongly connected components of the foreign key graph are calculated by
+ * the Tarjan's algorithm without recursion, so the cost is linear to the number of
+ * tables and foreign keys. Referenced tables come before referencing tables in the sorted list,
+ * and tables in a circular dependency are placed next to each other.
  *
  * @author Naoki Takezoe
  */
 public class TableDependencyCalculator {
 
-	public static List<TableModel> getSortedTable(RootModel root){
-		List<TableModel> result = new ArrayList<TableModel>();
+	private List<TableModel> sortedTables = new ArrayList<TableModel>();
+	private List<List<TableModel>> cycles = new ArrayList<List<TableModel>>();
+
+	private Map<TableModel, Node> nodes = new HashMap<TableModel, Node>();
+	private int counter = 0;
+
+	public TableDependencyCalculator(RootModel root){
+		Deque<Node> stack = new ArrayDeque<Node>();
+		Deque<Node> path = new ArrayDeque<Node>();
+
 		for(TableModel table: root.getTables()){
-			addTableModel(result, table, null);
+			Node start = getNode(table);
+			if(start.index >= 0){
+				continue;
+			}
+			visit(start, stack);
+			path.push(start);
+
+			while(!path.isEmpty()){
+				Node node = path.peek();
+				if(node.next < node.targets.size()){
+					Node target = node.targets.get(node.next++);
+					if(target.index < 0){
+						visit(target, stack);
+						path.push(target);
+					} else if(target.onStack){
+						node.lowlink = Math.min(node.lowlink, target.index);
+					}
+				} else {
+					path.pop();
+					if(!path.isEmpty()){
+						Node parent = path.peek();
+						parent.lowlink = Math.min(parent.lowlink, node.lowlink);
+					}
+					if(node.lowlink == node.index){
+						addComponent(node, stack);
+					}
+				}
+			}
 		}
-		return result;
+		nodes = null;
 	}
 
-	private static void addTableModel(List<TableModel> result, TableModel table, Set<TableModel> dependentModels) {
+	/**
+	 * Returns all tables sorted by foreign key dependencies.
+	 *
+	 * @return tables which referenced tables come first
+	 */
+	public List<TableModel> getSortedTables(){
+		return sortedTables;
+	}
 
-		// Dependent models provides circular reference protection. Contains all models up the recursion stack
-		if (dependentModels == null) {
-			dependentModels = new HashSet<TableModel>();
-		}
+	/**
+	 * Returns groups of tables which have circular foreign key dependencies.
+	 * A table which refers itself is also returned as a group.
+	 *
+	 * @return strongly connected components which form cycles
+	 */
+	public List<List<TableModel>> getCycles(){
+		return cycles;
+	}
 
-		// We might have been already added as dependency by earlier tables
-		if (result.contains(table)) {
-			return;
+	public static List<TableModel> getSortedTable(RootModel root){
+		return new TableDependencyCalculator(root).getSortedTables();
+	}
+
+	private Node getNode(TableModel table){
+		Node node = nodes.get(table);
+		if(node == null){
+			node = new Node(table);
+			nodes.put(table, node);
 		}
+		return node;
+	}
 
-		// First add my dependencies
-		Set<TableModel> innerDependentModels = new HashSet<TableModel>(dependentModels);
-		dependentModels.add(table);
+	private void visit(Node node, Deque<Node> stack){
+		node.index = counter;
+		node.lowlink = counter;
+		counter++;
+		stack.push(node);
+		node.onStack = true;
 
-		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
-			if(conn instanceof ForeignKeyModel) {
-				ForeignKeyModel fk = (ForeignKeyModel)conn;
-				TableModel target = (TableModel) fk.getTarget();
-				if (!dependentModels.contains(target)) {
-					addTableModel(result, target, innerDependentModels);
+		node.targets = new ArrayList<Node>();
+		for(AbstractDBConnectionModel conn: node.table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				TableModel target = (TableModel) conn.getTarget();
+				if(target == node.table){
+					node.selfReference = true;
+				} else {
+					node.targets.add(getNode(target));
 				}
-//				else {
-//					throw new IllegalStateException("Circular foreign key dependency between tables " + table.getTableName() + " and " + target.getTableName());
-//				}
 			}
 		}
+	}
+
+	private void addComponent(Node root, Deque<Node> stack){
+		List<TableModel> component = new ArrayList<TableModel>();
+		Node member;
+		do {
+			member = stack.pop();
+			member.onStack = false;
+			component.add(member.table);
+		} while(member != root);
 
-		// Then add myself
-		result.add(table);
+		sortedTables.addAll(component);
+		if(component.size() > 1 || root.selfReference){
+			cycles.add(component);
+		}
+	}
+
+	private static class Node {
+		private TableModel table;
+		private List<Node> targets;
+		private int next = 0;
+		private int index = -1;
+		private int lowlink;
+		private boolean onStack;
+		private boolean selfReference;
+
+		public Node(TableModel table){
+			this.table = table;
+		}
 	}
 
 }
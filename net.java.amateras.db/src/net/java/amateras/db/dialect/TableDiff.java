@@ -0,0 +1,120 @@
+package net.java.amateras.db.dialect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Differences of a table which exists in both models compared by {@link SchemaDiff}.
+ * <p>
+ * Changed indices and foreign keys are reported as dropped and added.
+ */
+public class TableDiff {
+
+	private TableModel oldTable;
+	private TableModel newTable;
+
+	private List<ColumnModel> addedColumns = new ArrayList<ColumnModel>();
+	private List<ColumnModel> droppedColumns = new ArrayList<ColumnModel>();
+	private List<ColumnModel[]> modifiedColumns = new ArrayList<ColumnModel[]>();
+	private boolean primaryKeyChanged = false;
+
+	private List<IndexModel> addedIndices = new ArrayList<IndexModel>();
+	private List<IndexModel> droppedIndices = new ArrayList<IndexModel>();
+
+	private List<ForeignKeyModel> addedForeignKeys = new ArrayList<ForeignKeyModel>();
+	private List<ForeignKeyModel> droppedForeignKeys = new ArrayList<ForeignKeyModel>();
+
+	public TableDiff(TableModel oldTable, TableModel newTable){
+		this.oldTable = oldTable;
+		this.newTable = newTable;
+	}
+
+	/**
+	 * Returns the table in the old model.
+	 */
+	public TableModel getOldTable() {
+		return oldTable;
+	}
+
+	/**
+	 * Returns the table in the new model.
+	 */
+	public TableModel getNewTable() {
+		return newTable;
+	}
+
+	/**
+	 * Returns columns of the new table which don't exist in the old table.
+	 */
+	public List<ColumnModel> getAddedColumns() {
+		return addedColumns;
+	}
+
+	/**
+	 * Returns columns of the old table which don't exist in the new table.
+	 */
+	public List<ColumnModel> getDroppedColumns() {
+		return droppedColumns;
+	}
+
+	/**
+	 * Returns pairs of the old column and the new column whose definitions are different.
+	 */
+	public List<ColumnModel[]> getModifiedColumns() {
+		return modifiedColumns;
+	}
+
+	/**
+	 * Tests whether columns of the primary key are different.
+	 */
+	public boolean isPrimaryKeyChanged() {
+		return primaryKeyChanged;
+	}
+
+	public void setPrimaryKeyChanged(boolean primaryKeyChanged) {
+		this.primaryKeyChanged = primaryKeyChanged;
+	}
+
+	/**
+	 * Returns indices of the new table which don't exist or are changed in the old table.
+	 */
+	public List<IndexModel> getAddedIndices() {
+		return addedIndices;
+	}
+
+	/**
+	 * Returns indices of the old table which don't exist or are changed in the new table.
+	 */
+	public List<IndexModel> getDroppedIndices() {
+		return droppedIndices;
+	}
+
+	/**
+	 * Returns foreign keys of the new table which don't exist or are changed in the old table.
+	 */
+	public List<ForeignKeyModel> getAddedForeignKeys() {
+		return addedForeignKeys;
+	}
+
+	/**
+	 * Returns foreign keys of the old table which don't exist or are changed in the new table.
+	 */
+	public List<ForeignKeyModel> getDroppedForeignKeys() {
+		return droppedForeignKeys;
+	}
+
+	/**
+	 * Tests whether the table has any differences.
+	 */
+	public boolean isChanged() {
+		return !addedColumns.isEmpty() || !droppedColumns.isEmpty() || !modifiedColumns.isEmpty() ||
+			primaryKeyChanged || !addedIndices.isEmpty() || !droppedIndices.isEmpty() ||
+			!addedForeignKeys.isEmpty() || !droppedForeignKeys.isEmpty();
+	}
+
+}
@@ -4,11 +4,11 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -22,13 +22,11 @@ import javax.xml.transform.stream.StreamResult;
 
 import net.java.amateras.db.util.IOUtils;
 import net.java.amateras.db.visual.generate.HTMLGenerator;
+import net.java.amateras.db.visual.generate.HTMLTemplateEngine;
 import net.java.amateras.db.visual.generate.VelocityUtils;
 import net.java.amateras.xstream.XStreamSerializer;
 
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.Velocity;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.log.NullLogChute;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -45,40 +43,19 @@ public class HTMLGen {
 		}
 	}
 
-	static {
-		// kills Velocity logging
-		Velocity.addProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS,
-		        NullLogChute.class.getName());
-	}
-
-	private void processTemplate(String templateName, File output, VelocityContext context) throws Exception {
-		StringWriter writer = new StringWriter();
-
-		InputStreamReader reader = new InputStreamReader(
-				HTMLGenerator.class.getResourceAsStream(templateName), "UTF-8");
-		Velocity.evaluate(context, writer, null, reader);
-
-		FileOutputStream out = new FileOutputStream(output);
-		out.write(writer.getBuffer().toString().getBytes("UTF-8"));
-		IOUtils.close(out);
-
-		IOUtils.close(reader);
-		IOUtils.close(writer);
-	}
-
 	public void generate(String rootDir, RootModel root) throws Exception {
 		IOUtils.copyStream(HTMLGenerator.class.getResourceAsStream("stylesheet.css"),
 				new FileOutputStream(new File(rootDir, "stylesheet.css")));
 
-		Velocity.init();
+		HTMLTemplateEngine engine = new HTMLTemplateEngine();
 		VelocityContext context = new VelocityContext();
 		context.put("model", root);
 		context.put("util", new VelocityUtils());
 		context.put("msg", messages);
 
-		processTemplate("index.html", new File(rootDir, "index.html"), context);
-		processTemplate("list.html", new File(rootDir, "list.html"), context);
-		processTemplate("summary.html", new File(rootDir, "summary.html"), context);
+		engine.render("index.html", context, new File(rootDir, "index.html"));
+		engine.render("list.html", context, new File(rootDir, "list.html"));
+		engine.render("summary.html", context, new File(rootDir, "summary.html"));
 
 		File imageDir = new File(rootDir, "images");
 		imageDir.mkdir();
@@ -89,11 +66,16 @@ public class HTMLGen {
 		File tableDir = new File(rootDir, "tables");
 		tableDir.mkdir();
 
+		// table pages with the same name are overwritten by the last one
+		Map<String, TableModel> pages = new LinkedHashMap<String, TableModel>();
 		for(TableModel table: root.getTables()){
-			context.put("table", table);
-			processTemplate("table.html", new File(tableDir,
-					table.getTableName() + ".html"), context);
+			pages.put(table.getTableName() + ".html", table);
+		}
+		List<File> outputs = new ArrayList<File>();
+		for(String page: pages.keySet()){
+			outputs.add(new File(tableDir, page));
 		}
+		engine.renderAll("table.html", context, "table", new ArrayList<TableModel>(pages.values()), outputs);
 	}
 
 	private static List<String> REMOVE_TAGS = new ArrayList<String>();
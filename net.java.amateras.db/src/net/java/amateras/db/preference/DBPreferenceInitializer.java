@@ -35,6 +35,9 @@ public class DBPreferenceInitializer extends AbstractPreferenceInitializer {
 		store.setDefault(DBPlugin.PREF_SHOW_GRID, false);
 		store.setDefault(DBPlugin.PREF_GRID_SIZE, 10);
 		store.setDefault(DBPlugin.PREF_SNAP_GEOMETRY, false);
+		store.setDefault(DBPlugin.PREF_VIRTUALIZED_RENDERING, true);
+		store.setDefault(DBPlugin.PREF_LOD_TITLE_ZOOM, 40);
+		store.setDefault(DBPlugin.PREF_LOD_BOX_ZOOM, 20);
 
 		StringBuilder sb = new StringBuilder();
 		for(DictionaryEntry entry: NameConverter.loadDefaultDictionary()){
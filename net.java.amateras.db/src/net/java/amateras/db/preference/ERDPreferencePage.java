@@ -6,6 +6,8 @@ import net.java.amateras.db.util.SpinnerFieldEditor;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferencePage;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -25,6 +27,12 @@ public class ERDPreferencePage extends PreferencePage implements IWorkbenchPrefe
 	
 	private BooleanFieldEditor showNotNull;
 
+	private BooleanFieldEditor virtualizedRendering;
+
+	private SpinnerFieldEditor lodTitleZoom;
+
+	private SpinnerFieldEditor lodBoxZoom;
+
 	private BooleanFieldEditor zoomableWithCtrlAndScroll;
 
 	public void init(IWorkbench workbench) {
@@ -59,8 +67,20 @@ public class ERDPreferencePage extends PreferencePage implements IWorkbenchPrefe
 		diagramGroup.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
 		showNotNull = new BooleanFieldEditor(DBPlugin.PREF_SHOW_NOT_NULL, DBPlugin.getResourceString(
 			"preference.diagram.showNotNull"), diagramGroup);
+		virtualizedRendering = new BooleanFieldEditor(DBPlugin.PREF_VIRTUALIZED_RENDERING, DBPlugin.getResourceString(
+			"preference.diagram.virtualizedRendering"), diagramGroup);
 		diagramGroup.setLayout(new GridLayout(1, false));
 
+		// for Level of Detail
+		Group lodGroup = new Group(composite, SWT.NULL);
+		lodGroup.setText(DBPlugin.getResourceString("preference.lod"));
+		lodGroup.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		lodTitleZoom = new SpinnerFieldEditor(DBPlugin.PREF_LOD_TITLE_ZOOM, DBPlugin.getResourceString("preference.lod.titleZoom"), 0, 100,
+				lodGroup);
+		lodBoxZoom = new SpinnerFieldEditor(DBPlugin.PREF_LOD_BOX_ZOOM, DBPlugin.getResourceString("preference.lod.boxZoom"), 0, 100,
+				lodGroup);
+		lodGroup.setLayout(new GridLayout(2, false));
+
 		// Initializes values
 		fillInitialValues();
 
@@ -82,15 +102,51 @@ public class ERDPreferencePage extends PreferencePage implements IWorkbenchPrefe
 		showNotNull.setPreferenceStore(store);
 		showNotNull.load();
 
+		virtualizedRendering.setPreferenceStore(store);
+		virtualizedRendering.load();
+
+		lodTitleZoom.setPreferenceStore(store);
+		lodTitleZoom.load();
+
+		lodBoxZoom.setPreferenceStore(store);
+		lodBoxZoom.load();
+
+		IPropertyChangeListener lodListener = new IPropertyChangeListener(){
+			public void propertyChange(PropertyChangeEvent event){
+				validateLevelOfDetail();
+			}
+		};
+		lodTitleZoom.setPropertyChangeListener(lodListener);
+		lodBoxZoom.setPropertyChangeListener(lodListener);
+		validateLevelOfDetail();
+
 		zoomableWithCtrlAndScroll.setPreferenceStore(store);
 		zoomableWithCtrlAndScroll.load();
 	}
 	
+	/**
+	 * Validates that boxes are shown below a lower zoom than titles.
+	 * 0 disables boxes, so any zoom for titles is allowed.
+	 */
+	private boolean validateLevelOfDetail() {
+		int boxZoom = lodBoxZoom.getIntValue();
+		boolean valid = boxZoom == 0 || boxZoom < lodTitleZoom.getIntValue();
+		setErrorMessage(valid ? null : DBPlugin.getResourceString("preference.lod.error"));
+		setValid(valid);
+		return valid;
+	}
+
 	public boolean performOk() {
+		if(!validateLevelOfDetail()){
+			return false;
+		}
 		showGrid.store();
 		gridSize.store();
 		snapToGeometry.store();
 		showNotNull.store();
+		virtualizedRendering.store();
+		lodTitleZoom.store();
+		lodBoxZoom.store();
 		zoomableWithCtrlAndScroll.store();
 		return true;
 	}
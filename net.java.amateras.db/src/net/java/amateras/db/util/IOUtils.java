@@ -1,11 +1,17 @@
 package net.java.amateras.db.util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 public class IOUtils {
 	
+	private static final int BUFFER_SIZE = 8192;
+	
 	public static void close(Closeable closeable){
 		if(closeable != null){
 			try {
@@ -15,11 +21,37 @@ public class IOUtils {
 		}
 	}
 	
+	/**
+	 * Copies all bytes from the <code>InputStream</code> to the <code>OutputStream</code>
+	 * and closes both streams.
+	 * <p>
+	 * When both streams are file streams, bytes are transferred by <code>FileChannel</code>
+	 * without copying them into the Java heap.
+	 * 
+	 * @param in the input stream
+	 * @param out the output stream
+	 */
 	public static void copyStream(InputStream in, OutputStream out){
 		try {
-			byte[] buf = new byte[in.available()];
-			in.read(buf);
-			out.write(buf);
+			if(in instanceof FileInputStream && out instanceof FileOutputStream){
+				FileChannel src = ((FileInputStream) in).getChannel();
+				FileChannel dest = ((FileOutputStream) out).getChannel();
+				long size = src.size();
+				long position = src.position();
+				while(position < size){
+					long count = src.transferTo(position, size - position, dest);
+					if(count <= 0){
+						break;
+					}
+					position += count;
+				}
+			} else {
+				byte[] buf = new byte[BUFFER_SIZE];
+				int length = 0;
+				while((length = in.read(buf)) != -1){
+					out.write(buf, 0, length);
+				}
+			}
 		} catch(Exception ex){
 			throw new RuntimeException(ex);
 		} finally {
@@ -28,11 +60,22 @@ public class IOUtils {
 		}
 	}
 	
+	/**
+	 * Reads all bytes from the <code>InputStream</code> as a string and closes the stream.
+	 * 
+	 * @param in the input stream
+	 * @param charset the charset name
+	 * @return the contents of the stream
+	 */
 	public static String loadStream(InputStream in, String charset){
 		try {
-			byte[] buf = new byte[in.available()];
-			in.read(buf);
-			return new String(buf, charset);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[BUFFER_SIZE];
+			int length = 0;
+			while((length = in.read(buf)) != -1){
+				out.write(buf, 0, length);
+			}
+			return out.toString(charset);
 		} catch(Exception ex){
 			throw new RuntimeException(ex);
 		} finally {
@@ -40,5 +83,4 @@ public class IOUtils {
 		}
 	}
 	
-	
 }
@@ -0,0 +1,31 @@
+package net.java.amateras.db.util;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Utilities for <code>IProgressMonitor</code>.
+ * <p>
+ * Schema loaders are also used by erd-tools without Eclipse runtime.
+ * They call this class only when a monitor is given, so <code>OperationCanceledException</code>
+ * is not loaded with them.
+ */
+public class ProgressMonitorUtils {
+	
+	/**
+	 * Throws <code>OperationCanceledException</code> if the monitor is canceled.
+	 */
+	public static void checkCanceled(IProgressMonitor monitor){
+		if(monitor.isCanceled()){
+			throw new OperationCanceledException();
+		}
+	}
+	
+	/**
+	 * Returns <code>OperationCanceledException</code> to be thrown by the caller.
+	 */
+	public static RuntimeException canceled(){
+		return new OperationCanceledException();
+	}
+	
+}
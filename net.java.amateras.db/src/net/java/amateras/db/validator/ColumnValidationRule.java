@@ -0,0 +1,63 @@
+package net.java.amateras.db.validator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Validates that the table has columns and the primary key,
+ * and column names are neither empty nor duplicated.
+ */
+public class ColumnValidationRule implements IValidationRule {
+
+	public void validate(DiagramErrors errors, ValidationProfile profile, TableModel table) {
+		ColumnModel[] columns = table.getColumns();
+		if(columns.length == 0){
+			errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_NO_COLUMNS),
+					table, profile.getMessage("validation.error.noColumns"));
+			return;
+		}
+
+		String nameRequired = profile.getLevel(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_REQUIRED);
+		String nameDuplicated = profile.getLevel(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_DUPLICATED);
+		String logicalNameRequired = profile.getLevel(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_REQUIRED);
+		String logicalNameDuplicated = profile.getLevel(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_DUPLICATED);
+
+		Set<String> columnNames = new HashSet<String>(columns.length * 2);
+		Set<String> logicalColumnNames = new HashSet<String>(columns.length * 2);
+		boolean findPk = false;
+		for(ColumnModel column: columns){
+			if(column.isPrimaryKey()){
+				findPk = true;
+			}
+			String columnName = column.getColumnName();
+			if(columnName == null || columnName.length()==0){
+				errors.addError(nameRequired, table, column,
+						profile.getMessage("validation.error.columnName.required"));
+
+			} else if(!columnNames.add(columnName)){
+				errors.addError(nameDuplicated, table, column,
+						profile.getMessage("validation.error.columnName.duplicated"));
+			}
+
+			String logicalColumnName = column.getLogicalName();
+			if(logicalColumnName == null || logicalColumnName.length()==0){
+				errors.addError(logicalNameRequired, table, column,
+						profile.getMessage("validation.error.logicalColumnName.required"));
+
+			} else if(!logicalColumnNames.add(logicalColumnName)){
+				errors.addError(logicalNameDuplicated, table, column,
+						profile.getMessage("validation.error.logicalColumnName.duplicated"));
+			}
+		}
+
+		if(!findPk){
+			errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_PRIMARY_KEY),
+					table, profile.getMessage("validation.error.noPrimaryKey"));
+		}
+	}
+
+}
@@ -2,6 +2,7 @@ package net.java.amateras.db.validator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +14,13 @@ import net.java.amateras.db.visual.model.TableModel;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 /**
  * This object contains ER-Diagram validation errors.
@@ -24,10 +31,26 @@ import org.eclipse.core.runtime.CoreException;
 public class DiagramErrors {
 	
 	private List<DiagramError> errors = new ArrayList<DiagramError>();
+	private Map<TableModel, String> messages = new LinkedHashMap<TableModel, String>();
+	private boolean updateModel;
 	
 	public static final String ERROR_PREFIX = "[ERROR]";
     public static final String WARNING_PREFIX = "[WARN]";
 	
+	public DiagramErrors(){
+		this(true);
+	}
+	
+	/**
+	 * The constructor.
+	 * 
+	 * @param updateModel if false, error messages are not set to <code>TableModel</code>.
+	 *   Use {@link #getErrorMessage(TableModel)} to get them.
+	 */
+	public DiagramErrors(boolean updateModel){
+		this.updateModel = updateModel;
+	}
+	
 	private static String createColumnMessage(TableModel table, ColumnModel column, String message){
 		return "[" + table.getTableName() + "." + column.getColumnName()+ "]" + message;
 	}
@@ -105,12 +128,39 @@ public class DiagramErrors {
     }
 	
 	private void addErrorMessageToModel(TableModel table, String message){
-		String error = table.getError();
+		String error = updateModel ? table.getError() : getErrorMessage(table);
 		if(error.length() > 0){
-			error = error + "\n";
+			error = error + "\n" + message;
+		} else {
+			error = message;
+		}
+		if(updateModel){
+			table.setError(error);
 		}
-		error = error + message;
-		table.setError(error);
+		messages.put(table, error);
+	}
+	
+	/**
+	 * Adds all errors which are contained in the given <code>DiagramErrors</code>.
+	 * 
+	 * @param errors errors to add
+	 */
+	public void addAll(DiagramErrors errors){
+		this.errors.addAll(errors.errors);
+		for(Map.Entry<TableModel, String> entry: errors.messages.entrySet()){
+			addErrorMessageToModel(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	/**
+	 * Returns error messages of the given table which have been added to this object.
+	 * 
+	 * @param table the table model
+	 * @return error messages separated by line breaks, or an empty string if the table has no errors
+	 */
+	public String getErrorMessage(TableModel table){
+		String message = messages.get(table);
+		return message == null ? "" : message;
 	}
 	
 	/**
@@ -122,6 +172,63 @@ public class DiagramErrors {
 		return this.errors;
 	}
 	
+	/**
+	 * Replaces problem markers of the given file with errors in the background.
+	 * <p>
+	 * All markers are updated in a single workspace operation,
+	 * and markers which have the same severity and message as errors are kept as is.
+	 * 
+	 * @param file the ER-Diagram file
+	 */
+	public void updateMarkers(final IFile file){
+		final List<DiagramError> errors = new ArrayList<DiagramError>(this.errors);
+		final IWorkspaceRunnable runnable = new IWorkspaceRunnable(){
+			public void run(IProgressMonitor monitor) throws CoreException {
+				if(!file.exists()){
+					return;
+				}
+				Map<String, List<DiagramError>> remaining = new HashMap<String, List<DiagramError>>();
+				for(DiagramError error: errors){
+					String key = error.getSeverity() + ":" + error.getMessage();
+					List<DiagramError> list = remaining.get(key);
+					if(list == null){
+						list = new ArrayList<DiagramError>();
+						remaining.put(key, list);
+					}
+					list.add(error);
+				}
+				for(IMarker marker: file.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO)){
+					String key = marker.getAttribute(IMarker.SEVERITY, -1) + ":" + marker.getAttribute(IMarker.MESSAGE, "");
+					List<DiagramError> list = remaining.get(key);
+					if(list != null && !list.isEmpty()){
+						list.remove(list.size() - 1);
+					} else {
+						marker.delete();
+					}
+				}
+				for(List<DiagramError> list: remaining.values()){
+					for(DiagramError error: list){
+						error.addMarker(file);
+					}
+				}
+			}
+		};
+		Job job = new Job(DBPlugin.getResourceString("action.validation.executeValidation")){
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					ResourcesPlugin.getWorkspace().run(runnable, file, 0, monitor);
+				} catch(CoreException ex){
+					DBPlugin.logException(ex);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setRule(file);
+		job.setSystem(true);
+		job.schedule();
+	}
+	
 	public static class DiagramError {
 		
 		private Object target;
@@ -163,10 +270,14 @@ public class DiagramErrors {
 		 * @param file the ER-Diagram file
 		 */
 		public void addMarker(IFile file){
+			addMarker(file, getSeverity(), message);
+		}
+		
+		private int getSeverity(){
 			if(level==DBPlugin.LEVEL_ERROR){
-				addMarker(file, IMarker.SEVERITY_ERROR, message);
+				return IMarker.SEVERITY_ERROR;
 			} else {
-				addMarker(file, IMarker.SEVERITY_WARNING, message);
+				return IMarker.SEVERITY_WARNING;
 			}
 		}
 		
@@ -1,24 +1,23 @@
 package net.java.amateras.db.validator;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.dialect.DialectProvider;
-import net.java.amateras.db.dialect.IColumnType;
 import net.java.amateras.db.dialect.IDialect;
-import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
-import net.java.amateras.db.visual.model.AbstractDBEntityModel;
-import net.java.amateras.db.visual.model.ColumnModel;
-import net.java.amateras.db.visual.model.ForeignKeyMapping;
-import net.java.amateras.db.visual.model.ForeignKeyModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
-import org.eclipse.jface.preference.IPreferenceStore;
-
 /**
  * The ER-Diagram validator.
+ * <p>
+ * Levels and messages are taken as {@link ValidationProfile} once per validation.
+ * Tables are validated by {@link IValidationRule}s including rules of the dialect,
+ * and names of tables are checked across the diagram.
+ * Rules take a few microseconds for each table, so tables are validated in a single thread.
  * 
  * @author Naoki Takezoe
  * @since 1.0.5
@@ -27,9 +26,6 @@ public class DiagramValidator {
 	
 	private RootModel model;
 	
-	private Set<String> tableNames = new HashSet<String>();
-	private Set<String> logicalNames = new HashSet<String>();
-	
 	/**
 	 * The constructor.
 	 * 
@@ -45,120 +41,128 @@ public class DiagramValidator {
 	 * @return validation errors
 	 */
 	public DiagramErrors doValidate(){
-		DiagramErrors errors = new DiagramErrors();
+		return doValidate(new ValidationProfile(), DialectProvider.getDialect(model.getDialectName()));
+	}
+	
+	/**
+	 * Executes validation with the given profile and dialect.
+	 * This method doesn't require the plug-in, so command line tools can use it.
+	 * 
+	 * @param profile levels and messages of validation
+	 * @param dialect the dialect of the model
+	 * @return validation errors
+	 */
+	public DiagramErrors doValidate(ValidationProfile profile, IDialect dialect){
+		List<TableModel> tables = model.getTables();
+		IValidationRule[] rules = getRules(dialect);
 		
-		for(AbstractDBEntityModel entity: model.getChildren()){
-			if(entity instanceof TableModel){
-				TableModel table = (TableModel) entity;
-				table.setError("");
-				validateTable(errors, model, table);
+		DiagramErrors errors = new DiagramErrors(false);
+		Set<String> tableNames = new HashSet<String>();
+		Set<String> logicalNames = new HashSet<String>();
+		for(int i=0;i<tables.size();i++){
+			TableModel table = tables.get(i);
+			
+			String tableName = table.getTableName();
+			validateTableName(errors, profile, table, 
+					tableName != null && tableName.length() != 0 && !tableNames.add(tableName));
+			
+			String logicalName = table.getLogicalName();
+			validateLogicalName(errors, profile, table, 
+					logicalName != null && logicalName.length() != 0 && !logicalNames.add(logicalName));
+			
+			for(IValidationRule rule: rules){
+				rule.validate(errors, profile, table);
 			}
 		}
 		
-		String dialectName = model.getDialectName();
-		IDialect dialect = DialectProvider.getDialect(dialectName);
 		dialect.validate(errors, model);
 		
+		updateErrorMessages(errors, tables);
+		
+		return errors;
+	}
+	
+	/**
+	 * Returns built-in rules and rules of the given dialect.
+	 */
+	static IValidationRule[] getRules(IDialect dialect){
+		List<IValidationRule> rules = new ArrayList<IValidationRule>();
+		rules.add(new ColumnValidationRule());
+		rules.add(new ForeignKeyValidationRule());
+		for(IValidationRule rule: dialect.getValidationRules()){
+			rules.add(rule);
+		}
+		return rules.toArray(new IValidationRule[rules.size()]);
+	}
+	
+	/**
+	 * Applies rules to each table.
+	 * 
+	 * @return errors of each table in the same order as the given tables
+	 */
+	static DiagramErrors[] validateTables(ValidationProfile profile, IValidationRule[] rules, 
+			List<TableModel> tables){
+		DiagramErrors[] results = new DiagramErrors[tables.size()];
+		for(int i=0;i<tables.size();i++){
+			results[i] = validateTable(profile, rules, tables.get(i));
+		}
+		return results;
+	}
+	
+	/**
+	 * Applies rules to the table.
+	 */
+	static DiagramErrors validateTable(ValidationProfile profile, IValidationRule[] rules, TableModel table){
+		DiagramErrors errors = new DiagramErrors(false);
+		for(IValidationRule rule: rules){
+			rule.validate(errors, profile, table);
+		}
 		return errors;
 	}
 	
-	private void validateTable(DiagramErrors errors, RootModel root, TableModel table){
-	    
-	    IPreferenceStore store = DBPlugin.getDefault().getPreferenceStore();
-	    
-		// Validates TableModel
+	/**
+	 * Sets error messages to tables. Tables whose messages are not changed are not updated.
+	 */
+	static void updateErrorMessages(DiagramErrors errors, List<TableModel> tables){
+		for(TableModel table: tables){
+			String message = errors.getErrorMessage(table);
+			if(!message.equals(table.getError())){
+				table.setError(message);
+			}
+		}
+	}
+	
+	/**
+	 * Validates the physical name of the table.
+	 * 
+	 * @param duplicated true if the preceding table has the same name
+	 */
+	static void validateTableName(DiagramErrors errors, ValidationProfile profile, TableModel table, boolean duplicated){
 		String tableName = table.getTableName();
 		if(tableName==null || tableName.length()==0){
-		    errors.addError(store.getString(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_REQUIRED), 
-		            table, DBPlugin.getResourceString("validation.error.tableName.required"));
+		    errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_REQUIRED), 
+		            table, profile.getMessage("validation.error.tableName.required"));
 		    
-		} else if(tableNames.contains(tableName)){
-			errors.addError(store.getString(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_DUPLICATED),
-			        table, DBPlugin.getResourceString("validation.error.tableName.duplicated"));
-		} else {
-			tableNames.add(tableName);
+		} else if(duplicated){
+			errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_DUPLICATED),
+			        table, profile.getMessage("validation.error.tableName.duplicated"));
 		}
-		
+	}
+	
+	/**
+	 * Validates the logical name of the table.
+	 * 
+	 * @param duplicated true if the preceding table has the same logical name
+	 */
+	static void validateLogicalName(DiagramErrors errors, ValidationProfile profile, TableModel table, boolean duplicated){
 		String logicalName = table.getLogicalName();
 		if(logicalName==null || logicalName.length()==0){
-			errors.addError(store.getString(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_REQUIRED),
-			        table, DBPlugin.getResourceString("validation.error.logicalTableName.required"));
+			errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_REQUIRED),
+			        table, profile.getMessage("validation.error.logicalTableName.required"));
 			
-		} else if(logicalNames.contains(logicalName)){
-			errors.addError(store.getString(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_DUPLICATED),
-			        table, DBPlugin.getResourceString("validation.error.logicalTableName.duplicated"));
-		} else {
-			logicalNames.add(logicalName);
-		}
-		
-		// Validates ColumnModels
-		ColumnModel[] columns = table.getColumns();
-		if(columns.length == 0){
-			errors.addError(store.getString(DBPlugin.PREF_VALIDATE_NO_COLUMNS), 
-			        table, DBPlugin.getResourceString("validation.error.noColumns"));
-		} else {
-			Set<String> columnNames = new HashSet<String>();
-			Set<String> logicalColumnNames = new HashSet<String>();
-			boolean findPk = false;
-			for(ColumnModel column: columns){
-				if(column.isPrimaryKey()){
-					findPk = true;
-				}
-				String columnName = column.getColumnName();
-				if(columnName == null || columnName.length()==0){
-				    errors.addError(store.getString(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_REQUIRED),
-					        table, column, DBPlugin.getResourceString("validation.error.columnName.required"));
-				    
-				} else if(columnNames.contains(columnName)){
-				    errors.addError(store.getString(DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_DUPLICATED),
-					        table, column, DBPlugin.getResourceString("validation.error.columnName.duplicated"));
-				} else {
-					columnNames.add(columnName);
-				}
-				
-				String logicalColumnName = column.getLogicalName();
-				if(logicalColumnName == null || logicalColumnName.length()==0){
-					errors.addError(store.getString(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_REQUIRED),
-					        table, column, DBPlugin.getResourceString("validation.error.logicalColumnName.required"));
-					        
-				} else if(logicalColumnNames.contains(logicalColumnName)){
-					errors.addError(store.getString(DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_DUPLICATED), 
-					        table, column, DBPlugin.getResourceString("validation.error.logicalColumnName.duplicated"));
-				} else {
-					logicalColumnNames.add(logicalColumnName);
-				}
-			}
-			
-			if(!findPk){
-                errors.addError(store.getString(DBPlugin.PREF_VALIDATE_PRIMARY_KEY),
-                        table, DBPlugin.getResourceString("validation.error.noPrimaryKey"));
-			}
-		}
-		
-		// Validates Relations
-		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
-			if(conn instanceof ForeignKeyModel){
-				ForeignKeyModel fk = (ForeignKeyModel) conn;
-				for(ForeignKeyMapping mapping: fk.getMapping()){
-					ColumnModel referer = mapping.getRefer();
-					ColumnModel target = mapping.getTarget();
-					
-					IColumnType refererType = referer.getColumnType();
-					IColumnType targetType = target.getColumnType();
-					
-					if(!refererType.getName().equals(targetType.getName())){
-						errors.addError(store.getString(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_TYPE), 
-								table, referer, DBPlugin.getResourceString("validation.error.foreignKey.columnType"));
-						continue;
-					}
-					if(refererType.supportSize() && !referer.getSize().equals(target.getSize())){
-						errors.addError(store.getString(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_SIZE), 
-								table, referer, DBPlugin.getResourceString("validation.error.foreignKey.columnSize"));
-						continue;
-					}
-				}
-				
-			}
+		} else if(duplicated){
+			errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_DUPLICATED),
+			        table, profile.getMessage("validation.error.logicalTableName.duplicated"));
 		}
 	}
 	
@@ -0,0 +1,45 @@
+package net.java.amateras.db.validator;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.dialect.IColumnType;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * Validates that types and sizes of foreign key columns match referenced columns.
+ */
+public class ForeignKeyValidationRule implements IValidationRule {
+
+	public void validate(DiagramErrors errors, ValidationProfile profile, TableModel table) {
+		if(profile.isIgnored(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_TYPE) &&
+				profile.isIgnored(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_SIZE)){
+			return;
+		}
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				ForeignKeyModel fk = (ForeignKeyModel) conn;
+				for(ForeignKeyMapping mapping: fk.getMapping()){
+					ColumnModel referer = mapping.getRefer();
+					ColumnModel target = mapping.getTarget();
+
+					IColumnType refererType = referer.getColumnType();
+					IColumnType targetType = target.getColumnType();
+
+					if(!refererType.getName().equals(targetType.getName())){
+						errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_TYPE),
+								table, referer, profile.getMessage("validation.error.foreignKey.columnType"));
+						continue;
+					}
+					if(refererType.supportSize() && !referer.getSize().equals(target.getSize())){
+						errors.addError(profile.getLevel(DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_SIZE),
+								table, referer, profile.getMessage("validation.error.foreignKey.columnSize"));
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package net.java.amateras.db.validator;
+
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * The validation rule which checks a table.
+ * <p>
+ * {@link DiagramValidator} applies rules to each table, and {@link IncrementalDiagramValidator}
+ * applies them only to changed tables, so implementations must not modify models.
+ * Rules which check tables across the diagram should be implemented in
+ * {@link net.java.amateras.db.dialect.IDialect#validate(DiagramErrors, net.java.amateras.db.visual.model.RootModel)}.
+ *
+ * @see net.java.amateras.db.dialect.IDialect#getValidationRules()
+ */
+public interface IValidationRule {
+
+	/**
+	 * Validates the table.
+	 *
+	 * @param errors errors to add to. Error messages are not set to the table.
+	 * @param profile levels and messages of the current validation
+	 * @param table the table to validate
+	 */
+	public void validate(DiagramErrors errors, ValidationProfile profile, TableModel table);
+
+}
@@ -0,0 +1,287 @@
+package net.java.amateras.db.validator;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.amateras.db.dialect.DialectProvider;
+import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+/**
+ * The ER-Diagram validator which re-validates only changed tables.
+ * <p>
+ * This validator listens property changes of the <code>RootModel</code>, tables and foreign keys,
+ * and keeps validation results of each table. Duplicated names are detected by indices
+ * which are shared by all tables. When a table is changed, the table and tables which refer it are
+ * validated again by {@link #doValidate()}. <code>IDialect#validate()</code> is executed for the whole model.
+ * <p>
+ * Error messages of <code>TableModel</code> are updated only when they are changed.
+ * Call {@link #dispose()} to remove listeners when the validator is no longer used.
+ *
+ * @see DiagramValidator
+ */
+public class IncrementalDiagramValidator implements PropertyChangeListener {
+
+	private RootModel model;
+
+	/** validation results of rules for each table */
+	private Map<TableModel, DiagramErrors> tableErrors = new HashMap<TableModel, DiagramErrors>();
+	private Set<TableModel> dirtyTables = new HashSet<TableModel>();
+
+	/** tables which have the same name */
+	private Map<String, List<TableModel>> tableNames = new HashMap<String, List<TableModel>>();
+	private Map<String, List<TableModel>> logicalNames = new HashMap<String, List<TableModel>>();
+	/** names which each table is registered in indices */
+	private Map<TableModel, String[]> indexedNames = new HashMap<TableModel, String[]>();
+
+	private ValidationProfile profile;
+	private String dialectName;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param model the model for validation
+	 */
+	public IncrementalDiagramValidator(RootModel model){
+		this.model = model;
+		model.addPropertyChangeListener(this);
+		for(TableModel table: model.getTables()){
+			addTable(table);
+		}
+	}
+
+	/**
+	 * Validates changed tables and returns errors of the whole model.
+	 * <p>
+	 * This method must be called in the UI thread because error messages of tables are updated.
+	 *
+	 * @return validation errors
+	 */
+	public synchronized DiagramErrors doValidate(){
+		ValidationProfile profile = new ValidationProfile();
+		String dialectName = model.getDialectName();
+		IDialect dialect = DialectProvider.getDialect(dialectName);
+
+		// validation levels or the dialect have been changed
+		if(!profile.hasSameLevels(this.profile) || !dialectName.equals(this.dialectName)){
+			dirtyTables.addAll(tableErrors.keySet());
+		}
+		this.profile = profile;
+		this.dialectName = dialectName;
+
+		Map<TableModel, Integer> order = new HashMap<TableModel, Integer>();
+		List<TableModel> tables = model.getTables();
+		for(int i=0;i<tables.size();i++){
+			TableModel table = tables.get(i);
+			order.put(table, i);
+			addTable(table);
+		}
+
+		List<TableModel> changedTables = new ArrayList<TableModel>(dirtyTables);
+		DiagramErrors[] results = DiagramValidator.validateTables(
+				profile, DiagramValidator.getRules(dialect), changedTables);
+		for(int i=0;i<results.length;i++){
+			tableErrors.put(changedTables.get(i), results[i]);
+		}
+		dirtyTables.clear();
+
+		DiagramErrors errors = new DiagramErrors(false);
+		for(TableModel table: tables){
+			DiagramValidator.validateTableName(errors, profile, table,
+					isDuplicated(table, tableNames.get(table.getTableName()), order));
+			DiagramValidator.validateLogicalName(errors, profile, table,
+					isDuplicated(table, logicalNames.get(table.getLogicalName()), order));
+			errors.addAll(tableErrors.get(table));
+		}
+
+		dialect.validate(errors, model);
+
+		DiagramValidator.updateErrorMessages(errors, tables);
+
+		return errors;
+	}
+
+	/**
+	 * Returns the model which is validated by this validator.
+	 *
+	 * @return the model
+	 */
+	public RootModel getModel(){
+		return model;
+	}
+
+	/**
+	 * Removes listeners from models.
+	 */
+	public synchronized void dispose(){
+		model.removePropertyChangeListener(this);
+		for(TableModel table: new ArrayList<TableModel>(tableErrors.keySet())){
+			removeTable(table);
+		}
+	}
+
+	public synchronized void propertyChange(PropertyChangeEvent evt) {
+		String name = evt.getPropertyName();
+		Object source = evt.getSource();
+
+		if(source == model){
+			if(RootModel.P_CHILDREN.equals(name)){
+				if(evt.getOldValue() instanceof TableModel){
+					removeTable((TableModel) evt.getOldValue());
+				}
+				if(evt.getNewValue() instanceof TableModel){
+					addTable((TableModel) evt.getNewValue());
+				}
+				if(evt.getOldValue() == null && evt.getNewValue() == null){
+					// all children have been replaced
+					for(TableModel table: new ArrayList<TableModel>(tableErrors.keySet())){
+						removeTable(table);
+					}
+					for(TableModel table: model.getTables()){
+						addTable(table);
+					}
+				}
+			}
+
+		} else if(source instanceof TableModel){
+			TableModel table = (TableModel) source;
+			if(TableModel.P_ERROR.equals(name) || TableModel.P_CONSTRAINT.equals(name) ||
+					TableModel.P_BACKGROUND_COLOR.equals(name) || !tableErrors.containsKey(table)){
+				return;
+			}
+			dirtyTables.add(table);
+
+			if(TableModel.P_TABLE_NAME.equals(name) || TableModel.P_LOGICAL_NAME.equals(name)){
+				unindexNames(table);
+				indexNames(table);
+				if(TableModel.P_TABLE_NAME.equals(name)){
+					addReferringTables(table);
+				}
+
+			} else if(TableModel.P_COLUMNS.equals(name)){
+				addReferringTables(table);
+
+			} else if(TableModel.P_SOURCE_CONNECTION.equals(name)){
+				if(evt.getOldValue() instanceof ForeignKeyModel){
+					((ForeignKeyModel) evt.getOldValue()).removePropertyChangeListener(this);
+				}
+				if(evt.getNewValue() instanceof ForeignKeyModel){
+					((ForeignKeyModel) evt.getNewValue()).removePropertyChangeListener(this);
+					((ForeignKeyModel) evt.getNewValue()).addPropertyChangeListener(this);
+				}
+			}
+
+		} else if(source instanceof ForeignKeyModel){
+			if(ForeignKeyModel.P_FOREIGN_KEY_MAPPING.equals(name)){
+				AbstractDBEntityModel table = ((ForeignKeyModel) source).getSource();
+				if(table instanceof TableModel){
+					dirtyTables.add((TableModel) table);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks tables which have foreign keys referring the given table as dirty.
+	 */
+	private void addReferringTables(TableModel table){
+		for(AbstractDBConnectionModel conn: table.getModelTargetConnections()){
+			if(conn instanceof ForeignKeyModel && conn.getSource() instanceof TableModel){
+				dirtyTables.add((TableModel) conn.getSource());
+			}
+		}
+	}
+
+	private void addTable(TableModel table){
+		if(tableErrors.containsKey(table)){
+			return;
+		}
+		tableErrors.put(table, new DiagramErrors(false));
+		dirtyTables.add(table);
+		indexNames(table);
+		table.addPropertyChangeListener(this);
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				conn.removePropertyChangeListener(this);
+				conn.addPropertyChangeListener(this);
+			}
+		}
+	}
+
+	private void removeTable(TableModel table){
+		if(tableErrors.remove(table) == null){
+			return;
+		}
+		dirtyTables.remove(table);
+		unindexNames(table);
+		table.removePropertyChangeListener(this);
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			conn.removePropertyChangeListener(this);
+		}
+	}
+
+	private void indexNames(TableModel table){
+		String[] names = {table.getTableName(), table.getLogicalName()};
+		addToIndex(tableNames, names[0], table);
+		addToIndex(logicalNames, names[1], table);
+		indexedNames.put(table, names);
+	}
+
+	private void unindexNames(TableModel table){
+		String[] names = indexedNames.remove(table);
+		if(names != null){
+			removeFromIndex(tableNames, names[0], table);
+			removeFromIndex(logicalNames, names[1], table);
+		}
+	}
+
+	private static void addToIndex(Map<String, List<TableModel>> index, String name, TableModel table){
+		if(name == null || name.length() == 0){
+			return;
+		}
+		List<TableModel> list = index.get(name);
+		if(list == null){
+			list = new ArrayList<TableModel>(1);
+			index.put(name, list);
+		}
+		list.add(table);
+	}
+
+	private static void removeFromIndex(Map<String, List<TableModel>> index, String name, TableModel table){
+		List<TableModel> list = index.get(name);
+		if(list != null){
+			list.remove(table);
+			if(list.isEmpty()){
+				index.remove(name);
+			}
+		}
+	}
+
+	/**
+	 * Tests whether the table is not the first one in the diagram among tables which have the same name.
+	 */
+	private static boolean isDuplicated(TableModel table, List<TableModel> sameNames, Map<TableModel, Integer> order){
+		if(sameNames == null || sameNames.size() < 2){
+			return false;
+		}
+		int index = order.get(table);
+		for(TableModel other: sameNames){
+			Integer otherIndex = order.get(other);
+			if(otherIndex != null && otherIndex < index){
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,152 @@
+package net.java.amateras.db.validator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.Messages;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * The snapshot of validation levels and messages which is taken once per validation.
+ * <p>
+ * Validation rules should get levels and messages from this object
+ * instead of the preference store and the resource bundle.
+ * This object is immutable except the message cache, so it can be shared by threads.
+ *
+ * @see IValidationRule
+ */
+public class ValidationProfile {
+
+	/** preference keys of validation levels */
+	public static final String[] LEVEL_KEYS = {
+		DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_REQUIRED,
+		DBPlugin.PREF_VALIDATE_PHYSICAL_TABLE_NAME_DUPLICATED,
+		DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_REQUIRED,
+		DBPlugin.PREF_VALIDATE_LOGICAL_TABLE_NAME_DUPLICATED,
+		DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_REQUIRED,
+		DBPlugin.PREF_VALIDATE_PHYSICAL_COLUMN_NAME_DUPLICATED,
+		DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_REQUIRED,
+		DBPlugin.PREF_VALIDATE_LOGICAL_COLUMN_NAME_DUPLICATED,
+		DBPlugin.PREF_VALIDATE_PRIMARY_KEY,
+		DBPlugin.PREF_VALIDATE_NO_COLUMNS,
+		DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_TYPE,
+		DBPlugin.PREF_VALIDATE_FOREIGN_KEY_COLUMN_SIZE,
+	};
+
+	/** resource keys of messages which are used by built-in rules */
+	private static final String[] MESSAGE_KEYS = {
+		"validation.error.tableName.required",
+		"validation.error.tableName.duplicated",
+		"validation.error.logicalTableName.required",
+		"validation.error.logicalTableName.duplicated",
+		"validation.error.noColumns",
+		"validation.error.columnName.required",
+		"validation.error.columnName.duplicated",
+		"validation.error.logicalColumnName.required",
+		"validation.error.logicalColumnName.duplicated",
+		"validation.error.noPrimaryKey",
+		"validation.error.foreignKey.columnType",
+		"validation.error.foreignKey.columnSize",
+	};
+
+	private Map<String, String> levels = new HashMap<String, String>();
+	private Map<String, String> messages = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Takes the snapshot from the preference store of the plug-in.
+	 */
+	public ValidationProfile(){
+		this(DBPlugin.getDefault().getPreferenceStore());
+	}
+
+	/**
+	 * Takes the snapshot from the given preference store.
+	 *
+	 * @param store the preference store
+	 */
+	public ValidationProfile(IPreferenceStore store){
+		for(String key: LEVEL_KEYS){
+			levels.put(key, normalizeLevel(store.getString(key)));
+		}
+		loadMessages();
+	}
+
+	/**
+	 * Takes the snapshot from the given levels without the plug-in.
+	 * Validations whose levels are not given are ignored.
+	 *
+	 * @param levels validation levels keyed by preference keys in {@link #LEVEL_KEYS}
+	 */
+	public ValidationProfile(Map<String, String> levels){
+		for(String key: LEVEL_KEYS){
+			this.levels.put(key, normalizeLevel(levels.get(key)));
+		}
+		loadMessages();
+	}
+
+	private void loadMessages(){
+		for(String key: MESSAGE_KEYS){
+			messages.put(key, Messages.getResourceString(key));
+		}
+	}
+
+	private static String normalizeLevel(String level){
+		if(DBPlugin.LEVEL_ERROR.equals(level)){
+			return DBPlugin.LEVEL_ERROR;
+		} else if(DBPlugin.LEVEL_WARNING.equals(level)){
+			return DBPlugin.LEVEL_WARNING;
+		}
+		return DBPlugin.LEVEL_IGNORE;
+	}
+
+	/**
+	 * Returns the validation level.
+	 *
+	 * @param key the preference key such as {@link DBPlugin#PREF_VALIDATE_PRIMARY_KEY}
+	 * @return {@link DBPlugin#LEVEL_ERROR}, {@link DBPlugin#LEVEL_WARNING} or {@link DBPlugin#LEVEL_IGNORE}
+	 */
+	public String getLevel(String key){
+		String level = levels.get(key);
+		return level == null ? DBPlugin.LEVEL_IGNORE : level;
+	}
+
+	/**
+	 * Tests whether the validation is disabled.
+	 *
+	 * @param key the preference key such as {@link DBPlugin#PREF_VALIDATE_PRIMARY_KEY}
+	 * @return true if the level is {@link DBPlugin#LEVEL_IGNORE}
+	 */
+	public boolean isIgnored(String key){
+		return getLevel(key) == DBPlugin.LEVEL_IGNORE;
+	}
+
+	/**
+	 * Returns the message from the resource bundle.
+	 * Messages which are not used by built-in rules are cached at the first call.
+	 *
+	 * @param key the resource key
+	 * @return the message
+	 */
+	public String getMessage(String key){
+		String message = messages.get(key);
+		if(message == null){
+			message = Messages.getResourceString(key);
+			messages.put(key, message);
+		}
+		return message;
+	}
+
+	/**
+	 * Tests whether the given profile has the same validation levels as this profile.
+	 *
+	 * @param profile the profile to compare
+	 * @return true if all levels are same
+	 */
+	public boolean hasSameLevels(ValidationProfile profile){
+		return profile != null && levels.equals(profile.levels);
+	}
+
+}
@@ -1,118 +1,88 @@
 package net.java.amateras.db.visual.action;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.visual.editpart.AbstractDBEntityEditPart;
-import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.layout.ILayoutEngine;
+import net.java.amateras.db.visual.layout.LayoutGraph;
+import net.java.amateras.db.visual.layout.LayoutNode;
 import net.java.amateras.db.visual.model.AbstractDBEntityModel;
 
-import org.eclipse.draw2d.geometry.Insets;
 import org.eclipse.draw2d.geometry.Rectangle;
-import org.eclipse.draw2d.graph.DirectedGraph;
-import org.eclipse.draw2d.graph.DirectedGraphLayout;
-import org.eclipse.draw2d.graph.Edge;
-import org.eclipse.draw2d.graph.EdgeList;
-import org.eclipse.draw2d.graph.Node;
-import org.eclipse.draw2d.graph.NodeList;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CompoundCommand;
 import org.eclipse.jface.action.Action;
 
 /**
- * The action to layout all entities automatically.
+ * The action to layout entities automatically by the given layout engine.
+ * <p>
+ * When two or more entities are selected, only them are laid out.
+ * When an entity is selected, entities which are connected with it are laid out.
+ * Otherwise, all entities are laid out.
+ * Laid out entities keep their top-left location.
  * 
  * @author Naoki Takeze
- * @see DirectedGraph
- * @see DirectedGraphLayout
+ * @see ILayoutEngine
  */
 public class AutoLayoutAction extends Action {
 	
 	private GraphicalViewer viewer;
+	private ILayoutEngine engine;
 	
-	public AutoLayoutAction(GraphicalViewer viewer){
-		super(DBPlugin.getResourceString("action.autoLayout"));
+	public AutoLayoutAction(GraphicalViewer viewer, ILayoutEngine engine){
+		super(engine.getLayoutName());
 		this.viewer = viewer;
+		this.engine = engine;
 	}
 	
 	@SuppressWarnings("unchecked")
 	public void run() {
-		CompoundCommand commands = new CompoundCommand();
-		List<Object> models = viewer.getContents().getChildren();
-		NodeList graphNodes = new NodeList();
-		EdgeList graphEdges = new EdgeList();
-		// assemble nodes
-		for(int i=0;i<models.size();i++){
-			Object obj = models.get(i);
+		List<AbstractDBEntityModel> selected = new ArrayList<AbstractDBEntityModel>();
+		for(Object obj: viewer.getSelectedEditParts()){
 			if(obj instanceof AbstractDBEntityEditPart){
-				AbstractDBEntityEditPart editPart = (AbstractDBEntityEditPart) obj;
-				AbstractDBEntityModel model = (AbstractDBEntityModel) editPart.getModel();
-				EntityNode node = new EntityNode();
-				node.model = model;
-				node.width = editPart.getFigure().getSize().width;
-				node.height = editPart.getFigure().getSize().height;
-				graphNodes.add(node);
+				selected.add((AbstractDBEntityModel) ((AbstractDBEntityEditPart) obj).getModel());
 			}
 		}
-		// assemble edges
-		for(int i=0;i<graphNodes.size();i++){
-			EntityNode node = (EntityNode) graphNodes.get(i);
-			List<AbstractDBConnectionModel> conns = node.model.getModelSourceConnections();
-			CONN_LOOP: for(int j=0;j<conns.size();j++){
-				AbstractDBConnectionModel conn = (AbstractDBConnectionModel) conns.get(j);
-				if(conn.getSource() == conn.getTarget()){
-					continue;
-				}
-				// skip if the connection already added
-				for(int k=0;k<graphEdges.size();k++){
-					ConnectionEdge edge = (ConnectionEdge) graphEdges.get(k);
-					if(edge.model == conn){
-						continue CONN_LOOP;
-					}
-				}
-				EntityNode source = (EntityNode) getNode(graphNodes, conn.getSource());
-				EntityNode target = (EntityNode) getNode(graphNodes, conn.getTarget());
-				if(source != null && target != null){
-					ConnectionEdge edge = new ConnectionEdge(source, target);
-					edge.model = conn;
-					graphEdges.add(edge);
+		if(selected.size() == 1){
+			selected = LayoutGraph.getConnectedEntities(selected);
+		}
+		
+		// assemble nodes in the order of the diagram
+		LayoutGraph graph = new LayoutGraph();
+		Set<AbstractDBEntityModel> targets = new HashSet<AbstractDBEntityModel>(selected);
+		List<Object> children = viewer.getContents().getChildren();
+		for(Object obj: children){
+			if(obj instanceof AbstractDBEntityEditPart){
+				AbstractDBEntityEditPart editPart = (AbstractDBEntityEditPart) obj;
+				AbstractDBEntityModel model = (AbstractDBEntityModel) editPart.getModel();
+				if(selected.isEmpty() || targets.contains(model)){
+					graph.addNode(model, editPart.getFigure().getSize().width, editPart.getFigure().getSize().height);
 				}
 			}
 		}
-		
-		DirectedGraph graph = new DirectedGraph();
-		graph.setDefaultPadding(new Insets(40));
-		graph.nodes = graphNodes;
-		graph.edges = graphEdges;
-		new DirectedGraphLayout().visit(graph);
-		for (int i = 0; i < graph.nodes.size(); i++) {
-			EntityNode node = (EntityNode) graph.nodes.getNode(i);
-			commands.add(new LayoutCommand(node.model, node.x, node.y));
+		if(graph.getNodeCount() == 0){
+			return;
 		}
+		graph.addConnections();
 		
-		viewer.getEditDomain().getCommandStack().execute(commands);
-	}
-	
-	private static EntityNode getNode(NodeList list, AbstractDBEntityModel model){
-		for(int i=0;i<list.size();i++){
-			EntityNode node = (EntityNode) list.get(i);
-			if(node.model == model){
-				return node;
-			}
+		int x = Integer.MAX_VALUE;
+		int y = Integer.MAX_VALUE;
+		for(LayoutNode node: graph.getNodes()){
+			x = Math.min(x, node.x);
+			y = Math.min(y, node.y);
 		}
-		return null;
-	}
-
-	private class EntityNode extends Node {
-		private AbstractDBEntityModel model;
-	}
-	
-	private class ConnectionEdge extends Edge {
-		private AbstractDBConnectionModel model;
-		public ConnectionEdge(EntityNode source, EntityNode target){
-			super(source, target);
+		engine.layout(graph);
+		graph.moveTo(x, y);
+		
+		CompoundCommand commands = new CompoundCommand();
+		for(LayoutNode node: graph.getNodes()){
+			commands.add(new LayoutCommand(node.getModel(), node.x, node.y));
 		}
+		viewer.getEditDomain().getCommandStack().execute(commands);
 	}
 	
 	/**
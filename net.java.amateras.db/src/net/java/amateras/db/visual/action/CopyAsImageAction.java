@@ -1,6 +1,7 @@
 package net.java.amateras.db.visual.action;
 
 import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.visual.editpart.RootEditPart;
 
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.SWTGraphics;
@@ -37,8 +38,11 @@ public class CopyAsImageAction extends Action {
 
 		ScalableRootEditPart rootEditPart = (ScalableRootEditPart) viewer.getRootEditPart();
 		double zoom = rootEditPart.getZoomManager().getZoom();
+		RootEditPart contents = (RootEditPart) viewer.getContents();
 
 		try {
+			// placeholder tables out of the viewport must be realized
+			contents.realizeAll();
 			IFigure figure = rootEditPart.getLayer(LayerConstants.PRINTABLE_LAYERS);
 
 			Rectangle rectangle = figure.getBounds();
@@ -57,6 +61,7 @@ public class CopyAsImageAction extends Action {
 		} catch(Exception ex){
 			//ex.printStackTrace();
 		} finally {
+			contents.resumeVirtualization();
 			rootEditPart.getZoomManager().setZoom(zoom);
 		}
 	}
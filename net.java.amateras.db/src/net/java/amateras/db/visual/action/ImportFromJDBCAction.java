@@ -1,17 +1,25 @@
 package net.java.amateras.db.visual.action;
 
+import java.lang.reflect.InvocationTargetException;
 import java.sql.SQLException;
+import java.util.concurrent.Executor;
 
 import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.dialect.SchemaSyncResult;
 import net.java.amateras.db.util.UIUtils;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.wizard.NewDiagramWizardPage2;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.jface.action.Action;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.wizard.Wizard;
 import org.eclipse.jface.wizard.WizardDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.MessageBox;
 
 /**
@@ -50,15 +58,46 @@ public class ImportFromJDBCAction extends Action {
 		}
 
 		public boolean performFinish() {
-			RootModel root = (RootModel) viewer.getContents().getModel();
+			final RootModel root = (RootModel) viewer.getContents().getModel();
+			final Display display = getShell().getDisplay();
+			page.prepareImport(root);
 			try {
-				page.importTables(root);
+				// Metadata is fetched in a background thread,
+				// and tables are merged into the model on the UI thread
+				getContainer().run(true, true, new IRunnableWithProgress(){
+					public void run(IProgressMonitor monitor) throws InvocationTargetException {
+						try {
+							page.importTables(root, monitor, new Executor(){
+								public void execute(Runnable task){
+									display.syncExec(task);
+								}
+							});
+						} catch(SQLException ex){
+							throw new InvocationTargetException(ex);
+						}
+					}
+				});
 				UIUtils.getActiveEditor().doSave(new NullProgressMonitor());
+				
+				SchemaSyncResult result = page.getSyncResult();
+				if(result != null){
+					MessageBox msg = new MessageBox(getShell(), SWT.ICON_INFORMATION | SWT.OK);
+					msg.setMessage(DBPlugin.getDefault().createMessage("wizard.new.import.incremental.result", 
+							new String[]{
+								String.valueOf(result.getAddedTables().size()),
+								String.valueOf(result.getModifiedTables().size()),
+								String.valueOf(result.getUnchangedTables().size())}));
+					msg.open();
+				}
 				return true;
-			} catch(SQLException ex){
+			} catch(InterruptedException ex){
+				return false;
+			} catch(OperationCanceledException ex){
+				return false;
+			} catch(InvocationTargetException ex){
 				DBPlugin.logException(ex);
 				MessageBox msg = new MessageBox(getShell());
-				msg.setMessage(ex.getMessage());
+				msg.setMessage(ex.getCause().getMessage());
 				msg.open();
 				return false;
 			}
@@ -4,12 +4,9 @@ import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.util.UIUtils;
 import net.java.amateras.db.validator.DiagramErrors;
 import net.java.amateras.db.validator.DiagramValidator;
-import net.java.amateras.db.validator.DiagramErrors.DiagramError;
 import net.java.amateras.db.visual.model.RootModel;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CommandStack;
@@ -42,18 +39,11 @@ public class ValidateAction extends Action {
 
             @Override 
             public void execute() {
-                try {
-                    RootModel model = (RootModel) viewer.getContents().getModel();
-                    IFile file = ((IFileEditorInput) UIUtils.getActiveEditor().getEditorInput()).getFile();
-                    
-                    file.deleteMarkers(IMarker.PROBLEM, false, 0);
-                    DiagramErrors errors = new DiagramValidator(model).doValidate();
-                    for(DiagramError error: errors.getErrors()){
-                        error.addMarker(file);
-                    }
-                } catch(CoreException ex){
-                    DBPlugin.logException(ex);
-                }
+                RootModel model = (RootModel) viewer.getContents().getModel();
+                IFile file = ((IFileEditorInput) UIUtils.getActiveEditor().getEditorInput()).getFile();
+                
+                DiagramErrors errors = new DiagramValidator(model).doValidate();
+                errors.updateMarkers(file);
             }
         });
         
@@ -1,14 +1,14 @@
 package net.java.amateras.db.visual.editor;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.List;
 
 import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.dialect.DialectProvider;
-import net.java.amateras.db.validator.DiagramErrors;
-import net.java.amateras.db.validator.DiagramErrors.DiagramError;
-import net.java.amateras.db.validator.DiagramValidator;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.validator.IncrementalDiagramValidator;
 import net.java.amateras.db.visual.action.AutoLayoutAction;
 import net.java.amateras.db.visual.action.ChangeDBTypeAction;
 import net.java.amateras.db.visual.action.CopyAction;
@@ -33,6 +33,8 @@ import net.java.amateras.db.visual.editpart.IDoubleClickSupport;
 import net.java.amateras.db.visual.editpart.RootEditPart;
 import net.java.amateras.db.visual.generate.GeneratorProvider;
 import net.java.amateras.db.visual.generate.IGenerator;
+import net.java.amateras.db.visual.layout.ILayoutEngine;
+import net.java.amateras.db.visual.layout.LayoutEngineProvider;
 import net.java.amateras.db.visual.model.AnchorModel;
 import net.java.amateras.db.visual.model.ForeignKeyModel;
 import net.java.amateras.db.visual.model.NoteModel;
@@ -45,7 +47,6 @@ import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.draw2d.geometry.Dimension;
@@ -104,6 +105,7 @@ public class VisualDBEditor extends GraphicalEditorWithPalette
 	private boolean savePreviouslyNeeded = false;
 	private VisualDBOutlinePage outlinePage;
 	private boolean needViewerRefreshFlag = true;
+	private IncrementalDiagramValidator validator;
 
 	public VisualDBEditor(){
 		super();
@@ -173,7 +175,19 @@ public class VisualDBEditor extends GraphicalEditorWithPalette
 	    getActionRegistry().registerAction(new ZoomInAction(manager));
 	    getActionRegistry().registerAction(new ZoomOutAction(manager));
 
-	    PrintAction printAction = new PrintAction(this);
+	    PrintAction printAction = new PrintAction(this){
+	    	@Override
+	    	public void run() {
+	    		// placeholder tables out of the viewport must be realized
+	    		RootEditPart contents = (RootEditPart) getGraphicalViewer().getContents();
+	    		contents.realizeAll();
+	    		try {
+	    			super.run();
+	    		} finally {
+	    			contents.resumeVirtualization();
+	    		}
+	    	}
+	    };
 	    printAction.setText(DBPlugin.getResourceString("action.print"));
 	    printAction.setImageDescriptor(DBPlugin.getImageDescriptor("icons/print.gif"));
 	    getActionRegistry().registerAction(printAction);
@@ -227,7 +241,12 @@ public class VisualDBEditor extends GraphicalEditorWithPalette
 
 		menuMgr.add(getActionRegistry().getAction(ActionFactory.DELETE.getId()));
 		menuMgr.add(new Separator());
-		menuMgr.add(new AutoLayoutAction(viewer));
+		MenuManager autoLayout = new MenuManager(DBPlugin.getResourceString("action.autoLayout"));
+		ILayoutEngine[] engines = LayoutEngineProvider.getLayoutEngines();
+		for(int i=0;i<engines.length;i++){
+			autoLayout.add(new AutoLayoutAction(viewer, engines[i]));
+		}
+		menuMgr.add(autoLayout);
 		menuMgr.add(new DommainEditAction(viewer));
 
 		// Convert Actions
@@ -324,21 +343,27 @@ public class VisualDBEditor extends GraphicalEditorWithPalette
 
         // Validate models
         if(DBPlugin.getDefault().getPreferenceStore().getBoolean(DBPlugin.PREF_VALIDATE_ON_SAVE)){
-            try {
-                file.deleteMarkers(IMarker.PROBLEM, false, 0);
-                DiagramErrors errors = new DiagramValidator(model).doValidate();
-                for(DiagramError error: errors.getErrors()){
-                    error.addMarker(file);
-                }
-            } catch(CoreException ex){
-                DBPlugin.logException(ex);
+            if(validator != null && validator.getModel() != model){
+                // the contents of the viewer have been replaced
+                validator.dispose();
+                validator = null;
+            }
+            if(validator == null){
+                validator = new IncrementalDiagramValidator(model);
             }
+            validator.doValidate().updateMarkers(file);
         }
 
 		// Save editing models using XStream
 		try {
 			needViewerRefreshFlag = false;
-			file.setContents(VisualDBSerializer.serialize(model), true, true, monitor);
+			InputStream in = VisualDBSerializer.serialize(model);
+			try {
+				file.setContents(in, true, true, monitor);
+			} finally {
+				// deletes the temporary file even if the file couldn't be saved
+				IOUtils.close(in);
+			}
 		} catch(Exception ex){
 			DBPlugin.logException(ex);
 			throw new RuntimeException(ex);
@@ -514,6 +539,9 @@ public class VisualDBEditor extends GraphicalEditorWithPalette
 
 	@Override
 	public void dispose() {
+		if(validator != null){
+			validator.dispose();
+		}
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
 		DBPlugin.getDefault().getPreferenceStore().removePropertyChangeListener(this);
 		super.dispose();
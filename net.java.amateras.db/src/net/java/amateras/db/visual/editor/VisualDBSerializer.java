@@ -1,30 +1,56 @@
 package net.java.amateras.db.visual.editor;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 
-import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.dialect.ColumnType;
+import net.java.amateras.db.visual.model.AnchorModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.DommainModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.NoteModel;
 import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
 import net.java.amateras.xstream.XStreamSerializer;
 
 public class VisualDBSerializer {
 
-	public static InputStream serialize(RootModel model) throws UnsupportedEncodingException {
+	static {
+		XStreamSerializer.registerTypes(VisualDBSerializer.class.getClassLoader(),
+				RootModel.class, TableModel.class, ColumnModel.class, IndexModel.class,
+				DommainModel.class, ForeignKeyModel.class, ForeignKeyMapping.class,
+				AnchorModel.class, NoteModel.class, ColumnType.class);
+		
+		// 1.0.2 -> 1.0.3
+		registerMigration("net.java.amateras.db.view.dialect.ColumnType", ColumnType.class.getName());
+	}
+
+	public static InputStream serialize(RootModel model) throws IOException {
 		return XStreamSerializer.serializeStream(model, VisualDBSerializer.class.getClassLoader());
 	}
 	
+	public static void serialize(RootModel model, OutputStream out) throws IOException {
+		XStreamSerializer.serialize(model, VisualDBSerializer.class.getClassLoader(), out);
+	}
+	
+	/**
+	 * Registers a renamed model class.
+	 * Old class names which are found in loaded files are resolved as the new class.
+	 *
+	 * @param oldClassName the fully qualified class name in old files
+	 * @param newClassName the fully qualified class name of the current model
+	 */
+	public static void registerMigration(String oldClassName, String newClassName){
+		XStreamSerializer.registerMigration(VisualDBSerializer.class.getClassLoader(),
+				oldClassName, newClassName);
+	}
+	
 	public static RootModel deserialize(InputStream in) throws UnsupportedEncodingException {
-		String xml = IOUtils.loadStream(in, "UTF-8");
-		
-		// 1.0.2 -> 1.0.3
-		xml = xml.replaceAll(
-				"net\\.java\\.amateras\\.db\\.view\\.dialect\\.ColumnType", 
-				"net.java.amateras.db.dialect.ColumnType");
-		
-		return (RootModel)XStreamSerializer.deserialize(
-				new ByteArrayInputStream(xml.getBytes("UTF-8")), 
-				VisualDBSerializer.class.getClassLoader());
+		return (RootModel)XStreamSerializer.deserialize(in, VisualDBSerializer.class.getClassLoader());
 	}
 	
 }
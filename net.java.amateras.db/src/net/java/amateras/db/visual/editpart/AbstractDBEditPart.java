@@ -19,6 +19,13 @@ implements PropertyChangeListener, IDoubleClickSupport {
 		((AbstractDBModel) getModel()).removePropertyChangeListener(this);
 	}
 	
+	/**
+	 * Returns the cache of fonts and colors of the diagram.
+	 */
+	protected ResourceCache getResourceCache(){
+		return ((RootEditPart) getRoot().getContents()).getResourceCache();
+	}
+
 	public void doubleClicked(){
 		
 	}
@@ -55,12 +55,50 @@ public abstract class AbstractDBEntityEditPart extends AbstractDBEditPart implem
 //		installEditPolicy(EditPolicy.DIRECT_EDIT_ROLE, new EntityDirectEditPolicy());
 	}
 
+	/**
+	 * Returns the virtualizer of the diagram, or <code>null</code> if the diagram is not virtualized.
+	 */
+	protected ViewportVirtualizer getVirtualizer() {
+		if(getParent() instanceof RootEditPart){
+			return ((RootEditPart) getParent()).getVirtualizer();
+		}
+		return null;
+	}
+	
 	protected List<AbstractDBConnectionModel> getModelSourceConnections() {
-		return ((AbstractDBEntityModel) getModel()).getModelSourceConnections();
+		List<AbstractDBConnectionModel> conns = ((AbstractDBEntityModel) getModel()).getModelSourceConnections();
+		return filterConnections(conns, true);
 	}
 	
 	protected List<AbstractDBConnectionModel> getModelTargetConnections() {
-		return ((AbstractDBEntityModel) getModel()).getModelTargetConnections();
+		List<AbstractDBConnectionModel> conns = ((AbstractDBEntityModel) getModel()).getModelTargetConnections();
+		return filterConnections(conns, false);
+	}
+	
+	/**
+	 * Removes connections between placeholder tables.
+	 * Connections are created if at least one of their ends is realized.
+	 */
+	private List<AbstractDBConnectionModel> filterConnections(List<AbstractDBConnectionModel> conns, boolean source) {
+		ViewportVirtualizer virtualizer = getVirtualizer();
+		if(virtualizer == null || virtualizer.isRealized(getModel())){
+			return conns;
+		}
+		List<AbstractDBConnectionModel> result = new ArrayList<AbstractDBConnectionModel>();
+		for(AbstractDBConnectionModel conn: conns){
+			if(virtualizer.isRealized(source ? conn.getTarget() : conn.getSource())){
+				result.add(conn);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Refreshes connections after the virtualizer has changed this part or its neighbors.
+	 */
+	void refreshConnections() {
+		refreshSourceConnections();
+		refreshTargetConnections();
 	}
 	
 	public ConnectionAnchor getSourceConnectionAnchor(ConnectionEditPart connection) {
@@ -12,7 +12,10 @@ public class ColumnFigure extends Label {
 	}
 	
 	public void setUnderline(boolean underline){
-		this.underline = underline;
+		if(this.underline != underline){
+			this.underline = underline;
+			repaint();
+		}
 	}
 	
 	protected void paintFigure(Graphics graphics) {
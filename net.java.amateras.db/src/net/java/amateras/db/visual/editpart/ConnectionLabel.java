@@ -0,0 +1,20 @@
+package net.java.amateras.db.visual.editpart;
+
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.Label;
+
+/**
+ * The label of connections which is not painted when the diagram is zoomed out.
+ *
+ * @see LevelOfDetail
+ */
+public class ConnectionLabel extends Label {
+
+	@Override
+	public void paint(Graphics graphics) {
+		if(LevelOfDetail.getLevel(graphics) == LevelOfDetail.FULL){
+			super.paint(graphics);
+		}
+	}
+
+}
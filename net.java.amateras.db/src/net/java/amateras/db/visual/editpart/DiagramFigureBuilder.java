@@ -0,0 +1,317 @@
+package net.java.amateras.db.visual.editpart;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.java.amateras.db.Messages;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.AnchorModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
+import net.java.amateras.db.visual.model.NoteModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.ConnectionLayer;
+import org.eclipse.draw2d.ConnectionLocator;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.FreeformLayeredPane;
+import org.eclipse.draw2d.FreeformLayout;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.Label;
+import org.eclipse.draw2d.PolygonDecoration;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.PositionConstants;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Builds figures of the diagram from models without GEF edit parts.
+ * <p>
+ * This class depends only on Draw2d and SWT, so the diagram can be rendered
+ * without the workbench, for example from command line tools.
+ * Figures are built in the same way as edit parts build them,
+ * except that validation errors are not shown.
+ *
+ * @see net.java.amateras.db.visual.generate.TiledImageRenderer
+ */
+public class DiagramFigureBuilder {
+
+	private Device device;
+	private Font font;
+	private boolean showNotNull;
+	private Map<RGB, Color> colors = new HashMap<RGB, Color>();
+
+	/**
+	 * @param device the device to create colors
+	 * @param font the font of the diagram
+	 * @param showNotNull true to show NOT NULL of columns
+	 */
+	public DiagramFigureBuilder(Device device, Font font, boolean showNotNull){
+		this.device = device;
+		this.font = font;
+		this.showNotNull = showNotNull;
+	}
+
+	/**
+	 * Builds and lays out figures of the diagram.
+	 * Bounds of the returned figure contain all tables, notes and connections.
+	 *
+	 * @param root the root model
+	 * @return the figure of the diagram
+	 */
+	public IFigure build(RootModel root){
+		FreeformLayeredPane pane = new FreeformLayeredPane();
+		pane.setFont(font);
+
+		FreeformLayer contents = new FreeformLayer();
+		contents.setLayoutManager(new FreeformLayout());
+		ConnectionLayer connections = new ConnectionLayer();
+		pane.add(contents);
+		pane.add(connections);
+		ManhattanConnectionRouter router = new ManhattanConnectionRouter(contents);
+
+		Map<AbstractDBEntityModel, IFigure> figures = new HashMap<AbstractDBEntityModel, IFigure>();
+		for(AbstractDBEntityModel entity: root.getChildren()){
+			IFigure figure = null;
+			if(entity instanceof TableModel){
+				figure = createTableFigure(root, (TableModel) entity);
+			} else if(entity instanceof NoteModel){
+				NoteFigure note = new NoteFigure();
+				note.setFont(font);
+				note.setText(((NoteModel) entity).getContent());
+				figure = note;
+			}
+			if(figure != null){
+				contents.add(figure, entity.getConstraint());
+				figures.put(entity, figure);
+			}
+		}
+
+		for(AbstractDBEntityModel entity: root.getChildren()){
+			for(AbstractDBConnectionModel conn: entity.getModelSourceConnections()){
+				IFigure source = figures.get(conn.getSource());
+				IFigure target = figures.get(conn.getTarget());
+				if(source == null || target == null){
+					continue;
+				}
+				PolylineConnection connection = null;
+				if(conn instanceof ForeignKeyModel){
+					connection = createForeignKeyConnection(root, (ForeignKeyModel) conn, router);
+				} else if(conn instanceof AnchorModel){
+					connection = new PolylineConnection();
+					connection.setLineStyle(SWT.LINE_DASH);
+				}
+				if(connection != null){
+					connection.setSourceAnchor(new ChopboxAnchor(source));
+					connection.setTargetAnchor(new ChopboxAnchor(target));
+					connections.add(connection);
+				}
+			}
+		}
+
+		// lays out entities at first, and then routes connections
+		pane.validate();
+		pane.setFreeformBounds(pane.getFreeformExtent().getCopy());
+		pane.validate();
+		return pane;
+	}
+
+	private TableFigure createTableFigure(RootModel root, TableModel table){
+		TableFigure figure = new TableFigure();
+		figure.setFont(font);
+		figure.setTableName(root.getLogicalMode() ? table.getLogicalName() : table.getTableName());
+		figure.setLinkedTable(table.isLinkedTable());
+		figure.setBackgroundColor(getColor(table.getBackgroundColor()));
+		for(ColumnModel column: table.getColumns()){
+			ColumnFigure[] columnFigures = createColumnFigures(root, table, column, showNotNull);
+			figure.add(columnFigures[0]);
+			figure.add(columnFigures[1]);
+			figure.add(columnFigures[2]);
+		}
+		return figure;
+	}
+
+	private PolylineConnection createForeignKeyConnection(RootModel root, ForeignKeyModel model,
+			ManhattanConnectionRouter router){
+		PolylineConnection connection = new PolylineConnection();
+		connection.setConnectionRouter(router);
+		connection.setTargetDecoration(new PolygonDecoration());
+		connection.setFont(font);
+
+		Label label = new Label();
+		label.setLabelAlignment(PositionConstants.CENTER);
+		label.setOpaque(true);
+		label.setBackgroundColor(device.getSystemColor(SWT.COLOR_WHITE));
+		updateForeignKeyConnection(connection, label, root, model);
+		connection.add(label, new ConnectionLocator(connection, ConnectionLocator.MIDDLE));
+		return connection;
+	}
+
+	private Color getColor(RGB rgb){
+		Color color = colors.get(rgb);
+		if(color == null){
+			color = new Color(device, rgb);
+			colors.put(rgb, color);
+		}
+		return color;
+	}
+
+	/**
+	 * Disposes colors which have been created by this builder.
+	 * The font is not disposed.
+	 */
+	public void dispose(){
+		for(Color color: colors.values()){
+			color.dispose();
+		}
+		colors.clear();
+	}
+
+	/**
+	 * Creates figures of the column name, the column type and NOT NULL.
+	 *
+	 * @param root the root model
+	 * @param table the table model
+	 * @param model the column model
+	 * @param showNotNull true to show NOT NULL
+	 * @return three figures to add to {@link TableFigure}
+	 */
+	public static ColumnFigure[] createColumnFigures(RootModel root, TableModel table, ColumnModel model,
+			boolean showNotNull){
+		ColumnFigure[] figures = new ColumnFigure[]{new ColumnFigure(), new ColumnFigure(), new ColumnFigure()};
+		updateColumnFigures(root, table, model, showNotNull, figures);
+		return figures;
+	}
+
+	/**
+	 * Updates figures of the column name, the column type and NOT NULL.
+	 * Figures are changed only when their text or decorations differ,
+	 * so figures of unchanged columns are not revalidated.
+	 *
+	 * @param root the root model
+	 * @param table the table model
+	 * @param model the column model
+	 * @param showNotNull true to show NOT NULL
+	 * @param figures three figures which have been created by {@link #createColumnFigures}
+	 */
+	public static void updateColumnFigures(RootModel root, TableModel table, ColumnModel model,
+			boolean showNotNull, ColumnFigure[] figures){
+		StringBuffer sb = new StringBuffer();
+		if(root.getLogicalMode()){
+			sb.append(model.getColumnType().getLogicalName());
+		} else {
+			sb.append(model.getColumnType().getName());
+		}
+		if(model.getColumnType().supportSize() && model.getSize().length() > 0){
+			sb.append("(");
+			sb.append(model.getSize());
+			sb.append(")");
+		}
+		StringBuffer name = new StringBuffer();
+		if(root.getLogicalMode()){
+			name.append(model.getLogicalName());
+		} else {
+			name.append(model.getColumnName());
+		}
+
+		List<AbstractDBConnectionModel> connections = table.getModelSourceConnections();
+		LOOP: for(int i=0;i<connections.size();i++){
+			AbstractDBConnectionModel obj = connections.get(i);
+			if(obj instanceof ForeignKeyModel){
+				ForeignKeyMapping[] mappings = ((ForeignKeyModel) obj).getMapping();
+				for(int j=0;j<mappings.length;j++){
+					if(mappings[j].getRefer() != null
+							&& mappings[j].getRefer().getColumnName().equals(model.getColumnName())){
+						name.append("(FK)");
+						break LOOP;
+					}
+				}
+			}
+		}
+
+		LOOP: for(IndexModel index: table.getIndices()){
+			if(index.getIndexType().getName().equals("UNIQUE")){
+				for(String columnName: index.getColumns()){
+					if(columnName.equals(model.getColumnName())){
+						name.append("(UQ)");
+						break LOOP;
+					}
+				}
+			}
+		}
+
+		String notNull = "";
+		if (model.isNotNull() && showNotNull) {
+			if (root.getLogicalMode()) {
+				notNull = Messages.getResourceString("label.notNull");
+			} else {
+				notNull = "NOT NULL";
+			}
+		}
+
+		figures[0].setText(name.toString());
+		figures[0].setUnderline(model.isPrimaryKey());
+		figures[1].setText(sb.toString());
+		figures[1].setUnderline(model.isPrimaryKey());
+		figures[2].setText(notNull);
+	}
+
+	/**
+	 * Updates the label, the line style and the routing constraint of the foreign key connection.
+	 * The connection must have {@link ManhattanConnectionRouter}.
+	 *
+	 * @param connection the connection figure
+	 * @param label the label of the connection
+	 * @param root the root model
+	 * @param model the foreign key model
+	 */
+	public static void updateForeignKeyConnection(PolylineConnection connection, Label label,
+			RootModel root, ForeignKeyModel model){
+		ForeignKeyMapping[] mapping = model.getMapping();
+		StringBuffer sb = new StringBuffer();
+		for(int i=0;i<mapping.length;i++){
+			try {
+				if(i != 0){
+					sb.append("\n");
+				}
+				sb.append(mapping[i].getDisplayString(root.getLogicalMode()));
+			} catch(Exception ex){
+				ex.printStackTrace();
+			}
+		}
+		label.setText(sb.toString());
+
+		connection.setLineStyle(Graphics.LINE_DASH);
+		for(int i=0;i<mapping.length;i++){
+			if(mapping[i].getRefer() != null && mapping[i].getRefer().isPrimaryKey()){
+				connection.setLineStyle(Graphics.LINE_SOLID);
+				break;
+			}
+		}
+
+
+		int count = 0;
+
+		for(AbstractDBConnectionModel conn: model.getSource().getModelSourceConnections()){
+			if(conn == model){
+				break;
+			}
+			if(conn.getTarget() == model.getTarget()){
+				count++;
+			}
+		}
+
+		connection.setRoutingConstraint(new Integer(count));
+	}
+
+}
@@ -0,0 +1,81 @@
+package net.java.amateras.db.visual.editpart;
+
+import net.java.amateras.db.DBPlugin;
+
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+
+/**
+ * Decides how much detail of figures is painted at the current zoom.
+ * <p>
+ * The zoom is taken from the absolute scale of the graphics,
+ * so the outline thumbnail is also painted in the simplified form.
+ * Thresholds are configured in the preference page as percentages of the zoom.
+ * They are cached and reloaded by the listener on the preference store,
+ * because this is called for each figure whenever the diagram is painted.
+ */
+public class LevelOfDetail {
+
+	/** paints all labels */
+	public static final int FULL = 0;
+	/** paints only the title of tables and no labels of connections */
+	public static final int TITLE = 1;
+	/** paints only filled boxes */
+	public static final int BOX = 2;
+
+	private static volatile int titleZoom;
+	private static volatile int boxZoom;
+	private static volatile IPropertyChangeListener listener;
+
+	/**
+	 * Returns the level of detail for the given graphics.
+	 *
+	 * @param graphics the graphics to paint
+	 * @return {@link #FULL}, {@link #TITLE} or {@link #BOX}
+	 */
+	public static int getLevel(Graphics graphics){
+		double zoom = graphics.getAbsoluteScale() * 100;
+		if(zoom >= 100 || DBPlugin.getDefault() == null){
+			return FULL;
+		}
+		if(listener == null){
+			addListener();
+		}
+		if(zoom < boxZoom){
+			return BOX;
+		}
+		if(zoom < titleZoom){
+			return TITLE;
+		}
+		return FULL;
+	}
+
+	/**
+	 * Loads thresholds and registers the listener which reloads them
+	 * when they are changed in the preference page.
+	 */
+	private static synchronized void addListener(){
+		if(listener != null){
+			return;
+		}
+		final IPreferenceStore store = DBPlugin.getDefault().getPreferenceStore();
+		loadThresholds(store);
+		listener = new IPropertyChangeListener(){
+			public void propertyChange(PropertyChangeEvent event){
+				String property = event.getProperty();
+				if(DBPlugin.PREF_LOD_TITLE_ZOOM.equals(property) || DBPlugin.PREF_LOD_BOX_ZOOM.equals(property)){
+					loadThresholds(store);
+				}
+			}
+		};
+		store.addPropertyChangeListener(listener);
+	}
+
+	private static void loadThresholds(IPreferenceStore store){
+		titleZoom = store.getInt(DBPlugin.PREF_LOD_TITLE_ZOOM);
+		boxZoom = store.getInt(DBPlugin.PREF_LOD_BOX_ZOOM);
+	}
+
+}
@@ -1,14 +1,21 @@
 package net.java.amateras.db.visual.editpart;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.draw2d.AbstractRouter;
 import org.eclipse.draw2d.Connection;
 import org.eclipse.draw2d.ConnectionAnchor;
 import org.eclipse.draw2d.ConnectionRouter;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LayoutListener;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.Ray;
@@ -17,19 +24,49 @@ import org.eclipse.draw2d.geometry.Rectangle;
 /**
  * Provides a {@link Connection} with an orthogonal route between the Connection's source
  * and target anchors.
+ * <p>
+ * One router should be shared by all connections of a diagram.
+ * Segments of routed connections and children of the obstacle container are kept in
+ * {@link SpatialIndex}, and rows and columns which overlap other segments or cross
+ * obstacles are avoided. When children of the container are moved, only connections
+ * whose segments cross the old or the new bounds are routed again. Connections attached
+ * to the moved child are left to their anchors, which route them anyway.
+ * <p>
+ * The container and connections must be in the same coordinate system,
+ * for example the primary layer and the connection layer of a diagram.
+ * The duplication count of a connection is given as its routing constraint.
  */
-@SuppressWarnings({"rawtypes", "unchecked", "deprecation"})
+@SuppressWarnings("deprecation")
 public class ManhattanConnectionRouter extends AbstractRouter {
 
-private Map rowsUsed = new HashMap();
-private Map colsUsed = new HashMap();
-//private Hashtable offsets = new Hashtable(7);
+private IFigure container;
+private boolean obstaclesLoaded = false;
+private Map<IFigure, Rectangle> obstacleBounds = new IdentityHashMap<IFigure, Rectangle>();
+private SpatialIndex<IFigure> obstacles = new SpatialIndex<IFigure>();
+private SpatialIndex<Segment> segments = new SpatialIndex<Segment>();
+private Map<Connection, RouteInfo> routes = new HashMap<Connection, RouteInfo>();
 
-private Map reservedInfo = new HashMap();
+/** buffers for queries, which are reused to avoid allocation for each candidate */
+private List<IFigure> foundObstacles = new ArrayList<IFigure>();
+private List<Segment> foundSegments = new ArrayList<Segment>();
 
-private class ReservedInfo {
-	public List reservedRows = new ArrayList(2);
-	public List reservedCols = new ArrayList(2);
+private static class RouteInfo {
+	public int duplicationCount = 0;
+	public List<Segment> segments = new ArrayList<Segment>(4);
+}
+
+private static class Segment {
+	public Connection connection;
+	public boolean horizontal;
+	public int position;
+	public Rectangle bounds;
+
+	public Segment(Connection connection, Point p1, Point p2) {
+		this.connection = connection;
+		this.horizontal = p1.y == p2.y;
+		this.position = horizontal ? p1.y : p1.x;
+		this.bounds = getBounds(horizontal, position, horizontal ? p1.x : p1.y, horizontal ? p2.x : p2.y);
+	}
 }
 
 private static Ray 	UP		= new Ray(0, -1),
@@ -37,15 +74,52 @@ private static Ray 	UP		= new Ray(0, -1),
 					LEFT	= new Ray(-1, 0),
 					RIGHT	= new Ray(1, 0);
 
-private int duplicationCount = 0;
 private int interval = 20;
 
+/**
+ * Creates a router which doesn't avoid obstacles.
+ */
+public ManhattanConnectionRouter() {
+	this(null);
+}
+
+/**
+ * Creates a router which avoids children of the given container.
+ *
+ * @param container the container of obstacles, or <code>null</code>
+ */
+public ManhattanConnectionRouter(IFigure container) {
+	this.container = container;
+	if (container != null) {
+		container.addLayoutListener(new LayoutListener.Stub() {
+			public void postLayout(IFigure figure) {
+				updateObstacles();
+			}
+		});
+	}
+}
+
 public void setInterval(int interval){
 	this.interval =interval;
 }
 
-public void setDuplicationCount(int duplicationCount){
-	this.duplicationCount = duplicationCount;
+/**
+ * Sets the duplication count of the connection, which is given as an {@link Integer}.
+ * Connections between the same tables are shifted by the interval multiplied by this count.
+ *
+ * @see ConnectionRouter#setConstraint(Connection, Object)
+ */
+public void setConstraint(Connection connection, Object constraint) {
+	int count = constraint instanceof Integer ? ((Integer) constraint).intValue() : 0;
+	getRouteInfo(connection).duplicationCount = count;
+}
+
+/**
+ * @see ConnectionRouter#getConstraint(Connection)
+ */
+public Object getConstraint(Connection connection) {
+	RouteInfo info = routes.get(connection);
+	return new Integer(info == null ? 0 : info.duplicationCount);
 }
 
 /**
@@ -55,7 +129,18 @@ public void invalidate(Connection connection) {
 	removeReservedLines(connection);
 }
 
-private int getColumnNear(Connection connection, int r, int n, int x) {
+/**
+ * Returns a free row or column near the given position.
+ *
+ * @param horizontal true to find a row, false to find a column
+ * @param r the preferred position
+ * @param n the position of the previous segment in the same direction
+ * @param x the position of the next segment in the same direction
+ * @param from the start of the segment
+ * @param to the end of the segment
+ */
+private int getChannelNear(Connection connection, boolean horizontal, int r, int n, int x,
+		int from, int to) {
 	int min = Math.min(n, x),
 		max = Math.max(n, x);
 	if (min > r) {
@@ -70,19 +155,16 @@ private int getColumnNear(Connection connection, int r, int n, int x) {
 	int direction = -1;
 	if (r % 2 == 1)
 		r--;
-	Integer i;
+	int i;
 	while (proximity < r) {
-		i = new Integer(r + proximity * direction);
-		if (!colsUsed.containsKey(i)) {
-			colsUsed.put(i, i);
-			reserveColumn(connection, i);
-			return i.intValue();
+		i = r + proximity * direction;
+		if (isFree(connection, horizontal, i, from, to)) {
+			return i;
 		}
-		int j = i.intValue();
-		if (j <= min)
-			return j + 2;
-		if (j >= max)
-			return j - 2;
+		if (i <= min)
+			return i + 2;
+		if (i >= max)
+			return i - 2;
 		if (direction == 1)
 			direction = -1;
 		else {
@@ -93,6 +175,45 @@ private int getColumnNear(Connection connection, int r, int n, int x) {
 	return r;
 }
 
+/**
+ * Tests whether the segment overlaps no segments of other connections
+ * and crosses no obstacles except the source and the target.
+ */
+private boolean isFree(Connection connection, boolean horizontal, int position, int from, int to) {
+	Rectangle bounds = getBounds(horizontal, position, from, to);
+
+	foundSegments.clear();
+	segments.query(bounds, foundSegments);
+	for (int i = 0; i < foundSegments.size(); i++) {
+		Segment segment = foundSegments.get(i);
+		if (segment.horizontal == horizontal && segment.position == position
+				&& segment.connection != connection) {
+			return false;
+		}
+	}
+
+	foundObstacles.clear();
+	obstacles.query(bounds, foundObstacles);
+	IFigure source = connection.getSourceAnchor().getOwner();
+	IFigure target = connection.getTargetAnchor().getOwner();
+	for (int i = 0; i < foundObstacles.size(); i++) {
+		IFigure obstacle = foundObstacles.get(i);
+		if (obstacle != source && obstacle != target) {
+			return false;
+		}
+	}
+	return true;
+}
+
+private static Rectangle getBounds(boolean horizontal, int position, int from, int to) {
+	int min = Math.min(from, to);
+	int length = Math.abs(to - from) + 1;
+	if (horizontal)
+		return new Rectangle(min, position, length, 1);
+	else
+		return new Rectangle(position, min, 1, length);
+}
+
 /**
  * Returns the direction the point <i>p</i> is in relation to the given rectangle.
  * Possible values are LEFT (-1,0), RIGHT (1,0), UP (0,-1) and DOWN (0,1).
@@ -141,45 +262,6 @@ protected Ray getEndDirection(Connection conn) {
 	return getDirection(rect, p);
 }
 
-protected int getRowNear(Connection connection, int r, int n, int x) {
-	int min = Math.min(n, x),
-		max = Math.max(n, x);
-	if (min > r) {
-		max = min;
-		min = r - (min - r);
-	}
-	if (max < r) {
-		min = max;
-		max = r + (r - max);
-	}
-
-	int proximity = 0;
-	int direction = -1;
-	if (r % 2 == 1)
-		r--;
-	Integer i;
-	while (proximity < r) {
-		i = new Integer(r + proximity * direction);
-		if (!rowsUsed.containsKey(i)) {
-			rowsUsed.put(i, i);
-			reserveRow(connection, i);
-			return i.intValue();
-		}
-		int j = i.intValue();
-		if (j <= min)
-			return j + 2;
-		if (j >= max)
-			return j - 2;
-		if (direction == 1)
-			direction = -1;
-		else {
-			direction = 1;
-			proximity += 2;
-		}
-	}
-	return r;
-}
-
 protected Ray getStartDirection(Connection conn) {
 	ConnectionAnchor anchor = conn.getSourceAnchor();
 	Point p = getStartPoint(conn);
@@ -193,7 +275,7 @@ protected Ray getStartDirection(Connection conn) {
 	return getDirection(rect, p);
 }
 
-protected void processPositions(Ray start, Ray end, List positions,
+protected void processPositions(Ray start, Ray end, List<Integer> positions,
 					  			boolean horizontal, Connection conn) {
 	removeReservedLines(conn);
 
@@ -204,7 +286,7 @@ protected void processPositions(Ray start, Ray end, List positions,
 		pos[0] = start.y;
 	int i;
 	for (i = 0; i < positions.size(); i++) {
-		pos[i + 1] = ((Integer)positions.get(i)).intValue();
+		pos[i + 1] = positions.get(i).intValue();
 	}
 	if (horizontal == (positions.size() % 2 == 1))
 		pos[++i] = end.x;
@@ -222,25 +304,21 @@ protected void processPositions(Ray start, Ray end, List positions,
 		current = pos[i];
 
 		adjust = (i != pos.length - 2);
+		if (adjust) {
+			min = pos[i - 2];
+			max = pos[i + 2];
+			pos[i] = current = getChannelNear(conn, horizontal, current, min, max, prev, pos[i + 1]);
+		}
 		if (horizontal) {
-			if (adjust) {
-				min = pos[i - 2];
-				max = pos[i + 2];
-				pos[i] = current = getRowNear(conn, current, min, max);
-			}
 			p = new Point(prev, current);
 		} else {
-			if (adjust) {
-				min = pos[i - 2];
-				max = pos[i + 2];
-				pos[i] = current = getColumnNear(conn, current, min, max);
-			}
 			p = new Point(current, prev);
 		}
 		points.addPoint(p);
 	}
 	points.addPoint(new Point(end.x, end.y));
 	conn.setPoints(points);
+	reserveLines(conn, points);
 }
 
 /**
@@ -248,38 +326,110 @@ protected void processPositions(Ray start, Ray end, List positions,
  */
 public void remove(Connection connection) {
 	removeReservedLines(connection);
+	routes.remove(connection);
 }
 
 protected void removeReservedLines(Connection connection) {
-	ReservedInfo rInfo = (ReservedInfo) reservedInfo.get(connection);
-	if (rInfo == null)
+	RouteInfo info = routes.get(connection);
+	if (info == null)
 		return;
 
-	for (int i = 0; i < rInfo.reservedRows.size(); i++) {
-		rowsUsed.remove(rInfo.reservedRows.get(i));
+	for (int i = 0; i < info.segments.size(); i++) {
+		Segment segment = info.segments.get(i);
+		segments.remove(segment, segment.bounds);
 	}
-	for (int i = 0; i < rInfo.reservedCols.size(); i++) {
-		colsUsed.remove(rInfo.reservedCols.get(i));
+	info.segments.clear();
+}
+
+/**
+ * Registers segments of the route to the index.
+ */
+protected void reserveLines(Connection connection, PointList points) {
+	RouteInfo info = getRouteInfo(connection);
+	for (int i = 1; i < points.size(); i++) {
+		Point p1 = points.getPoint(i - 1);
+		Point p2 = points.getPoint(i);
+		if (p1.x != p2.x && p1.y != p2.y)
+			continue;
+		Segment segment = new Segment(connection, p1, p2);
+		info.segments.add(segment);
+		segments.add(segment, segment.bounds);
 	}
-	reservedInfo.remove(connection);
 }
 
-protected void reserveColumn(Connection connection, Integer column) {
-	ReservedInfo info = (ReservedInfo) reservedInfo.get(connection);
+private RouteInfo getRouteInfo(Connection connection) {
+	RouteInfo info = routes.get(connection);
 	if (info == null) {
-		info = new ReservedInfo();
-		reservedInfo.put(connection, info);
+		info = new RouteInfo();
+		routes.put(connection, info);
 	}
-	info.reservedCols.add(column);
+	return info;
 }
 
-protected void reserveRow(Connection connection, Integer row) {
-	ReservedInfo info = (ReservedInfo) reservedInfo.get(connection);
-	if (info == null) {
-		info = new ReservedInfo();
-		reservedInfo.put(connection, info);
+/**
+ * Updates bounds of obstacles, and invalidates connections crossing obstacles
+ * which have been added, moved or removed.
+ */
+protected void updateObstacles() {
+	if (container == null)
+		return;
+	obstaclesLoaded = true;
+
+	List<IFigure> changedFigures = new ArrayList<IFigure>();
+	List<Rectangle> changed = new ArrayList<Rectangle>();
+	List<?> children = container.getChildren();
+	int known = 0;
+	for (int i = 0; i < children.size(); i++) {
+		IFigure figure = (IFigure) children.get(i);
+		Rectangle bounds = obstacleBounds.get(figure);
+		if (bounds != null) {
+			known++;
+			if (bounds.equals(figure.getBounds()))
+				continue;
+			obstacles.remove(figure, bounds);
+			changedFigures.add(figure);
+			changed.add(bounds);
+		}
+		bounds = figure.getBounds().getCopy();
+		obstacles.add(figure, bounds);
+		obstacleBounds.put(figure, bounds);
+		changedFigures.add(figure);
+		changed.add(bounds);
+	}
+	// some figures have been removed from the container
+	if (known < obstacleBounds.size() - (children.size() - known)) {
+		Set<IFigure> current = Collections.newSetFromMap(new IdentityHashMap<IFigure, Boolean>());
+		for (int i = 0; i < children.size(); i++)
+			current.add((IFigure) children.get(i));
+		for (Iterator<Map.Entry<IFigure, Rectangle>> ite = obstacleBounds.entrySet().iterator(); ite.hasNext();) {
+			Map.Entry<IFigure, Rectangle> entry = ite.next();
+			if (!current.contains(entry.getKey())) {
+				obstacles.remove(entry.getKey(), entry.getValue());
+				changedFigures.add(entry.getKey());
+				changed.add(entry.getValue());
+				ite.remove();
+			}
+		}
+	}
+
+	if (changed.isEmpty())
+		return;
+	Set<Connection> invalid = new LinkedHashSet<Connection>();
+	for (int i = 0; i < changed.size(); i++) {
+		IFigure figure = changedFigures.get(i);
+		foundSegments.clear();
+		segments.query(changed.get(i), foundSegments);
+		for (int j = 0; j < foundSegments.size(); j++) {
+			Connection connection = foundSegments.get(j).connection;
+			if (connection.getSourceAnchor().getOwner() != figure
+					&& connection.getTargetAnchor().getOwner() != figure) {
+				invalid.add(connection);
+			}
+		}
+	}
+	for (Connection connection: invalid) {
+		connection.revalidate();
 	}
-	info.reservedRows.add(row);
 }
 
 /**
@@ -288,7 +438,10 @@ protected void reserveRow(Connection connection, Integer row) {
 public void route(Connection conn) {
 	if ((conn.getSourceAnchor() == null) || (conn.getTargetAnchor() == null))
 		return;
+	if (!obstaclesLoaded)
+		updateObstacles();
 	int i;
+	int duplicationCount = getRouteInfo(conn).duplicationCount;
 
 
 	Point startPoint = getStartPoint(conn);
@@ -314,7 +467,7 @@ public void route(Connection conn) {
 		end.x = end.x + (duplicationCount * interval);
 	}
 
-	List positions = new ArrayList(5);
+	List<Integer> positions = new ArrayList<Integer>(5);
 	if (horizontal)
 		positions.add(new Integer(start.y));
 	else
@@ -388,4 +541,4 @@ public void route(Connection conn) {
 	processPositions(start, end, positions, startNormal.isHorizontal(), conn);
 }
 
-}
\ No newline at end of file
+}
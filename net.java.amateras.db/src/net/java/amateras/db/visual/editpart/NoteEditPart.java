@@ -15,8 +15,6 @@ import org.eclipse.gef.tools.CellEditorLocator;
 import org.eclipse.gef.tools.DirectEditManager;
 import org.eclipse.jface.viewers.CellEditor;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Text;
 
 /**
@@ -46,13 +44,10 @@ public class NoteEditPart extends AbstractDBEntityEditPart {
 	protected void refreshVisuals() {
 		super.refreshVisuals();
 
-		if(font != null){
-			font.dispose();
-		}
-
 		RootModel root = (RootModel) getParent().getModel();
-		FontData[] fontData = root.getFontData();
-		font = new Font(Display.getDefault(), fontData);
+		Font newFont = getResourceCache().getFont(root.getFontData());
+		getResourceCache().release(font);
+		font = newFont;
 		figure.setFont(font);
 
 		((NoteFigure) figure).setText(((NoteModel) getModel()).getContent());
@@ -61,9 +56,8 @@ public class NoteEditPart extends AbstractDBEntityEditPart {
 	@Override
 	public void deactivate() {
 		super.deactivate();
-		if(font != null){
-			font.dispose();
-		}
+		getResourceCache().release(font);
+		font = null;
 	}
 
 	public void performRequest(Request req) {
@@ -0,0 +1,102 @@
+package net.java.amateras.db.visual.editpart;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Resource;
+
+/**
+ * The cache of fonts and colors which are shared by all edit parts of a diagram.
+ * <p>
+ * Resources are counted by references. Each call of {@link #getFont(FontData[])}
+ * or {@link #getColor(RGB)} must be paired with {@link #release(Resource)},
+ * and the resource is disposed when no edit part uses it.
+ * So the diagram needs only one font handle even if it has thousands of tables.
+ *
+ * @see RootEditPart#getResourceCache()
+ */
+public class ResourceCache {
+
+	private Device device;
+	private Map<Object, Entry> entries = new HashMap<Object, Entry>();
+	private Map<Resource, Entry> resources = new IdentityHashMap<Resource, Entry>();
+
+	public ResourceCache(Device device){
+		this.device = device;
+	}
+
+	/**
+	 * Returns the font which is created from the given font data.
+	 */
+	public Font getFont(FontData[] fontData){
+		Object key = Arrays.asList(fontData);
+		Entry entry = entries.get(key);
+		if(entry == null){
+			entry = new Entry(key, new Font(device, fontData));
+			entries.put(key, entry);
+			resources.put(entry.resource, entry);
+		}
+		entry.count++;
+		return (Font) entry.resource;
+	}
+
+	/**
+	 * Returns the color which is created from the given RGB.
+	 */
+	public Color getColor(RGB rgb){
+		Entry entry = entries.get(rgb);
+		if(entry == null){
+			entry = new Entry(rgb, new Color(device, rgb));
+			entries.put(rgb, entry);
+			resources.put(entry.resource, entry);
+		}
+		entry.count++;
+		return (Color) entry.resource;
+	}
+
+	/**
+	 * Releases the resource which has been returned by this cache.
+	 * Does nothing if the resource is <code>null</code>.
+	 */
+	public void release(Resource resource){
+		if(resource == null){
+			return;
+		}
+		Entry entry = resources.get(resource);
+		if(entry != null && --entry.count == 0){
+			entries.remove(entry.key);
+			resources.remove(resource);
+			resource.dispose();
+		}
+	}
+
+	/**
+	 * Disposes all resources regardless of references.
+	 */
+	public void dispose(){
+		for(Resource resource: resources.keySet()){
+			resource.dispose();
+		}
+		entries.clear();
+		resources.clear();
+	}
+
+	private static class Entry {
+		private Object key;
+		private Resource resource;
+		private int count = 0;
+
+		private Entry(Object key, Resource resource){
+			this.key = key;
+			this.resource = resource;
+		}
+	}
+
+}
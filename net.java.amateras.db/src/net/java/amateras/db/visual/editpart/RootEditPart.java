@@ -30,6 +30,7 @@ import org.eclipse.gef.editpolicies.ResizableEditPolicy;
 import org.eclipse.gef.editpolicies.XYLayoutEditPolicy;
 import org.eclipse.gef.requests.CreateRequest;
 import org.eclipse.gef.rulers.RulerProvider;
+import org.eclipse.swt.widgets.Display;
 
 public class RootEditPart extends AbstractDBEditPart {
 
@@ -39,12 +40,95 @@ public class RootEditPart extends AbstractDBEditPart {
 		RESIZABLE.add(NoteModel.class);
 	}
 
+	private ManhattanConnectionRouter connectionRouter;
+	private ResourceCache resourceCache;
+	private ViewportVirtualizer virtualizer;
+
 	protected IFigure createFigure() {
 		Layer figure = new Layer();
 		figure.setLayoutManager(new XYLayout());
 		return figure;
 	}
 
+	/**
+	 * Returns the router which is shared by all foreign keys of the diagram.
+	 * Tables and notes of this diagram are avoided as obstacles.
+	 */
+	public ManhattanConnectionRouter getConnectionRouter() {
+		if(connectionRouter == null){
+			connectionRouter = new ManhattanConnectionRouter(getFigure());
+		}
+		return connectionRouter;
+	}
+
+	/**
+	 * Returns the cache of fonts and colors which is shared by all edit parts of the diagram.
+	 */
+	public ResourceCache getResourceCache() {
+		if(resourceCache == null){
+			resourceCache = new ResourceCache(Display.getDefault());
+		}
+		return resourceCache;
+	}
+
+	/**
+	 * Returns the virtualizer which realizes only visible tables,
+	 * or <code>null</code> if the diagram is not virtualized.
+	 */
+	public ViewportVirtualizer getVirtualizer() {
+		return virtualizer;
+	}
+
+	/**
+	 * Realizes all tables to print or export the whole diagram.
+	 * {@link #resumeVirtualization()} must be called after that.
+	 */
+	public void realizeAll() {
+		if(virtualizer != null){
+			virtualizer.realizeAll();
+		}
+	}
+
+	/**
+	 * Makes tables out of the viewport placeholders again after {@link #realizeAll()}.
+	 */
+	public void resumeVirtualization() {
+		if(virtualizer != null){
+			virtualizer.resume();
+		}
+	}
+
+	@Override
+	public void addNotify() {
+		// decides placeholders before children are created
+		if(DBPlugin.getDefault().getPreferenceStore().getBoolean(DBPlugin.PREF_VIRTUALIZED_RENDERING)
+				&& getModelChildren().size() >= ViewportVirtualizer.THRESHOLD){
+			virtualizer = new ViewportVirtualizer(this);
+			virtualizer.initialize();
+		}
+		super.addNotify();
+	}
+
+	@Override
+	public void activate() {
+		super.activate();
+		if(virtualizer != null){
+			virtualizer.activate();
+		}
+	}
+
+	@Override
+	public void deactivate() {
+		if(virtualizer != null){
+			virtualizer.deactivate();
+		}
+		super.deactivate();
+		if(resourceCache != null){
+			resourceCache.dispose();
+			resourceCache = null;
+		}
+	}
+
 	protected void createEditPolicies() {
 		installEditPolicy(EditPolicy.LAYOUT_ROLE, new RootEditPolicy());
 	}
@@ -56,6 +140,9 @@ public class RootEditPart extends AbstractDBEditPart {
 	public void propertyChange(PropertyChangeEvent evt) {
 		if (evt.getPropertyName().equals(RootModel.P_CHILDREN)) {
 			refreshChildren();
+			if(virtualizer != null){
+				virtualizer.scheduleUpdate();
+			}
 		}
 		if (evt.getPropertyName().equals(RootModel.P_FONT)) {
 			@SuppressWarnings("unchecked")
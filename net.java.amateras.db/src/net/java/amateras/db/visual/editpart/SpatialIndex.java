@@ -0,0 +1,202 @@
+package net.java.amateras.db.visual.editpart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * A uniform grid which finds items by their bounds.
+ * <p>
+ * Each item is registered to all cells which its bounds cover,
+ * so a query only visits cells around the given area.
+ * Cells are kept in an open addressing table keyed by primitive cell coordinates.
+ *
+ * @see ManhattanConnectionRouter
+ */
+public class SpatialIndex<T> {
+
+	public static final int DEFAULT_CELL_SIZE = 128;
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private int cellSize;
+	private long[] keys;
+	private Object[] cells;
+	private int cellCount = 0;
+
+	public SpatialIndex(){
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * @param cellSize the width and the height of cells
+	 */
+	public SpatialIndex(int cellSize){
+		this.cellSize = cellSize;
+		clear();
+	}
+
+	/**
+	 * Adds the item.
+	 *
+	 * @param item the item
+	 * @param bounds bounds of the item. It must not be modified until the item is removed.
+	 */
+	public void add(T item, Rectangle bounds){
+		int x2 = cell(bounds.x + Math.max(bounds.width, 1) - 1);
+		int y2 = cell(bounds.y + Math.max(bounds.height, 1) - 1);
+		for(int x = cell(bounds.x); x <= x2; x++){
+			for(int y = cell(bounds.y); y <= y2; y++){
+				getCell(x, y, true).add(new Entry<T>(item, bounds));
+			}
+		}
+	}
+
+	/**
+	 * Removes the item.
+	 *
+	 * @param item the item
+	 * @param bounds bounds which have been given to {@link #add(Object, Rectangle)}
+	 */
+	public void remove(T item, Rectangle bounds){
+		int x2 = cell(bounds.x + Math.max(bounds.width, 1) - 1);
+		int y2 = cell(bounds.y + Math.max(bounds.height, 1) - 1);
+		for(int x = cell(bounds.x); x <= x2; x++){
+			for(int y = cell(bounds.y); y <= y2; y++){
+				List<Entry<T>> cell = getCell(x, y, false);
+				if(cell == null){
+					continue;
+				}
+				for(int i = 0; i < cell.size(); i++){
+					if(cell.get(i).item == item){
+						cell.remove(i);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds items whose bounds intersect the given area to the list.
+	 * Each item is added only once.
+	 *
+	 * @param area the area to search
+	 * @param result the list to add found items
+	 */
+	public void query(Rectangle area, List<T> result){
+		if(area.isEmpty()){
+			return;
+		}
+		int x1 = cell(area.x);
+		int y1 = cell(area.y);
+		int x2 = cell(area.right() - 1);
+		int y2 = cell(area.bottom() - 1);
+		for(int x = x1; x <= x2; x++){
+			for(int y = y1; y <= y2; y++){
+				List<Entry<T>> cell = getCell(x, y, false);
+				if(cell == null){
+					continue;
+				}
+				for(int i = 0; i < cell.size(); i++){
+					Entry<T> entry = cell.get(i);
+					Rectangle bounds = entry.bounds;
+					if(!intersects(bounds, area)){
+						continue;
+					}
+					// reports the item only in the cell which contains the top-left of the intersection
+					if(cell(Math.max(bounds.x, area.x)) == x && cell(Math.max(bounds.y, area.y)) == y){
+						result.add(entry.item);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all items.
+	 */
+	public void clear(){
+		keys = new long[64];
+		cells = new Object[64];
+		cellCount = 0;
+		for(int i = 0; i < keys.length; i++){
+			keys[i] = EMPTY;
+		}
+	}
+
+	/**
+	 * Unlike {@link Rectangle#intersects(Rectangle)}, empty bounds such as segments of lines
+	 * are treated as a line of one pixel.
+	 */
+	private static boolean intersects(Rectangle bounds, Rectangle area){
+		return bounds.x < area.right() && area.x < bounds.x + Math.max(bounds.width, 1)
+			&& bounds.y < area.bottom() && area.y < bounds.y + Math.max(bounds.height, 1);
+	}
+
+	private int cell(int value){
+		return value >= 0 ? value / cellSize : (value + 1) / cellSize - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Entry<T>> getCell(int x, int y, boolean create){
+		long key = ((long) x << 32) | (y & 0xFFFFFFFFL);
+		int mask = keys.length - 1;
+		int index = hash(key) & mask;
+		while(keys[index] != EMPTY){
+			if(keys[index] == key){
+				return (List<Entry<T>>) cells[index];
+			}
+			index = (index + 1) & mask;
+		}
+		if(!create){
+			return null;
+		}
+		List<Entry<T>> cell = new ArrayList<Entry<T>>(4);
+		keys[index] = key;
+		cells[index] = cell;
+		cellCount++;
+		if(cellCount * 2 > keys.length){
+			rehash();
+		}
+		return cell;
+	}
+
+	private void rehash(){
+		long[] oldKeys = keys;
+		Object[] oldCells = cells;
+		keys = new long[oldKeys.length * 2];
+		cells = new Object[oldCells.length * 2];
+		for(int i = 0; i < keys.length; i++){
+			keys[i] = EMPTY;
+		}
+		int mask = keys.length - 1;
+		for(int i = 0; i < oldKeys.length; i++){
+			if(oldKeys[i] != EMPTY){
+				int index = hash(oldKeys[i]) & mask;
+				while(keys[index] != EMPTY){
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				cells[index] = oldCells[i];
+			}
+		}
+	}
+
+	private static int hash(long key){
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+	private static class Entry<T> {
+		private T item;
+		private Rectangle bounds;
+
+		private Entry(T item, Rectangle bounds){
+			this.item = item;
+			this.bounds = bounds;
+		}
+	}
+
+}
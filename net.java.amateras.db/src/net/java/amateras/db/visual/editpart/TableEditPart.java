@@ -17,13 +17,13 @@ import org.eclipse.gef.EditPartViewer;
 import org.eclipse.gef.NodeEditPart;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.widgets.Display;
 
 public class TableEditPart extends AbstractDBEntityEditPart implements NodeEditPart {
 
 	private Font font;
+	private Color backgroundColor;
 
 	/**
 	 * Creates a {@link CreateTableConnectionCommand} instance as the connection creation command.
@@ -43,12 +43,9 @@ public class TableEditPart extends AbstractDBEntityEditPart implements NodeEditP
 		TableModel model = (TableModel)getModel();
 		RootModel root = (RootModel) getParent().getModel();
 
-		if(font != null){
-			font.dispose();
-		}
-
-		FontData[] fontData = root.getFontData();
-		font = new Font(Display.getDefault(), fontData);
+		Font newFont = getResourceCache().getFont(root.getFontData());
+		getResourceCache().release(font);
+		font = newFont;
 		figure.setFont(font);
 
 		if(root.getLogicalMode()){
@@ -57,94 +54,68 @@ public class TableEditPart extends AbstractDBEntityEditPart implements NodeEditP
 			figure.setTableName(model.getTableName());
 		}
 		figure.setErrorMessage(model.getError());
-		figure.removeAllColumns();
 		figure.setLinkedTable(model.isLinkedTable());
-		figure.setBackgroundColor(DBPlugin.getDefault().getColor(model.getBackgroundColor()));
-
-		ColumnModel[] columns = model.getColumns();
-		for(int i=0;i<columns.length;i++){
-			ColumnFigure[] figures = createColumnFigure(root, model, columns[i]);
-			figure.add(figures[0]);
-			figure.add(figures[1]);
-			figure.add(figures[2]);
-		}
-	}
-
-	@Override
-	public void deactivate() {
-		super.deactivate();
-		if(font != null){
-			font.dispose();
-		}
-	}
 
-	private ColumnFigure[] createColumnFigure(RootModel root, TableModel table, ColumnModel model){
-		StringBuffer sb = new StringBuffer();
-		if(root.getLogicalMode()){
-			sb.append(model.getColumnType().getLogicalName());
-		} else {
-			sb.append(model.getColumnType().getName());
-		}
-		if(model.getColumnType().supportSize() && model.getSize().length() > 0){
-			sb.append("(");
-			sb.append(model.getSize());
-			sb.append(")");
-		}
-		ColumnFigure label1 = new ColumnFigure();
-		ColumnFigure label2 = new ColumnFigure();
-		ColumnFigure label3 = new ColumnFigure();
-		if(root.getLogicalMode()){
-			label1.setText(model.getLogicalName());
-		} else {
-			label1.setText(model.getColumnName());
-		}
-		label1.setUnderline(model.isPrimaryKey());
-		label2.setText(sb.toString());
-		label2.setUnderline(model.isPrimaryKey());
-
-		List<AbstractDBConnectionModel> connections = table.getModelSourceConnections();
-		LOOP: for(int i=0;i<connections.size();i++){
-			AbstractDBConnectionModel obj = connections.get(i);
-			if(obj instanceof ForeignKeyModel){
-				ForeignKeyMapping[] mappings = ((ForeignKeyModel) obj).getMapping();
-				for(int j=0;j<mappings.length;j++){
-					if(mappings[j].getRefer() != null
-							&& mappings[j].getRefer().getColumnName().equals(model.getColumnName())){
-						label1.setText(label1.getText() + "(FK)");
-						break LOOP;
-					}
-				}
-			}
+		Color newColor = getResourceCache().getColor(model.getBackgroundColor());
+		getResourceCache().release(backgroundColor);
+		backgroundColor = newColor;
+		if(figure.getBackgroundColor() != backgroundColor){
+			figure.setBackgroundColor(backgroundColor);
 		}
 
-		LOOP: for(IndexModel index: table.getIndices()){
-			if(index.getIndexType().getName().equals("UNIQUE")){
-				for(String columnName: index.getColumns()){
-					if(columnName.equals(model.getColumnName())){
-						label1.setText(label1.getText() + "(UQ)");
-						break LOOP;
-					}
-				}
-			}
+		ViewportVirtualizer virtualizer = getVirtualizer();
+		if(virtualizer != null && !virtualizer.isRealized(model)){
+			// the placeholder has only the title until it comes into the viewport
+			figure.removeColumns(0);
+			figure.setPlaceholderSize(ViewportVirtualizer.estimateSize(root, model, font));
+			return;
 		}
+		figure.setPlaceholderSize(null);
 
-		if (model.isNotNull() && DBPlugin.getDefault().getPreferenceStore().getBoolean(
-						DBPlugin.PREF_SHOW_NOT_NULL)) {
-			if (root.getLogicalMode()) {
-				label3.setText(DBPlugin.getResourceString("label.notNull"));
+		// reuses existing column figures and changes only differences
+		ColumnModel[] columns = model.getColumns();
+		boolean showNotNull = DBPlugin.getDefault().getPreferenceStore().getBoolean(DBPlugin.PREF_SHOW_NOT_NULL);
+		int count = figure.getColumnCount();
+		for(int i=0;i<columns.length;i++){
+			if(i < count){
+				DiagramFigureBuilder.updateColumnFigures(root, model, columns[i], showNotNull,
+						figure.getColumnFigures(i));
 			} else {
-				label3.setText("NOT NULL");
+				ColumnFigure[] figures = DiagramFigureBuilder.createColumnFigures(root, model, columns[i], showNotNull);
+				figure.add(figures[0]);
+				figure.add(figures[1]);
+				figure.add(figures[2]);
 			}
 		}
+		figure.removeColumns(columns.length);
+	}
 
-		return new ColumnFigure[]{label1, label2, label3};
+	/**
+	 * Creates or removes column figures after the virtualizer has realized this table
+	 * or made it a placeholder.
+	 */
+	void refreshRealization(){
+		updateFigure((TableFigure) getFigure());
 	}
 
+	@Override
+	public void deactivate() {
+		super.deactivate();
+		getResourceCache().release(font);
+		getResourceCache().release(backgroundColor);
+		font = null;
+		backgroundColor = null;
+	}
 
 	protected void refreshVisuals() {
 		super.refreshVisuals();
 		updateFigure((TableFigure)getFigure());
 		refreshChildren();
+		// the table may have been moved into or out of the viewport
+		ViewportVirtualizer virtualizer = getVirtualizer();
+		if(virtualizer != null){
+			virtualizer.scheduleUpdate();
+		}
 	}
 
 	public void doubleClicked() {
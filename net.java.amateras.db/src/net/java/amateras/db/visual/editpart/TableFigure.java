@@ -12,7 +12,9 @@ import org.eclipse.draw2d.Label;
 import org.eclipse.draw2d.LineBorder;
 import org.eclipse.draw2d.MarginBorder;
 import org.eclipse.draw2d.ToolbarLayout;
+import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Display;
 
@@ -27,6 +29,8 @@ public class TableFigure extends Figure {
 	private CompartmentFigure columnTypeFigure;
 	private CompartmentFigure notNullFigure;
 	private int flag = 0;
+	private String errorMessage;
+	private Dimension placeholderSize;
 
 	public TableFigure(){
 		this.name = new Label();
@@ -56,6 +60,10 @@ public class TableFigure extends Figure {
 	}
 
 	public void setErrorMessage(String message){
+		if(message == null ? errorMessage == null : message.equals(errorMessage)){
+			return;
+		}
+		errorMessage = message;
 		if(message == null || message.length()==0){
 			this.name.setIcon(null);
 			this.name.setToolTip(null);
@@ -106,10 +114,76 @@ public class TableFigure extends Figure {
 		}
 	}
 
-	public void removeAllColumns(){
-		columnNameFigure.removeAll();
-		columnTypeFigure.removeAll();
-		notNullFigure.removeAll();
+	/**
+	 * Returns the number of columns which have been added.
+	 */
+	public int getColumnCount(){
+		return notNullFigure.getChildren().size();
+	}
+
+	/**
+	 * Returns figures of the column name, the column type and NOT NULL of the column.
+	 *
+	 * @param index the index of the column
+	 * @return three figures which have been added
+	 */
+	public ColumnFigure[] getColumnFigures(int index){
+		return new ColumnFigure[]{
+				(ColumnFigure) columnNameFigure.getChildren().get(index),
+				(ColumnFigure) columnTypeFigure.getChildren().get(index),
+				(ColumnFigure) notNullFigure.getChildren().get(index)};
+	}
+
+	/**
+	 * Removes columns after the given index.
+	 *
+	 * @param count the number of columns to keep
+	 */
+	public void removeColumns(int count){
+		for(int i = getColumnCount() - 1; i >= count; i--){
+			columnNameFigure.remove((IFigure) columnNameFigure.getChildren().get(i));
+			columnTypeFigure.remove((IFigure) columnTypeFigure.getChildren().get(i));
+			notNullFigure.remove((IFigure) notNullFigure.getChildren().get(i));
+		}
+	}
+
+	/**
+	 * Sets the size which is used instead of the preferred size while columns are not created.
+	 *
+	 * @param size the estimated size of the table, or <code>null</code> to use the actual preferred size
+	 * @see ViewportVirtualizer
+	 */
+	public void setPlaceholderSize(Dimension size){
+		if(size == null ? placeholderSize == null : size.equals(placeholderSize)){
+			return;
+		}
+		placeholderSize = size;
+		revalidate();
+	}
+
+	@Override
+	public Dimension getPreferredSize(int wHint, int hHint) {
+		if(placeholderSize != null){
+			return placeholderSize;
+		}
+		return super.getPreferredSize(wHint, hHint);
+	}
+
+	/**
+	 * Paints only the title or nothing in the box when the diagram is zoomed out.
+	 *
+	 * @see LevelOfDetail
+	 */
+	@Override
+	protected void paintChildren(Graphics graphics) {
+		int level = LevelOfDetail.getLevel(graphics);
+		if(level == LevelOfDetail.FULL){
+			super.paintChildren(graphics);
+		} else if(level == LevelOfDetail.TITLE && name.intersects(graphics.getClip(new Rectangle()))){
+			graphics.clipRect(name.getBounds());
+			name.paint(graphics);
+			graphics.restoreState();
+		}
 	}
 
 	public Label getLabel(){
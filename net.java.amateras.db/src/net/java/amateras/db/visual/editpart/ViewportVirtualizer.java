@@ -0,0 +1,283 @@
+package net.java.amateras.db.visual.editpart;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.db.visual.model.TableModel;
+
+import org.eclipse.draw2d.FigureCanvas;
+import org.eclipse.draw2d.FigureUtilities;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.editparts.ScalableRootEditPart;
+import org.eclipse.gef.editparts.ZoomListener;
+import org.eclipse.gef.editparts.ZoomManager;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontMetrics;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Realizes figures of tables only when they are in the visible area of the viewer.
+ * <p>
+ * Tables out of the viewport are placeholders which have only the title and the estimated size,
+ * and connections are created only when at least one of their ends is realized.
+ * The visible area is updated by scroll and zoom events. Tables are realized in a larger area
+ * than the viewport and kept in a further larger area, so scrolling doesn't realize
+ * and release the same tables repeatedly.
+ *
+ * @see RootEditPart#getVirtualizer()
+ */
+public class ViewportVirtualizer {
+
+	/** diagrams which have this number of tables or more are virtualized */
+	public static final int THRESHOLD = 200;
+
+	/** the margin to realize tables around the viewport in the ratio to the viewport size */
+	private static final double REALIZE_MARGIN = 0.5;
+	/** the margin to keep tables realized in the ratio to the viewport size */
+	private static final double KEEP_MARGIN = 1.0;
+
+	private RootEditPart root;
+	private Set<Object> placeholders = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+	private Viewport viewport;
+	private ZoomManager zoomManager;
+	private boolean scheduled = false;
+	private boolean suspended = false;
+
+	private PropertyChangeListener rangeListener = new PropertyChangeListener(){
+		public void propertyChange(PropertyChangeEvent evt){
+			scheduleUpdate();
+		}
+	};
+
+	private ZoomListener zoomListener = new ZoomListener(){
+		public void zoomChanged(double zoom){
+			scheduleUpdate();
+		}
+	};
+
+	public ViewportVirtualizer(RootEditPart root){
+		this.root = root;
+	}
+
+	/**
+	 * Makes tables out of the viewport placeholders before their edit parts are created.
+	 * The viewport is usually empty when the diagram is opened, so all tables become placeholders,
+	 * and visible tables are realized by the first update.
+	 */
+	public void initialize(){
+		RootModel model = (RootModel) root.getModel();
+		Rectangle area = getVisibleArea(REALIZE_MARGIN);
+		Font font = root.getResourceCache().getFont(model.getFontData());
+		try {
+			for(AbstractDBEntityModel entity: model.getChildren()){
+				if(entity instanceof TableModel){
+					Rectangle constraint = entity.getConstraint();
+					Dimension size = estimateSize(model, (TableModel) entity, font);
+					if(area == null || !area.intersects(new Rectangle(constraint.x, constraint.y, size.width, size.height))){
+						placeholders.add(entity);
+					}
+				}
+			}
+		} finally {
+			root.getResourceCache().release(font);
+		}
+	}
+
+	public void activate(){
+		if(root.getViewer().getControl() instanceof FigureCanvas){
+			viewport = ((FigureCanvas) root.getViewer().getControl()).getViewport();
+			viewport.getHorizontalRangeModel().addPropertyChangeListener(rangeListener);
+			viewport.getVerticalRangeModel().addPropertyChangeListener(rangeListener);
+		}
+		if(root.getRoot() instanceof ScalableRootEditPart){
+			zoomManager = ((ScalableRootEditPart) root.getRoot()).getZoomManager();
+			zoomManager.addZoomListener(zoomListener);
+		}
+		scheduleUpdate();
+	}
+
+	public void deactivate(){
+		if(viewport != null){
+			viewport.getHorizontalRangeModel().removePropertyChangeListener(rangeListener);
+			viewport.getVerticalRangeModel().removePropertyChangeListener(rangeListener);
+			viewport = null;
+		}
+		if(zoomManager != null){
+			zoomManager.removeZoomListener(zoomListener);
+			zoomManager = null;
+		}
+	}
+
+	/**
+	 * Returns <code>false</code> if the model is a placeholder table.
+	 */
+	public boolean isRealized(Object model){
+		return !placeholders.contains(model);
+	}
+
+	/**
+	 * Updates tables after the current event. Multiple requests are merged into one update.
+	 */
+	public void scheduleUpdate(){
+		if(scheduled){
+			return;
+		}
+		scheduled = true;
+		Display.getDefault().asyncExec(new Runnable(){
+			public void run(){
+				scheduled = false;
+				if(root.isActive() && viewport != null && !suspended){
+					update();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Realizes tables which have come into the viewport,
+	 * and makes tables which have gone far from the viewport placeholders.
+	 */
+	public void update(){
+		Rectangle realizeArea = getVisibleArea(REALIZE_MARGIN);
+		Rectangle keepArea = getVisibleArea(KEEP_MARGIN);
+		if(realizeArea == null || realizeArea.isEmpty()){
+			return;
+		}
+		List<TableEditPart> changed = new ArrayList<TableEditPart>();
+		for(Object child: root.getChildren()){
+			if(child instanceof TableEditPart){
+				TableEditPart part = (TableEditPart) child;
+				boolean realized = isRealized(part.getModel());
+				Rectangle bounds = part.getFigure().getBounds();
+				if(realized != bounds.intersects(realized ? keepArea : realizeArea)){
+					if(realized){
+						placeholders.add(part.getModel());
+					} else {
+						placeholders.remove(part.getModel());
+					}
+					changed.add(part);
+				}
+			}
+		}
+		refresh(changed);
+	}
+
+	/**
+	 * Realizes all tables until {@link #resume()} is called to print or export the whole diagram.
+	 */
+	public void realizeAll(){
+		suspended = true;
+		List<TableEditPart> changed = new ArrayList<TableEditPart>();
+		for(Object child: root.getChildren()){
+			if(child instanceof TableEditPart && placeholders.remove(((TableEditPart) child).getModel())){
+				changed.add((TableEditPart) child);
+			}
+		}
+		refresh(changed);
+		root.getFigure().getUpdateManager().performValidation();
+	}
+
+	/**
+	 * Resumes updates which have been suspended by {@link #realizeAll()}.
+	 */
+	public void resume(){
+		suspended = false;
+		scheduleUpdate();
+	}
+
+	/**
+	 * Updates figures of changed tables, and connections of them and their neighbors.
+	 * Connections are refreshed after all states have been changed,
+	 * so both ends of each connection agree whether it exists.
+	 */
+	private void refresh(List<TableEditPart> changed){
+		if(changed.isEmpty()){
+			return;
+		}
+		Map<?, ?> registry = root.getViewer().getEditPartRegistry();
+		Set<AbstractDBEntityEditPart> affected = new LinkedHashSet<AbstractDBEntityEditPart>();
+		for(TableEditPart part: changed){
+			part.refreshRealization();
+			affected.add(part);
+			AbstractDBEntityModel model = (AbstractDBEntityModel) part.getModel();
+			for(AbstractDBConnectionModel conn: model.getModelSourceConnections()){
+				Object neighbor = registry.get(conn.getTarget());
+				if(neighbor instanceof AbstractDBEntityEditPart){
+					affected.add((AbstractDBEntityEditPart) neighbor);
+				}
+			}
+			for(AbstractDBConnectionModel conn: model.getModelTargetConnections()){
+				Object neighbor = registry.get(conn.getSource());
+				if(neighbor instanceof AbstractDBEntityEditPart){
+					affected.add((AbstractDBEntityEditPart) neighbor);
+				}
+			}
+		}
+		for(AbstractDBEntityEditPart part: affected){
+			part.refreshConnections();
+		}
+	}
+
+	/**
+	 * Returns the visible area in coordinates of the diagram, which is expanded by the given ratio.
+	 * Returns <code>null</code> if the viewer has no viewport.
+	 */
+	private Rectangle getVisibleArea(double margin){
+		Viewport viewport = this.viewport;
+		if(viewport == null && root.getViewer().getControl() instanceof FigureCanvas){
+			viewport = ((FigureCanvas) root.getViewer().getControl()).getViewport();
+		}
+		if(viewport == null){
+			return null;
+		}
+		Rectangle area = viewport.getClientArea();
+		viewport.translateToAbsolute(area);
+		root.getFigure().translateToRelative(area);
+		area.expand((int) (area.width * margin), (int) (area.height * margin));
+		return area;
+	}
+
+	/**
+	 * Estimates the size of the realized table by the average width of characters.
+	 *
+	 * @param root the root model
+	 * @param table the table model
+	 * @param font the font of the diagram
+	 * @return the estimated size
+	 */
+	public static Dimension estimateSize(RootModel root, TableModel table, Font font){
+		FontMetrics metrics = FigureUtilities.getFontMetrics(font);
+		boolean logical = root.getLogicalMode();
+		int name = 0;
+		int type = 0;
+		int notNull = 0;
+		ColumnModel[] columns = table.getColumns();
+		for(ColumnModel column: columns){
+			String columnName = logical ? column.getLogicalName() : column.getColumnName();
+			name = Math.max(name, (columnName == null ? 0 : columnName.length()) + 4);
+			String typeName = logical ? column.getColumnType().getLogicalName() : column.getColumnType().getName();
+			type = Math.max(type, typeName.length() + column.getSize().length() + 2);
+			if(column.isNotNull()){
+				notNull = 8;
+			}
+		}
+		String tableName = logical ? table.getLogicalName() : table.getTableName();
+		int chars = Math.max(tableName == null ? 0 : tableName.length(), name + type + notNull);
+		return new Dimension(chars * metrics.getAverageCharWidth() + 12,
+				(columns.length + 1) * metrics.getHeight() + 8);
+	}
+
+}
@@ -1,10 +1,17 @@
 package net.java.amateras.db.visual.generate;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 
 import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.dialect.DialectProvider;
+import net.java.amateras.db.util.IOUtils;
 import net.java.amateras.db.util.UIUtils;
 import net.java.amateras.db.visual.model.RootModel;
 
@@ -12,6 +19,7 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.jface.dialogs.IDialogSettings;
@@ -72,10 +80,6 @@ public class DDLGenerater implements IGenerator {
 				IPath path = page.getOutputFolderResource().getFullPath();
 				path = path.append(page.filename.getText());
 
-				String ddl = DialectProvider.getDialect(root.getDialectName()).createDDL(
-						root, page.schema.getSelection(), page.drop.getSelection(),
-						page.alterTable.getSelection(), page.comment.getSelection());
-
 				IDialogSettings section = getDialogSettings();
 				section.put("schema", page.schema.getSelection());
 				section.put("drop", page.drop.getSelection());
@@ -92,17 +96,42 @@ public class DDLGenerater implements IGenerator {
 									new String[]{page.filename.getText()}))){
 						return false;
 					}
+					IStatus status = ResourcesPlugin.getWorkspace().validateEdit(new IFile[]{ file }, getShell());
+					if(!status.isOK()){
+						page.setErrorMessage(status.getMessage());
+						return false;
+					}
 				}
 
-				if(file.exists()){
-					file.setContents(new ByteArrayInputStream(ddl.getBytes(page.encoding.getText())),
-							true, true, new NullProgressMonitor());
-					file.setCharset(page.encoding.getText(), null);
-				} else {
-					file.create(new ByteArrayInputStream(ddl.getBytes(page.encoding.getText())),
-							true,new NullProgressMonitor());
-					file.setCharset(page.encoding.getText(), null);
+				// DDL is written to a temporary file table by table instead of a String,
+				// then passed to the workspace
+				File tempFile = File.createTempFile("ddl", ".sql");
+				try {
+					Writer writer = new BufferedWriter(new OutputStreamWriter(
+							new FileOutputStream(tempFile), page.encoding.getText()));
+					try {
+						DialectProvider.getDialect(root.getDialectName()).createDDL(
+								root, page.schema.getSelection(), page.drop.getSelection(),
+								page.alterTable.getSelection(), page.comment.getSelection(), writer);
+						writer.close();
+					} finally {
+						IOUtils.close(writer);
+					}
+
+					InputStream in = new FileInputStream(tempFile);
+					try {
+						if(file.exists()){
+							file.setContents(in, true, true, new NullProgressMonitor());
+						} else {
+							file.create(in, true, new NullProgressMonitor());
+						}
+					} finally {
+						IOUtils.close(in);
+					}
+				} finally {
+					tempFile.delete();
 				}
+				file.setCharset(page.encoding.getText(), null);
 
 				file.getParent().refreshLocal(1, new NullProgressMonitor());
 
@@ -1,13 +1,16 @@
 package net.java.amateras.db.visual.generate;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.ResourceBundle;
 
 import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.Messages;
+import net.java.amateras.db.dialect.IColumnType;
 import net.java.amateras.db.util.IOUtils;
 import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
 import net.java.amateras.db.visual.model.ColumnModel;
@@ -16,204 +19,169 @@ import net.java.amateras.db.visual.model.ForeignKeyModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.FileDialog;
-import org.seasar.fisshplate.template.FPTemplate;
 
+/**
+ * Generates table definitions as an Excel workbook (.xlsx).
+ * <p>
+ * Rows are streamed to the file by {@link XLSXWriter},
+ * so large diagrams can be exported without holding the whole workbook in memory.
+ *
+ * @author Naoki Takezoe
+ */
 public class ExcelGenerator implements IGenerator {
 
-	public static class TableData {
-		private String logicalTableName = "";
-		private String physicalTableName = "";
-		private String description;
-		private List<ColumnData> columns = new ArrayList<ColumnData>();
-		public String getLogicalTableName() {
-			return logicalTableName;
-		}
-		public void setLogicalTableName(String logicalTableName) {
-			this.logicalTableName = logicalTableName;
-		}
-		public String getPhysicalTableName() {
-			return physicalTableName;
-		}
-		public void setPhysicalTableName(String physicalTableName) {
-			this.physicalTableName = physicalTableName;
-		}
-		public String getDescription() {
-			return description;
-		}
-		public void setDescription(String description) {
-			this.description = description;
-		}
-		public List<ColumnData> getColumns() {
-			return columns;
-		}
-		public void setColumns(List<ColumnData> columns) {
-			this.columns = columns;
-		}
-	}
-
-	public static class ColumnData {
-		private int index;
-		private String logicalColumnName = "";
-		private String physicalColumnName = "";
-		private String primaryKey = "";
-		private String foreignKey = "";
-		private String type = "";
-		private String size = "";
-		private String reference = "";
-		private String description = "";
-		private String nullable = "";
-		private String defaultValue = "";
-
-		public String getNullable() {
-			return nullable;
-		}
-		public void setNullable(String nullable) {
-			this.nullable = nullable;
-		}
-		public String getLogicalColumnName() {
-			return logicalColumnName;
-		}
-		public void setLogicalColumnName(String logicalColumnName) {
-			this.logicalColumnName = logicalColumnName;
-		}
-		public String getPhysicalColumnName() {
-			return physicalColumnName;
-		}
-		public void setPhysicalColumnName(String physicalColumnName) {
-			this.physicalColumnName = physicalColumnName;
-		}
-		public String getPrimaryKey() {
-			return primaryKey;
-		}
-		public void setPrimaryKey(String primaryKey) {
-			this.primaryKey = primaryKey;
-		}
-		public String getForeignKey() {
-			return foreignKey;
-		}
-		public void setForeignKey(String foreignKey) {
-			this.foreignKey = foreignKey;
-		}
-		public String getType() {
-			return type;
-		}
-		public void setType(String type) {
-			this.type = type;
-		}
-		public String getSize() {
-			return size;
-		}
-		public void setSize(String size) {
-			this.size = size;
-		}
-		public String getReference() {
-			return reference;
-		}
-		public void setReference(String reference) {
-			this.reference = reference;
-		}
-		public String getDescription() {
-			return description;
-		}
-		public void setDescription(String description) {
-			this.description = description;
-		}
-		public int getIndex() {
-			return index;
-		}
-		public void setIndex(int index) {
-			this.index = index;
-		}
-		public String getDefaultValue() {
-			return defaultValue;
-		}
-		public void setDefaultValue(String defaultValue) {
-			this.defaultValue = defaultValue;
-		}
-	}
+	private static ResourceBundle bundle = ResourceBundle.getBundle(ExcelGenerator.class.getName());
+
+	private static final int[] COLUMN_WIDTHS = {
+		608, 864, 864, 864, 4736, 4544, 2528, 1376, 1312, 2016, 5600, 9344
+	};
+
+	private static final int[] TABLE_STYLES = {
+		XLSXWriter.STYLE_DEFAULT,
+		XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL,
+		XLSXWriter.STYLE_TEXT, XLSXWriter.STYLE_TEXT,
+		XLSXWriter.STYLE_LABEL,
+		XLSXWriter.STYLE_WRAP, XLSXWriter.STYLE_WRAP, XLSXWriter.STYLE_WRAP,
+		XLSXWriter.STYLE_WRAP, XLSXWriter.STYLE_WRAP
+	};
+
+	private static final int[] HEADER_STYLES = {
+		XLSXWriter.STYLE_DEFAULT,
+		XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL,
+		XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL,
+		XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL,
+		XLSXWriter.STYLE_LABEL, XLSXWriter.STYLE_LABEL
+	};
+
+	private static final int[] COLUMN_STYLES = {
+		XLSXWriter.STYLE_DEFAULT,
+		XLSXWriter.STYLE_RIGHT, XLSXWriter.STYLE_CENTER, XLSXWriter.STYLE_CENTER,
+		XLSXWriter.STYLE_TEXT, XLSXWriter.STYLE_TEXT, XLSXWriter.STYLE_RIGHT,
+		XLSXWriter.STYLE_TEXT, XLSXWriter.STYLE_CENTER, XLSXWriter.STYLE_TEXT,
+		XLSXWriter.STYLE_TEXT, XLSXWriter.STYLE_WRAP
+	};
 
 	public void execute(IFile erdFile, RootModel root, GraphicalViewer viewer) {
 		FileDialog dialog = new FileDialog(Display.getCurrent().getActiveShell(), SWT.SAVE);
-		dialog.setFilterExtensions(new String[]{"*.xls"});
+		dialog.setFilterExtensions(new String[]{"*.xlsx"});
 		String path = dialog.open();
 		if(path == null){
 			return;
 		}
 
-		List<TableData> tables = new ArrayList<TableData>();
+		OutputStream out = null;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(path));
+			generate(root, out);
+			out.close();
+		} catch (Exception ex) {
+			DBPlugin.logException(ex);
+		} finally {
+			IOUtils.close(out);
+		}
+	}
+
+	/**
+	 * Writes table definitions of the diagram to the output stream.
+	 *
+	 * @param root the root model
+	 * @param out the output stream. It is not closed by this method.
+	 */
+	public void generate(RootModel root, OutputStream out) throws IOException {
+		XLSXWriter writer = new XLSXWriter(out, bundle.getString("sheetName"), COLUMN_WIDTHS);
+		String[] header = {
+			null, null,
+			bundle.getString("column.primaryKey"),
+			bundle.getString("column.foreignKey"),
+			bundle.getString("column.logicalName"),
+			bundle.getString("column.physicalName"),
+			bundle.getString("column.type"),
+			bundle.getString("column.size"),
+			bundle.getString("column.null"),
+			bundle.getString("column.defaultValue"),
+			bundle.getString("column.reference"),
+			bundle.getString("column.description")
+		};
+		String o = Messages.getResourceString("label.o");
+		String x = Messages.getResourceString("label.x");
 
 		for(TableModel table: root.getTables()){
-			TableData tableData = new TableData();
-			tableData.setLogicalTableName(table.getLogicalName());
-			tableData.setPhysicalTableName(table.getTableName());
-			tableData.setDescription(table.getDescription());
-
-			List<ColumnData> columns = new ArrayList<ColumnData>();
-			for(ColumnModel column: table.getColumns()){
-				ColumnData columnData = new ColumnData();
-				columnData.setLogicalColumnName(column.getLogicalName());
-				columnData.setPhysicalColumnName(column.getColumnName());
-				columnData.setDescription(column.getDescription());
-				columnData.setType(column.getColumnType().getName());
-				columnData.setDefaultValue(column.getDefaultValue());
-				if(column.getColumnType().supportSize()){
-					columnData.setSize(column.getSize());
-				}
-				if(column.isPrimaryKey()){
-					columnData.setPrimaryKey(DBPlugin.getResourceString("label.o"));
-				}
-				if(column.isNotNull()){
-					columnData.setNullable(DBPlugin.getResourceString("label.x"));
-				}
+			writer.writeEmptyRow();
+
+			int row = writer.getRowCount();
+			writer.writeRow(new Object[]{
+					null, bundle.getString("table.name"), null, null, table.getLogicalName(), null,
+					bundle.getString("table.description"), table.getDescription(), null, null, null, null
+				}, TABLE_STYLES);
+			writer.writeRow(new Object[]{
+					null, null, null, null, table.getTableName(), null,
+					null, null, null, null, null, null
+				}, TABLE_STYLES);
+			writer.mergeCells(row, 1, row + 1, 3);
+			writer.mergeCells(row, 4, row, 5);
+			writer.mergeCells(row + 1, 4, row + 1, 5);
+			writer.mergeCells(row, 6, row + 1, 6);
+			writer.mergeCells(row, 7, row + 1, 11);
+
+			writer.writeRow(header, HEADER_STYLES);
+
+			Map<ColumnModel, String> references = getReferences(table);
+			ColumnModel[] columns = table.getColumns();
+			for(int i=0;i<columns.length;i++){
+				ColumnModel column = columns[i];
+				IColumnType type = column.getColumnType();
+				String reference = references.get(column);
+				writer.writeRow(new Object[]{
+						null,
+						new Integer(i + 1),
+						column.isPrimaryKey() ? o : "",
+						reference != null ? o : "",
+						column.getLogicalName(),
+						column.getColumnName(),
+						type == null ? "" : type.getName(),
+						type != null && type.supportSize() ? column.getSize() : "",
+						column.isNotNull() ? x : "",
+						column.getDefaultValue(),
+						reference != null ? reference : "",
+						column.getDescription()
+					}, COLUMN_STYLES);
+			}
+
+			writer.writeEmptyRow();
+			writer.addPageBreak();
+		}
+		writer.close();
+	}
 
-				LOOP: for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
-					if(conn instanceof ForeignKeyModel){
-						ForeignKeyModel foreignKey = (ForeignKeyModel) conn;
-						ForeignKeyMapping[] mappings = foreignKey.getMapping();
-						for(ForeignKeyMapping mapping: mappings){
-							if(mapping.getRefer() == column){
-								columnData.setForeignKey(DBPlugin.getResourceString("label.o"));
-								columnData.setReference(
-										((TableModel) foreignKey.getTarget()).getTableName()
-										+ "." + mapping.getTarget().getColumnName());
-								break LOOP;
-							}
-						}
+	/**
+	 * Returns referenced columns of foreign keys of the table
+	 * as <code>TABLE_NAME.COLUMN_NAME</code> keyed by the referring column.
+	 * If the column is contained in multiple foreign keys, the first one is used.
+	 */
+	private static Map<ColumnModel, String> getReferences(TableModel table){
+		Map<ColumnModel, String> references = new HashMap<ColumnModel, String>();
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			if(conn instanceof ForeignKeyModel){
+				ForeignKeyModel foreignKey = (ForeignKeyModel) conn;
+				for(ForeignKeyMapping mapping: foreignKey.getMapping()){
+					ColumnModel refer = mapping.getRefer();
+					if(refer != null && mapping.getTarget() != null && !references.containsKey(refer)){
+						references.put(refer, ((TableModel) foreignKey.getTarget()).getTableName()
+								+ "." + mapping.getTarget().getColumnName());
 					}
 				}
-
-				columnData.setIndex(columns.size() + 1);
-				columns.add(columnData);
 			}
-			tableData.setColumns(columns);
-			tables.add(tableData);
-		}
-
-		Map<String, Object> data = new HashMap<String, Object>();
-		data.put("tables", tables);
-
-		InputStream in = getClass().getResourceAsStream("template.xls");
-		FPTemplate template = new FPTemplate();
-		try {
-			HSSFWorkbook wb = template.process(in, data);
-
-			FileOutputStream fos = new FileOutputStream(path);
-			wb.write(fos);
-			IOUtils.close(fos);
-
-		} catch (Exception ex) {
-			DBPlugin.logException(ex);
 		}
+		return references;
 	}
 
 	public String getGeneratorName() {
-		return "Excel (for Japanese)";
+		return "Excel";
 	}
 
 }
@@ -2,21 +2,29 @@ package net.java.amateras.db.visual.generate;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.TreeSet;
 
+import net.java.amateras.db.dialect.IColumnType;
 import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+import net.java.amateras.db.visual.model.ColumnModel;
+import net.java.amateras.db.visual.model.DommainModel;
+import net.java.amateras.db.visual.model.ForeignKeyMapping;
+import net.java.amateras.db.visual.model.ForeignKeyModel;
+import net.java.amateras.db.visual.model.IndexModel;
 import net.java.amateras.db.visual.model.RootModel;
 import net.java.amateras.db.visual.model.TableModel;
 
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.Velocity;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.log.NullLogChute;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.swt.SWT;
@@ -34,27 +42,6 @@ public class HTMLGenerator implements IGenerator {
 		}
 	}
 
-	static {
-		// kills Velocity logging
-		Velocity.addProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS,
-		        NullLogChute.class.getName());
-	}
-
-	private void processTemplate(String templateName, File output, VelocityContext context) throws Exception {
-		StringWriter writer = new StringWriter();
-
-		InputStreamReader reader = new InputStreamReader(
-				HTMLGenerator.class.getResourceAsStream(templateName), "UTF-8");
-		Velocity.evaluate(context, writer, null, reader);
-
-		FileOutputStream out = new FileOutputStream(output);
-		out.write(writer.getBuffer().toString().getBytes("UTF-8"));
-		IOUtils.close(out);
-
-		IOUtils.close(reader);
-		IOUtils.close(writer);
-	}
-
 	public void execute(IFile erdFile, RootModel root, GraphicalViewer viewer) {
 		try {
 			DirectoryDialog dialog = new DirectoryDialog(Display.getCurrent().getActiveShell(), SWT.SAVE);
@@ -69,33 +56,180 @@ public class HTMLGenerator implements IGenerator {
 	}
 
 	public void generate(String rootDir, RootModel root) throws Exception {
-		IOUtils.copyStream(HTMLGenerator.class.getResourceAsStream("stylesheet.css"),
-				new FileOutputStream(new File(rootDir, "stylesheet.css")));
+		generate(rootDir, root, false);
+	}
+
+	/**
+	 * Generates the HTML report.
+	 * <p>
+	 * In the incremental mode, pages whose contents are not changed since the last generation
+	 * are not written, and pages of removed tables are deleted.
+	 * Hashes of pages are recorded by {@link HTMLReportManifest}.
+	 *
+	 * @param rootDir the output directory
+	 * @param root the root model
+	 * @param incremental true to write only changed pages
+	 */
+	public void generate(String rootDir, RootModel root, boolean incremental) throws Exception {
+		HTMLReportManifest manifest = new HTMLReportManifest(new File(rootDir));
+		if(!incremental){
+			manifest.delete();
+		}
+
+		String stylesheet = IOUtils.loadStream(HTMLGenerator.class.getResourceAsStream("stylesheet.css"), "ISO-8859-1");
+		if(!incremental || isChanged(manifest, rootDir, "stylesheet.css", stylesheet)){
+			IOUtils.copyStream(HTMLGenerator.class.getResourceAsStream("stylesheet.css"),
+					new FileOutputStream(new File(rootDir, "stylesheet.css")));
+		}
 
-		Velocity.init();
+		HTMLTemplateEngine engine = new HTMLTemplateEngine();
 		VelocityContext context = new VelocityContext();
 		context.put("model", root);
 		context.put("util", new VelocityUtils());
 		context.put("msg", messages);
 
-		processTemplate("index.html", new File(rootDir, "index.html"), context);
-		processTemplate("list.html", new File(rootDir, "list.html"), context);
-		processTemplate("summary.html", new File(rootDir, "summary.html"), context);
+		// table pages with the same name are overwritten by the last one
+		Map<String, TableModel> pages = new LinkedHashMap<String, TableModel>();
+		for(TableModel table: root.getTables()){
+			pages.put("tables/" + table.getTableName() + ".html", table);
+		}
+
+		String indexContents = getIndexContents(root, pages.values());
+		for(String page: new String[]{"index.html", "list.html", "summary.html"}){
+			if(!incremental || isChanged(manifest, rootDir, page, indexContents)){
+				engine.render(page, context, new File(rootDir, page));
+			}
+		}
 
 		File imageDir = new File(rootDir, "images");
 		imageDir.mkdir();
 
-		IOUtils.copyStream(HTMLGenerator.class.getResourceAsStream("primarykey.gif"),
-				new FileOutputStream(new File(imageDir, "primarykey.gif")));
+		String image = IOUtils.loadStream(HTMLGenerator.class.getResourceAsStream("primarykey.gif"), "ISO-8859-1");
+		if(!incremental || isChanged(manifest, rootDir, "images/primarykey.gif", image)){
+			IOUtils.copyStream(HTMLGenerator.class.getResourceAsStream("primarykey.gif"),
+					new FileOutputStream(new File(imageDir, "primarykey.gif")));
+		}
 
 		File tableDir = new File(rootDir, "tables");
 		tableDir.mkdir();
 
-		for(TableModel table: root.getTables()){
-			context.put("table", table);
-			processTemplate("table.html", new File(tableDir,
-					table.getTableName() + ".html"), context);
+		String version = getVersion("table.html");
+		List<TableModel> tables = new ArrayList<TableModel>();
+		List<File> outputs = new ArrayList<File>();
+		for(Map.Entry<String, TableModel> entry: pages.entrySet()){
+			if(!incremental || isChanged(manifest, rootDir, entry.getKey(), version + getTableContents(entry.getValue()))){
+				tables.add(entry.getValue());
+				outputs.add(new File(rootDir, entry.getKey()));
+			}
+		}
+		engine.renderAll("table.html", context, "table", tables, outputs);
+
+		if(incremental){
+			for(String page: manifest.getRemovedPages()){
+				new File(rootDir, page).delete();
+			}
+			manifest.save();
+		}
+	}
+
+	/**
+	 * Records the hash to the manifest and tests whether the page should be written.
+	 */
+	private static boolean isChanged(HTMLReportManifest manifest, String rootDir, String page, String contents){
+		boolean changed = manifest.update(page, HTMLReportManifest.digest(contents));
+		return changed || !new File(rootDir, page).exists();
+	}
+
+	/**
+	 * Returns the hash of the template and messages.
+	 */
+	private static String getVersion(String templateName){
+		StringBuilder sb = new StringBuilder();
+		sb.append(IOUtils.loadStream(HTMLGenerator.class.getResourceAsStream(templateName), "UTF-8"));
+		for(String key: new TreeSet<String>(messages.keySet())){
+			sb.append(key).append('=').append(messages.get(key)).append('\n');
+		}
+		return HTMLReportManifest.digest(sb.toString());
+	}
+
+	/**
+	 * Returns the string which contains all values shown in the index, list and summary pages.
+	 */
+	private static String getIndexContents(RootModel root, Collection<TableModel> tables){
+		StringBuilder sb = new StringBuilder();
+		sb.append(getVersion("index.html"));
+		sb.append(getVersion("list.html"));
+		sb.append(getVersion("summary.html"));
+		for(TableModel table: tables){
+			append(sb, "T", table.getTableName(), table.getLogicalName(),
+					table.getDescription(), table.isLinkedTable());
+		}
+		for(DommainModel dommain: root.getDommains()){
+			append(sb, "D", dommain.getName(), dommain.getType() == null ? null : dommain.getType().getName(),
+					dommain.getSize());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the string which contains all values shown in the page of the table,
+	 * including foreign keys and tables which refer the table.
+	 */
+	private static String getTableContents(TableModel table){
+		StringBuilder sb = new StringBuilder();
+		append(sb, "T", table.getTableName(), table.getLogicalName(),
+				table.getDescription(), table.isLinkedTable());
+
+		for(ColumnModel column: table.getColumns()){
+			IColumnType type = column.getColumnType();
+			append(sb, "C", column.getColumnName(), column.getLogicalName(),
+					type == null ? null : type.getName(), type == null ? null : type.supportSize(),
+					column.getSize(), column.isNotNull(), column.isPrimaryKey(), column.isAutoIncrement(),
+					column.getDefaultValue(), column.getDescription(),
+					column.getDommain() == null ? null : column.getDommain().getName());
+		}
+
+		for(AbstractDBConnectionModel conn: table.getModelSourceConnections()){
+			append(sb, "F", conn.getClass().getName(), getTableName(conn.getTarget()));
+			if(conn instanceof ForeignKeyModel){
+				ForeignKeyModel fk = (ForeignKeyModel) conn;
+				append(sb, "FN", fk.getForeignKeyName());
+				for(ForeignKeyMapping mapping: fk.getMapping()){
+					append(sb, "FM", getColumnName(mapping.getRefer()), getColumnName(mapping.getTarget()));
+				}
+			}
+		}
+
+		for(IndexModel index: table.getIndices()){
+			append(sb, "I", index.getIndexName(),
+					index.getIndexType() == null ? null : index.getIndexType().getName(), index.getColumns());
+		}
+
+		for(AbstractDBConnectionModel conn: table.getModelTargetConnections()){
+			append(sb, "R", conn.getClass().getName(), getTableName(conn.getSource()));
+			if(conn instanceof ForeignKeyModel){
+				for(ForeignKeyMapping mapping: ((ForeignKeyModel) conn).getMapping()){
+					append(sb, "RM", getColumnName(mapping.getRefer()), getColumnName(mapping.getTarget()));
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String getTableName(AbstractDBEntityModel entity){
+		return entity instanceof TableModel ? ((TableModel) entity).getTableName() : null;
+	}
+
+	private static String getColumnName(ColumnModel column){
+		return column == null ? null : column.getColumnName();
+	}
+
+	private static void append(StringBuilder sb, String type, Object... values){
+		sb.append(type);
+		for(Object value: values){
+			sb.append('\u0000').append(value);
 		}
+		sb.append('\n');
 	}
 
 	public String getGeneratorName() {
@@ -0,0 +1,122 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import net.java.amateras.db.util.IOUtils;
+
+/**
+ * Content hashes of pages which have been written by the last generation of the HTML report.
+ * <p>
+ * The manifest is stored in the report directory as {@link #FILE_NAME}.
+ * Hashes are computed from models, not from generated pages,
+ * so unchanged pages can be skipped without rendering them.
+ *
+ * @see HTMLGenerator#generate(String, net.java.amateras.db.visual.model.RootModel, boolean)
+ */
+public class HTMLReportManifest {
+
+	public static final String FILE_NAME = ".manifest.properties";
+
+	private File file;
+	private Properties oldHashes = new Properties();
+	private Properties newHashes = new Properties();
+
+	/**
+	 * Loads the manifest from the report directory if it exists.
+	 *
+	 * @param rootDir the report directory
+	 */
+	public HTMLReportManifest(File rootDir) throws Exception {
+		this.file = new File(rootDir, FILE_NAME);
+		if(file.exists()){
+			InputStream in = null;
+			try {
+				in = new FileInputStream(file);
+				oldHashes.load(in);
+			} finally {
+				IOUtils.close(in);
+			}
+		}
+	}
+
+	/**
+	 * Records the hash of the page and tests whether it differs from the last generation.
+	 *
+	 * @param page the path of the page from the report directory
+	 * @param hash the hash of the page contents
+	 * @return true if the page should be written
+	 */
+	public boolean update(String page, String hash){
+		newHashes.setProperty(page, hash);
+		return !hash.equals(oldHashes.getProperty(page));
+	}
+
+	/**
+	 * Returns pages which have been generated last time but are not recorded in this generation.
+	 *
+	 * @return paths of pages from the report directory
+	 */
+	public List<String> getRemovedPages(){
+		List<String> pages = new ArrayList<String>();
+		for(Object page: oldHashes.keySet()){
+			if(!newHashes.containsKey(page)){
+				pages.add((String) page);
+			}
+		}
+		return pages;
+	}
+
+	/**
+	 * Saves hashes which are recorded in this generation.
+	 * The file is not written if no hashes are changed.
+	 */
+	public void save() throws Exception {
+		if(file.exists() && newHashes.equals(oldHashes)){
+			return;
+		}
+		OutputStream out = null;
+		try {
+			out = new FileOutputStream(file);
+			newHashes.store(out, null);
+			out.close();
+		} finally {
+			IOUtils.close(out);
+		}
+	}
+
+	/**
+	 * Deletes the manifest file.
+	 */
+	public void delete(){
+		file.delete();
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the given string as a hex string.
+	 *
+	 * @param value the string
+	 * @return the hash
+	 */
+	public static String digest(String value){
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] bytes = digest.digest(value.getBytes("UTF-8"));
+			StringBuilder sb = new StringBuilder();
+			for(byte b: bytes){
+				sb.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+			}
+			return sb.toString();
+		} catch(Exception ex){
+			throw new RuntimeException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.java.amateras.db.util.IOUtils;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+
+/**
+ * Renders pages of the HTML report.
+ * <p>
+ * Each template is parsed only once and cached as <code>Template</code>.
+ * Pages are written to files through a buffered UTF-8 writer,
+ * and pages of the same template can be rendered in parallel.
+ *
+ * @see HTMLGenerator
+ */
+public class HTMLTemplateEngine {
+
+	private static final String TEMPLATE_DIR = "net/java/amateras/db/visual/generate/";
+	private static final String ENCODING = "UTF-8";
+
+	private VelocityEngine engine;
+	private Map<String, Template> templates = new HashMap<String, Template>();
+	private int threads;
+
+	/**
+	 * Creates the engine which renders pages with threads as many as available processors.
+	 */
+	public HTMLTemplateEngine() throws Exception {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates the engine.
+	 *
+	 * @param threads the maximum number of threads to render pages
+	 */
+	public HTMLTemplateEngine(int threads) throws Exception {
+		this.threads = Math.max(1, threads);
+
+		engine = new VelocityEngine();
+		// kills Velocity logging
+		engine.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS, NullLogChute.class.getName());
+		engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "class");
+		engine.setProperty("class.resource.loader.class", ClasspathResourceLoader.class.getName());
+		engine.setProperty("class.resource.loader.cache", "true");
+		engine.setProperty(RuntimeConstants.INPUT_ENCODING, ENCODING);
+		engine.init();
+	}
+
+	/**
+	 * Returns the parsed template.
+	 *
+	 * @param templateName the file name of the template in this package
+	 * @return the template
+	 */
+	public synchronized Template getTemplate(String templateName) throws Exception {
+		Template template = templates.get(templateName);
+		if(template == null){
+			template = engine.getTemplate(TEMPLATE_DIR + templateName, ENCODING);
+			templates.put(templateName, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Renders the template to the file.
+	 *
+	 * @param templateName the file name of the template in this package
+	 * @param context the context
+	 * @param output the output file
+	 */
+	public void render(String templateName, VelocityContext context, File output) throws Exception {
+		Template template = getTemplate(templateName);
+		Writer writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), ENCODING));
+			template.merge(context, writer);
+			writer.close();
+		} finally {
+			IOUtils.close(writer);
+		}
+	}
+
+	/**
+	 * Renders the template for each value in parallel.
+	 * Each page is rendered with its own context which chains the given context.
+	 *
+	 * @param templateName the file name of the template in this package
+	 * @param context the context which is shared by all pages. It must not be modified while rendering.
+	 * @param key the name of the value in the context
+	 * @param values values to render
+	 * @param outputs output files in the same order as values
+	 */
+	public void renderAll(final String templateName, final VelocityContext context, final String key,
+			List<?> values, List<File> outputs) throws Exception {
+		int size = Math.min(threads, values.size());
+		if(size <= 1){
+			for(int i=0;i<values.size();i++){
+				VelocityContext pageContext = new VelocityContext(context);
+				pageContext.put(key, values.get(i));
+				render(templateName, pageContext, outputs.get(i));
+			}
+			return;
+		}
+
+		// parses the template before rendering in threads
+		getTemplate(templateName);
+
+		ExecutorService executor = Executors.newFixedThreadPool(size);
+		try {
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+			for(int i=0;i<values.size();i++){
+				final Object value = values.get(i);
+				final File output = outputs.get(i);
+				futures.add(executor.submit(new Callable<Object>(){
+					public Object call() throws Exception {
+						VelocityContext pageContext = new VelocityContext(context);
+						pageContext.put(key, value);
+						render(templateName, pageContext, output);
+						return null;
+					}
+				}));
+			}
+			for(Future<Object> future: futures){
+				waitFor(future);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void waitFor(Future<Object> future) throws Exception {
+		try {
+			future.get();
+		} catch(ExecutionException ex){
+			Throwable cause = ex.getCause();
+			if(cause instanceof Exception){
+				throw (Exception) cause;
+			} else if(cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+
+}
@@ -1,5 +1,13 @@
 package net.java.amateras.db.visual.generate;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editpart.RootEditPart;
 import net.java.amateras.db.visual.model.RootModel;
 
 import org.eclipse.core.resources.IFile;
@@ -23,49 +31,75 @@ public class ImageGenerator implements IGenerator {
 	public void execute(IFile erdFile, RootModel root, GraphicalViewer viewer) {
 		ScalableRootEditPart rootEditPart = (ScalableRootEditPart) viewer.getRootEditPart();
 		double zoom = rootEditPart.getZoomManager().getZoom();
+		RootEditPart contents = (RootEditPart) viewer.getContents();
 
 		try {
 			FileDialog dialog = new FileDialog(Display.getCurrent().getActiveShell(), SWT.SAVE);
-			dialog.setFileName(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().getActiveEditor().getTitle() + ".jpg");
+			dialog.setFileName(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().getActiveEditor().getTitle() + ".png");
 			String file = dialog.open();
 			if(file!=null){
+				// placeholder tables out of the viewport must be realized
+				contents.realizeAll();
 				IFigure figure = rootEditPart.getLayer(LayerConstants.PRINTABLE_LAYERS);
 
 				Rectangle rectangle = figure.getBounds();
 
-				Image image = new Image(Display.getDefault(), rectangle.width + 50, rectangle.height + 50);
-				GC gc = new GC(image);
-				SWTGraphics graphics = new SWTGraphics(gc);
-				figure.paint(graphics);
-
-				ImageLoader loader = new ImageLoader();
-				loader.data = new ImageData[]{image.getImageData()};
-
-				if(file.endsWith(".bmp")){
-					loader.save(file, SWT.IMAGE_BMP);
-				} else if(file.endsWith(".gif")){
-					loader.save(file, SWT.IMAGE_GIF);
-				} else if(file.endsWith(".jpg") || file.endsWith(".jpeg")){
-					loader.save(file, SWT.IMAGE_JPEG);
-				} else if(file.endsWith(".png")){
-					loader.save(file, SWT.IMAGE_PNG);
-				} else if(file.endsWith(".tiff")){
-					loader.save(file, SWT.IMAGE_TIFF);
+				if(file.endsWith(".png")){
+					saveAsTiledPNG(figure, rectangle, file);
 				} else {
-					file = file + ".bmp";
-					loader.save(file, SWT.IMAGE_BMP);
+					saveAsImage(figure, rectangle, file);
 				}
-
-				image.dispose();
-				gc.dispose();
 			}
 		} catch(Exception ex){
-			//ex.printStackTrace();
+			DBPlugin.logException(ex);
 		} finally {
+			contents.resumeVirtualization();
 			rootEditPart.getZoomManager().setZoom(zoom);
 		}
 	}
 
+	/**
+	 * Renders the figure tile by tile, so large diagrams can be exported.
+	 */
+	private void saveAsTiledPNG(IFigure figure, Rectangle rectangle, String file) throws IOException {
+		OutputStream out = null;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(file));
+			TiledImageRenderer renderer = new TiledImageRenderer(figure,
+					new Rectangle(0, 0, rectangle.width + 50, rectangle.height + 50));
+			renderer.render(Display.getDefault(), out);
+			out.close();
+		} finally {
+			IOUtils.close(out);
+		}
+	}
+
+	private void saveAsImage(IFigure figure, Rectangle rectangle, String file){
+		Image image = new Image(Display.getDefault(), rectangle.width + 50, rectangle.height + 50);
+		GC gc = new GC(image);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		figure.paint(graphics);
+
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[]{image.getImageData()};
+
+		if(file.endsWith(".bmp")){
+			loader.save(file, SWT.IMAGE_BMP);
+		} else if(file.endsWith(".gif")){
+			loader.save(file, SWT.IMAGE_GIF);
+		} else if(file.endsWith(".jpg") || file.endsWith(".jpeg")){
+			loader.save(file, SWT.IMAGE_JPEG);
+		} else if(file.endsWith(".tiff")){
+			loader.save(file, SWT.IMAGE_TIFF);
+		} else {
+			file = file + ".bmp";
+			loader.save(file, SWT.IMAGE_BMP);
+		}
+
+		image.dispose();
+		gc.dispose();
+	}
+
 	public String getGeneratorName() {
 		return "Image";
 	}
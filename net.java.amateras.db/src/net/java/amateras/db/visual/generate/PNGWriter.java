@@ -0,0 +1,152 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a 24 bit RGB PNG image row by row.
+ * <p>
+ * Compressed image data is split into IDAT chunks of {@link #CHUNK_SIZE} bytes,
+ * so the memory usage does not depend on the size of the image.
+ *
+ * @see TiledImageRenderer
+ */
+public class PNGWriter {
+
+	/** the maximum size of an IDAT chunk */
+	public static final int CHUNK_SIZE = 64 * 1024;
+
+	private static final byte[] SIGNATURE = {
+		(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+	};
+
+	/** filter type of scanlines */
+	private static final int FILTER_NONE = 0;
+
+	private DataOutputStream out;
+	private Deflater deflater;
+	private DeflaterOutputStream data;
+	private int width;
+	private int height;
+	private int rows = 0;
+
+	/**
+	 * Writes the header of the image.
+	 *
+	 * @param out the output stream. It is not closed by this writer.
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 */
+	public PNGWriter(OutputStream out, int width, int height) throws IOException {
+		if(width <= 0 || height <= 0){
+			throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+		}
+		this.out = new DataOutputStream(out);
+		this.width = width;
+		this.height = height;
+
+		this.out.write(SIGNATURE);
+
+		byte[] header = new byte[13];
+		setInt(header, 0, width);
+		setInt(header, 4, height);
+		header[8] = 8; // bit depth
+		header[9] = 2; // color type: RGB
+		header[10] = 0; // compression method: deflate
+		header[11] = 0; // filter method
+		header[12] = 0; // interlace method: none
+		writeChunk("IHDR", header, header.length);
+
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		data = new DeflaterOutputStream(new ChunkOutputStream(), deflater, 8192);
+	}
+
+	/**
+	 * Writes a row of the image.
+	 *
+	 * @param rgb red, green and blue values of pixels in the row. The length must be <code>width * 3</code>.
+	 */
+	public void writeRow(byte[] rgb) throws IOException {
+		if(rgb.length != width * 3){
+			throw new IllegalArgumentException("Invalid row length: " + rgb.length);
+		}
+		if(rows >= height){
+			throw new IllegalStateException("Too many rows: " + (rows + 1));
+		}
+		data.write(FILTER_NONE);
+		data.write(rgb);
+		rows++;
+	}
+
+	/**
+	 * Writes remaining image data and the trailer.
+	 * The output stream given to the constructor is not closed.
+	 */
+	public void close() throws IOException {
+		if(rows != height){
+			throw new IllegalStateException("Rows are not written enough: " + rows + "/" + height);
+		}
+		data.finish();
+		data.flush();
+		deflater.end();
+		writeChunk("IEND", new byte[0], 0);
+		out.flush();
+	}
+
+	private void writeChunk(String type, byte[] buf, int length) throws IOException {
+		byte[] typeBytes = type.getBytes("US-ASCII");
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(buf, 0, length);
+
+		out.writeInt(length);
+		out.write(typeBytes);
+		out.write(buf, 0, length);
+		out.writeInt((int) crc.getValue());
+	}
+
+	private static void setInt(byte[] buf, int offset, int value){
+		buf[offset] = (byte) (value >>> 24);
+		buf[offset + 1] = (byte) (value >>> 16);
+		buf[offset + 2] = (byte) (value >>> 8);
+		buf[offset + 3] = (byte) value;
+	}
+
+	/**
+	 * Buffers compressed data and writes it as IDAT chunks.
+	 */
+	private class ChunkOutputStream extends OutputStream {
+
+		private byte[] buf = new byte[CHUNK_SIZE];
+		private int length = 0;
+
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			while(len > 0){
+				int size = Math.min(len, buf.length - length);
+				System.arraycopy(b, off, buf, length, size);
+				length += size;
+				off += size;
+				len -= size;
+				if(length == buf.length){
+					flush();
+				}
+			}
+		}
+
+		public void flush() throws IOException {
+			if(length > 0){
+				writeChunk("IDAT", buf, length);
+				length = 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.util.IOUtils;
+import net.java.amateras.db.visual.editpart.RootEditPart;
+import net.java.amateras.db.visual.model.RootModel;
+import net.java.amateras.xstream.svg.SVGGraphics;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.LayerConstants;
+import org.eclipse.gef.editparts.ScalableRootEditPart;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Exports the diagram as a SVG image.
+ * <p>
+ * Figures are painted to {@link SVGGraphics}, so the diagram is written as vector graphics
+ * without rendering the whole canvas to a bitmap.
+ */
+public class SVGGenerator implements IGenerator {
+
+	public void execute(IFile erdFile, RootModel root, GraphicalViewer viewer) {
+		ScalableRootEditPart rootEditPart = (ScalableRootEditPart) viewer.getRootEditPart();
+
+		FileDialog dialog = new FileDialog(Display.getCurrent().getActiveShell(), SWT.SAVE);
+		dialog.setFilterExtensions(new String[]{"*.svg"});
+		dialog.setFileName(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().getActiveEditor().getTitle() + ".svg");
+		String file = dialog.open();
+		if(file == null){
+			return;
+		}
+
+		RootEditPart contents = (RootEditPart) viewer.getContents();
+		Writer out = null;
+		try {
+			// placeholder tables out of the viewport must be realized
+			contents.realizeAll();
+			IFigure figure = rootEditPart.getLayer(LayerConstants.PRINTABLE_LAYERS);
+			Rectangle rectangle = figure.getBounds();
+
+			out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+			generate(figure, new Rectangle(0, 0, rectangle.width + 50, rectangle.height + 50), out);
+			out.close();
+		} catch(Exception ex){
+			DBPlugin.logException(ex);
+		} finally {
+			IOUtils.close(out);
+			contents.resumeVirtualization();
+		}
+	}
+
+	/**
+	 * Paints the figure to the writer as a SVG document.
+	 *
+	 * @param figure the figure to paint
+	 * @param area the area of the figure to export
+	 * @param out the writer. It is not closed by this method.
+	 */
+	public static void generate(IFigure figure, Rectangle area, Writer out) throws IOException {
+		SVGGraphics graphics = new SVGGraphics(out, area);
+		try {
+			figure.paint(graphics);
+		} finally {
+			graphics.dispose();
+		}
+		graphics.close();
+	}
+
+	public String getGeneratorName() {
+		return "SVG";
+	}
+
+}
@@ -0,0 +1,149 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Renders a figure to a PNG image tile by tile.
+ * <p>
+ * The area is painted into one reused tile image with clipping and translation,
+ * and each horizontal strip of tiles is passed to {@link PNGWriter}.
+ * So the memory usage is bounded by the tile size and {@link #MAX_STRIP_SIZE}
+ * instead of the size of the whole image.
+ *
+ * @see net.java.amateras.db.visual.editpart.DiagramFigureBuilder
+ */
+public class TiledImageRenderer {
+
+	public static final int DEFAULT_TILE_WIDTH = 512;
+	public static final int DEFAULT_TILE_HEIGHT = 256;
+
+	/** the maximum size of the pixel buffer of a strip in bytes */
+	public static final int MAX_STRIP_SIZE = 16 * 1024 * 1024;
+
+	private IFigure figure;
+	private Rectangle area;
+	private int tileWidth = DEFAULT_TILE_WIDTH;
+	private int tileHeight = DEFAULT_TILE_HEIGHT;
+
+	/**
+	 * @param figure the figure to render
+	 * @param area the area of the figure to render
+	 * @throws IllegalArgumentException if the area is empty, because a PNG image needs at least one pixel
+	 */
+	public TiledImageRenderer(IFigure figure, Rectangle area){
+		if(area.isEmpty()){
+			throw new IllegalArgumentException("Invalid image size: " + area.width + "x" + area.height);
+		}
+		this.figure = figure;
+		this.area = area.getCopy();
+	}
+
+	/**
+	 * Sets the size of tiles.
+	 * The height may be reduced so that a strip fits into {@link #MAX_STRIP_SIZE}.
+	 */
+	public void setTileSize(int width, int height){
+		this.tileWidth = Math.max(1, width);
+		this.tileHeight = Math.max(1, height);
+	}
+
+	/**
+	 * Renders the area to the output stream in the PNG format.
+	 *
+	 * @param device the device to create the tile image
+	 * @param out the output stream. It is not closed by this method.
+	 */
+	public void render(Device device, OutputStream out) throws IOException {
+		int width = area.width;
+		int height = area.height;
+		int tw = Math.min(tileWidth, width);
+		int th = Math.max(1, Math.min(Math.min(tileHeight, height), MAX_STRIP_SIZE / (width * 3)));
+
+		PNGWriter writer = new PNGWriter(out, width, height);
+		byte[][] strip = new byte[th][width * 3];
+		Image image = new Image(device, tw, th);
+		try {
+			for(int y = 0; y < height; y += th){
+				int h = Math.min(th, height - y);
+				for(int x = 0; x < width; x += tw){
+					int w = Math.min(tw, width - x);
+					paintTile(device, image, area.x + x, area.y + y, w, h);
+					copyPixels(image.getImageData(), w, h, strip, x);
+				}
+				for(int i = 0; i < h; i++){
+					writer.writeRow(strip[i]);
+				}
+			}
+			writer.close();
+		} finally {
+			image.dispose();
+		}
+	}
+
+	/**
+	 * Paints the part of the figure at the given location to the top-left of the tile image.
+	 */
+	private void paintTile(Device device, Image image, int x, int y, int width, int height){
+		GC gc = new GC(image);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		try {
+			graphics.setBackgroundColor(device.getSystemColor(SWT.COLOR_WHITE));
+			graphics.fillRectangle(0, 0, width, height);
+			graphics.translate(-x, -y);
+			graphics.clipRect(new Rectangle(x, y, width, height));
+			figure.paint(graphics);
+		} finally {
+			graphics.dispose();
+			gc.dispose();
+		}
+	}
+
+	/**
+	 * Copies pixels of the tile to the strip as RGB bytes.
+	 *
+	 * @param data the image data of the tile
+	 * @param width the width of the painted area of the tile
+	 * @param height the height of the painted area of the tile
+	 * @param strip rows of the strip
+	 * @param offset the x coordinate of the tile in the strip
+	 */
+	static void copyPixels(ImageData data, int width, int height, byte[][] strip, int offset){
+		PaletteData palette = data.palette;
+		int[] pixels = new int[width];
+		for(int y = 0; y < height; y++){
+			data.getPixels(0, y, width, pixels, 0);
+			byte[] row = strip[y];
+			int index = offset * 3;
+			for(int x = 0; x < width; x++){
+				int pixel = pixels[x];
+				if(palette.isDirect){
+					row[index++] = (byte) shift(pixel & palette.redMask, palette.redShift);
+					row[index++] = (byte) shift(pixel & palette.greenMask, palette.greenShift);
+					row[index++] = (byte) shift(pixel & palette.blueMask, palette.blueShift);
+				} else {
+					RGB rgb = palette.colors[pixel];
+					row[index++] = (byte) rgb.red;
+					row[index++] = (byte) rgb.green;
+					row[index++] = (byte) rgb.blue;
+				}
+			}
+		}
+	}
+
+	private static int shift(int value, int shift){
+		return shift < 0 ? value >>> -shift : value << shift;
+	}
+
+}
@@ -0,0 +1,283 @@
+package net.java.amateras.db.visual.generate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a single sheet Excel workbook (.xlsx) in streaming.
+ * <p>
+ * Rows are written to the output stream as soon as they are added,
+ * so the memory usage does not depend on the number of rows.
+ * Only merged regions and page breaks are kept until {@link #close()}.
+ * Strings are written as inline strings, so no shared string table is needed.
+ *
+ * @see ExcelGenerator
+ */
+public class XLSXWriter {
+
+	/** the maximum number of rows in a sheet */
+	public static final int MAX_ROWS = 1048576;
+
+	/** the maximum number of manual page breaks which Excel accepts in a sheet */
+	public static final int MAX_PAGE_BREAKS = 1026;
+
+	public static final int STYLE_DEFAULT = 0;
+	/** bordered, filled and centered */
+	public static final int STYLE_LABEL = 1;
+	/** bordered and left aligned */
+	public static final int STYLE_TEXT = 2;
+	/** bordered, left aligned and wrapped */
+	public static final int STYLE_WRAP = 3;
+	/** bordered and right aligned */
+	public static final int STYLE_RIGHT = 4;
+	/** bordered and centered */
+	public static final int STYLE_CENTER = 5;
+
+	private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+	private static final String NS_PACKAGE_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+	private static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+
+	/** MS PGothic */
+	private static final String FONT_NAME = "\uff2d\uff33 \uff30\u30b4\u30b7\u30c3\u30af";
+
+	private ZipOutputStream zip;
+	private Writer writer;
+	private int rowCount = 0;
+	private List<String> mergedRegions = new ArrayList<String>();
+	private List<Integer> pageBreaks = new ArrayList<Integer>();
+
+	/**
+	 * Starts writing the workbook.
+	 *
+	 * @param out the output stream. It is not closed by this writer.
+	 * @param sheetName the name of the sheet
+	 * @param columnWidths widths of columns in units of 1/256th of a character
+	 */
+	public XLSXWriter(OutputStream out, String sheetName, int[] columnWidths) throws IOException {
+		zip = new ZipOutputStream(out);
+		writer = new BufferedWriter(new OutputStreamWriter(zip, "UTF-8"));
+
+		startEntry("[Content_Types].xml");
+		writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">");
+		writer.write("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>");
+		writer.write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+		writer.write("<Override PartName=\"/xl/workbook.xml\" ContentType=\"" + CONTENT_TYPE + "sheet.main+xml\"/>");
+		writer.write("<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"" + CONTENT_TYPE + "worksheet+xml\"/>");
+		writer.write("<Override PartName=\"/xl/styles.xml\" ContentType=\"" + CONTENT_TYPE + "styles+xml\"/>");
+		writer.write("</Types>");
+
+		startEntry("_rels/.rels");
+		writer.write("<Relationships xmlns=\"" + NS_PACKAGE_RELATIONSHIPS + "\">");
+		writer.write("<Relationship Id=\"rId1\" Type=\"" + NS_RELATIONSHIPS + "/officeDocument\" Target=\"xl/workbook.xml\"/>");
+		writer.write("</Relationships>");
+
+		startEntry("xl/workbook.xml");
+		writer.write("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELATIONSHIPS + "\"><sheets>");
+		writer.write("<sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/>");
+		writer.write("</sheets></workbook>");
+
+		startEntry("xl/_rels/workbook.xml.rels");
+		writer.write("<Relationships xmlns=\"" + NS_PACKAGE_RELATIONSHIPS + "\">");
+		writer.write("<Relationship Id=\"rId1\" Type=\"" + NS_RELATIONSHIPS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>");
+		writer.write("<Relationship Id=\"rId2\" Type=\"" + NS_RELATIONSHIPS + "/styles\" Target=\"styles.xml\"/>");
+		writer.write("</Relationships>");
+
+		startEntry("xl/styles.xml");
+		writeStyles();
+
+		startEntry("xl/worksheets/sheet1.xml");
+		writer.write("<worksheet xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELATIONSHIPS + "\">");
+		writer.write("<sheetFormatPr defaultRowHeight=\"10.5\" customHeight=\"1\"/>");
+		if(columnWidths.length > 0){
+			writer.write("<cols>");
+			for(int i=0;i<columnWidths.length;i++){
+				writer.write("<col min=\"" + (i + 1) + "\" max=\"" + (i + 1) + "\" width=\""
+						+ (columnWidths[i] / 256d) + "\" customWidth=\"1\"/>");
+			}
+			writer.write("</cols>");
+		}
+		writer.write("<sheetData>");
+	}
+
+	private void startEntry(String name) throws IOException {
+		writer.flush();
+		zip.putNextEntry(new ZipEntry(name));
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+	}
+
+	private void writeStyles() throws IOException {
+		String border = "<color auto=\"1\"/>";
+		writer.write("<styleSheet xmlns=\"" + NS_MAIN + "\">");
+		writer.write("<fonts count=\"1\"><font><sz val=\"8\"/><name val=\"" + FONT_NAME + "\"/>");
+		writer.write("<family val=\"3\"/><charset val=\"128\"/></font></fonts>");
+		writer.write("<fills count=\"3\">");
+		writer.write("<fill><patternFill patternType=\"none\"/></fill>");
+		writer.write("<fill><patternFill patternType=\"gray125\"/></fill>");
+		writer.write("<fill><patternFill patternType=\"solid\"><fgColor rgb=\"FFCCFFCC\"/><bgColor indexed=\"64\"/></patternFill></fill>");
+		writer.write("</fills>");
+		writer.write("<borders count=\"2\">");
+		writer.write("<border><left/><right/><top/><bottom/><diagonal/></border>");
+		writer.write("<border><left style=\"thin\">" + border + "</left><right style=\"thin\">" + border + "</right>");
+		writer.write("<top style=\"thin\">" + border + "</top><bottom style=\"thin\">" + border + "</bottom><diagonal/></border>");
+		writer.write("</borders>");
+		writer.write("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>");
+		writer.write("<cellXfs count=\"6\">");
+		writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>");
+		writeCellStyle(2, "center", false);
+		writeCellStyle(0, "left", false);
+		writeCellStyle(0, "left", true);
+		writeCellStyle(0, "right", false);
+		writeCellStyle(0, "center", false);
+		writer.write("</cellXfs>");
+		writer.write("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>");
+		writer.write("</styleSheet>");
+	}
+
+	private void writeCellStyle(int fillId, String horizontal, boolean wrap) throws IOException {
+		writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"" + fillId + "\" borderId=\"1\" xfId=\"0\"");
+		if(fillId != 0){
+			writer.write(" applyFill=\"1\"");
+		}
+		writer.write(" applyBorder=\"1\" applyAlignment=\"1\"><alignment horizontal=\"" + horizontal + "\"");
+		writer.write(wrap ? " vertical=\"top\" wrapText=\"1\"/></xf>" : " vertical=\"center\"/></xf>");
+	}
+
+	/**
+	 * Returns the number of rows which have been written.
+	 * It is also the index of the next row.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRowCount(){
+		return rowCount;
+	}
+
+	/**
+	 * Writes a row.
+	 * <code>Number</code> values are written as numeric cells and others as string cells.
+	 * A <code>null</code> value or an empty string is written as a blank cell which has only the style.
+	 *
+	 * @param values values of cells from the first column
+	 * @param styles styles of cells such as {@link #STYLE_TEXT}
+	 */
+	public void writeRow(Object[] values, int[] styles) throws IOException {
+		if(rowCount >= MAX_ROWS){
+			throw new IllegalStateException("Too many rows: " + (rowCount + 1));
+		}
+		rowCount++;
+		writer.write("<row r=\"" + rowCount + "\">");
+		for(int i=0;i<values.length;i++){
+			Object value = values[i];
+			if("".equals(value)){
+				value = null;
+			}
+			int style = styles[i];
+			if(value == null && style == STYLE_DEFAULT){
+				continue;
+			}
+			writer.write("<c r=\"" + getCellName(rowCount - 1, i) + "\"");
+			if(style != STYLE_DEFAULT){
+				writer.write(" s=\"" + style + "\"");
+			}
+			if(value == null){
+				writer.write("/>");
+			} else if(value instanceof Number){
+				writer.write("><v>" + value + "</v></c>");
+			} else {
+				writer.write(" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+				writer.write(escape(value.toString()));
+				writer.write("</t></is></c>");
+			}
+		}
+		writer.write("</row>");
+	}
+
+	/**
+	 * Writes an empty row.
+	 */
+	public void writeEmptyRow() throws IOException {
+		writeRow(new Object[0], new int[0]);
+	}
+
+	/**
+	 * Merges cells. Indices are zero-based.
+	 */
+	public void mergeCells(int firstRow, int firstColumn, int lastRow, int lastColumn){
+		mergedRegions.add(getCellName(firstRow, firstColumn) + ":" + getCellName(lastRow, lastColumn));
+	}
+
+	/**
+	 * Inserts a page break after the last written row.
+	 * Page breaks over {@link #MAX_PAGE_BREAKS} are ignored.
+	 */
+	public void addPageBreak(){
+		if(rowCount > 0 && pageBreaks.size() < MAX_PAGE_BREAKS){
+			pageBreaks.add(rowCount);
+		}
+	}
+
+	/**
+	 * Finishes the workbook. The output stream given to the constructor is not closed.
+	 */
+	public void close() throws IOException {
+		writer.write("</sheetData>");
+		if(!mergedRegions.isEmpty()){
+			writer.write("<mergeCells count=\"" + mergedRegions.size() + "\">");
+			for(String region: mergedRegions){
+				writer.write("<mergeCell ref=\"" + region + "\"/>");
+			}
+			writer.write("</mergeCells>");
+		}
+		if(!pageBreaks.isEmpty()){
+			writer.write("<rowBreaks count=\"" + pageBreaks.size() + "\" manualBreakCount=\"" + pageBreaks.size() + "\">");
+			for(Integer row: pageBreaks){
+				writer.write("<brk id=\"" + row + "\" max=\"16383\" man=\"1\"/>");
+			}
+			writer.write("</rowBreaks>");
+		}
+		writer.write("</worksheet>");
+		writer.flush();
+		zip.finish();
+	}
+
+	/**
+	 * Returns the A1 style name of the cell. Indices are zero-based.
+	 */
+	private static String getCellName(int row, int column){
+		StringBuilder sb = new StringBuilder();
+		for(int i = column + 1; i > 0; i = (i - 1) / 26){
+			sb.insert(0, (char) ('A' + (i - 1) % 26));
+		}
+		return sb.append(row + 1).toString();
+	}
+
+	/**
+	 * Escapes XML special characters and removes characters which are not allowed in XML.
+	 */
+	private static String escape(String value){
+		StringBuilder sb = new StringBuilder(value.length());
+		for(int i=0;i<value.length();i++){
+			char c = value.charAt(i);
+			switch(c){
+				case '&': sb.append("&amp;"); break;
+				case '<': sb.append("&lt;"); break;
+				case '>': sb.append("&gt;"); break;
+				case '"': sb.append("&quot;"); break;
+				default:
+					if(c >= 0x20 || c == '\t' || c == '\n' || c == '\r'){
+						sb.append(c);
+					}
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,103 @@
+package net.java.amateras.db.visual.layout;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The base class of layout engines which layout each connected component separately.
+ * <p>
+ * Laid out components are packed into rows from the largest one,
+ * so unrelated tables don't spread over the diagram.
+ */
+public abstract class AbstractLayoutEngine implements ILayoutEngine {
+
+	/** the space between nodes */
+	public static final int SPACING = 40;
+
+	public void layout(LayoutGraph graph){
+		int[][] components = graph.getComponents();
+		if(components.length <= 1){
+			layoutComponent(graph);
+			return;
+		}
+		Arrays.sort(components, new Comparator<int[]>(){
+			public int compare(int[] o1, int[] o2){
+				return o2.length - o1.length;
+			}
+		});
+
+		LayoutGraph[] subgraphs = split(graph, components);
+		long area = 0;
+		int maxWidth = 0;
+		int[] widths = new int[subgraphs.length];
+		int[] heights = new int[subgraphs.length];
+		for(int i = 0; i < subgraphs.length; i++){
+			LayoutGraph subgraph = subgraphs[i];
+			if(subgraph.getNodeCount() > 1){
+				layoutComponent(subgraph);
+			}
+			subgraph.moveTo(0, 0);
+			for(LayoutNode node: subgraph.getNodes()){
+				widths[i] = Math.max(widths[i], node.x + node.getWidth());
+				heights[i] = Math.max(heights[i], node.y + node.getHeight());
+			}
+			area += (long) (widths[i] + SPACING) * (heights[i] + SPACING);
+			maxWidth = Math.max(maxWidth, widths[i]);
+		}
+
+		// packs components into rows whose width makes the whole diagram nearly square
+		int rowWidth = Math.max(maxWidth, (int) Math.sqrt(area));
+		int x = 0;
+		int y = 0;
+		int rowHeight = 0;
+		for(int i = 0; i < subgraphs.length; i++){
+			if(x > 0 && x + widths[i] > rowWidth){
+				x = 0;
+				y += rowHeight + SPACING;
+				rowHeight = 0;
+			}
+			List<LayoutNode> nodes = subgraphs[i].getNodes();
+			for(int j = 0; j < nodes.size(); j++){
+				LayoutNode node = graph.getNode(components[i][j]);
+				node.x = nodes.get(j).x + x;
+				node.y = nodes.get(j).y + y;
+			}
+			x += widths[i] + SPACING;
+			rowHeight = Math.max(rowHeight, heights[i]);
+		}
+	}
+
+	/**
+	 * Creates subgraphs for components in O(N+E).
+	 * The node <code>j</code> of the subgraph <code>i</code> is the node <code>components[i][j]</code> of the graph.
+	 */
+	private static LayoutGraph[] split(LayoutGraph graph, int[][] components){
+		int[] componentOf = new int[graph.getNodeCount()];
+		int[] indexOf = new int[graph.getNodeCount()];
+		LayoutGraph[] subgraphs = new LayoutGraph[components.length];
+		for(int i = 0; i < components.length; i++){
+			subgraphs[i] = new LayoutGraph();
+			for(int j = 0; j < components[i].length; j++){
+				LayoutNode node = graph.getNode(components[i][j]);
+				subgraphs[i].addNode(node.getModel(), node.getWidth(), node.getHeight());
+				componentOf[components[i][j]] = i;
+				indexOf[components[i][j]] = j;
+			}
+		}
+		for(int i = 0; i < graph.getEdgeCount(); i++){
+			int source = graph.getSource(i);
+			int target = graph.getTarget(i);
+			subgraphs[componentOf[source]].addEdge(indexOf[source], indexOf[target]);
+		}
+		return subgraphs;
+	}
+
+	/**
+	 * Sets locations of nodes of the connected graph.
+	 *
+	 * @param graph the graph which has two or more nodes and is connected
+	 */
+	protected abstract void layoutComponent(LayoutGraph graph);
+
+}
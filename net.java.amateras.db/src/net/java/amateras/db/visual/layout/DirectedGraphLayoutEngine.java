@@ -0,0 +1,43 @@
+package net.java.amateras.db.visual.layout;
+
+import net.java.amateras.db.Messages;
+
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Node;
+
+/**
+ * The layout engine which uses {@link DirectedGraphLayout} of Draw2d.
+ * This is the original auto layout. It's suitable for small diagrams.
+ */
+public class DirectedGraphLayoutEngine implements ILayoutEngine {
+
+	public String getLayoutName() {
+		return Messages.getResourceString("layout.directedGraph");
+	}
+
+	@SuppressWarnings("unchecked")
+	public void layout(LayoutGraph graph) {
+		DirectedGraph directedGraph = new DirectedGraph();
+		directedGraph.setDefaultPadding(new Insets(AbstractLayoutEngine.SPACING));
+		Node[] nodes = new Node[graph.getNodeCount()];
+		for(int i = 0; i < nodes.length; i++){
+			LayoutNode layoutNode = graph.getNode(i);
+			nodes[i] = new Node(layoutNode);
+			nodes[i].width = layoutNode.getWidth();
+			nodes[i].height = layoutNode.getHeight();
+			directedGraph.nodes.add(nodes[i]);
+		}
+		for(int i = 0; i < graph.getEdgeCount(); i++){
+			directedGraph.edges.add(new Edge(nodes[graph.getSource(i)], nodes[graph.getTarget(i)]));
+		}
+		new DirectedGraphLayout().visit(directedGraph);
+		for(int i = 0; i < nodes.length; i++){
+			graph.getNode(i).x = nodes[i].x;
+			graph.getNode(i).y = nodes[i].y;
+		}
+	}
+
+}
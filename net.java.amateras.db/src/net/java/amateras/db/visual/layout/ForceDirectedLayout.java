@@ -0,0 +1,553 @@
+package net.java.amateras.db.visual.layout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.java.amateras.db.Messages;
+import net.java.amateras.db.visual.editpart.SpatialIndex;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * The multilevel force-directed layout.
+ * <p>
+ * The graph is coarsened by merging matched neighbors until it becomes small,
+ * and then the layout of each level is refined from the coarsest one
+ * by the Fruchterman-Reingold method. Repulsive forces are approximated
+ * by the Barnes-Hut quadtree, and they are calculated in parallel
+ * when the graph has {@link #PARALLEL_THRESHOLD} or more nodes.
+ * Overlapping tables are pushed apart at the end.
+ */
+public class ForceDirectedLayout extends AbstractLayoutEngine {
+
+	public static final int PARALLEL_THRESHOLD = 1000;
+
+	private static final double THETA = 0.9;
+	private static final int COARSEST_SIZE = 16;
+	private static final int COARSEST_ITERATIONS = 100;
+	private static final int ITERATIONS = 30;
+	private static final double COOLING = 0.93;
+	private static final int OVERLAP_PASSES = 100;
+
+	private ExecutorService executor;
+	private int threads;
+
+	public String getLayoutName() {
+		return Messages.getResourceString("layout.forceDirected");
+	}
+
+	@Override
+	public void layout(LayoutGraph graph) {
+		threads = Runtime.getRuntime().availableProcessors();
+		if(graph.getNodeCount() < PARALLEL_THRESHOLD || threads <= 1){
+			super.layout(graph);
+			return;
+		}
+		executor = Executors.newFixedThreadPool(threads);
+		try {
+			super.layout(graph);
+		} finally {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	@Override
+	protected void layoutComponent(LayoutGraph graph) {
+		Random random = new Random(0);
+
+		// builds levels
+		List<Level> levels = new ArrayList<Level>();
+		Level level = new Level(graph);
+		levels.add(level);
+		while(level.count > COARSEST_SIZE){
+			level = level.coarsen(random);
+			if(level == null){
+				break;
+			}
+			levels.add(level);
+		}
+
+		double sum = 0;
+		for(LayoutNode node: graph.getNodes()){
+			sum += Math.sqrt((double) node.getWidth() * node.getWidth() + (double) node.getHeight() * node.getHeight());
+		}
+		double k = sum / graph.getNodeCount() + SPACING;
+
+		// layouts from the coarsest level
+		Level coarsest = levels.get(levels.size() - 1);
+		double radius = k * Math.sqrt(coarsest.count);
+		for(int i = 0; i < coarsest.count; i++){
+			coarsest.x[i] = (random.nextDouble() - 0.5) * radius;
+			coarsest.y[i] = (random.nextDouble() - 0.5) * radius;
+		}
+		refine(coarsest, getLength(k, coarsest, graph), radius / 2, COARSEST_ITERATIONS);
+		for(int i = levels.size() - 2; i >= 0; i--){
+			Level fine = levels.get(i);
+			Level coarse = levels.get(i + 1);
+			double length = getLength(k, fine, graph);
+			for(int j = 0; j < fine.count; j++){
+				fine.x[j] = coarse.x[fine.parent[j]] + (random.nextDouble() - 0.5) * length / 2;
+				fine.y[j] = coarse.y[fine.parent[j]] + (random.nextDouble() - 0.5) * length / 2;
+			}
+			refine(fine, length, length, ITERATIONS);
+		}
+
+		Level finest = levels.get(0);
+		for(int i = 0; i < finest.count; i++){
+			LayoutNode node = graph.getNode(i);
+			node.x = (int) Math.round(finest.x[i]) - node.getWidth() / 2;
+			node.y = (int) Math.round(finest.y[i]) - node.getHeight() / 2;
+		}
+		removeOverlaps(graph);
+	}
+
+	/**
+	 * Returns the ideal length of edges of the level.
+	 * A coarse node stands for some nodes, so it needs the area of them.
+	 */
+	private static double getLength(double k, Level level, LayoutGraph graph){
+		return k * Math.sqrt((double) graph.getNodeCount() / level.count);
+	}
+
+	/**
+	 * Moves nodes of the level by the Fruchterman-Reingold method.
+	 *
+	 * @param level the level
+	 * @param k the ideal length of edges
+	 * @param temperature the initial maximum displacement
+	 * @param iterations the number of iterations
+	 */
+	private void refine(final Level level, final double k, double temperature, int iterations){
+		final double[] dx = new double[level.count];
+		final double[] dy = new double[level.count];
+		for(int iteration = 0; iteration < iterations; iteration++){
+			final QuadTree tree = new QuadTree(level.x, level.y, level.mass, level.count);
+			if(executor == null || level.count < PARALLEL_THRESHOLD){
+				repulse(tree, level, k, dx, dy, 0, level.count);
+			} else {
+				// a few chunks for each thread to balance dense areas
+				int chunkSize = Math.max(1, level.count / (threads * 4));
+				List<Future<Object>> futures = new ArrayList<Future<Object>>();
+				for(int i = 0; i < level.count; i += chunkSize){
+					final int from = i;
+					final int to = Math.min(i + chunkSize, level.count);
+					futures.add(executor.submit(new Callable<Object>(){
+						public Object call() {
+							repulse(tree, level, k, dx, dy, from, to);
+							return null;
+						}
+					}));
+				}
+				for(Future<Object> future: futures){
+					waitFor(future);
+				}
+			}
+
+			for(int i = 0; i < level.edgeCount; i++){
+				int source = level.sources[i];
+				int target = level.targets[i];
+				double x = level.x[source] - level.x[target];
+				double y = level.y[source] - level.y[target];
+				double distance = Math.sqrt(x * x + y * y);
+				if(distance == 0){
+					continue;
+				}
+				double force = distance / k;
+				dx[source] -= x * force;
+				dy[source] -= y * force;
+				dx[target] += x * force;
+				dy[target] += y * force;
+			}
+
+			for(int i = 0; i < level.count; i++){
+				double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+				if(length > 0){
+					double move = Math.min(length, temperature);
+					level.x[i] += dx[i] / length * move;
+					level.y[i] += dy[i] / length * move;
+				}
+			}
+			temperature *= COOLING;
+		}
+	}
+
+	/**
+	 * Sets repulsive forces to nodes from <code>from</code> to <code>to</code>.
+	 */
+	private static void repulse(QuadTree tree, Level level, double k, double[] dx, double[] dy, int from, int to){
+		double[] force = new double[2];
+		int[] stack = new int[tree.count * 4 + 1];
+		for(int i = from; i < to; i++){
+			force[0] = 0;
+			force[1] = 0;
+			tree.repulse(i, level.x[i], level.y[i], k * k, force, stack);
+			dx[i] = force[0];
+			dy[i] = force[1];
+		}
+	}
+
+	private static void waitFor(Future<Object> future){
+		try {
+			future.get();
+		} catch(InterruptedException ex){
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		} catch(ExecutionException ex){
+			Throwable cause = ex.getCause();
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			} else if(cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Pushes overlapping nodes apart, keeping the half of {@link #SPACING} between them.
+	 */
+	private static void removeOverlaps(LayoutGraph graph){
+		int count = graph.getNodeCount();
+		int margin = SPACING / 4;
+		long size = 0;
+		for(LayoutNode node: graph.getNodes()){
+			size += Math.max(node.getWidth(), node.getHeight());
+		}
+		SpatialIndex<Integer> index = new SpatialIndex<Integer>(
+				Math.max(SpatialIndex.DEFAULT_CELL_SIZE, (int) (size / count)));
+		Rectangle[] bounds = new Rectangle[count];
+		List<Integer> found = new ArrayList<Integer>();
+		for(int pass = 0; pass < OVERLAP_PASSES; pass++){
+			index.clear();
+			for(int i = 0; i < count; i++){
+				LayoutNode node = graph.getNode(i);
+				bounds[i] = new Rectangle(node.x - margin, node.y - margin,
+						node.getWidth() + margin * 2, node.getHeight() + margin * 2);
+				index.add(i, bounds[i]);
+			}
+			boolean moved = false;
+			for(int i = 0; i < count; i++){
+				found.clear();
+				index.query(bounds[i], found);
+				for(int j: found){
+					if(j <= i){
+						continue;
+					}
+					LayoutNode node1 = graph.getNode(i);
+					LayoutNode node2 = graph.getNode(j);
+					Rectangle rect1 = bounds[i];
+					Rectangle rect2 = bounds[j];
+					int overlapX = Math.min(rect1.right(), rect2.right()) - Math.max(rect1.x, rect2.x);
+					int overlapY = Math.min(rect1.bottom(), rect2.bottom()) - Math.max(rect1.y, rect2.y);
+					if(overlapX <= 0 || overlapY <= 0){
+						continue;
+					}
+					// moves along the axis which needs the shorter move
+					if(overlapX < overlapY){
+						int move = (overlapX + 1) / 2;
+						int sign = rect1.getCenter().x <= rect2.getCenter().x ? 1 : -1;
+						node1.x -= move * sign;
+						node2.x += move * sign;
+					} else {
+						int move = (overlapY + 1) / 2;
+						int sign = rect1.getCenter().y <= rect2.getCenter().y ? 1 : -1;
+						node1.y -= move * sign;
+						node2.y += move * sign;
+					}
+					moved = true;
+				}
+			}
+			if(!moved){
+				break;
+			}
+		}
+	}
+
+	/**
+	 * The graph of each level. The finest level is the given graph.
+	 */
+	private static class Level {
+		private int count;
+		private int[] sources;
+		private int[] targets;
+		private int edgeCount;
+		private double[] mass;
+		private double[] x;
+		private double[] y;
+		/** the index of the coarser node which this node is merged into */
+		private int[] parent;
+
+		private Level(int count, int[] sources, int[] targets, int edgeCount){
+			this.count = count;
+			this.sources = sources;
+			this.targets = targets;
+			this.edgeCount = edgeCount;
+			this.mass = new double[count];
+			this.x = new double[count];
+			this.y = new double[count];
+		}
+
+		private Level(LayoutGraph graph){
+			this(graph.getNodeCount(), new int[graph.getEdgeCount()], new int[graph.getEdgeCount()], 0);
+			Set<Long> pairs = new HashSet<Long>();
+			for(int i = 0; i < graph.getEdgeCount(); i++){
+				addEdge(graph.getSource(i), graph.getTarget(i), pairs);
+			}
+			for(int i = 0; i < count; i++){
+				mass[i] = 1;
+			}
+		}
+
+		private void addEdge(int source, int target, Set<Long> pairs){
+			if(source != target && pairs.add(((long) Math.min(source, target) << 32) | Math.max(source, target))){
+				sources[edgeCount] = source;
+				targets[edgeCount] = target;
+				edgeCount++;
+			}
+		}
+
+		/**
+		 * Returns the coarser level, or <code>null</code> if this level can't be coarsened well.
+		 */
+		private Level coarsen(Random random){
+			int[] start = new int[count + 1];
+			for(int i = 0; i < edgeCount; i++){
+				start[sources[i] + 1]++;
+				start[targets[i] + 1]++;
+			}
+			for(int i = 0; i < count; i++){
+				start[i + 1] += start[i];
+			}
+			int[] position = new int[count];
+			System.arraycopy(start, 0, position, 0, count);
+			int[] neighbors = new int[edgeCount * 2];
+			for(int i = 0; i < edgeCount; i++){
+				neighbors[position[sources[i]]++] = targets[i];
+				neighbors[position[targets[i]]++] = sources[i];
+			}
+
+			// matches each node with the lightest unmatched neighbor
+			int[] order = new int[count];
+			for(int i = 0; i < count; i++){
+				order[i] = i;
+			}
+			for(int i = count - 1; i > 0; i--){
+				int j = random.nextInt(i + 1);
+				int node = order[i];
+				order[i] = order[j];
+				order[j] = node;
+			}
+			parent = new int[count];
+			for(int i = 0; i < count; i++){
+				parent[i] = -1;
+			}
+			int coarseCount = 0;
+			for(int node: order){
+				if(parent[node] >= 0){
+					continue;
+				}
+				int match = -1;
+				for(int i = start[node]; i < start[node + 1]; i++){
+					int neighbor = neighbors[i];
+					if(parent[neighbor] < 0 && (match < 0 || mass[neighbor] < mass[match])){
+						match = neighbor;
+					}
+				}
+				parent[node] = coarseCount;
+				if(match >= 0){
+					parent[match] = coarseCount;
+				}
+				coarseCount++;
+			}
+			if(coarseCount > count * 0.9){
+				parent = null;
+				return null;
+			}
+
+			Level coarse = new Level(coarseCount, new int[edgeCount], new int[edgeCount], 0);
+			Set<Long> pairs = new HashSet<Long>();
+			for(int i = 0; i < edgeCount; i++){
+				coarse.addEdge(parent[sources[i]], parent[targets[i]], pairs);
+			}
+			for(int i = 0; i < count; i++){
+				coarse.mass[parent[i]] += mass[i];
+			}
+			return coarse;
+		}
+	}
+
+	/**
+	 * The Barnes-Hut quadtree which is kept in arrays.
+	 * Each cell has the total mass of its nodes, so a coarse node repulses
+	 * as strongly as the nodes merged into it.
+	 */
+	private static class QuadTree {
+		private static final int EMPTY = -1;
+		private static final int INTERNAL = -2;
+		/** the cell which has coincident nodes */
+		private static final int AGGREGATED = -3;
+		private static final double MIN_SIZE = 0.01;
+
+		private int count = 0;
+		private double[] left;
+		private double[] top;
+		private double[] size;
+		private double[] mass;
+		private double[] centerX;
+		private double[] centerY;
+		private int[] body;
+		private int[] children;
+
+		private QuadTree(double[] x, double[] y, double[] masses, int nodeCount){
+			double minX = Double.MAX_VALUE;
+			double minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE;
+			double maxY = -Double.MAX_VALUE;
+			for(int i = 0; i < nodeCount; i++){
+				minX = Math.min(minX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+			int capacity = nodeCount * 2 + 1;
+			left = new double[capacity];
+			top = new double[capacity];
+			size = new double[capacity];
+			mass = new double[capacity];
+			centerX = new double[capacity];
+			centerY = new double[capacity];
+			body = new int[capacity];
+			children = new int[capacity * 4];
+			createCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), MIN_SIZE) * 1.001);
+			for(int i = 0; i < nodeCount; i++){
+				insert(i, x, y, masses);
+			}
+		}
+
+		private int createCell(double x, double y, double width){
+			if(count == body.length){
+				left = grow(left);
+				top = grow(top);
+				size = grow(size);
+				mass = grow(mass);
+				centerX = grow(centerX);
+				centerY = grow(centerY);
+				int[] newBody = new int[body.length * 2];
+				System.arraycopy(body, 0, newBody, 0, body.length);
+				body = newBody;
+				int[] newChildren = new int[children.length * 2];
+				System.arraycopy(children, 0, newChildren, 0, children.length);
+				children = newChildren;
+			}
+			left[count] = x;
+			top[count] = y;
+			size[count] = width;
+			body[count] = EMPTY;
+			for(int i = 0; i < 4; i++){
+				children[count * 4 + i] = -1;
+			}
+			return count++;
+		}
+
+		private static double[] grow(double[] array){
+			double[] result = new double[array.length * 2];
+			System.arraycopy(array, 0, result, 0, array.length);
+			return result;
+		}
+
+		private void insert(int node, double[] xs, double[] ys, double[] masses){
+			double x = xs[node];
+			double y = ys[node];
+			double m = masses[node];
+			int cell = 0;
+			while(true){
+				if(body[cell] == EMPTY){
+					body[cell] = node;
+					mass[cell] = m;
+					centerX[cell] = x;
+					centerY[cell] = y;
+					return;
+				}
+				double total = mass[cell] + m;
+				centerX[cell] = (centerX[cell] * mass[cell] + x * m) / total;
+				centerY[cell] = (centerY[cell] * mass[cell] + y * m) / total;
+				mass[cell] = total;
+				if(body[cell] == AGGREGATED){
+					return;
+				}
+				if(body[cell] >= 0){
+					if(size[cell] < MIN_SIZE){
+						body[cell] = AGGREGATED;
+						return;
+					}
+					int other = body[cell];
+					body[cell] = INTERNAL;
+					int child = getChild(cell, xs[other], ys[other]);
+					body[child] = other;
+					mass[child] = masses[other];
+					centerX[child] = xs[other];
+					centerY[child] = ys[other];
+				}
+				cell = getChild(cell, x, y);
+			}
+		}
+
+		/**
+		 * Returns the child cell which contains the location, creating it if it doesn't exist.
+		 */
+		private int getChild(int cell, double x, double y){
+			double half = size[cell] / 2;
+			int quadrant = (x < left[cell] + half ? 0 : 1) + (y < top[cell] + half ? 0 : 2);
+			int child = children[cell * 4 + quadrant];
+			if(child < 0){
+				child = createCell(
+						left[cell] + (quadrant & 1) * half,
+						top[cell] + (quadrant >> 1) * half,
+						half);
+				children[cell * 4 + quadrant] = child;
+			}
+			return child;
+		}
+
+		/**
+		 * Adds the repulsive force to the node into <code>force</code>.
+		 */
+		private void repulse(int node, double x, double y, double k2, double[] force, int[] stack){
+			int depth = 0;
+			stack[depth++] = 0;
+			while(depth > 0){
+				int cell = stack[--depth];
+				if(body[cell] == node || body[cell] == EMPTY){
+					continue;
+				}
+				double dx = x - centerX[cell];
+				double dy = y - centerY[cell];
+				double d2 = dx * dx + dy * dy;
+				if(body[cell] == INTERNAL && size[cell] * size[cell] >= THETA * THETA * d2){
+					for(int i = 0; i < 4; i++){
+						if(children[cell * 4 + i] >= 0){
+							stack[depth++] = children[cell * 4 + i];
+						}
+					}
+					continue;
+				}
+				if(d2 < MIN_SIZE){
+					continue;
+				}
+				double f = k2 * mass[cell] / d2;
+				force[0] += dx * f;
+				force[1] += dy * f;
+			}
+		}
+	}
+
+}
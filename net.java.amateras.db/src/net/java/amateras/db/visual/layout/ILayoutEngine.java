@@ -0,0 +1,26 @@
+package net.java.amateras.db.visual.layout;
+
+/**
+ * The interface of layout engines which are contributed to
+ * the <code>net.java.amateras.db.layoutEngines</code> extension point.
+ * <p>
+ * Engines must not depend on the workbench, so they can be used without Eclipse.
+ *
+ * @see LayoutEngineProvider
+ */
+public interface ILayoutEngine {
+
+	/**
+	 * Returns the name which is displayed in the menu.
+	 */
+	public String getLayoutName();
+
+	/**
+	 * Sets locations of all nodes of the graph.
+	 * Locations are normalized by the caller, so the engine may place nodes anywhere.
+	 *
+	 * @param graph the graph to layout
+	 */
+	public void layout(LayoutGraph graph);
+
+}
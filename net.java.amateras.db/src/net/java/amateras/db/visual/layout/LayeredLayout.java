@@ -0,0 +1,301 @@
+package net.java.amateras.db.visual.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.java.amateras.db.Messages;
+
+/**
+ * The layered layout which places referring tables above referred tables.
+ * <p>
+ * Cycles are broken by reversing back edges of the depth first search,
+ * nodes are assigned to layers by the longest path, and the order of nodes
+ * in each layer is decided by the barycenter of their neighbors.
+ * Parallel edges are merged by the hash set of node pairs,
+ * so all steps run in near-linear time of the graph size.
+ */
+public class LayeredLayout extends AbstractLayoutEngine {
+
+	/** the space between layers */
+	public static final int LAYER_SPACING = 60;
+
+	private static final int SWEEPS = 4;
+
+	public String getLayoutName() {
+		return Messages.getResourceString("layout.layered");
+	}
+
+	@Override
+	protected void layoutComponent(LayoutGraph graph) {
+		int count = graph.getNodeCount();
+
+		// merges parallel edges
+		Set<Long> pairs = new HashSet<Long>();
+		int[] sources = new int[graph.getEdgeCount()];
+		int[] targets = new int[graph.getEdgeCount()];
+		int edgeCount = 0;
+		for(int i = 0; i < graph.getEdgeCount(); i++){
+			int source = graph.getSource(i);
+			int target = graph.getTarget(i);
+			if(pairs.add(((long) Math.min(source, target) << 32) | Math.max(source, target))){
+				sources[edgeCount] = source;
+				targets[edgeCount] = target;
+				edgeCount++;
+			}
+		}
+
+		// breaks cycles
+		int[][] outgoing = compress(count, sources, targets, edgeCount);
+		int[] finish = getFinishOrder(count, outgoing[0], outgoing[1]);
+		for(int i = 0; i < edgeCount; i++){
+			if(finish[sources[i]] < finish[targets[i]]){
+				int source = sources[i];
+				sources[i] = targets[i];
+				targets[i] = source;
+			}
+		}
+		outgoing = compress(count, sources, targets, edgeCount);
+		int[] start = outgoing[0];
+		int[] children = outgoing[1];
+
+		// assigns layers by the longest path in the topological order
+		Integer[] order = new Integer[count];
+		for(int i = 0; i < count; i++){
+			order[i] = i;
+		}
+		final int[] finishOrder = finish;
+		Arrays.sort(order, new Comparator<Integer>(){
+			public int compare(Integer o1, Integer o2){
+				return finishOrder[o2] - finishOrder[o1];
+			}
+		});
+		int[] layer = new int[count];
+		boolean[] hasParent = new boolean[count];
+		for(int i = 0; i < count; i++){
+			int node = order[i];
+			for(int j = start[node]; j < start[node + 1]; j++){
+				layer[children[j]] = Math.max(layer[children[j]], layer[node] + 1);
+				hasParent[children[j]] = true;
+			}
+		}
+		// moves roots down to their children
+		for(int i = count - 1; i >= 0; i--){
+			int node = order[i];
+			if(!hasParent[node] && start[node] < start[node + 1]){
+				int min = Integer.MAX_VALUE;
+				for(int j = start[node]; j < start[node + 1]; j++){
+					min = Math.min(min, layer[children[j]]);
+				}
+				layer[node] = min - 1;
+			}
+		}
+		int layerCount = 0;
+		for(int i = 0; i < count; i++){
+			layerCount = Math.max(layerCount, layer[i] + 1);
+		}
+
+		// orders nodes in each layer
+		int[][] layers = createLayers(layerCount, layer, order);
+		double[] position = new double[count];
+		updatePositions(layers, position);
+		int[] neighborStart = graph.getAdjacencyStart();
+		int[] neighbors = graph.getAdjacency();
+		double[] barycenter = new double[count];
+		for(int sweep = 0; sweep < SWEEPS; sweep++){
+			boolean down = sweep % 2 == 0;
+			for(int i = 0; i < layerCount; i++){
+				int[] nodes = layers[down ? i : layerCount - i - 1];
+				for(int j = 0; j < nodes.length; j++){
+					int node = nodes[j];
+					double sum = 0;
+					int found = 0;
+					for(int k = neighborStart[node]; k < neighborStart[node + 1]; k++){
+						int neighbor = neighbors[k];
+						if(down ? layer[neighbor] < layer[node] : layer[neighbor] > layer[node]){
+							sum += position[neighbor];
+							found++;
+						}
+					}
+					barycenter[node] = found == 0 ? position[node] : sum / found;
+				}
+				sort(nodes, barycenter);
+				for(int j = 0; j < nodes.length; j++){
+					position[nodes[j]] = (j + 0.5) / nodes.length;
+				}
+			}
+		}
+
+		// wraps wide layers into some rows to keep the diagram nearly square
+		long area = 0;
+		int limit = 0;
+		for(LayoutNode node: graph.getNodes()){
+			area += (long) (node.getWidth() + SPACING) * (node.getHeight() + LAYER_SPACING);
+			limit = Math.max(limit, node.getWidth() + SPACING);
+		}
+		limit = Math.max(limit, (int) (Math.sqrt(area) * 1.5));
+		List<int[]> rows = new ArrayList<int[]>();
+		for(int[] nodes: layers){
+			int from = 0;
+			int width = 0;
+			for(int j = 0; j < nodes.length; j++){
+				int nodeWidth = graph.getNode(nodes[j]).getWidth() + SPACING;
+				if(j > from && width + nodeWidth > limit){
+					rows.add(Arrays.copyOfRange(nodes, from, j));
+					from = j;
+					width = 0;
+				}
+				width += nodeWidth;
+			}
+			rows.add(Arrays.copyOfRange(nodes, from, nodes.length));
+		}
+
+		// places nodes
+		int y = 0;
+		int maxWidth = 0;
+		int[] widths = new int[rows.size()];
+		for(int i = 0; i < rows.size(); i++){
+			int height = 0;
+			for(int node: rows.get(i)){
+				LayoutNode layoutNode = graph.getNode(node);
+				layoutNode.y = y;
+				widths[i] += layoutNode.getWidth() + SPACING;
+				height = Math.max(height, layoutNode.getHeight());
+			}
+			maxWidth = Math.max(maxWidth, widths[i]);
+			y += height + LAYER_SPACING;
+		}
+		for(int i = 0; i < rows.size(); i++){
+			int x = (maxWidth - widths[i]) / 2;
+			for(int node: rows.get(i)){
+				graph.getNode(node).x = x;
+				x += graph.getNode(node).getWidth() + SPACING;
+			}
+		}
+		// moves nodes to the center of their neighbors in the upper layers within the widest row
+		for(int i = 0; i < rows.size(); i++){
+			int right = Integer.MIN_VALUE;
+			int rest = widths[i];
+			for(int node: rows.get(i)){
+				LayoutNode layoutNode = graph.getNode(node);
+				long sum = 0;
+				int found = 0;
+				for(int k = neighborStart[node]; k < neighborStart[node + 1]; k++){
+					LayoutNode neighbor = graph.getNode(neighbors[k]);
+					if(layer[neighbors[k]] < layer[node]){
+						sum += neighbor.x + neighbor.getWidth() / 2;
+						found++;
+					}
+				}
+				if(found > 0){
+					layoutNode.x = (int) (sum / found) - layoutNode.getWidth() / 2;
+				}
+				if(right != Integer.MIN_VALUE){
+					layoutNode.x = Math.max(layoutNode.x, right + SPACING);
+				}
+				layoutNode.x = Math.max(0, Math.min(layoutNode.x, maxWidth - rest));
+				rest -= layoutNode.getWidth() + SPACING;
+				right = layoutNode.x + layoutNode.getWidth();
+			}
+		}
+	}
+
+	/**
+	 * Returns outgoing edges of each node in the compressed form.
+	 */
+	private static int[][] compress(int count, int[] sources, int[] targets, int edgeCount){
+		int[] start = new int[count + 1];
+		for(int i = 0; i < edgeCount; i++){
+			start[sources[i] + 1]++;
+		}
+		for(int i = 0; i < count; i++){
+			start[i + 1] += start[i];
+		}
+		int[] position = new int[count];
+		System.arraycopy(start, 0, position, 0, count);
+		int[] children = new int[edgeCount];
+		for(int i = 0; i < edgeCount; i++){
+			children[position[sources[i]]++] = targets[i];
+		}
+		return new int[][]{start, children};
+	}
+
+	/**
+	 * Returns the finishing order of each node in the depth first search without recursion.
+	 */
+	private static int[] getFinishOrder(int count, int[] start, int[] children){
+		int[] finish = new int[count];
+		Arrays.fill(finish, -1);
+		boolean[] visited = new boolean[count];
+		int[] stack = new int[count];
+		int[] next = new int[count];
+		int finished = 0;
+		for(int i = 0; i < count; i++){
+			if(visited[i]){
+				continue;
+			}
+			int depth = 0;
+			stack[depth++] = i;
+			visited[i] = true;
+			next[i] = start[i];
+			while(depth > 0){
+				int node = stack[depth - 1];
+				if(next[node] < start[node + 1]){
+					int child = children[next[node]++];
+					if(!visited[child]){
+						visited[child] = true;
+						next[child] = start[child];
+						stack[depth++] = child;
+					}
+				} else {
+					finish[node] = finished++;
+					depth--;
+				}
+			}
+		}
+		return finish;
+	}
+
+	private static int[][] createLayers(int layerCount, int[] layer, Integer[] order){
+		int[] sizes = new int[layerCount];
+		for(int i = 0; i < layer.length; i++){
+			sizes[layer[i]]++;
+		}
+		int[][] layers = new int[layerCount][];
+		for(int i = 0; i < layerCount; i++){
+			layers[i] = new int[sizes[i]];
+			sizes[i] = 0;
+		}
+		for(int node: order){
+			layers[layer[node]][sizes[layer[node]]++] = node;
+		}
+		return layers;
+	}
+
+	private static void updatePositions(int[][] layers, double[] position){
+		for(int[] nodes: layers){
+			for(int j = 0; j < nodes.length; j++){
+				position[nodes[j]] = (j + 0.5) / nodes.length;
+			}
+		}
+	}
+
+	private static void sort(int[] nodes, final double[] keys){
+		Integer[] sorted = new Integer[nodes.length];
+		for(int i = 0; i < nodes.length; i++){
+			sorted[i] = nodes[i];
+		}
+		Arrays.sort(sorted, new Comparator<Integer>(){
+			public int compare(Integer o1, Integer o2){
+				return Double.compare(keys[o1], keys[o2]);
+			}
+		});
+		for(int i = 0; i < nodes.length; i++){
+			nodes[i] = sorted[i];
+		}
+	}
+
+}
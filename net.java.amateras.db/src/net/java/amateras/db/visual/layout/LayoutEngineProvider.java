@@ -0,0 +1,48 @@
+package net.java.amateras.db.visual.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.java.amateras.db.DBPlugin;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Provides layout engines which are contributed to the <code>layoutEngines</code> extension point.
+ */
+public class LayoutEngineProvider {
+
+	private static List<ILayoutEngine> contributedEngines = null;
+
+	public static ILayoutEngine[] getLayoutEngines(){
+		if(contributedEngines == null){
+			// load contributed layout engines
+			contributedEngines = new ArrayList<ILayoutEngine>();
+
+			IExtensionRegistry registry = Platform.getExtensionRegistry();
+			IExtensionPoint point = registry.getExtensionPoint(DBPlugin.PLUGIN_ID + ".layoutEngines");
+			IExtension[] extensions = point.getExtensions();
+
+			for(int i=0;i<extensions.length;i++){
+				IConfigurationElement[] elements = extensions[i].getConfigurationElements();
+				for (int j = 0; j < elements.length; j++) {
+					try {
+						if("layoutEngine".equals(elements[j].getName())) {
+							ILayoutEngine engine = (ILayoutEngine) elements[j].createExecutableExtension("class");
+							contributedEngines.add(engine);
+						}
+					} catch(Exception ex){
+						DBPlugin.logException(ex);
+					}
+				}
+			}
+		}
+
+		return contributedEngines.toArray(new ILayoutEngine[contributedEngines.size()]);
+	}
+
+}
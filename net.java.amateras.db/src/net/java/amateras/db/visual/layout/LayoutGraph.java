@@ -0,0 +1,254 @@
+package net.java.amateras.db.visual.layout;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.amateras.db.visual.model.AbstractDBConnectionModel;
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+
+/**
+ * The graph which is given to {@link ILayoutEngine}.
+ * <p>
+ * Nodes and connections are indexed by hash maps, so the graph is built in O(N+E).
+ * Edges are kept as arrays of node indexes, and neighbors of each node are
+ * available as an adjacency list in the compressed form.
+ * Self-references and connections to entities which are not in the graph are ignored.
+ */
+public class LayoutGraph {
+
+	private List<LayoutNode> nodes = new ArrayList<LayoutNode>();
+	private Map<AbstractDBEntityModel, LayoutNode> nodeIndex = new IdentityHashMap<AbstractDBEntityModel, LayoutNode>();
+
+	private int[] sources = new int[16];
+	private int[] targets = new int[16];
+	private int edgeCount = 0;
+
+	private int[] adjacencyStart;
+	private int[] adjacency;
+
+	/**
+	 * Adds the entity as a node. If the entity has been already added, the existing node is returned.
+	 *
+	 * @param model the entity model
+	 * @param width the width of the entity
+	 * @param height the height of the entity
+	 * @return the node
+	 */
+	public LayoutNode addNode(AbstractDBEntityModel model, int width, int height){
+		LayoutNode node = nodeIndex.get(model);
+		if(node == null){
+			node = new LayoutNode(model, nodes.size(), width, height);
+			if(model.getConstraint() != null){
+				node.x = model.getConstraint().x;
+				node.y = model.getConstraint().y;
+			}
+			nodes.add(node);
+			nodeIndex.put(model, node);
+			adjacency = null;
+		}
+		return node;
+	}
+
+	/**
+	 * Adds connections between nodes of this graph as edges.
+	 * Call this method after all nodes have been added.
+	 */
+	public void addConnections(){
+		Set<AbstractDBConnectionModel> added = new LinkedHashSet<AbstractDBConnectionModel>();
+		for(int i = 0; i < nodes.size(); i++){
+			for(AbstractDBConnectionModel conn: nodes.get(i).getModel().getModelSourceConnections()){
+				if(conn.getSource() == conn.getTarget() || !added.add(conn)){
+					continue;
+				}
+				LayoutNode source = nodeIndex.get(conn.getSource());
+				LayoutNode target = nodeIndex.get(conn.getTarget());
+				if(source != null && target != null){
+					addEdge(source.getIndex(), target.getIndex());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the edge between nodes.
+	 *
+	 * @param source the index of the source node
+	 * @param target the index of the target node
+	 */
+	public void addEdge(int source, int target){
+		if(edgeCount == sources.length){
+			sources = grow(sources);
+			targets = grow(targets);
+		}
+		sources[edgeCount] = source;
+		targets[edgeCount] = target;
+		edgeCount++;
+		adjacency = null;
+	}
+
+	private static int[] grow(int[] array){
+		int[] result = new int[array.length * 2];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+	public int getNodeCount(){
+		return nodes.size();
+	}
+
+	public LayoutNode getNode(int index){
+		return nodes.get(index);
+	}
+
+	public List<LayoutNode> getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Returns the node of the entity, or <code>null</code> if the entity is not in the graph.
+	 */
+	public LayoutNode getNode(AbstractDBEntityModel model){
+		return nodeIndex.get(model);
+	}
+
+	public int getEdgeCount(){
+		return edgeCount;
+	}
+
+	public int getSource(int edge){
+		return sources[edge];
+	}
+
+	public int getTarget(int edge){
+		return targets[edge];
+	}
+
+	/**
+	 * Returns the start of neighbors of the node in {@link #getAdjacency()}.
+	 * Neighbors of the node <code>i</code> are stored from
+	 * <code>getAdjacencyStart()[i]</code> to <code>getAdjacencyStart()[i + 1]</code>.
+	 */
+	public int[] getAdjacencyStart(){
+		buildAdjacency();
+		return adjacencyStart;
+	}
+
+	/**
+	 * Returns indexes of neighbors of all nodes regardless of directions of edges.
+	 *
+	 * @see #getAdjacencyStart()
+	 */
+	public int[] getAdjacency(){
+		buildAdjacency();
+		return adjacency;
+	}
+
+	private void buildAdjacency(){
+		if(adjacency != null){
+			return;
+		}
+		int count = nodes.size();
+		adjacencyStart = new int[count + 1];
+		for(int i = 0; i < edgeCount; i++){
+			adjacencyStart[sources[i] + 1]++;
+			adjacencyStart[targets[i] + 1]++;
+		}
+		for(int i = 0; i < count; i++){
+			adjacencyStart[i + 1] += adjacencyStart[i];
+		}
+		int[] position = new int[count];
+		System.arraycopy(adjacencyStart, 0, position, 0, count);
+		adjacency = new int[edgeCount * 2];
+		for(int i = 0; i < edgeCount; i++){
+			adjacency[position[sources[i]]++] = targets[i];
+			adjacency[position[targets[i]]++] = sources[i];
+		}
+	}
+
+	/**
+	 * Returns connected components of this graph.
+	 *
+	 * @return indexes of nodes of each component
+	 */
+	public int[][] getComponents(){
+		int[] start = getAdjacencyStart();
+		int[] neighbors = getAdjacency();
+		int count = nodes.size();
+		boolean[] visited = new boolean[count];
+		int[] queue = new int[count];
+		List<int[]> components = new ArrayList<int[]>();
+		for(int i = 0; i < count; i++){
+			if(visited[i]){
+				continue;
+			}
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = i;
+			visited[i] = true;
+			while(head < tail){
+				int node = queue[head++];
+				for(int j = start[node]; j < start[node + 1]; j++){
+					if(!visited[neighbors[j]]){
+						visited[neighbors[j]] = true;
+						queue[tail++] = neighbors[j];
+					}
+				}
+			}
+			int[] component = new int[tail];
+			System.arraycopy(queue, 0, component, 0, tail);
+			components.add(component);
+		}
+		return components.toArray(new int[components.size()][]);
+	}
+
+	/**
+	 * Moves all nodes so that the top-left of them is placed at the given location.
+	 */
+	public void moveTo(int x, int y){
+		if(nodes.isEmpty()){
+			return;
+		}
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		for(LayoutNode node: nodes){
+			minX = Math.min(minX, node.x);
+			minY = Math.min(minY, node.y);
+		}
+		for(LayoutNode node: nodes){
+			node.x += x - minX;
+			node.y += y - minY;
+		}
+	}
+
+	/**
+	 * Returns entities which are connected with the given entities directly or indirectly,
+	 * including the given entities.
+	 *
+	 * @param entities entities to start
+	 * @return entities of connected components in the order of the breadth first search
+	 */
+	public static List<AbstractDBEntityModel> getConnectedEntities(Collection<? extends AbstractDBEntityModel> entities){
+		Set<AbstractDBEntityModel> visited = new LinkedHashSet<AbstractDBEntityModel>(entities);
+		List<AbstractDBEntityModel> queue = new ArrayList<AbstractDBEntityModel>(visited);
+		for(int i = 0; i < queue.size(); i++){
+			AbstractDBEntityModel entity = queue.get(i);
+			for(AbstractDBConnectionModel conn: entity.getModelSourceConnections()){
+				if(visited.add(conn.getTarget())){
+					queue.add(conn.getTarget());
+				}
+			}
+			for(AbstractDBConnectionModel conn: entity.getModelTargetConnections()){
+				if(visited.add(conn.getSource())){
+					queue.add(conn.getSource());
+				}
+			}
+		}
+		return queue;
+	}
+
+}
@@ -0,0 +1,45 @@
+package net.java.amateras.db.visual.layout;
+
+import net.java.amateras.db.visual.model.AbstractDBEntityModel;
+
+/**
+ * The node of {@link LayoutGraph}.
+ * Layout engines set the location of the top-left corner to <code>x</code> and <code>y</code>.
+ */
+public class LayoutNode {
+
+	public int x;
+	public int y;
+
+	private AbstractDBEntityModel model;
+	private int index;
+	private int width;
+	private int height;
+
+	LayoutNode(AbstractDBEntityModel model, int index, int width, int height){
+		this.model = model;
+		this.index = index;
+		this.width = width;
+		this.height = height;
+	}
+
+	public AbstractDBEntityModel getModel(){
+		return model;
+	}
+
+	/**
+	 * Returns the index of this node in {@link LayoutGraph}.
+	 */
+	public int getIndex(){
+		return index;
+	}
+
+	public int getWidth(){
+		return width;
+	}
+
+	public int getHeight(){
+		return height;
+	}
+
+}
@@ -1,6 +1,7 @@
 package net.java.amateras.db.visual.model;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.java.amateras.db.dialect.IColumnType;
 
@@ -17,6 +18,12 @@ public class ColumnModel implements Serializable {
 	private String defaultValue = "";
 	private DommainModel dommain = null;
 	
+	/**
+	 * Counts changes of column names of all columns, so that {@link TableModel} can find
+	 * that its index of columns is stale. Columns don't know their table.
+	 */
+	private static final AtomicInteger nameModCount = new AtomicInteger();
+	
 	public String getLogicalName(){
 		return this.logicalName;
 	}
@@ -31,6 +38,14 @@ public class ColumnModel implements Serializable {
 	
 	public void setColumnName(String columnName) {
 		this.columnName = columnName;
+		nameModCount.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of changes of column names of all columns.
+	 */
+	static int getNameModCount() {
+		return nameModCount.get();
 	}
 	
 	public IColumnType getColumnType() {
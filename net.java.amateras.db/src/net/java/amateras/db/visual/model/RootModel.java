@@ -1,7 +1,11 @@
 package net.java.amateras.db.visual.model;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.java.amateras.db.DBPlugin;
 import net.java.amateras.db.util.FontPropertyDescriptor;
@@ -35,6 +39,13 @@ public class RootModel extends AbstractDBModel implements IPropertySource {
 	private boolean includeView = false;
 	private String fontData;
 
+	/**
+	 * Tables keyed by table names. This index is not serialized and built lazily.
+	 */
+	private transient Map<String, TableModel> tableIndex;
+	private transient boolean duplicatedTableName;
+	private transient PropertyChangeListener tableNameListener;
+
 	public static final String P_MODE = "p_mode";
 	public static final String P_JDBC_INFO = "p_jdbc_info";
 	public static final String P_CHILDREN = "p_children";
@@ -55,6 +66,7 @@ public class RootModel extends AbstractDBModel implements IPropertySource {
 
 		children.clear();
 		children.addAll(model.getChildren());
+		tableIndex = null;
 
 		dommains.clear();
 		dommains.addAll(model.getDommains());
@@ -157,11 +169,30 @@ public class RootModel extends AbstractDBModel implements IPropertySource {
 
 	public void addChild(AbstractDBEntityModel model){
 		children.add(model);
+		if(model instanceof TableModel){
+			TableModel table = (TableModel) model;
+			table.removePropertyChangeListener(getTableNameListener());
+			table.addPropertyChangeListener(getTableNameListener());
+			if(tableIndex != null){
+				indexTable(table);
+			}
+		}
 		firePropertyChange(P_CHILDREN, null, model);
 	}
 
 	public void removeChild(AbstractDBEntityModel model){
 		children.remove(model);
+		if(model instanceof TableModel){
+			TableModel table = (TableModel) model;
+			table.removePropertyChangeListener(getTableNameListener());
+			if(tableIndex != null){
+				if(duplicatedTableName){
+					tableIndex = null;
+				} else if(tableIndex.get(table.getTableName()) == table){
+					tableIndex.remove(table.getTableName());
+				}
+			}
+		}
 		firePropertyChange(P_CHILDREN, model, null);
 	}
 
@@ -182,17 +213,56 @@ public class RootModel extends AbstractDBModel implements IPropertySource {
 		return result;
 	}
 
+	/**
+	 * Returns the table which has the given name.
+	 * If there are tables which have the same name, the first one is returned.
+	 *
+	 * @param tableName the table name
+	 * @return the table, or <code>null</code> if the table is not found
+	 */
 	public TableModel getTable(String tableName){
-		for(int i = 0; i < children.size(); i++){
-			AbstractDBEntityModel child = children.get(i);
-			if(child instanceof TableModel){
-				TableModel table = (TableModel) child;
-				if(table.getTableName().equals(tableName)){
-					return table;
+		return getTableIndex().get(tableName);
+	}
+
+	private Map<String, TableModel> getTableIndex(){
+		if(tableIndex == null){
+			tableIndex = new HashMap<String, TableModel>();
+			duplicatedTableName = false;
+			for(AbstractDBEntityModel child: children){
+				if(child instanceof TableModel){
+					TableModel table = (TableModel) child;
+					// listeners are not restored by deserialization
+					table.removePropertyChangeListener(getTableNameListener());
+					table.addPropertyChangeListener(getTableNameListener());
+					indexTable(table);
 				}
 			}
 		}
-		return null;
+		return tableIndex;
+	}
+
+	private void indexTable(TableModel table){
+		if(tableIndex.containsKey(table.getTableName())){
+			duplicatedTableName = true;
+		} else {
+			tableIndex.put(table.getTableName(), table);
+		}
+	}
+
+	/**
+	 * Returns the listener which discards the table index when a table is renamed.
+	 */
+	private PropertyChangeListener getTableNameListener(){
+		if(tableNameListener == null){
+			tableNameListener = new PropertyChangeListener(){
+				public void propertyChange(PropertyChangeEvent evt) {
+					if(TableModel.P_TABLE_NAME.equals(evt.getPropertyName())){
+						tableIndex = null;
+					}
+				}
+			};
+		}
+		return tableNameListener;
 	}
 
 	public List<DommainModel> getDommains(){
@@ -1,7 +1,9 @@
 package net.java.amateras.db.visual.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.java.amateras.db.DBPlugin;
 
@@ -25,6 +27,15 @@ public class TableModel extends AbstractDBEntityModel implements ICloneableModel
 	private String sql = "";
 	private String schema;
 
+	/**
+	 * Columns keyed by column names. This index is not serialized and built lazily.
+	 */
+	private transient Map<String, ColumnModel> columnIndex;
+	/**
+	 * {@link ColumnModel#getNameModCount()} when {@link #columnIndex} is built.
+	 */
+	private transient int columnIndexModCount;
+
 	public static final String P_ERROR = "p_error";
 	public static final String P_TABLE_NAME = "p_table_name";
 	public static final String P_LOGICAL_NAME = "p_logical_name";
@@ -145,6 +156,7 @@ public class TableModel extends AbstractDBEntityModel implements ICloneableModel
 
 	public void setColumns(ColumnModel[] columns){
 		this.columns = columns;
+		this.columnIndex = null;
 		firePropertyChange(P_COLUMNS, null, columns);
 	}
 
@@ -153,12 +165,16 @@ public class TableModel extends AbstractDBEntityModel implements ICloneableModel
 	}
 
 	public ColumnModel getColumn(String columnName){
-		for(int i=0;i<columns.length;i++){
-			if(columns[i].getColumnName().equals(columnName)){
-				return columns[i];
+		int modCount = ColumnModel.getNameModCount();
+		if(columnIndex == null || columnIndexModCount != modCount){
+			Map<String, ColumnModel> index = new HashMap<String, ColumnModel>();
+			for(int i=columns.length-1;i>=0;i--){
+				index.put(columns[i].getColumnName(), columns[i]);
 			}
+			columnIndex = index;
+			columnIndexModCount = modCount;
 		}
-		return null;
+		return columnIndex.get(columnName);
 	}
 
 	public IndexModel[] getIndices() {
@@ -1,8 +1,14 @@
 package net.java.amateras.db.wizard;
 
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+
 import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.visual.model.RootModel;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.wizard.Wizard;
@@ -32,13 +38,34 @@ public class NewDiagramWizard extends Wizard implements INewWizard {
 
 	public void addPages() {
 		page2 = new NewDiagramWizardPage2();
-		page1 = new NewDiagramWizardPage1((IStructuredSelection)selection, page2);
+		page1 = new NewDiagramWizardPage1((IStructuredSelection)selection);
 		addPage(page1);
 		addPage(page2);
 	}
 
 	public boolean performFinish() {
+		final RootModel root = page1.createRootModel();
+		page2.prepareImport(root);
+		try {
+			// the new model isn't shown in any editor, so it's changed in a background thread
+			getContainer().run(true, true, new IRunnableWithProgress(){
+				public void run(IProgressMonitor monitor) throws InvocationTargetException {
+					try {
+						page2.importTables(root, monitor, null);
+					} catch(SQLException ex){
+						throw new InvocationTargetException(ex);
+					}
+				}
+			});
+		} catch(InterruptedException ex){
+			return false;
+		} catch(InvocationTargetException ex){
+			DBPlugin.logException(ex);
+			return false;
+		}
+		
 		try {
+			page1.setRootModel(root);
 			IFile file = this.page1.createNewFile();
 			if (file == null){
 				return false;
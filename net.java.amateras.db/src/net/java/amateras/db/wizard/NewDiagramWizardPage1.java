@@ -19,13 +19,12 @@ import org.eclipse.ui.dialogs.WizardNewFileCreationPage;
 public class NewDiagramWizardPage1 extends WizardNewFileCreationPage {
 	
 	private Combo combo;
-	private NewDiagramWizardPage2 page2;
+	private RootModel root;
 	
-	public NewDiagramWizardPage1(IStructuredSelection selection, NewDiagramWizardPage2 page2){
+	public NewDiagramWizardPage1(IStructuredSelection selection){
 		super(DBPlugin.getResourceString("wizard.new.erd.title"), selection);
 		setTitle(DBPlugin.getResourceString("wizard.new.erd.title"));
 		setFileName("newfile.erd");
-		this.page2 = page2;
 	}
 	
     public void createControl(Composite parent) {
@@ -68,12 +67,28 @@ public class NewDiagramWizardPage1 extends WizardNewFileCreationPage {
     	return valid;
     }
     
-    protected InputStream getInitialContents() {
+    /**
+     * Creates an empty model with the selected dialect.
+     */
+    public RootModel createRootModel() {
     	RootModel root = new RootModel();
     	root.setDialectName(combo.getText());
-    	
+    	return root;
+    }
+    
+    /**
+     * Sets the model which has been imported by {@link NewDiagramWizardPage2}
+     * as the initial contents of the new file.
+     */
+    public void setRootModel(RootModel root) {
+    	this.root = root;
+    }
+    
+    protected InputStream getInitialContents() {
     	try {
-	    	page2.importTables(root);
+    		if(root == null){
+    			return VisualDBSerializer.serialize(createRootModel());
+    		}
 	    	return VisualDBSerializer.serialize(root);
 	    	
     	} catch(Exception ex){
@@ -7,11 +7,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
 
 import net.java.amateras.db.DBPlugin;
+import net.java.amateras.db.dialect.DefaultSchemaLoader;
 import net.java.amateras.db.dialect.DialectProvider;
 import net.java.amateras.db.dialect.IDialect;
+import net.java.amateras.db.dialect.IncrementalSchemaLoader;
 import net.java.amateras.db.dialect.ISchemaLoader;
+import net.java.amateras.db.dialect.ParallelSchemaLoader;
+import net.java.amateras.db.dialect.SchemaSyncResult;
 import net.java.amateras.db.util.DatabaseInfo;
 import net.java.amateras.db.util.JarClassLoader;
 import net.java.amateras.db.util.UIUtils;
@@ -22,6 +27,8 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.internal.ui.wizards.TypedElementSelectionValidator;
 import org.eclipse.jdt.internal.ui.wizards.buildpaths.FolderSelectionDialog;
@@ -65,6 +72,10 @@ public class NewDiagramWizardPage2 extends WizardPage {
 	private ResourceBundle url = ResourceBundle.getBundle("net.java.amateras.db.wizard.databaseURI");
 	private Text filter;
 	private Button autoConvert;
+	private Button incremental;
+	private SchemaSyncResult syncResult;
+	private String[] selectedTables = new String[0];
+	private boolean incrementalImport;
 
 	private ArrayList<String> tableNames = new ArrayList<String>();
 
@@ -201,6 +212,12 @@ public class NewDiagramWizardPage2 extends WizardPage {
 		autoConvert.setText(DBPlugin.getResourceString("wizard.new.import.autoConvert"));
 		autoConvert.setLayoutData(UIUtils.createGridData(4));
 		
+		if(model != null){
+			incremental = new Button(container, SWT.CHECK);
+			incremental.setText(DBPlugin.getResourceString("wizard.new.import.incremental"));
+			incremental.setLayoutData(UIUtils.createGridData(4));
+		}
+		
 
 		if(model != null){
 			jarFile.setText(model.getJarFile());
@@ -345,7 +362,23 @@ public class NewDiagramWizardPage2 extends WizardPage {
 		}
 	}
 
-	public void importTables(RootModel root) throws SQLException {
+	/**
+	 * Copies connection settings of the page to the <code>RootModel</code>
+	 * and keeps selected tables to import.
+	 * <p>
+	 * This method reads widgets, so it must be called on the UI thread
+	 * before {@link #importTables(RootModel, IProgressMonitor, Executor)} is run in a background thread.
+	 * 
+	 * @param root the root model
+	 */
+	public void prepareImport(RootModel root){
+		syncResult = null;
+		if(list == null){
+			// the page has never been shown
+			selectedTables = new String[0];
+			incrementalImport = false;
+			return;
+		}
 		root.setJarFile(jarFile.getText());
 		root.setJdbcDriver(driver.getText());
 		root.setJdbcUrl(databaseURI.getText());
@@ -354,19 +387,115 @@ public class NewDiagramWizardPage2 extends WizardPage {
 		root.setJdbcCatalog(catalog.getText());
 		root.setJdbcSchema(schema.getText());
 		root.setIncludeView(view.getSelection());
+		selectedTables = list.getSelection();
+		incrementalImport = incremental != null && incremental.getSelection();
+	}
 
-		if(list.getSelection().length == 0){
+	/**
+	 * Returns the summary of the last incremental synchronization.
+	 * 
+	 * @return the summary, or <code>null</code> if tables were not imported incrementally
+	 */
+	public SchemaSyncResult getSyncResult(){
+		return syncResult;
+	}
+
+	/**
+	 * Imports selected tables into the given <code>RootModel</code>.
+	 * <p>
+	 * If the schema loader of the dialect extends {@link DefaultSchemaLoader} and
+	 * {@link ParallelSchemaLoader#PARALLEL_LOADING_THRESHOLD} or more tables are selected,
+	 * metadata of tables are fetched concurrently by {@link ParallelSchemaLoader}.
+	 * If the incremental option is checked, only changed tables are re-imported
+	 * by {@link IncrementalSchemaLoader} instead.
+	 * <p>
+	 * This method doesn't read widgets, so it can be run in a background thread
+	 * after {@link #prepareImport(RootModel)} has been called on the UI thread.
+	 * If the model is shown in the editor, give an executor which runs tasks on the UI thread.
+	 *
+	 * @param root the root model
+	 * @param monitor the progress monitor (may be null)
+	 * @param modelExecutor the executor which applies changes to the model,
+	 *   or <code>null</code> to change the model on the calling thread
+	 * @throws SQLException if metadata can't be fetched
+	 * @see DefaultSchemaLoader#setModelExecutor(Executor)
+	 */
+	public void importTables(final RootModel root, IProgressMonitor monitor, Executor modelExecutor) throws SQLException {
+		if(selectedTables.length == 0){
 			return;
 		}
 
-		IDialect dialect = DialectProvider.getDialect(root.getDialectName());
-		ISchemaLoader loader = dialect.getSchemaLoader();
+		final IDialect dialect = DialectProvider.getDialect(root.getDialectName());
+		final ISchemaLoader loader = dialect.getSchemaLoader();
+		
+		if(loader instanceof DefaultSchemaLoader && incrementalImport){
+			Connection conn = null;
+			try {
+				conn = dbinfo.connect();
+				((DefaultSchemaLoader) loader).setModelExecutor(modelExecutor);
+				syncResult = new IncrementalSchemaLoader((DefaultSchemaLoader) loader).loadSchema(
+						root, dialect, conn, selectedTables, dbinfo.getCatalog(), dbinfo.getSchema(), 
+						dbinfo.isAutoConvert(), monitor);
+			} catch(OperationCanceledException ex){
+				throw ex;
+			} catch(Exception ex){
+				DBPlugin.logException(ex);
+			} finally {
+				((DefaultSchemaLoader) loader).setModelExecutor(null);
+				if(conn != null){
+					conn.close();
+				}
+			}
+			return;
+		}
+		
+		if(loader instanceof DefaultSchemaLoader){
+			Connection conn = null;
+			try {
+				((DefaultSchemaLoader) loader).setModelExecutor(modelExecutor);
+				if(selectedTables.length >= ParallelSchemaLoader.PARALLEL_LOADING_THRESHOLD){
+					new ParallelSchemaLoader((DefaultSchemaLoader) loader, dbinfo).loadSchema(
+							root, dialect, selectedTables, dbinfo.getCatalog(), dbinfo.getSchema(), 
+							dbinfo.isAutoConvert(), monitor);
+				} else {
+					conn = dbinfo.connect();
+					loader.loadSchema(root, dialect, conn, selectedTables, 
+							dbinfo.getCatalog(), dbinfo.getSchema(), dbinfo.isAutoConvert());
+				}
+			} catch(OperationCanceledException ex){
+				throw ex;
+			} catch(Exception ex){
+				DBPlugin.logException(ex);
+			} finally {
+				((DefaultSchemaLoader) loader).setModelExecutor(null);
+				if(conn != null){
+					conn.close();
+				}
+			}
+			return;
+		}
+		
+		// other loaders change the model while they fetch metadata
 		Connection conn = null;
 		
 		try {
 			conn = dbinfo.connect();
-			loader.loadSchema(root, DialectProvider.getDialect(root.getDialectName()), conn, 
-					list.getSelection(), dbinfo.getCatalog(), dbinfo.getSchema(), dbinfo.isAutoConvert());
+			final Connection connection = conn;
+			Runnable task = new Runnable(){
+				public void run(){
+					try {
+						loader.loadSchema(root, dialect, connection, 
+								selectedTables, dbinfo.getCatalog(), dbinfo.getSchema(), dbinfo.isAutoConvert());
+					} catch(Exception ex){
+						DBPlugin.logException(ex);
+					}
+				}
+			};
+			if(modelExecutor == null){
+				task.run();
+			} else {
+				modelExecutor.execute(task);
+			}
 		
 		} catch(Exception ex){
 			DBPlugin.logException(ex);
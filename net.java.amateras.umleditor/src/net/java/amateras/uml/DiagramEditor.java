@@ -1,6 +1,7 @@
 package net.java.amateras.uml;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.Iterator;
@@ -82,6 +83,7 @@ import net.java.amateras.uml.action.CopyAsImageAction;
 import net.java.amateras.uml.action.OpenOutlineViewAction;
 import net.java.amateras.uml.action.OpenPropertyViewAction;
 import net.java.amateras.uml.action.SaveAsImageAction;
+import net.java.amateras.uml.action.SaveAsSVGAction;
 import net.java.amateras.uml.dnd.UMLDropTargetListenerFactory;
 import net.java.amateras.uml.model.AbstractUMLEntityModel;
 import net.java.amateras.uml.model.AbstractUMLModel;
@@ -102,6 +104,7 @@ public abstract class DiagramEditor extends GraphicalEditorWithPalette
 	private AbstractUMLEditorAction openOutlineAction  = null;
 	private AbstractUMLEditorAction openPropertyAction = null;
 	private AbstractUMLEditorAction saveAsImageAction  = null;
+	private AbstractUMLEditorAction saveAsSVGAction    = null;
 	private AbstractUMLEditorAction copyAsImageAction  = null;
 	private boolean needViewerRefreshFlag = true;
 
@@ -373,6 +376,7 @@ public abstract class DiagramEditor extends GraphicalEditorWithPalette
 		openPropertyAction = new OpenPropertyViewAction(viewer);
 		openOutlineAction  = new OpenOutlineViewAction(viewer);
 		saveAsImageAction  = new SaveAsImageAction(viewer);
+		saveAsSVGAction    = new SaveAsSVGAction(viewer);
 		copyAsImageAction  = new CopyAsImageAction(viewer);
 		createDiagramAction(viewer);
 
@@ -413,6 +417,7 @@ public abstract class DiagramEditor extends GraphicalEditorWithPalette
 		fillDiagramPopupMenu(menuMgr);
 		menuMgr.add(new Separator("print"));
 		menuMgr.add(saveAsImageAction);
+		menuMgr.add(saveAsSVGAction);
 		menuMgr.add(copyAsImageAction);
 		menuMgr.add(printAction);
 		menuMgr.add(new Separator("views"));
@@ -451,13 +456,19 @@ public abstract class DiagramEditor extends GraphicalEditorWithPalette
 			if(input instanceof IFileEditorInput){
 				needViewerRefreshFlag = false;
 				IFile file = ((IFileEditorInput)input).getFile();
-				file.setContents(DiagramSerializer.serialize(getRootModel()), true, true, monitor);
+				InputStream in = DiagramSerializer.serialize(getRootModel());
+				try {
+					file.setContents(in, true, true, monitor);
+				} finally {
+					// deletes the temporary file even if the file couldn't be saved
+					in.close();
+				}
 			}
 		}
 		catch(CoreException ex){
 			throw new RuntimeException(ex);
 		}
-		catch(UnsupportedEncodingException ex){
+		catch(IOException ex){
 			throw new RuntimeException(ex);
 		}
 		getCommandStack().markSaveLocation();
@@ -549,6 +560,7 @@ public abstract class DiagramEditor extends GraphicalEditorWithPalette
 			openPropertyAction.update((IStructuredSelection)selection);
 			openOutlineAction.update((IStructuredSelection)selection);
 			saveAsImageAction.update((IStructuredSelection)selection);
+			saveAsSVGAction.update((IStructuredSelection)selection);
 			updateDiagramAction(selection);
 		}
 	}
@@ -1,17 +1,88 @@
 package net.java.amateras.uml;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 
+import net.java.amateras.uml.activitydiagram.model.ActionModel;
+import net.java.amateras.uml.activitydiagram.model.ActivityModel;
+import net.java.amateras.uml.activitydiagram.model.DecisionModel;
+import net.java.amateras.uml.activitydiagram.model.FinalStateModel;
+import net.java.amateras.uml.activitydiagram.model.FlowModel;
+import net.java.amateras.uml.activitydiagram.model.ForkNodeModel;
+import net.java.amateras.uml.activitydiagram.model.InitialStateModel;
+import net.java.amateras.uml.activitydiagram.model.JoinNodeModel;
+import net.java.amateras.uml.activitydiagram.model.ObjectModel;
+import net.java.amateras.uml.activitydiagram.model.VerticalPartitionModel;
+import net.java.amateras.uml.classdiagram.model.AggregationModel;
+import net.java.amateras.uml.classdiagram.model.Argument;
+import net.java.amateras.uml.classdiagram.model.AssociationModel;
+import net.java.amateras.uml.classdiagram.model.AttributeModel;
+import net.java.amateras.uml.classdiagram.model.ClassModel;
+import net.java.amateras.uml.classdiagram.model.CompositeModel;
+import net.java.amateras.uml.classdiagram.model.DependencyModel;
+import net.java.amateras.uml.classdiagram.model.EnumModel;
+import net.java.amateras.uml.classdiagram.model.GeneralizationModel;
+import net.java.amateras.uml.classdiagram.model.InterfaceModel;
+import net.java.amateras.uml.classdiagram.model.OperationModel;
+import net.java.amateras.uml.classdiagram.model.RealizationModel;
+import net.java.amateras.uml.model.AnchorModel;
+import net.java.amateras.uml.model.NoteModel;
 import net.java.amateras.uml.model.RootModel;
+import net.java.amateras.uml.sequencediagram.model.ActivationModel;
+import net.java.amateras.uml.sequencediagram.model.ActorModel;
+import net.java.amateras.uml.sequencediagram.model.AltanativeFragment;
+import net.java.amateras.uml.sequencediagram.model.AsyncMessageModel;
+import net.java.amateras.uml.sequencediagram.model.CreationMessageModel;
+import net.java.amateras.uml.sequencediagram.model.FragmentModel;
+import net.java.amateras.uml.sequencediagram.model.InstanceModel;
+import net.java.amateras.uml.sequencediagram.model.InteractionModel;
+import net.java.amateras.uml.sequencediagram.model.LifeLineModel;
+import net.java.amateras.uml.sequencediagram.model.LoopFragmentModel;
+import net.java.amateras.uml.sequencediagram.model.MessageModel;
+import net.java.amateras.uml.sequencediagram.model.ReturnMessageModel;
+import net.java.amateras.uml.sequencediagram.model.SyncMessageModel;
+import net.java.amateras.uml.usecasediagram.model.SystemModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseActorModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseExtendModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseGeneralizationModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseIncludeModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseRelationModel;
+import net.java.amateras.uml.usecasediagram.model.UsecaseRootModel;
 import net.java.amateras.xstream.XStreamSerializer;
 
 public class DiagramSerializer {
 	
-	public static InputStream serialize(RootModel model) throws UnsupportedEncodingException {
+	static {
+		XStreamSerializer.registerTypes(DiagramSerializer.class.getClassLoader(),
+				RootModel.class, NoteModel.class, AnchorModel.class,
+				ClassModel.class, InterfaceModel.class, EnumModel.class,
+				AttributeModel.class, OperationModel.class, Argument.class,
+				AssociationModel.class, AggregationModel.class, CompositeModel.class,
+				DependencyModel.class, GeneralizationModel.class, RealizationModel.class,
+				ActivationModel.class, ActorModel.class, AltanativeFragment.class,
+				AsyncMessageModel.class, CreationMessageModel.class, FragmentModel.class,
+				InstanceModel.class, InteractionModel.class, LifeLineModel.class,
+				LoopFragmentModel.class, MessageModel.class, ReturnMessageModel.class,
+				SyncMessageModel.class,
+				ActionModel.class, ActivityModel.class, DecisionModel.class, FinalStateModel.class,
+				FlowModel.class, ForkNodeModel.class, InitialStateModel.class, JoinNodeModel.class,
+				ObjectModel.class, VerticalPartitionModel.class,
+				SystemModel.class, UsecaseActorModel.class, UsecaseExtendModel.class,
+				UsecaseGeneralizationModel.class, UsecaseIncludeModel.class, UsecaseModel.class,
+				UsecaseRelationModel.class, UsecaseRootModel.class);
+	}
+	
+	public static InputStream serialize(RootModel model) throws IOException {
 		return XStreamSerializer.serializeStream(model, DiagramSerializer.class.getClassLoader());
 	}
 	
+	public static void serialize(RootModel model, OutputStream out) throws IOException {
+		XStreamSerializer.serialize(model, DiagramSerializer.class.getClassLoader(), out);
+	}
+	
 	public static RootModel deserialize(InputStream in) throws UnsupportedEncodingException {
 		return (RootModel)XStreamSerializer.deserialize(in, DiagramSerializer.class.getClassLoader());
 	}
@@ -2,6 +2,8 @@ package net.java.amateras.uml;
 
 import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Spinner;
 
@@ -54,14 +56,26 @@ public class SpinnerFieldEditor extends FieldEditor {
 	public int getNumberOfControls() {
 		return 2;
 	}
+
+	/**
+	 * Returns the current value of the spinner.
+	 */
+	public int getIntValue() {
+		return spinner.getSelection();
+	}
 	
 	protected Spinner getSpinnerControl(Composite parent){
 		if(spinner==null){
 			spinner = new Spinner(parent, SWT.BORDER);
 			spinner.setMinimum(min);
 			spinner.setMaximum(max);
+			spinner.addModifyListener(new ModifyListener(){
+				public void modifyText(ModifyEvent e){
+					fireValueChanged(VALUE, null, new Integer(spinner.getSelection()));
+				}
+			});
 		}
 		return spinner;
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -38,6 +38,8 @@ public class UMLPlugin extends AbstractUIPlugin {
 	//============================================================================
 	public static final String PREF_ANTI_ALIAS = "pref.antialias";
 	public static final String PREF_NEWSTYLE = "pref.style.new";
+	public static final String PREF_LOD_TITLE_ZOOM = "pref.lod.titlezoom";
+	public static final String PREF_LOD_BOX_ZOOM = "pref.lod.boxzoom";
 
 
 	//============================================================================
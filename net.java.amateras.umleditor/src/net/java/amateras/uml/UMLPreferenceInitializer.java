@@ -13,6 +13,8 @@ public class UMLPreferenceInitializer extends AbstractPreferenceInitializer {
 		store.setDefault(UMLPlugin.PREF_CLASS_DIAGRAM_SHOW_PARAMETER_NAME, true);
 		store.setDefault(UMLPlugin.PREF_CLASS_DIAGRAM_CREATE_AGGREGATION_ON_IMPORT, true);
 		store.setDefault(UMLPlugin.PREF_ANTI_ALIAS, false);
+		store.setDefault(UMLPlugin.PREF_LOD_TITLE_ZOOM, 40);
+		store.setDefault(UMLPlugin.PREF_LOD_BOX_ZOOM, 20);
 		store.setDefault(UMLPlugin.PREF_SHOW_GRID, false);
 		store.setDefault(UMLPlugin.PREF_GRID_SIZE, 10);
 		store.setDefault(UMLPlugin.PREF_SNAP_GEOMETRY, false);
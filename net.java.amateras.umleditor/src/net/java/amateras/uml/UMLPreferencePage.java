@@ -3,6 +3,8 @@ package net.java.amateras.uml;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferencePage;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -25,6 +27,10 @@ public class UMLPreferencePage extends PreferencePage implements IWorkbenchPrefe
 
 	private BooleanFieldEditor newThema;
 
+	private SpinnerFieldEditor lodTitleZoom;
+
+	private SpinnerFieldEditor lodBoxZoom;
+
 	private BooleanFieldEditor showSimpleNameInClassDiagram;
 
 	/**
@@ -101,6 +107,16 @@ public class UMLPreferencePage extends PreferencePage implements IWorkbenchPrefe
 		newThema = new BooleanFieldEditor(UMLPlugin.PREF_NEWSTYLE, UMLPlugin.getDefault().getResourceString("preference.appearance.new"),
 				appearanceGoup);
 
+		// Level of detail
+		Group lodGroup = new Group(composite, SWT.NULL);
+		lodGroup.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		lodGroup.setText(UMLPlugin.getDefault().getResourceString("preference.lod"));
+		lodTitleZoom = new SpinnerFieldEditor(UMLPlugin.PREF_LOD_TITLE_ZOOM, UMLPlugin.getDefault().getResourceString("preference.lod.titleZoom"), 0, 100,
+				lodGroup);
+		lodBoxZoom = new SpinnerFieldEditor(UMLPlugin.PREF_LOD_BOX_ZOOM, UMLPlugin.getDefault().getResourceString("preference.lod.boxZoom"), 0, 100,
+				lodGroup);
+		lodGroup.setLayout(new GridLayout(2, false));
+
 		// Initializes values
 		fillInitialValues();
 
@@ -125,6 +141,21 @@ public class UMLPreferencePage extends PreferencePage implements IWorkbenchPrefe
 		newThema.setPreferenceStore(store);
 		newThema.load();
 
+		lodTitleZoom.setPreferenceStore(store);
+		lodTitleZoom.load();
+
+		lodBoxZoom.setPreferenceStore(store);
+		lodBoxZoom.load();
+
+		IPropertyChangeListener lodListener = new IPropertyChangeListener(){
+			public void propertyChange(PropertyChangeEvent event){
+				validateLevelOfDetail();
+			}
+		};
+		lodTitleZoom.setPropertyChangeListener(lodListener);
+		lodBoxZoom.setPropertyChangeListener(lodListener);
+		validateLevelOfDetail();
+
 		showSimpleNameInClassDiagram.setPreferenceStore(store);
 		showSimpleNameInClassDiagram.load();
 
@@ -144,13 +175,30 @@ public class UMLPreferencePage extends PreferencePage implements IWorkbenchPrefe
 		zoomableWithCtrlAndScroll.load();
 	}
 
+	/**
+	 * Validates that boxes are shown below a lower zoom than names.
+	 * 0 disables boxes, so any zoom for names is allowed.
+	 */
+	private boolean validateLevelOfDetail() {
+		int boxZoom = lodBoxZoom.getIntValue();
+		boolean valid = boxZoom == 0 || boxZoom < lodTitleZoom.getIntValue();
+		setErrorMessage(valid ? null : UMLPlugin.getDefault().getResourceString("preference.lod.error"));
+		setValid(valid);
+		return valid;
+	}
+
 	public boolean performOk() {
+		if(!validateLevelOfDetail()){
+			return false;
+		}
 		createReturn.store();
 		antiAlias.store();
 		showGrid.store();
 		gridSize.store();
 		snapToGeometry.store();
 		newThema.store();
+		lodTitleZoom.store();
+		lodBoxZoom.store();
 		showSimpleNameInClassDiagram.store();
 		showParameterName.store();
 		createAggregationOnImport.store();
@@ -162,4 +210,4 @@ public class UMLPreferencePage extends PreferencePage implements IWorkbenchPrefe
 	public void init(IWorkbench workbench) {
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
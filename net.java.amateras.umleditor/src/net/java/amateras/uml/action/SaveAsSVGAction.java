@@ -0,0 +1,71 @@
+package net.java.amateras.uml.action;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.java.amateras.uml.UMLPlugin;
+import net.java.amateras.xstream.svg.SVGGraphics;
+
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.LayerConstants;
+import org.eclipse.gef.editparts.ScalableRootEditPart;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Saves the diagram as a SVG image.
+ * <p>
+ * Figures are painted to {@link SVGGraphics}, so the diagram is written as vector graphics
+ * without rendering the whole canvas to a bitmap.
+ */
+public class SaveAsSVGAction extends AbstractUMLEditorAction {
+	
+	public SaveAsSVGAction(GraphicalViewer viewer){
+		super(UMLPlugin.getDefault().getResourceString("menu.saveAsSVG"), viewer);
+		setImageDescriptor(UMLPlugin.getImageDescriptor("icons/save_as_image.gif"));
+	}
+	
+	public void update(IStructuredSelection sel){
+	}
+	
+	public void run(){
+		ScalableRootEditPart rootEditPart = (ScalableRootEditPart)getViewer().getRootEditPart();
+		
+		FileDialog dialog = new FileDialog(Display.getCurrent().getActiveShell(), SWT.SAVE);
+		dialog.setFilterExtensions(new String[]{"*.svg"});
+		dialog.setFileName(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().getActiveEditor().getTitle() + ".svg");
+		String file = dialog.open();
+		if(file == null){
+			return;
+		}
+		
+		Writer out = null;
+		try {
+			IFigure figure = rootEditPart.getLayer(LayerConstants.PRINTABLE_LAYERS);
+			Rectangle rectangle = figure.getBounds();
+			
+			out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+			SVGGraphics graphics = new SVGGraphics(out, new Rectangle(0, 0, rectangle.width + 50, rectangle.height + 50));
+			figure.paint(graphics);
+			graphics.dispose();
+			graphics.close();
+		} catch(Exception ex){
+			UMLPlugin.logException(ex);
+		} finally {
+			if(out != null){
+				try {
+					out.close();
+				} catch(Exception ex){
+				}
+			}
+		}
+	}
+	
+}
@@ -1,5 +1,6 @@
 package net.java.amateras.uml.activitydiagram.figure;
 
+import net.java.amateras.uml.figure.ConnectionLabel;
 import net.java.amateras.uml.figure.EntityFigure;
 
 import org.eclipse.draw2d.ConnectionLocator;
@@ -13,7 +14,7 @@ public class FlowFigure extends PolylineConnection implements EntityFigure {
 	private Label label;
 
 	public FlowFigure(){
-		this.label = new Label();
+		this.label = new ConnectionLabel();
 		add(label, new ConnectionLocator(this, ConnectionLocator.MIDDLE));
 		setTargetDecoration(new PolygonDecoration());
 	}
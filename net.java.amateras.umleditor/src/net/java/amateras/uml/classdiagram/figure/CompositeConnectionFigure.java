@@ -4,6 +4,7 @@
 package net.java.amateras.uml.classdiagram.figure;
 
 import net.java.amateras.uml.classdiagram.model.CompositeModel;
+import net.java.amateras.uml.figure.ConnectionLabel;
 import net.java.amateras.uml.figure.PresentationFigure;
 import net.java.amateras.uml.model.AbstractUMLModel;
 
@@ -26,15 +27,15 @@ public class CompositeConnectionFigure extends PolylineConnection implements
 	private Label labelToMultiplicity;
 	
 	public CompositeConnectionFigure(CompositeModel model) {
-		labelStereoType = new Label();
+		labelStereoType = new ConnectionLabel();
 		if(!model.getStereoType().equals("")){
 			labelStereoType.setText("<<" + model.getStereoType() + ">>");
 		}
 		
-		labelFromMultiplicity = new Label();
+		labelFromMultiplicity = new ConnectionLabel();
 		labelFromMultiplicity.setText(model.getFromMultiplicity());
 		
-		labelToMultiplicity = new Label();
+		labelToMultiplicity = new ConnectionLabel();
 		labelToMultiplicity.setText(model.getToMultiplicity());
 		
 		add(labelStereoType, new ConnectionLocator(this, ConnectionLocator.MIDDLE));
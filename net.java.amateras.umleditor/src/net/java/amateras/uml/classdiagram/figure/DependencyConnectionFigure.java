@@ -4,6 +4,7 @@
 package net.java.amateras.uml.classdiagram.figure;
 
 import net.java.amateras.uml.classdiagram.model.DependencyModel;
+import net.java.amateras.uml.figure.ConnectionLabel;
 import net.java.amateras.uml.figure.PresentationFigure;
 import net.java.amateras.uml.model.AbstractUMLModel;
 
@@ -23,7 +24,7 @@ public class DependencyConnectionFigure extends PolylineConnection implements
 	private Label label;
 	
 	public DependencyConnectionFigure(DependencyModel model) {
-		label = new Label();
+		label = new ConnectionLabel();
 		if(!model.getStereoType().equals("")){
 			label.setText("<<" + model.getStereoType() + ">>");
 		}
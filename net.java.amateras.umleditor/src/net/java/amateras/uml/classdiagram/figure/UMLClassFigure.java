@@ -3,11 +3,13 @@ package net.java.amateras.uml.classdiagram.figure;
 import java.util.List;
 
 import net.java.amateras.uml.figure.EntityFigure;
+import net.java.amateras.uml.figure.LevelOfDetail;
 import net.java.amateras.uml.figure.PresentationFigure;
 import net.java.amateras.uml.model.AbstractUMLModel;
 
 import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.Label;
 import org.eclipse.draw2d.LineBorder;
@@ -131,6 +133,23 @@ public class UMLClassFigure extends Figure implements EntityFigure, Presentation
 		return name;
 	}
 
+	/**
+	 * Paints only the name or nothing in the box when the diagram is zoomed out.
+	 *
+	 * @see LevelOfDetail
+	 */
+	@Override
+	protected void paintChildren(Graphics graphics) {
+		int level = LevelOfDetail.getLevel(graphics);
+		if(level == LevelOfDetail.FULL){
+			super.paintChildren(graphics);
+		} else if(level == LevelOfDetail.TITLE && nameFigure.intersects(graphics.getClip(new Rectangle()))){
+			graphics.clipRect(nameFigure.getBounds());
+			nameFigure.paint(graphics);
+			graphics.restoreState();
+		}
+	}
+
 	public Rectangle getCellEditorRectangle() {
 		Rectangle rect = name.getBounds().getCopy();
 		if (name.getIcon() != null) {
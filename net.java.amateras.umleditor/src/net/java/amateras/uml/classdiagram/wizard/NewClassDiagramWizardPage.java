@@ -1,7 +1,7 @@
 package net.java.amateras.uml.classdiagram.wizard;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 
 import net.java.amateras.uml.DiagramSerializer;
 import net.java.amateras.uml.UMLPlugin;
@@ -34,7 +34,7 @@ public class NewClassDiagramWizardPage extends WizardNewFileCreationPage {
 			root.setBackgroundColor(UMLClassFigure.classColor.getRGB());
 			root.setForegroundColor(ColorConstants.black.getRGB());
 			return DiagramSerializer.serialize(root);
-		} catch(UnsupportedEncodingException ex){
+		} catch(IOException ex){
 			return null;
 		}
 	}
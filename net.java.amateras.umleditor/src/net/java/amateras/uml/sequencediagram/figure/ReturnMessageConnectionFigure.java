@@ -4,6 +4,7 @@
 package net.java.amateras.uml.sequencediagram.figure;
 
 import net.java.amateras.uml.UMLPlugin;
+import net.java.amateras.uml.figure.ConnectionLabel;
 import net.java.amateras.uml.figure.EntityFigure;
 import net.java.amateras.uml.figure.PresentationFigure;
 import net.java.amateras.uml.model.AbstractUMLModel;
@@ -27,7 +28,7 @@ public class ReturnMessageConnectionFigure extends PolylineConnection implements
 	private ConnectionLocator locator;
 
 	public ReturnMessageConnectionFigure() {
-		label = new Label() {
+		label = new ConnectionLabel() {
 			public void paint(Graphics graphics) {
 				if (UMLPlugin.getDefault().getPreferenceStore().getBoolean(UMLPlugin.PREF_ANTI_ALIAS)) {
 					graphics.setAntialias(SWT.ON);
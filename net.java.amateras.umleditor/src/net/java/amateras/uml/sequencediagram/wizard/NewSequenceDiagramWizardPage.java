@@ -1,7 +1,7 @@
 package net.java.amateras.uml.sequencediagram.wizard;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 
 import net.java.amateras.uml.DiagramSerializer;
 import net.java.amateras.uml.UMLPlugin;
@@ -40,7 +40,7 @@ public class NewSequenceDiagramWizardPage extends WizardNewFileCreationPage {
 			root.setBackgroundColor(InstanceFigure.INSTANCE_COLOR.getRGB());
 			root.setForegroundColor(ColorConstants.black.getRGB());
 			return DiagramSerializer.serialize(root);
-		} catch(UnsupportedEncodingException ex){
+		} catch(IOException ex){
 			return null;
 		}
 	}
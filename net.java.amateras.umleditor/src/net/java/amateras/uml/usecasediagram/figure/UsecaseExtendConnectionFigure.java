@@ -3,6 +3,7 @@
  */
 package net.java.amateras.uml.usecasediagram.figure;
 
+import net.java.amateras.uml.figure.ConnectionLabel;
 import net.java.amateras.uml.figure.PresentationFigure;
 import net.java.amateras.uml.model.AbstractUMLModel;
 
@@ -20,7 +21,7 @@ public class UsecaseExtendConnectionFigure extends PolylineConnection implements
 		PresentationFigure {
 
 	public UsecaseExtendConnectionFigure() {
-		Label label = new Label();
+		Label label = new ConnectionLabel();
 		label.setText("<<extend>>");
 		setLineStyle(Graphics.LINE_DASH);
 		setTargetDecoration(new PolylineDecoration());
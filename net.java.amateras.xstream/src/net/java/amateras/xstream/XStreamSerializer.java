@@ -1,49 +1,220 @@
 package net.java.amateras.xstream;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.mapper.MapperWrapper;
 
 public class XStreamSerializer {
 
+	/**
+	 * Configured <code>XStream</code> instances keyed by the <code>ClassLoader</code>.
+	 * <p>
+	 * <code>XStream</code> is thread-safe for marshalling and unmarshalling once configured,
+	 * so a single instance is shared by all callers which use the same <code>ClassLoader</code>.
+	 * Loaders are the bundle class loaders of the plug-ins, so the entries live as long as the plug-ins.
+	 */
+	private static final Map<ClassLoader, XStream> instances = new HashMap<ClassLoader, XStream>();
+
+	/**
+	 * Renamed class names keyed by the <code>ClassLoader</code>.
+	 */
+	private static final Map<ClassLoader, Map<String, String>> migrations = new HashMap<ClassLoader, Map<String, String>>();
+
+	/**
+	 * Registers model classes to the <code>XStream</code> instance for the given <code>ClassLoader</code>.
+	 * <p>
+	 * The converter of each class is looked up in advance to warm up the reflection caches.
+	 * Classes are still written by their fully qualified names, so the serialized format is not changed.
+	 * This method should be called before the first serialization, typically in a static initializer.
+	 *
+	 * @param loader the class loader
+	 * @param types model classes to register
+	 */
+	public static void registerTypes(ClassLoader loader, Class<?>... types){
+		synchronized(instances){
+			XStream xstream = getXStream(loader);
+			for(Class<?> type: types){
+				xstream.getConverterLookup().lookupConverterForType(type);
+			}
+		}
+	}
+
+	/**
+	 * Registers a renamed class for the given <code>ClassLoader</code>.
+	 * <p>
+	 * When the old class name appears in XML which is being deserialized,
+	 * it's resolved as the new class name on the fly. Serialization always uses the new class name.
+	 * This method should be called before the first deserialization, typically in a static initializer.
+	 *
+	 * @param loader the class loader
+	 * @param oldClassName the fully qualified class name in old files
+	 * @param newClassName the fully qualified class name of the current model
+	 */
+	public static void registerMigration(ClassLoader loader, String oldClassName, String newClassName){
+		synchronized(instances){
+			getMigrations(loader).put(oldClassName, newClassName);
+		}
+	}
+
+	private static Map<String, String> getMigrations(ClassLoader loader){
+		Map<String, String> map = migrations.get(loader);
+		if(map == null){
+			map = new ConcurrentHashMap<String, String>();
+			migrations.put(loader, map);
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the shared <code>XStream</code> instance for the given <code>ClassLoader</code>.
+	 *
+	 * @param loader the class loader
+	 * @return the configured <code>XStream</code> instance
+	 */
+	public static XStream getXStream(ClassLoader loader){
+		synchronized(instances){
+			XStream xstream = instances.get(loader);
+			if(xstream == null){
+				final Map<String, String> renames = getMigrations(loader);
+				xstream = new XStream(){
+					@Override
+					protected MapperWrapper wrapMapper(MapperWrapper next) {
+						return new MigrationMapper(next, renames);
+					}
+				};
+				XStream.setupDefaultSecurity(xstream);
+				xstream.allowTypesByWildcard(new String[] {"**"});
+				xstream.setClassLoader(loader);
+				instances.put(loader, xstream);
+			}
+			return xstream;
+		}
+	}
+
 	public static String serialize(Object obj, ClassLoader loader){
-		XStream xstream = new XStream();
-		XStream.setupDefaultSecurity(xstream);
-		xstream.allowTypesByWildcard(new String[] {"**"});
-		xstream.setClassLoader(loader);
-		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xstream.toXML(obj);
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + getXStream(loader).toXML(obj);
+	}
+
+	/**
+	 * Writes the given object to the <code>OutputStream</code> as UTF-8 encoded XML.
+	 * <p>
+	 * The XML is streamed through a buffered writer, so the whole document is never held in memory.
+	 * The given stream is flushed but not closed.
+	 *
+	 * @param obj the object to serialize
+	 * @param loader the class loader
+	 * @param out the output stream
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void serialize(Object obj, ClassLoader loader, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		getXStream(loader).toXML(obj, writer);
+		writer.flush();
 	}
 
-	public static InputStream serializeStream(Object obj, ClassLoader loader) throws UnsupportedEncodingException {
-		String xml = serialize(obj, loader);
-		return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+	/**
+	 * Serializes the given object and returns an <code>InputStream</code> to read the XML.
+	 * <p>
+	 * The XML is written to a temporary file instead of memory, so it can be passed to
+	 * <code>IFile#setContents()</code> without copying the whole document into the heap.
+	 * The temporary file is deleted when the returned stream is closed, so the caller
+	 * must close it in a <code>finally</code> block even if <code>setContents()</code> fails.
+	 *
+	 * @param obj the object to serialize
+	 * @param loader the class loader
+	 * @return the input stream to read the serialized XML
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static InputStream serializeStream(Object obj, ClassLoader loader) throws IOException {
+		File file = File.createTempFile("xstream", ".xml");
+		InputStream in = null;
+		try {
+			OutputStream out = new FileOutputStream(file);
+			try {
+				serialize(obj, loader, out);
+			} finally {
+				out.close();
+			}
+			in = new TemporaryFileInputStream(file);
+			return in;
+		} finally {
+			if(in == null){
+				file.delete();
+			}
+		}
 	}
 
 	public static Object deserialize(String xml, ClassLoader loader){
-		XStream xstream = new XStream();
-		XStream.setupDefaultSecurity(xstream);
-		xstream.allowTypesByWildcard(new String[] {"**"});
-		xstream.setClassLoader(loader);
-		return xstream.fromXML(xml);
+		return getXStream(loader).fromXML(xml);
 	}
 
 	public static Object deserialize(Reader reader, ClassLoader loader){
-		XStream xstream = new XStream();
-		XStream.setupDefaultSecurity(xstream);
-		xstream.allowTypesByWildcard(new String[] {"**"});
-		xstream.setClassLoader(loader);
-		return xstream.fromXML(reader);
+		return getXStream(loader).fromXML(reader);
 	}
 
 	public static Object deserialize(InputStream in, ClassLoader loader) throws UnsupportedEncodingException {
-		XStream xstream = new XStream();
-		XStream.setupDefaultSecurity(xstream);
-		xstream.allowTypesByWildcard(new String[] {"**"});
-		xstream.setClassLoader(loader);
-		return xstream.fromXML(new InputStreamReader(in, "UTF-8"));
+		return getXStream(loader).fromXML(new InputStreamReader(in, "UTF-8"));
+	}
+
+	/**
+	 * The <code>MapperWrapper</code> which resolves old class names to the renamed classes.
+	 */
+	private static class MigrationMapper extends MapperWrapper {
+
+		private Map<String, String> renames;
+
+		public MigrationMapper(MapperWrapper next, Map<String, String> renames) {
+			super(next);
+			this.renames = renames;
+		}
+
+		@SuppressWarnings("rawtypes")
+		@Override
+		public Class realClass(String elementName) {
+			String newName = renames.get(elementName);
+			if(newName != null){
+				return super.realClass(newName);
+			}
+			return super.realClass(elementName);
+		}
+	}
+
+	/**
+	 * The <code>FileInputStream</code> which deletes the file when it's closed.
+	 */
+	private static class TemporaryFileInputStream extends FileInputStream {
+
+		private File file;
+
+		public TemporaryFileInputStream(File file) throws FileNotFoundException {
+			super(file);
+			this.file = file;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				file.delete();
+			}
+		}
 	}
 }
@@ -0,0 +1,745 @@
+package net.java.amateras.xstream.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.FigureUtilities;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.FontMetrics;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+
+/**
+ * A Draw2d {@link Graphics} which writes SVG elements to the writer while figures paint.
+ * <p>
+ * Each drawing operation is written as one SVG element immediately,
+ * so the output size depends on the number of figures instead of the size of the canvas.
+ * Clipping areas, gradients and images are written once and referred by their ID.
+ * Operations which are completely outside of the clipping area are skipped.
+ * <p>
+ * The XOR mode, patterns and paths are not supported.
+ * Call {@link #close()} after painting to write the end of the document.
+ * <p>
+ * This class is shared by AmaterasERD and AmaterasUML.
+ */
+public class SVGGraphics extends Graphics {
+
+	private static final int[] DASH = {18, 6};
+	private static final int[] DOT = {3, 3};
+	private static final int[] DASHDOT = {9, 6, 3, 6};
+	private static final int[] DASHDOTDOT = {9, 3, 3, 3, 3, 3};
+
+	private Writer out;
+	private IOException error;
+	private State state = new State();
+	private List<State> stack = new ArrayList<State>();
+
+	/** the ID of the clipping path of the element which is being written */
+	private String clipId;
+	private Map<Rectangle, String> clipIds = new HashMap<Rectangle, String>();
+	private Map<String, String> gradientIds = new HashMap<String, String>();
+	private Map<Image, String> imageIds = new IdentityHashMap<Image, String>();
+	private int nextId = 0;
+
+	/**
+	 * Writes the header of the SVG document.
+	 *
+	 * @param out the writer. It is not closed by this class.
+	 * @param area the area of figures to write. It becomes the view box of the document.
+	 */
+	public SVGGraphics(Writer out, Rectangle area){
+		this.out = out;
+		state.clip = area.getCopy();
+		write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+		write(" version=\"1.1\" xml:space=\"preserve\"");
+		write(" width=\"" + area.width + "\" height=\"" + area.height + "\"");
+		write(" viewBox=\"" + area.x + " " + area.y + " " + area.width + " " + area.height + "\">\n");
+	}
+
+	/**
+	 * Writes the end of the SVG document and flushes the writer.
+	 *
+	 * @throws IOException if any error occurred while writing the document
+	 */
+	public void close() throws IOException {
+		write("</svg>\n");
+		if(error == null){
+			try {
+				out.flush();
+			} catch(IOException ex){
+				error = ex;
+			}
+		}
+		if(error != null){
+			throw error;
+		}
+	}
+
+	public void dispose() {
+	}
+
+	//-------------------------------------------------------------------------
+	// State
+
+	/**
+	 * The state which is saved by {@link SVGGraphics#pushState()}.
+	 * Coordinates are converted to the document as <code>offset + scale * value</code>.
+	 */
+	private static class State implements Cloneable {
+		double offsetX = 0;
+		double offsetY = 0;
+		double scale = 1;
+		Rectangle clip;
+		Color foreground;
+		Color background;
+		Font font;
+		int lineWidth = 1;
+		int lineStyle = SWT.LINE_SOLID;
+		int[] lineDash;
+		int alpha = 255;
+		boolean xor = false;
+
+		State copy(){
+			try {
+				State copy = (State) clone();
+				copy.clip = clip.getCopy();
+				return copy;
+			} catch(CloneNotSupportedException ex){
+				throw new RuntimeException(ex);
+			}
+		}
+	}
+
+	public void pushState() {
+		stack.add(state.copy());
+	}
+
+	public void popState() {
+		restoreState();
+		stack.remove(stack.size() - 1);
+	}
+
+	public void restoreState() {
+		state = stack.get(stack.size() - 1).copy();
+	}
+
+	public void translate(int dx, int dy) {
+		state.offsetX += dx * state.scale;
+		state.offsetY += dy * state.scale;
+	}
+
+	public void scale(double amount) {
+		state.scale *= amount;
+	}
+
+	public double getAbsoluteScale() {
+		return state.scale;
+	}
+
+	public void clipRect(Rectangle r) {
+		state.clip.intersect(toDocument(r));
+	}
+
+	public void setClip(Rectangle r) {
+		state.clip = toDocument(r);
+	}
+
+	public Rectangle getClip(Rectangle rect) {
+		rect.x = (int) Math.floor((state.clip.x - state.offsetX) / state.scale);
+		rect.y = (int) Math.floor((state.clip.y - state.offsetY) / state.scale);
+		rect.width = (int) Math.ceil((state.clip.right() - state.offsetX) / state.scale) - rect.x;
+		rect.height = (int) Math.ceil((state.clip.bottom() - state.offsetY) / state.scale) - rect.y;
+		return rect;
+	}
+
+	public Color getBackgroundColor() {
+		return state.background;
+	}
+
+	public void setBackgroundColor(Color color) {
+		state.background = color;
+	}
+
+	public Color getForegroundColor() {
+		return state.foreground;
+	}
+
+	public void setForegroundColor(Color color) {
+		state.foreground = color;
+	}
+
+	public Font getFont() {
+		return state.font;
+	}
+
+	public void setFont(Font font) {
+		state.font = font;
+	}
+
+	public FontMetrics getFontMetrics() {
+		return FigureUtilities.getFontMetrics(state.font);
+	}
+
+	public int getLineStyle() {
+		return state.lineStyle;
+	}
+
+	public void setLineStyle(int style) {
+		state.lineStyle = style;
+	}
+
+	public void setLineDash(int[] dash) {
+		state.lineDash = dash == null ? null : (int[]) dash.clone();
+		state.lineStyle = dash == null ? SWT.LINE_SOLID : SWT.LINE_CUSTOM;
+	}
+
+	public int getLineWidth() {
+		return state.lineWidth;
+	}
+
+	public void setLineWidth(int width) {
+		state.lineWidth = width;
+	}
+
+	public int getAlpha() {
+		return state.alpha;
+	}
+
+	public void setAlpha(int alpha) {
+		state.alpha = alpha;
+	}
+
+	public boolean getXORMode() {
+		return state.xor;
+	}
+
+	public void setXORMode(boolean xor) {
+		state.xor = xor;
+	}
+
+	public void setAntialias(int value) {
+	}
+
+	public void setTextAntialias(int value) {
+	}
+
+	public void setInterpolation(int interpolation) {
+	}
+
+	//-------------------------------------------------------------------------
+	// Drawing operations
+
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		double o = getStrokeOffset();
+		if(!begin("line", getBounds(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1), Math.abs(y2 - y1), true))){
+			return;
+		}
+		write(" x1=\"" + x(x1 + o) + "\" y1=\"" + y(y1 + o) + "\" x2=\"" + x(x2 + o) + "\" y2=\"" + y(y2 + o) + "\"");
+		end(true);
+	}
+
+	public void drawRectangle(int x, int y, int width, int height) {
+		drawRect(x, y, width, height, 0, 0, true);
+	}
+
+	public void fillRectangle(int x, int y, int width, int height) {
+		drawRect(x, y, width, height, 0, 0, false);
+	}
+
+	public void drawRoundRectangle(Rectangle r, int arcWidth, int arcHeight) {
+		drawRect(r.x, r.y, r.width, r.height, arcWidth, arcHeight, true);
+	}
+
+	public void fillRoundRectangle(Rectangle r, int arcWidth, int arcHeight) {
+		drawRect(r.x, r.y, r.width, r.height, arcWidth, arcHeight, false);
+	}
+
+	private void drawRect(int x, int y, int width, int height, int arcWidth, int arcHeight, boolean stroke){
+		if(width < 0){
+			x += width;
+			width = -width;
+		}
+		if(height < 0){
+			y += height;
+			height = -height;
+		}
+		double o = stroke ? getStrokeOffset() : 0;
+		if(!begin("rect", getBounds(x, y, width, height, stroke))){
+			return;
+		}
+		write(" x=\"" + x(x + o) + "\" y=\"" + y(y + o) + "\" width=\"" + length(width) + "\" height=\"" + length(height) + "\"");
+		if(arcWidth > 0 && arcHeight > 0){
+			write(" rx=\"" + length(arcWidth / 2.0) + "\" ry=\"" + length(arcHeight / 2.0) + "\"");
+		}
+		end(stroke);
+	}
+
+	public void drawOval(int x, int y, int width, int height) {
+		drawEllipse(x, y, width, height, true);
+	}
+
+	public void fillOval(int x, int y, int width, int height) {
+		drawEllipse(x, y, width, height, false);
+	}
+
+	private void drawEllipse(int x, int y, int width, int height, boolean stroke){
+		double o = stroke ? getStrokeOffset() : 0;
+		if(!begin("ellipse", getBounds(x, y, width, height, stroke))){
+			return;
+		}
+		write(" cx=\"" + x(x + o + width / 2.0) + "\" cy=\"" + y(y + o + height / 2.0) + "\"");
+		write(" rx=\"" + length(width / 2.0) + "\" ry=\"" + length(height / 2.0) + "\"");
+		end(stroke);
+	}
+
+	public void drawArc(int x, int y, int width, int height, int offset, int length) {
+		drawArc(x, y, width, height, offset, length, true);
+	}
+
+	public void fillArc(int x, int y, int width, int height, int offset, int length) {
+		drawArc(x, y, width, height, offset, length, false);
+	}
+
+	/**
+	 * Angles are measured counter-clockwise from the 3 o'clock position in degrees as same as SWT.
+	 */
+	private void drawArc(int x, int y, int width, int height, int offset, int length, boolean stroke){
+		if(length == 0){
+			return;
+		}
+		if(Math.abs(length) >= 360){
+			drawEllipse(x, y, width, height, stroke);
+			return;
+		}
+		double o = stroke ? getStrokeOffset() : 0;
+		double rx = width / 2.0;
+		double ry = height / 2.0;
+		double cx = x + o + rx;
+		double cy = y + o + ry;
+		double start = Math.toRadians(offset);
+		double stop = Math.toRadians(offset + length);
+		double x1 = cx + rx * Math.cos(start);
+		double y1 = cy - ry * Math.sin(start);
+		double x2 = cx + rx * Math.cos(stop);
+		double y2 = cy - ry * Math.sin(stop);
+
+		if(!begin("path", getBounds(x, y, width, height, stroke))){
+			return;
+		}
+		StringBuffer sb = new StringBuffer();
+		sb.append(" d=\"");
+		if(!stroke){
+			sb.append("M").append(x(cx)).append(",").append(y(cy)).append(" L");
+		} else {
+			sb.append("M");
+		}
+		sb.append(x(x1)).append(",").append(y(y1));
+		sb.append(" A").append(length(rx)).append(",").append(length(ry)).append(" 0 ");
+		sb.append(Math.abs(length) > 180 ? "1" : "0").append(",").append(length > 0 ? "0" : "1").append(" ");
+		sb.append(x(x2)).append(",").append(y(y2));
+		if(!stroke){
+			sb.append(" Z");
+		}
+		sb.append("\"");
+		write(sb.toString());
+		end(stroke);
+	}
+
+	public void drawPolygon(PointList points) {
+		drawPoints("polygon", points, true);
+	}
+
+	public void fillPolygon(PointList points) {
+		drawPoints("polygon", points, false);
+	}
+
+	public void drawPolyline(PointList points) {
+		drawPoints("polyline", points, true);
+	}
+
+	private void drawPoints(String element, PointList points, boolean stroke){
+		if(points.size() == 0){
+			return;
+		}
+		Rectangle bounds = points.getBounds();
+		if(!begin(element, getBounds(bounds.x, bounds.y, bounds.width, bounds.height, stroke))){
+			return;
+		}
+		double o = stroke ? getStrokeOffset() : 0;
+		StringBuffer sb = new StringBuffer();
+		sb.append(" points=\"");
+		int[] array = points.toIntArray();
+		for(int i = 0; i < array.length; i += 2){
+			if(i != 0){
+				sb.append(" ");
+			}
+			sb.append(x(array[i] + o)).append(",").append(y(array[i + 1] + o));
+		}
+		sb.append("\"");
+		write(sb.toString());
+		end(stroke);
+	}
+
+	public void fillGradient(int x, int y, int width, int height, boolean vertical) {
+		Rectangle bounds = new Rectangle(x, y, width, height);
+		if(!isVisible(bounds)){
+			return;
+		}
+		String key = toColor(state.foreground) + toColor(state.background) + vertical;
+		String id = gradientIds.get(key);
+		if(id == null){
+			id = "g" + (nextId++);
+			gradientIds.put(key, id);
+			write("<defs><linearGradient id=\"" + id + "\" x1=\"0\" y1=\"0\"");
+			write(vertical ? " x2=\"0\" y2=\"1\">" : " x2=\"1\" y2=\"0\">");
+			write("<stop offset=\"0\" stop-color=\"" + toColor(state.foreground) + "\"/>");
+			write("<stop offset=\"1\" stop-color=\"" + toColor(state.background) + "\"/>");
+			write("</linearGradient></defs>\n");
+		}
+		begin("rect", bounds);
+		write(" x=\"" + x(x) + "\" y=\"" + y(y) + "\" width=\"" + length(width) + "\" height=\"" + length(height) + "\"");
+		write(" fill=\"url(#" + id + ")\"");
+		writeCommonAttributes();
+		write("/>\n");
+	}
+
+	public void drawFocus(int x, int y, int width, int height) {
+		// focus rectangles are not exported
+	}
+
+	public void drawString(String s, int x, int y) {
+		drawText(s, x, y, false, false);
+	}
+
+	public void fillString(String s, int x, int y) {
+		drawText(s, x, y, false, true);
+	}
+
+	public void drawText(String s, int x, int y) {
+		drawText(s, x, y, true, false);
+	}
+
+	public void fillText(String s, int x, int y) {
+		drawText(s, x, y, true, true);
+	}
+
+	/**
+	 * @param text true to expand tabs and line delimiters as {@link Graphics#drawText(String, int, int)}
+	 * @param fill true to fill the background of the text
+	 */
+	private void drawText(String s, int x, int y, boolean text, boolean fill){
+		if(s == null || s.length() == 0 || state.font == null){
+			return;
+		}
+		String[] lines = text ? s.split("\r\n|\r|\n", -1) : new String[]{s};
+		FontMetrics metrics = getFontMetrics();
+		int lineHeight = metrics.getHeight();
+		for(int i = 0; i < lines.length; i++){
+			String line = text ? lines[i].replace("\t", "        ") : lines[i];
+			int top = y + lineHeight * i;
+			if(line.length() == 0){
+				continue;
+			}
+			Dimension size = FigureUtilities.getStringExtents(line, state.font);
+			if(fill){
+				drawRect(x, top, size.width, size.height, 0, 0, false);
+			}
+			if(!begin("text", new Rectangle(x, top, size.width, size.height))){
+				continue;
+			}
+			write(" x=\"" + x(x) + "\" y=\"" + y(top + metrics.getAscent() + metrics.getLeading()) + "\"");
+			write(" fill=\"" + toColor(state.foreground) + "\"");
+			writeFontAttributes();
+			writeCommonAttributes();
+			write(">" + escape(line) + "</text>\n");
+		}
+	}
+
+	public void drawImage(Image image, int x, int y) {
+		org.eclipse.swt.graphics.Rectangle size = image.getBounds();
+		drawImage(image, 0, 0, size.width, size.height, x, y, size.width, size.height);
+	}
+
+	public void drawImage(Image image, int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+		if(!isVisible(new Rectangle(x2, y2, w2, h2))){
+			return;
+		}
+		String id = getImageId(image);
+		begin("svg", new Rectangle(x2, y2, w2, h2));
+		write(" x=\"" + x(x2) + "\" y=\"" + y(y2) + "\" width=\"" + length(w2) + "\" height=\"" + length(h2) + "\"");
+		write(" viewBox=\"" + x1 + " " + y1 + " " + w1 + " " + h1 + "\" preserveAspectRatio=\"none\"");
+		writeCommonAttributes();
+		write("><use xlink:href=\"#" + id + "\"/></svg>\n");
+	}
+
+	/**
+	 * Writes the image as an embedded PNG image at the first time, and returns its ID.
+	 */
+	private String getImageId(Image image){
+		String id = imageIds.get(image);
+		if(id == null){
+			id = "i" + (nextId++);
+			imageIds.put(image, id);
+
+			ImageData data = image.getImageData();
+			ImageLoader loader = new ImageLoader();
+			loader.data = new ImageData[]{data};
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+			loader.save(png, SWT.IMAGE_PNG);
+
+			write("<defs><image id=\"" + id + "\" width=\"" + data.width + "\" height=\"" + data.height + "\"");
+			write(" xlink:href=\"data:image/png;base64,");
+			write(encodeBase64(png.toByteArray()));
+			write("\"/></defs>\n");
+		}
+		return id;
+	}
+
+	//-------------------------------------------------------------------------
+	// Utilities
+
+	/**
+	 * Writes the start of the element if the given area is visible.
+	 * The clipping path is written before the element if the element is not contained in the clipping area.
+	 *
+	 * @param bounds bounds of the element
+	 * @return false if the element is outside of the clipping area and should be skipped
+	 */
+	private boolean begin(String element, Rectangle bounds){
+		Rectangle document = toDocument(bounds);
+		if(!state.clip.intersects(document)){
+			return false;
+		}
+		clipId = state.clip.contains(document) ? null : getClipId();
+		write("<" + element);
+		return true;
+	}
+
+	/**
+	 * Writes the current clipping area as a clipping path at the first time, and returns its ID.
+	 */
+	private String getClipId(){
+		String id = clipIds.get(state.clip);
+		if(id == null){
+			id = "c" + (nextId++);
+			Rectangle clip = state.clip.getCopy();
+			clipIds.put(clip, id);
+			write("<clipPath id=\"" + id + "\"><rect x=\"" + clip.x + "\" y=\"" + clip.y + "\"");
+			write(" width=\"" + clip.width + "\" height=\"" + clip.height + "\"/></clipPath>\n");
+		}
+		return id;
+	}
+
+	/**
+	 * Writes paints, the clipping area and the end of the element.
+	 *
+	 * @param stroke true to draw outline, false to fill inside
+	 */
+	private void end(boolean stroke){
+		if(stroke){
+			write(" fill=\"none\" stroke=\"" + toColor(state.foreground) + "\"");
+			if(state.lineWidth > 1){
+				write(" stroke-width=\"" + length(state.lineWidth) + "\"");
+			}
+			int[] dash = getDash();
+			if(dash != null){
+				StringBuffer sb = new StringBuffer();
+				int width = Math.max(1, state.lineWidth);
+				for(int i = 0; i < dash.length; i++){
+					if(i != 0){
+						sb.append(",");
+					}
+					sb.append(length(dash[i] * width));
+				}
+				write(" stroke-dasharray=\"" + sb + "\"");
+			}
+		} else {
+			write(" fill=\"" + toColor(state.background) + "\"");
+		}
+		writeCommonAttributes();
+		write("/>\n");
+	}
+
+	/**
+	 * Writes the opacity and the clipping path which has been decided by {@link #begin(String, Rectangle)}.
+	 */
+	private void writeCommonAttributes(){
+		if(state.alpha < 255){
+			write(" opacity=\"" + format(state.alpha / 255.0) + "\"");
+		}
+		if(clipId != null){
+			write(" clip-path=\"url(#" + clipId + ")\"");
+		}
+	}
+
+	private void writeFontAttributes(){
+		FontData data = state.font.getFontData()[0];
+		double size = data.getHeight() * state.font.getDevice().getDPI().y / 72.0;
+		write(" font-family=\"" + escape(data.getName()) + "\" font-size=\"" + length(size) + "\"");
+		if((data.getStyle() & SWT.BOLD) != 0){
+			write(" font-weight=\"bold\"");
+		}
+		if((data.getStyle() & SWT.ITALIC) != 0){
+			write(" font-style=\"italic\"");
+		}
+	}
+
+	private int[] getDash(){
+		switch(state.lineStyle){
+			case SWT.LINE_DASH: return DASH;
+			case SWT.LINE_DOT: return DOT;
+			case SWT.LINE_DASHDOT: return DASHDOT;
+			case SWT.LINE_DASHDOTDOT: return DASHDOTDOT;
+			case SWT.LINE_CUSTOM: return state.lineDash;
+			default: return null;
+		}
+	}
+
+	/**
+	 * Returns the area which is painted by the operation.
+	 *
+	 * @param stroke true if the outline is drawn. The area is expanded by the line width.
+	 */
+	private Rectangle getBounds(int x, int y, int width, int height, boolean stroke){
+		if(!stroke){
+			return new Rectangle(x, y, width, height);
+		}
+		int lineWidth = Math.max(1, state.lineWidth);
+		return new Rectangle(x - lineWidth / 2, y - lineWidth / 2, width + lineWidth, height + lineWidth);
+	}
+
+	/**
+	 * SWT draws lines of odd width on the center of pixels.
+	 */
+	private double getStrokeOffset(){
+		return state.lineWidth % 2 == 0 ? 0 : 0.5;
+	}
+
+	private boolean isVisible(Rectangle bounds){
+		return state.clip.intersects(toDocument(bounds));
+	}
+
+	private Rectangle toDocument(Rectangle r){
+		int x = (int) Math.floor(state.offsetX + r.x * state.scale);
+		int y = (int) Math.floor(state.offsetY + r.y * state.scale);
+		int right = (int) Math.ceil(state.offsetX + r.right() * state.scale);
+		int bottom = (int) Math.ceil(state.offsetY + r.bottom() * state.scale);
+		return new Rectangle(x, y, right - x, bottom - y);
+	}
+
+	private String x(double x){
+		return format(state.offsetX + x * state.scale);
+	}
+
+	private String y(double y){
+		return format(state.offsetY + y * state.scale);
+	}
+
+	private String length(double length){
+		return format(length * state.scale);
+	}
+
+	/**
+	 * Formats the number with at most two fraction digits.
+	 */
+	private static String format(double value){
+		long rounded = Math.round(value * 100);
+		if(rounded % 100 == 0){
+			return String.valueOf(rounded / 100);
+		}
+		StringBuffer sb = new StringBuffer();
+		if(rounded < 0){
+			sb.append("-");
+			rounded = -rounded;
+		}
+		sb.append(rounded / 100).append(".");
+		long fraction = rounded % 100;
+		if(fraction % 10 == 0){
+			sb.append(fraction / 10);
+		} else {
+			if(fraction < 10){
+				sb.append("0");
+			}
+			sb.append(fraction);
+		}
+		return sb.toString();
+	}
+
+	private static String toColor(Color color){
+		if(color == null){
+			return "none";
+		}
+		return "#" + toHex(color.getRed()) + toHex(color.getGreen()) + toHex(color.getBlue());
+	}
+
+	private static String toHex(int value){
+		String hex = Integer.toHexString(value);
+		return hex.length() == 1 ? "0" + hex : hex;
+	}
+
+	private static String escape(String value){
+		StringBuffer sb = new StringBuffer();
+		for(int i = 0; i < value.length(); i++){
+			char c = value.charAt(i);
+			switch(c){
+				case '&': sb.append("&amp;"); break;
+				case '<': sb.append("&lt;"); break;
+				case '>': sb.append("&gt;"); break;
+				case '"': sb.append("&quot;"); break;
+				default:
+					if(c >= 0x20 || c == '\t'){
+						sb.append(c);
+					}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static final char[] BASE64 =
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private static String encodeBase64(byte[] data){
+		StringBuffer sb = new StringBuffer((data.length + 2) / 3 * 4);
+		for(int i = 0; i < data.length; i += 3){
+			int b0 = data[i] & 0xFF;
+			int b1 = i + 1 < data.length ? data[i + 1] & 0xFF : 0;
+			int b2 = i + 2 < data.length ? data[i + 2] & 0xFF : 0;
+			sb.append(BASE64[b0 >> 2]);
+			sb.append(BASE64[((b0 & 0x03) << 4) | (b1 >> 4)]);
+			sb.append(i + 1 < data.length ? BASE64[((b1 & 0x0F) << 2) | (b2 >> 6)] : '=');
+			sb.append(i + 2 < data.length ? BASE64[b2 & 0x3F] : '=');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the string. Errors are kept and thrown by {@link #close()}
+	 * because methods of {@link Graphics} can't throw {@link IOException}.
+	 */
+	private void write(String value){
+		if(error != null){
+			return;
+		}
+		try {
+			out.write(value);
+		} catch(IOException ex){
+			error = ex;
+		}
+	}
+
+}